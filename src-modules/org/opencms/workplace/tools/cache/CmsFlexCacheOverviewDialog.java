@@ -59,6 +59,9 @@ public class CmsFlexCacheOverviewDialog extends CmsWidgetDialog {
     /** Flex Caches average size. */
     private String m_avgSize;
 
+    /** Flex Caches requests served with an entry regenerated by a concurrent request. */
+    private String m_coalescedHits;
+
     /** Flex Caches current size. */
     private String m_curSize;
 
@@ -68,6 +71,9 @@ public class CmsFlexCacheOverviewDialog extends CmsWidgetDialog {
     /** Flex Caches maximal size. */
     private String m_maxSize;
 
+    /** Flex Caches requests served with an expired entry. */
+    private String m_staleHits;
+
     /** Flex Caches variations. */
     private String m_variations;
 
@@ -113,6 +119,16 @@ public class CmsFlexCacheOverviewDialog extends CmsWidgetDialog {
         return m_avgSize;
     }
 
+    /**
+     * Returns the number of requests served with an entry regenerated by a concurrent request.<p>
+     *
+     * @return the number of requests served with an entry regenerated by a concurrent request
+     */
+    public String getCoalescedHits() {
+
+        return m_coalescedHits;
+    }
+
     /**
      * Returns the current size.<p>
      *
@@ -143,6 +159,16 @@ public class CmsFlexCacheOverviewDialog extends CmsWidgetDialog {
         return m_maxSize;
     }
 
+    /**
+     * Returns the number of requests served with an expired entry.<p>
+     *
+     * @return the number of requests served with an expired entry
+     */
+    public String getStaleHits() {
+
+        return m_staleHits;
+    }
+
     /**
      * Returns the number of variations.<p>
      *
@@ -163,6 +189,16 @@ public class CmsFlexCacheOverviewDialog extends CmsWidgetDialog {
         m_avgSize = avgSize;
     }
 
+    /**
+     * Sets the number of requests served with an entry regenerated by a concurrent request.<p>
+     *
+     * @param coalescedHits the number of requests served with an entry regenerated by a concurrent request
+     */
+    public void setCoalescedHits(String coalescedHits) {
+
+        m_coalescedHits = coalescedHits;
+    }
+
     /**
      * Sets the current size.<p>
      *
@@ -193,6 +229,16 @@ public class CmsFlexCacheOverviewDialog extends CmsWidgetDialog {
         m_maxSize = maxSize;
     }
 
+    /**
+     * Sets the number of requests served with an expired entry.<p>
+     *
+     * @param staleHits the number of requests served with an expired entry
+     */
+    public void setStaleHits(String staleHits) {
+
+        m_staleHits = staleHits;
+    }
+
     /**
      * Sets the number of variations.<p>
      *
@@ -225,12 +271,12 @@ public class CmsFlexCacheOverviewDialog extends CmsWidgetDialog {
             // create the widgets for the first dialog page
             result.append(dialogBlockStart(key(Messages.GUI_FLEXCACHE_LABEL_STATS_BLOCK_0)));
             result.append(createWidgetTableStart());
-            result.append(createDialogRowsHtml(0, 1));
+            result.append(createDialogRowsHtml(0, 3));
             result.append(createWidgetTableEnd());
             result.append(dialogBlockEnd());
             result.append(dialogBlockStart(key(Messages.GUI_FLEXCACHE_LABEL_MEMORY_BLOCK_0)));
             result.append(createWidgetTableStart());
-            result.append(createDialogRowsHtml(2, 4));
+            result.append(createDialogRowsHtml(4, 6));
             result.append(createWidgetTableEnd());
             result.append(dialogBlockEnd());
         }
@@ -262,6 +308,8 @@ public class CmsFlexCacheOverviewDialog extends CmsWidgetDialog {
         // widgets to display
         addWidget(new CmsWidgetDialogParameter(this, "keys", PAGES[0], new CmsDisplayWidget()));
         addWidget(new CmsWidgetDialogParameter(this, "variations", PAGES[0], new CmsDisplayWidget()));
+        addWidget(new CmsWidgetDialogParameter(this, "coalescedHits", PAGES[0], new CmsDisplayWidget()));
+        addWidget(new CmsWidgetDialogParameter(this, "staleHits", PAGES[0], new CmsDisplayWidget()));
         addWidget(new CmsWidgetDialogParameter(this, "maxSize", PAGES[0], new CmsDisplayWidget()));
         addWidget(new CmsWidgetDialogParameter(this, "avgSize", PAGES[0], new CmsDisplayWidget()));
         addWidget(new CmsWidgetDialogParameter(this, "curSize", PAGES[0], new CmsDisplayWidget()));
@@ -286,6 +334,8 @@ public class CmsFlexCacheOverviewDialog extends CmsWidgetDialog {
 
         setVariations("" + cache.size());
         setKeys("" + cache.keySize());
+        setCoalescedHits("" + cache.getCoalescedHits());
+        setStaleHits("" + cache.getStaleHits());
         CmsLruCache entryLruCache = cache.getEntryLruCache();
 
         if (entryLruCache != null) {
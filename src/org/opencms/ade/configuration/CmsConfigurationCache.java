@@ -58,6 +58,9 @@ import org.apache.commons.logging.Log;
  * and a single instance which represents the merged configuration from all the modules. When a sitemap configuration
  * file is updated, only the single instance for that configuration file is updated, whereas if a module configuration file
  * is changed, the configuration of all modules will be read again.<p>
+ * 
+ * The read methods do not lock the cache. They use an immutable {@link CmsConfigurationSnapshot}, 
+ * which is replaced by a new snapshot whenever the cached configuration changes.<p>
  */
 class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
 
@@ -79,6 +82,9 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
     /** The configuration files which have been changed but not read yet. */
     private Map<String, CmsUUID> m_configurationsToRead = new HashMap<String, CmsUUID>();
 
+    /** Flag which indicates that there are configuration files which have been changed but not read yet. */
+    private volatile boolean m_configurationsToReadPending;
+
     /** The cached content types for folders. */
     private Map<String, String> m_folderTypes = new HashMap<String, String>();
 
@@ -91,6 +97,12 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
     /** The configurations from the sitemap / VFS. */
     private Map<String, CmsADEConfigData> m_siteConfigurations = new HashMap<String, CmsADEConfigData>();
 
+    /** The current snapshot of the cached configuration data. */
+    private volatile CmsConfigurationSnapshot m_snapshot = new CmsConfigurationSnapshot(
+        new HashMap<String, CmsADEConfigData>(),
+        new HashMap<String, String>(),
+        null);
+
     /** 
      * Creates a new cache instance.<p>
      * 
@@ -216,11 +228,10 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
      * 
      * @return the list of detail page info beans 
      */
-    protected synchronized List<CmsDetailPageInfo> getAllDetailPages() {
+    protected List<CmsDetailPageInfo> getAllDetailPages() {
 
-        readRemainingConfigurations();
         List<CmsDetailPageInfo> result = new ArrayList<CmsDetailPageInfo>();
-        for (CmsADEConfigData configData : m_siteConfigurations.values()) {
+        for (CmsADEConfigData configData : getSnapshot().getSiteConfigurations()) {
             result.addAll(configData.getAllDetailPages(true));
         }
         return result;
@@ -248,11 +259,10 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
      * 
      * @return the detail pages for that type 
      */
-    protected synchronized List<String> getDetailPages(String type) {
+    protected List<String> getDetailPages(String type) {
 
-        readRemainingConfigurations();
         List<String> result = new ArrayList<String>();
-        for (CmsADEConfigData configData : m_siteConfigurations.values()) {
+        for (CmsADEConfigData configData : getSnapshot().getSiteConfigurations()) {
             for (CmsDetailPageInfo pageInfo : configData.getDetailPagesForType(type)) {
                 result.add(pageInfo.getUri());
             }
@@ -264,9 +274,9 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
      * Gets the merged module configuration.<p>
      * @return the merged module configuration instance
      */
-    protected synchronized CmsADEConfigData getModuleConfiguration() {
+    protected CmsADEConfigData getModuleConfiguration() {
 
-        return m_moduleConfiguration;
+        return m_snapshot.getModuleConfiguration();
     }
 
     /**
@@ -275,18 +285,14 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
      * @param rootPath the path of a resource 
      * @return the parent folder content type 
      */
-    protected synchronized String getParentFolderType(String rootPath) {
+    protected String getParentFolderType(String rootPath) {
 
-        readRemainingConfigurations();
+        CmsConfigurationSnapshot snapshot = getSnapshot();
         String parent = CmsResource.getParentFolder(rootPath);
         if (parent == null) {
             return null;
         }
-        String type = m_folderTypes.get(parent);
-        if (type == null) {
-            return null;
-        }
-        return type;
+        return snapshot.getFolderType(parent);
     }
 
     /**
@@ -301,26 +307,12 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
      * @param path a root path  
      * @return the configuration data for the given path, or null if none was found 
      */
-    protected synchronized CmsADEConfigData getSiteConfigData(String path) {
+    protected CmsADEConfigData getSiteConfigData(String path) {
 
         if (path == null) {
             return null;
         }
-        readRemainingConfigurations();
-        String normalizedPath = CmsStringUtil.joinPaths("/", path, "/");
-        List<String> prefixes = new ArrayList<String>();
-        for (String key : m_siteConfigurations.keySet()) {
-            if (normalizedPath.startsWith(CmsStringUtil.joinPaths("/", key, "/"))) {
-                prefixes.add(key);
-            }
-        }
-        if (prefixes.size() == 0) {
-            return null;
-        }
-        Collections.sort(prefixes);
-        // for any two prefixes of a string, one is a prefix of the other. so the alphabetically last
-        // prefix is the longest prefix of all.
-        return m_siteConfigurations.get(prefixes.get(prefixes.size() - 1));
+        return getSnapshot().getSiteConfigData(path);
     }
 
     /**
@@ -341,6 +333,7 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
             Map<String, String> folderTypes = m_moduleConfiguration.getFolderTypes();
             m_folderTypes.putAll(folderTypes);
         }
+        updateSnapshot();
     }
 
     /**
@@ -351,9 +344,9 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
      * 
      * @return true if the resource is configured as a detail page 
      */
-    protected synchronized boolean isDetailPage(CmsObject cms, CmsResource resource) {
+    protected boolean isDetailPage(CmsObject cms, CmsResource resource) {
 
-        readRemainingConfigurations();
+        CmsConfigurationSnapshot snapshot = getSnapshot();
         CmsResource folder;
         if (resource.isFile()) {
             if (!CmsResourceTypeXmlContainerPage.isContainerPage(resource)) {
@@ -370,7 +363,7 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
         }
         List<CmsDetailPageInfo> allDetailPages = new ArrayList<CmsDetailPageInfo>();
         // First collect all detail page infos 
-        for (CmsADEConfigData configData : m_siteConfigurations.values()) {
+        for (CmsADEConfigData configData : snapshot.getSiteConfigurations()) {
             List<CmsDetailPageInfo> detailPageInfos = configData.getAllDetailPages();
             allDetailPages.addAll(detailPageInfos);
         }
@@ -445,8 +438,10 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
 
         LOG.info("Refreshing module configuration.");
         CmsConfigurationReader reader = new CmsConfigurationReader(m_cms);
-        m_moduleConfiguration = reader.readModuleConfigurations();
-        m_moduleConfiguration.initialize(m_cms);
+        CmsADEConfigData moduleConfiguration = reader.readModuleConfigurations();
+        moduleConfiguration.initialize(m_cms);
+        m_moduleConfiguration = moduleConfiguration;
+        updateSnapshot();
     }
 
     /**
@@ -477,6 +472,7 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
             LOG.info("Removing module configuration " + rootPath);
             synchronized (this) {
                 m_configurationsToRead.put(MODULE_CONFIG_KEY, CmsUUID.getNullUUID());
+                m_configurationsToReadPending = true;
             }
         }
 
@@ -512,11 +508,13 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
                 // is queried.
                 LOG.info("Changed configuration file " + rootPath + "(" + structureId + "), will be read later");
                 m_configurationsToRead.put(rootPath, structureId);
+                m_configurationsToReadPending = true;
             }
         } else if (isModuleConfiguration(rootPath, type)) {
             LOG.info("Changed module configuration file " + rootPath + "(" + structureId + ")");
             synchronized (this) {
                 m_configurationsToRead.put(MODULE_CONFIG_KEY, CmsUUID.getNullUUID());
+                m_configurationsToReadPending = true;
             }
         }
     }
@@ -537,6 +535,20 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
         }
     }
 
+    /**
+     * Returns the current snapshot of the cached configuration data, after reading the configuration files 
+     * which have changed but not been read yet.<p>
+     * 
+     * @return the current snapshot of the cached configuration data 
+     */
+    private CmsConfigurationSnapshot getSnapshot() {
+
+        if (m_configurationsToReadPending) {
+            readRemainingConfigurations();
+        }
+        return m_snapshot;
+    }
+
     /**
      * Reads the configuration files which have changed but not been read yet.<p>
      */
@@ -544,6 +556,7 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
 
         if (m_configurationsToRead.isEmpty()) {
             // do not initialize folder types if there were no changes!
+            m_configurationsToReadPending = false;
             return;
         }
         for (Map.Entry<String, CmsUUID> entry : m_configurationsToRead.entrySet()) {
@@ -555,11 +568,11 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
                 try {
                     // remove the original entry first, so that the configuration will be gone if reading the 
                     // configuration file fails.
-                    m_siteConfigurations.remove(rootPath);
+                    String basePath = getBasePath(rootPath);
+                    m_siteConfigurations.remove(basePath);
                     CmsResource configRes = m_cms.readResource(structureId);
                     CmsConfigurationReader reader = new CmsConfigurationReader(m_cms);
                     LOG.info("Reading configuration file " + rootPath + "(" + structureId + ")");
-                    String basePath = getBasePath(rootPath);
                     CmsADEConfigData configData = reader.parseSitemapConfiguration(basePath, configRes);
                     configData.initialize(m_cms);
                     m_siteConfigurations.put(basePath, configData);
@@ -571,6 +584,8 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
             }
         }
         m_configurationsToRead.clear();
+        m_configurationsToReadPending = false;
+        updateSnapshot();
         // Methods which recursively call this method must be called after this point,
         // because it will lead to an infinite recursion otherwise.
 
@@ -592,6 +607,17 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
 
         m_configurationsToRead.remove(rootPath);
         m_siteConfigurations.remove(rootPath);
+        updateSnapshot();
+    }
+
+    /**
+     * Replaces the current snapshot with a new snapshot of the cached configuration data.<p>
+     * 
+     * Must be called with the monitor of this cache held, after changing the cached configuration data.<p>
+     */
+    private void updateSnapshot() {
+
+        m_snapshot = new CmsConfigurationSnapshot(m_siteConfigurations, m_folderTypes, m_moduleConfiguration);
     }
 
 }
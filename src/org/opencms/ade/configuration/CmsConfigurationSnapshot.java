@@ -0,0 +1,198 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.ade.configuration;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of the configuration data stored in the configuration cache.<p>
+ * 
+ * The sitemap configurations are indexed in a trie of path segments, so the best matching 
+ * configuration for a root path is found in time proportional to the depth of the path.
+ * Since a snapshot never changes, it can be read without any locking. The configuration cache
+ * replaces its snapshot with a new one whenever the configuration changes.<p>
+ * 
+ * @since 8.5.0
+ */
+class CmsConfigurationSnapshot {
+
+    /**
+     * A node in the trie of path segments.<p>
+     */
+    private static class Node {
+
+        /** The child nodes, by path segment. */
+        Map<String, Node> m_children = new HashMap<String, Node>();
+
+        /** The sitemap configuration with the path of this node as base path, or <code>null</code>. */
+        CmsADEConfigData m_config;
+    }
+
+    /** The cached content types for folders. */
+    private Map<String, String> m_folderTypes;
+
+    /** The merged configuration from all the modules. */
+    private CmsADEConfigData m_moduleConfiguration;
+
+    /** The root of the trie of sitemap configurations. */
+    private Node m_root;
+
+    /** The sitemap configurations, by base path. */
+    private Map<String, CmsADEConfigData> m_siteConfigurations;
+
+    /**
+     * Creates a new snapshot.<p>
+     * 
+     * The given maps are copied, so later changes of them do not affect the snapshot.<p>
+     * 
+     * @param siteConfigurations the sitemap configurations, by base path 
+     * @param folderTypes the content types for folders
+     * @param moduleConfiguration the merged configuration from all the modules
+     */
+    CmsConfigurationSnapshot(
+        Map<String, CmsADEConfigData> siteConfigurations,
+        Map<String, String> folderTypes,
+        CmsADEConfigData moduleConfiguration) {
+
+        m_siteConfigurations = Collections.unmodifiableMap(new HashMap<String, CmsADEConfigData>(
+            siteConfigurations));
+        m_folderTypes = Collections.unmodifiableMap(new HashMap<String, String>(folderTypes));
+        m_moduleConfiguration = moduleConfiguration;
+        m_root = new Node();
+        for (Map.Entry<String, CmsADEConfigData> entry : m_siteConfigurations.entrySet()) {
+            Node node = m_root;
+            String path = entry.getKey();
+            int pos = 0;
+            while (pos < path.length()) {
+                int end = getSegmentEnd(path, pos);
+                if (end > pos) {
+                    String segment = path.substring(pos, end);
+                    Node child = node.m_children.get(segment);
+                    if (child == null) {
+                        child = new Node();
+                        node.m_children.put(segment, child);
+                    }
+                    node = child;
+                }
+                pos = end + 1;
+            }
+            node.m_config = entry.getValue();
+        }
+    }
+
+    /**
+     * Returns the content type for the given folder.<p>
+     * 
+     * @param folder the root path of the folder, with a trailing slash
+     *  
+     * @return the content type for the given folder, or <code>null</code> if there is none 
+     */
+    public String getFolderType(String folder) {
+
+        return m_folderTypes.get(folder);
+    }
+
+    /**
+     * Returns the cached content types for folders.<p>
+     * 
+     * @return the cached content types for folders
+     */
+    public Map<String, String> getFolderTypes() {
+
+        return m_folderTypes;
+    }
+
+    /**
+     * Returns the merged configuration from all the modules.<p>
+     * 
+     * @return the merged configuration from all the modules
+     */
+    public CmsADEConfigData getModuleConfiguration() {
+
+        return m_moduleConfiguration;
+    }
+
+    /**
+     * Returns the best matching sitemap configuration for the given root path.<p>
+     * 
+     * This is the configuration with the longest base path which is a prefix of the given path,
+     * compared by whole path segments.<p>
+     * 
+     * @param path a root path 
+     * 
+     * @return the best matching sitemap configuration, or <code>null</code> if there is none 
+     */
+    public CmsADEConfigData getSiteConfigData(String path) {
+
+        Node node = m_root;
+        CmsADEConfigData result = node.m_config;
+        int pos = 0;
+        while (pos < path.length()) {
+            int end = getSegmentEnd(path, pos);
+            if (end > pos) {
+                node = node.m_children.get(path.substring(pos, end));
+                if (node == null) {
+                    break;
+                }
+                if (node.m_config != null) {
+                    result = node.m_config;
+                }
+            }
+            pos = end + 1;
+        }
+        return result;
+    }
+
+    /**
+     * Returns all sitemap configurations.<p>
+     * 
+     * @return all sitemap configurations
+     */
+    public Collection<CmsADEConfigData> getSiteConfigurations() {
+
+        return m_siteConfigurations.values();
+    }
+
+    /**
+     * Returns the end position of the path segment starting at the given position.<p>
+     * 
+     * @param path the path 
+     * @param start the start position of the segment
+     * 
+     * @return the end position of the segment 
+     */
+    private static int getSegmentEnd(String path, int start) {
+
+        int end = path.indexOf('/', start);
+        return (end < 0) ? path.length() : end;
+    }
+}
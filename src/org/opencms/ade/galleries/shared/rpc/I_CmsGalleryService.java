@@ -35,6 +35,7 @@ import org.opencms.ade.galleries.shared.CmsResultItemBean;
 import org.opencms.ade.galleries.shared.CmsSitemapEntryBean;
 import org.opencms.ade.galleries.shared.CmsVfsEntryBean;
 import org.opencms.gwt.CmsRpcException;
+import org.opencms.gwt.shared.rpc.CmsConcurrentRpc;
 
 import java.util.List;
 
@@ -69,6 +70,7 @@ public interface I_CmsGalleryService extends RemoteService {
      * 
      * @throws CmsRpcException if something goes wrong
      */
+    @CmsConcurrentRpc
     List<CmsGalleryFolderBean> getGalleries(List<String> resourceTypes) throws CmsRpcException;
 
     /**
@@ -81,6 +83,7 @@ public interface I_CmsGalleryService extends RemoteService {
      * 
      * @throws CmsRpcException if something goes wrong
      */
+    @CmsConcurrentRpc
     CmsResultItemBean getInfoForResource(String path, String locale) throws CmsRpcException;
 
     /**
@@ -92,6 +95,7 @@ public interface I_CmsGalleryService extends RemoteService {
      * 
      * @throws CmsRpcException if something goes wrong
      */
+    @CmsConcurrentRpc
     CmsGalleryDataBean getInitialSettings(CmsGalleryConfiguration conf) throws CmsRpcException;
 
     /**
@@ -103,6 +107,7 @@ public interface I_CmsGalleryService extends RemoteService {
      * 
      * @throws CmsRpcException if something goes wrong
      */
+    @CmsConcurrentRpc
     CmsGallerySearchBean getSearch(CmsGalleryDataBean data) throws CmsRpcException;
 
     /**
@@ -124,6 +129,7 @@ public interface I_CmsGalleryService extends RemoteService {
      * 
      * @throws CmsRpcException if something goes wrong
      */
+    @CmsConcurrentRpc
     List<CmsSitemapEntryBean> getSubEntries(String rootPath, boolean isRoot) throws CmsRpcException;
 
     /**
@@ -135,6 +141,7 @@ public interface I_CmsGalleryService extends RemoteService {
      *  
      * @throws CmsRpcException if something goes wrong 
      */
+    @CmsConcurrentRpc
     List<CmsVfsEntryBean> getSubFolders(String path) throws CmsRpcException;
 
     /**
@@ -146,6 +153,7 @@ public interface I_CmsGalleryService extends RemoteService {
      * 
      *  @throws CmsRpcException if something goes wrong 
      * */
+    @CmsConcurrentRpc
     CmsVfsEntryBean loadVfsEntryBean(String path) throws CmsRpcException;
 
     /**
@@ -30,6 +30,7 @@ package org.opencms.ade.galleries.shared.rpc;
 import org.opencms.ade.galleries.shared.CmsImageInfoBean;
 import org.opencms.ade.galleries.shared.CmsResourceInfoBean;
 import org.opencms.gwt.CmsRpcException;
+import org.opencms.gwt.shared.rpc.CmsConcurrentRpc;
 
 import java.util.Map;
 
@@ -56,6 +57,7 @@ public interface I_CmsPreviewService extends RemoteService {
      * 
      * @throws CmsRpcException  if something goes wrong
      */
+    @CmsConcurrentRpc
     CmsImageInfoBean getImageInfo(String resourcePath, String locale) throws CmsRpcException;
 
     /**
@@ -68,6 +70,7 @@ public interface I_CmsPreviewService extends RemoteService {
      *   
      * @throws CmsRpcException if something goes wrong
      */
+    @CmsConcurrentRpc
     CmsResourceInfoBean getResourceInfo(String resourcePath, String locale) throws CmsRpcException;
 
     /**
@@ -0,0 +1,388 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.cache;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A size bounded map with an approximate LRU eviction policy, which can be used concurrently 
+ * without any external synchronization.<p>
+ * 
+ * The entries are stored in a {@link ConcurrentHashMap}, so reading an entry never blocks.
+ * Instead of reordering a linked list on every access (which is what the commons-collections 
+ * <code>LRUMap</code> does, and which requires exclusive access even for reads), every entry just 
+ * records the time of its last access.<p>
+ * 
+ * Once the map grows beyond its maximum size, the thread that caused the overflow evicts the least 
+ * recently used entries in one batch, until the size has dropped a few percent below the limit. 
+ * Only one thread can perform an eviction run at a time; other writers will not wait for it but 
+ * simply continue.<p>
+ * 
+ * <code>null</code> values are not supported, putting a <code>null</code> value removes the key.<p>
+ * 
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ * 
+ * @since 8.5.0
+ */
+public class CmsConcurrentLruMap<K, V> extends AbstractMap<K, V> {
+
+    /**
+     * A cached value together with its last access time.<p>
+     * 
+     * @param <V> the type of the value 
+     */
+    private static final class CmsCacheEntry<V> {
+
+        /** The time of the last access, used to determine the LRU entries. */
+        volatile long m_lastAccess;
+
+        /** The cached value. */
+        final V m_value;
+
+        /**
+         * Creates a new cache entry.<p>
+         * 
+         * @param value the value to cache
+         */
+        CmsCacheEntry(V value) {
+
+            m_value = value;
+            m_lastAccess = System.nanoTime();
+        }
+    }
+
+    /**
+     * An immutable snapshot of a map entry.<p>
+     * 
+     * @param <K> the type of the key
+     * @param <V> the type of the value 
+     */
+    private static final class CmsMapEntry<K, V> implements Map.Entry<K, V> {
+
+        /** The key. */
+        private final K m_key;
+
+        /** The value. */
+        private final V m_value;
+
+        /**
+         * Creates a new map entry.<p>
+         * 
+         * @param key the key
+         * @param value the value
+         */
+        CmsMapEntry(K key, V value) {
+
+            m_key = key;
+            m_value = value;
+        }
+
+        /**
+         * @see java.lang.Object#equals(java.lang.Object)
+         */
+        @Override
+        public boolean equals(Object obj) {
+
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Map.Entry<?, ?>)) {
+                return false;
+            }
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>)obj;
+            return m_key.equals(other.getKey()) && m_value.equals(other.getValue());
+        }
+
+        /**
+         * @see java.util.Map.Entry#getKey()
+         */
+        public K getKey() {
+
+            return m_key;
+        }
+
+        /**
+         * @see java.util.Map.Entry#getValue()
+         */
+        public V getValue() {
+
+            return m_value;
+        }
+
+        /**
+         * @see java.lang.Object#hashCode()
+         */
+        @Override
+        public int hashCode() {
+
+            // the underlying concurrent map does not allow null keys or values
+            return m_key.hashCode() ^ m_value.hashCode();
+        }
+
+        /**
+         * Not supported, the entries are snapshots.<p>
+         * 
+         * @see java.util.Map.Entry#setValue(java.lang.Object)
+         */
+        public V setValue(V value) {
+
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * @see java.lang.Object#toString()
+         */
+        @Override
+        public String toString() {
+
+            return m_key + "=" + m_value;
+        }
+    }
+
+    /** The percentage of the maximum size that is evicted in one eviction run. */
+    private static final int EVICTION_PERCENT = 10;
+
+    /** Lock to make sure only one thread at a time is evicting entries. */
+    private final ReentrantLock m_evictionLock = new ReentrantLock();
+
+    /** The underlying concurrent map. */
+    private final ConcurrentHashMap<K, CmsCacheEntry<V>> m_map;
+
+    /** The maximum number of entries. */
+    private final int m_maxSize;
+
+    /**
+     * Creates a new concurrent LRU map.<p>
+     * 
+     * @param maxSize the maximum number of entries
+     */
+    public CmsConcurrentLruMap(int maxSize) {
+
+        if (maxSize < 1) {
+            throw new IllegalArgumentException();
+        }
+        m_maxSize = maxSize;
+        int concurrencyLevel = Math.max(16, 4 * Runtime.getRuntime().availableProcessors());
+        m_map = new ConcurrentHashMap<K, CmsCacheEntry<V>>(Math.min(maxSize, 1024), 0.75f, concurrencyLevel);
+    }
+
+    /**
+     * @see java.util.AbstractMap#clear()
+     */
+    @Override
+    public void clear() {
+
+        m_map.clear();
+    }
+
+    /**
+     * @see java.util.AbstractMap#containsKey(java.lang.Object)
+     */
+    @Override
+    public boolean containsKey(Object key) {
+
+        return m_map.containsKey(key);
+    }
+
+    /**
+     * Returns a snapshot of the entries of this map.<p>
+     * 
+     * @see java.util.AbstractMap#entrySet()
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+
+        Set<Map.Entry<K, V>> result = new HashSet<Map.Entry<K, V>>();
+        for (Map.Entry<K, CmsCacheEntry<V>> entry : m_map.entrySet()) {
+            result.add(new CmsMapEntry<K, V>(entry.getKey(), entry.getValue().m_value));
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    /**
+     * @see java.util.AbstractMap#get(java.lang.Object)
+     */
+    @Override
+    public V get(Object key) {
+
+        CmsCacheEntry<V> entry = m_map.get(key);
+        if (entry == null) {
+            return null;
+        }
+        entry.m_lastAccess = System.nanoTime();
+        return entry.m_value;
+    }
+
+    /**
+     * @see java.util.AbstractMap#isEmpty()
+     */
+    @Override
+    public boolean isEmpty() {
+
+        return m_map.isEmpty();
+    }
+
+    /**
+     * Returns a snapshot of the keys of this map.<p>
+     * 
+     * @see java.util.AbstractMap#keySet()
+     */
+    @Override
+    public Set<K> keySet() {
+
+        return Collections.unmodifiableSet(new HashSet<K>(m_map.keySet()));
+    }
+
+    /**
+     * Returns the maximum number of entries of this map.<p>
+     * 
+     * @return the maximum number of entries of this map
+     */
+    public int maxSize() {
+
+        return m_maxSize;
+    }
+
+    /**
+     * @see java.util.AbstractMap#put(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public V put(K key, V value) {
+
+        if (value == null) {
+            return remove(key);
+        }
+        CmsCacheEntry<V> old = m_map.put(key, new CmsCacheEntry<V>(value));
+        if ((old == null) && (m_map.size() > m_maxSize)) {
+            evict();
+        }
+        return (old != null) ? old.m_value : null;
+    }
+
+    /**
+     * @see java.util.AbstractMap#remove(java.lang.Object)
+     */
+    @Override
+    public V remove(Object key) {
+
+        CmsCacheEntry<V> old = m_map.remove(key);
+        return (old != null) ? old.m_value : null;
+    }
+
+    /**
+     * @see java.util.AbstractMap#size()
+     */
+    @Override
+    public int size() {
+
+        return m_map.size();
+    }
+
+    /**
+     * Returns a snapshot of the values of this map.<p>
+     * 
+     * @see java.util.AbstractMap#values()
+     */
+    @Override
+    public Collection<V> values() {
+
+        List<V> result = new ArrayList<V>(m_map.size());
+        for (CmsCacheEntry<V> entry : m_map.values()) {
+            result.add(entry.m_value);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Called after an entry has been evicted from this map because the map was full.<p>
+     * 
+     * This is not called for entries that are removed explicitly. The default implementation does nothing,
+     * subclasses can override this to release resources held by the evicted value.<p>
+     * 
+     * @param key the key of the evicted entry
+     * @param value the value of the evicted entry
+     */
+    protected void onEviction(K key, V value) {
+
+        // noop
+    }
+
+    /**
+     * Removes the least recently used entries until the map size is below the limit.<p>
+     * 
+     * If another thread is already evicting entries, this method returns immediately.<p>
+     */
+    private void evict() {
+
+        if (!m_evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            int target = m_maxSize - ((m_maxSize * EVICTION_PERCENT) / 100);
+            int excess = m_map.size() - target;
+            if (excess <= 0) {
+                return;
+            }
+            // find the access time threshold of the entries to evict
+            List<Map.Entry<K, CmsCacheEntry<V>>> entries = new ArrayList<Map.Entry<K, CmsCacheEntry<V>>>(
+                m_map.entrySet());
+            long[] accessTimes = new long[entries.size()];
+            for (int i = 0; i < accessTimes.length; i++) {
+                accessTimes[i] = entries.get(i).getValue().m_lastAccess;
+            }
+            long[] sorted = accessTimes.clone();
+            Arrays.sort(sorted);
+            long threshold = sorted[Math.min(excess, sorted.length) - 1];
+            int removed = 0;
+            for (int i = 0; (i < accessTimes.length) && (removed < excess); i++) {
+                if (accessTimes[i] <= threshold) {
+                    Map.Entry<K, CmsCacheEntry<V>> entry = entries.get(i);
+                    // only remove the entry if it has not been replaced in the meantime
+                    if (m_map.remove(entry.getKey(), entry.getValue())) {
+                        removed++;
+                        onEviction(entry.getKey(), entry.getValue().m_value);
+                    }
+                }
+            }
+        } finally {
+            m_evictionLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * LRU cache for byte array contents, limited by the total byte size of the cached contents.<p>
+ * 
+ * The cache costs of an entry are the length of its content. Contents that are larger than 
+ * the maximum costs per object are not cached at all. If the maximum costs of the cache are exceeded,
+ * the last recently used entries are removed until the costs are below the average cache costs.<p>
+ * 
+ * Every entry has a version, for example the date the content was last changed. A lookup with 
+ * a different version than the cached one is a cache miss, so outdated contents are never returned 
+ * even if they have not been removed from the cache.<p>
+ * 
+ * The cache counts the hits and misses of the {@link #get(Object, long)} operation.<p>
+ * 
+ * The cached byte arrays are shared, so they must not be modified by the callers.<p>
+ * 
+ * @param <K> the type of the cache keys
+ * 
+ * @since 8.5.0
+ */
+public class CmsContentLruCache<K> extends CmsLruCache {
+
+    /**
+     * A cached content.<p>
+     */
+    private class CmsContentEntry implements I_CmsLruCacheObject {
+
+        /** The cached content. */
+        private byte[] m_content;
+
+        /** The key of this entry. */
+        private K m_key;
+
+        /** The next object in the LRU list. */
+        private I_CmsLruCacheObject m_next;
+
+        /** The previous object in the LRU list. */
+        private I_CmsLruCacheObject m_previous;
+
+        /** The version of the cached content. */
+        private long m_version;
+
+        /**
+         * Creates a new cache entry.<p>
+         * 
+         * @param key the key of the entry
+         * @param version the version of the content
+         * @param content the content to cache
+         */
+        protected CmsContentEntry(K key, long version, byte[] content) {
+
+            m_key = key;
+            m_version = version;
+            m_content = content;
+        }
+
+        /**
+         * @see org.opencms.cache.I_CmsLruCacheObject#addToLruCache()
+         */
+        public void addToLruCache() {
+
+            // noop
+        }
+
+        /**
+         * @see org.opencms.cache.I_CmsLruCacheObject#getLruCacheCosts()
+         */
+        public int getLruCacheCosts() {
+
+            return m_content.length;
+        }
+
+        /**
+         * @see org.opencms.cache.I_CmsLruCacheObject#getNextLruObject()
+         */
+        public I_CmsLruCacheObject getNextLruObject() {
+
+            return m_next;
+        }
+
+        /**
+         * @see org.opencms.cache.I_CmsLruCacheObject#getPreviousLruObject()
+         */
+        public I_CmsLruCacheObject getPreviousLruObject() {
+
+            return m_previous;
+        }
+
+        /**
+         * @see org.opencms.cache.I_CmsLruCacheObject#getValue()
+         */
+        public Object getValue() {
+
+            return m_content;
+        }
+
+        /**
+         * @see org.opencms.cache.I_CmsLruCacheObject#removeFromLruCache()
+         */
+        public void removeFromLruCache() {
+
+            // only called from the synchronized methods of the content cache, 
+            // which includes clear(), so the monitor of the cache is held here
+            if (m_entries.get(m_key) == this) {
+                m_entries.remove(m_key);
+            }
+        }
+
+        /**
+         * @see org.opencms.cache.I_CmsLruCacheObject#setNextLruObject(org.opencms.cache.I_CmsLruCacheObject)
+         */
+        public void setNextLruObject(I_CmsLruCacheObject theNextObject) {
+
+            m_next = theNextObject;
+        }
+
+        /**
+         * @see org.opencms.cache.I_CmsLruCacheObject#setPreviousLruObject(org.opencms.cache.I_CmsLruCacheObject)
+         */
+        public void setPreviousLruObject(I_CmsLruCacheObject thePreviousObject) {
+
+            m_previous = thePreviousObject;
+        }
+    }
+
+    /** The cached entries. */
+    private Map<K, CmsContentEntry> m_entries;
+
+    /** The number of cache hits. */
+    private long m_hits;
+
+    /** The number of cache misses. */
+    private long m_misses;
+
+    /**
+     * Creates a new content cache.<p>
+     * 
+     * @param maxCacheCosts the maximum total byte size of all cached contents
+     * @param maxObjectCosts the maximum byte size of a single cached content
+     */
+    public CmsContentLruCache(long maxCacheCosts, int maxObjectCosts) {
+
+        super(maxCacheCosts, (maxCacheCosts * 3) / 4, maxObjectCosts);
+        m_entries = new HashMap<K, CmsContentEntry>();
+    }
+
+    /**
+     * Removes all cached contents.<p>
+     * 
+     * Synchronized like the other methods of this cache, because removing the 
+     * entries from the LRU list also removes them from the entry map.<p>
+     * 
+     * @see org.opencms.cache.CmsLruCache#clear()
+     */
+    @Override
+    public synchronized void clear() {
+
+        super.clear();
+    }
+
+    /**
+     * Returns the cached content for the given key.<p>
+     * 
+     * @param key the key to look up
+     * @param version the required version of the content
+     * 
+     * @return the cached content, or <code>null</code> if no content with the required version is cached for the key
+     */
+    public synchronized byte[] get(K key, long version) {
+
+        CmsContentEntry entry = m_entries.get(key);
+        if ((entry == null) || (entry.m_version != version)) {
+            m_misses++;
+            return null;
+        }
+        m_hits++;
+        touch(entry);
+        return entry.m_content;
+    }
+
+    /**
+     * Returns the percentage of cache hits of all lookups.<p>
+     * 
+     * @return the percentage of cache hits of all lookups
+     */
+    public synchronized int getHitRate() {
+
+        long lookups = m_hits + m_misses;
+        return (lookups > 0) ? (int)((m_hits * 100) / lookups) : 0;
+    }
+
+    /**
+     * Returns the number of cache hits.<p>
+     * 
+     * @return the number of cache hits
+     */
+    public synchronized long getHits() {
+
+        return m_hits;
+    }
+
+    /**
+     * Returns the number of cache misses.<p>
+     * 
+     * @return the number of cache misses
+     */
+    public synchronized long getMisses() {
+
+        return m_misses;
+    }
+
+    /**
+     * Caches the given content.<p>
+     * 
+     * If the content is too large to be cached, an entry that already exists for the key is removed.<p>
+     * 
+     * @param key the key to cache the content for
+     * @param version the version of the content
+     * @param content the content to cache
+     * 
+     * @return <code>true</code> if the content was cached
+     */
+    public synchronized boolean put(K key, long version, byte[] content) {
+
+        remove(key);
+        if (content == null) {
+            return false;
+        }
+        CmsContentEntry entry = new CmsContentEntry(key, version, content);
+        m_entries.put(key, entry);
+        if (!add(entry)) {
+            m_entries.remove(key);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Removes the content cached for the given key.<p>
+     * 
+     * @param key the key to remove
+     */
+    public synchronized void remove(K key) {
+
+        CmsContentEntry entry = m_entries.remove(key);
+        if (entry != null) {
+            remove(entry);
+        }
+    }
+
+    /**
+     * @see org.opencms.cache.CmsLruCache#toString()
+     */
+    @Override
+    public synchronized String toString() {
+
+        return super.toString() + ", hits: " + m_hits + ", misses: " + m_misses;
+    }
+}
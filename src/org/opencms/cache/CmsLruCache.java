@@ -25,10 +25,17 @@
  * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
  */
 
+
 package org.opencms.cache;
 
 import org.opencms.main.CmsLog;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
 import org.apache.commons.logging.Log;
 
 /**
@@ -47,6 +54,15 @@ import org.apache.commons.logging.Log;
  * To add/remove cached objects from the data structure that stores them, the objects have to
  * implement the methods defined in the interface I_CmsLruCacheObject to be notified when they
  * are added/removed from the CmsFlexLruCache.<p>
+ * 
+ * The cache can be used concurrently. Adding and removing objects is done with an exclusive lock, 
+ * but touching an object does not block: the access is only recorded in one of several buffers 
+ * (selected by the current thread), and the buffered accesses are applied to the linked list 
+ * in a batch by the thread that finds a buffer full and the lock free, or before the next object is 
+ * added. If the buffers overflow because the lock is busy, accesses are dropped, so the LRU order 
+ * is an approximation under heavy load. The costs of the cached objects are always accounted for 
+ * exactly, and the objects are always notified when they are added to or removed from the cache, 
+ * with the lock of the cache held.<p>
  *
  * @see org.opencms.cache.I_CmsLruCacheObject
  * 
@@ -54,29 +70,56 @@ import org.apache.commons.logging.Log;
  */
 public class CmsLruCache extends java.lang.Object {
 
+    /**
+     * Buffer for the accesses to cached objects that have not yet been applied to the linked list.<p>
+     */
+    private static final class CmsAccessBuffer {
+
+        /** The touched objects. */
+        final ConcurrentLinkedQueue<I_CmsLruCacheObject> m_queue = new ConcurrentLinkedQueue<I_CmsLruCacheObject>();
+
+        /** The number of objects in the queue, tracked separately since the size of the queue is expensive to compute. */
+        final AtomicInteger m_size = new AtomicInteger();
+    }
+
+    /** The number of buffered accesses after which a thread tries to apply the buffer. */
+    private static final int BUFFER_DRAIN_THRESHOLD = 32;
+
+    /** The maximum number of buffered accesses per buffer, further accesses are dropped. */
+    private static final int BUFFER_MAX_SIZE = 128;
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsLruCache.class);
 
     /** The average sum of costs the cached objects. */
     private long m_avgCacheCosts;
 
+    /** The buffers for accesses to cached objects, the number of buffers is a power of 2. */
+    private final CmsAccessBuffer[] m_buffers;
+
     /** The head of the list of double linked LRU cache objects. */
     private I_CmsLruCacheObject m_listHead;
 
     /** The tail of the list of double linked LRU cache objects. */
     private I_CmsLruCacheObject m_listTail;
 
+    /** The lock guarding the linked list and the cache statistics. */
+    private final ReentrantLock m_lock;
+
     /** The maximum sum of costs the cached objects might reach. */
     private long m_maxCacheCosts;
 
     /** The maximum costs of cacheable objects. */
     private int m_maxObjectCosts;
 
+    /** The cached objects, to check without locking if an object is cached. */
+    private final Map<I_CmsLruCacheObject, Boolean> m_members;
+
     /** The costs of all cached objects. */
-    private int m_objectCosts;
+    private volatile long m_objectCosts;
 
     /** The sum of all cached objects. */
-    private int m_objectCount;
+    private volatile int m_objectCount;
 
     /**
      * The constructor with all options.<p>
@@ -90,6 +133,18 @@ public class CmsLruCache extends java.lang.Object {
         m_maxCacheCosts = theMaxCacheCosts;
         m_avgCacheCosts = theAvgCacheCosts;
         m_maxObjectCosts = theMaxObjectCosts;
+
+        int concurrencyLevel = Math.max(16, 4 * Runtime.getRuntime().availableProcessors());
+        int bufferCount = 1;
+        while (bufferCount < concurrencyLevel) {
+            bufferCount <<= 1;
+        }
+        m_buffers = new CmsAccessBuffer[bufferCount];
+        for (int i = 0; i < bufferCount; i++) {
+            m_buffers[i] = new CmsAccessBuffer();
+        }
+        m_members = new ConcurrentHashMap<I_CmsLruCacheObject, Boolean>(64, 0.75f, concurrencyLevel);
+        m_lock = new ReentrantLock();
     }
 
     /**
@@ -101,7 +156,7 @@ public class CmsLruCache extends java.lang.Object {
      * @param theCacheObject the object being added to the cache
      * @return true if the object was added to the cache, false if the object was denied because its cache costs were higher than the allowed max. cache costs per object
      */
-    public synchronized boolean add(I_CmsLruCacheObject theCacheObject) {
+    public boolean add(I_CmsLruCacheObject theCacheObject) {
 
         if (theCacheObject == null) {
             // null can't be added or touched in the cache 
@@ -119,16 +174,24 @@ public class CmsLruCache extends java.lang.Object {
             return false;
         }
 
-        if (!isCached(theCacheObject)) {
-            // add the object to the list of all cached objects in the cache
-            addHead(theCacheObject);
-        } else {
-            touch(theCacheObject);
-        }
+        m_lock.lock();
+        try {
+            // apply the pending accesses first, so that the LRU objects are the right ones 
+            drainBuffers();
 
-        // check if the cache has to trash the last-recently-used objects before adding a new object
-        if (m_objectCosts > m_maxCacheCosts) {
-            gc();
+            if (!isCached(theCacheObject)) {
+                // add the object to the list of all cached objects in the cache
+                addHead(theCacheObject);
+            } else {
+                moveToHead(theCacheObject);
+            }
+
+            // check if the cache has to trash the last-recently-used objects before adding a new object
+            if (m_objectCosts > m_maxCacheCosts) {
+                gc();
+            }
+        } finally {
+            m_lock.unlock();
         }
 
         return true;
@@ -137,20 +200,33 @@ public class CmsLruCache extends java.lang.Object {
     /**
      * Removes all cached objects in this cache.<p>
      */
-    public synchronized void clear() {
+    public void clear() {
+
+        m_lock.lock();
+        try {
+            // the pending accesses are obsolete
+            for (CmsAccessBuffer buffer : m_buffers) {
+                while (buffer.m_queue.poll() != null) {
+                    buffer.m_size.decrementAndGet();
+                }
+            }
 
-        // remove all objects from the linked list from the tail to the head:
-        I_CmsLruCacheObject currentObject = m_listTail;
-        while (currentObject != null) {
-            currentObject = currentObject.getNextLruObject();
-            removeTail();
-        }
+            // remove all objects from the linked list from the tail to the head:
+            I_CmsLruCacheObject currentObject = m_listTail;
+            while (currentObject != null) {
+                currentObject = currentObject.getNextLruObject();
+                removeTail();
+            }
 
-        // reset the data structure
-        m_objectCosts = 0;
-        m_objectCount = 0;
-        m_listHead = null;
-        m_listTail = null;
+            // reset the data structure
+            m_members.clear();
+            m_objectCosts = 0;
+            m_objectCount = 0;
+            m_listHead = null;
+            m_listTail = null;
+        } finally {
+            m_lock.unlock();
+        }
     }
 
     /**
@@ -188,7 +264,7 @@ public class CmsLruCache extends java.lang.Object {
      * 
      * @return the current costs of all cached objects
      */
-    public int getObjectCosts() {
+    public long getObjectCosts() {
 
         return m_objectCosts;
     }
@@ -200,45 +276,50 @@ public class CmsLruCache extends java.lang.Object {
      * @param theCacheObject the object being removed from the list of all cached objects
      * @return a reference to the object that was removed
      */
-    public synchronized I_CmsLruCacheObject remove(I_CmsLruCacheObject theCacheObject) {
-
-        if (!isCached(theCacheObject)) {
-            // theCacheObject is null or not inside the cache
-            return null;
-        }
+    public I_CmsLruCacheObject remove(I_CmsLruCacheObject theCacheObject) {
 
-        // set the list pointers correct
-        if (theCacheObject.getNextLruObject() == null) {
-            // remove the object from the head pos.
-            I_CmsLruCacheObject newHead = theCacheObject.getPreviousLruObject();
-
-            if (newHead != null) {
-                // if newHead is null, theCacheObject 
-                // was the only object in the cache
-                newHead.setNextLruObject(null);
+        m_lock.lock();
+        try {
+            if (!isCached(theCacheObject)) {
+                // theCacheObject is null or not inside the cache
+                return null;
             }
 
-            m_listHead = newHead;
-        } else if (theCacheObject.getPreviousLruObject() == null) {
-            // remove the object from the tail pos.
-            I_CmsLruCacheObject newTail = theCacheObject.getNextLruObject();
+            // set the list pointers correct
+            if (theCacheObject.getNextLruObject() == null) {
+                // remove the object from the head pos.
+                I_CmsLruCacheObject newHead = theCacheObject.getPreviousLruObject();
+
+                if (newHead != null) {
+                    // if newHead is null, theCacheObject 
+                    // was the only object in the cache
+                    newHead.setNextLruObject(null);
+                }
+
+                m_listHead = newHead;
+            } else if (theCacheObject.getPreviousLruObject() == null) {
+                // remove the object from the tail pos.
+                I_CmsLruCacheObject newTail = theCacheObject.getNextLruObject();
+
+                if (newTail != null) {
+                    // if newTail is null, theCacheObject 
+                    // was the only object in the cache                
+                    newTail.setPreviousLruObject(null);
+                }
 
-            if (newTail != null) {
-                // if newTail is null, theCacheObject 
-                // was the only object in the cache                
-                newTail.setPreviousLruObject(null);
+                m_listTail = newTail;
+            } else {
+                // remove the object from within the list
+                theCacheObject.getPreviousLruObject().setNextLruObject(theCacheObject.getNextLruObject());
+                theCacheObject.getNextLruObject().setPreviousLruObject(theCacheObject.getPreviousLruObject());
             }
 
-            m_listTail = newTail;
-        } else {
-            // remove the object from within the list
-            theCacheObject.getPreviousLruObject().setNextLruObject(theCacheObject.getNextLruObject());
-            theCacheObject.getNextLruObject().setPreviousLruObject(theCacheObject.getPreviousLruObject());
+            // update cache stats. and notify the cached object
+            decreaseCache(theCacheObject);
+        } finally {
+            m_lock.unlock();
         }
 
-        // update cache stats. and notify the cached object
-        decreaseCache(theCacheObject);
-
         return theCacheObject;
     }
 
@@ -272,13 +353,16 @@ public class CmsLruCache extends java.lang.Object {
     /**
      * Touch an existing object in this cache, in the sense that it's "last-recently-used" state
      * is updated.<p>
+     * 
+     * This method does not block, the access is applied to the "last-recently-used" order
+     * of the cached objects later.<p>
      *
      * @param theCacheObject the object being touched
      * @return true if an object was found and touched
      */
-    public synchronized boolean touch(I_CmsLruCacheObject theCacheObject) {
+    public boolean touch(I_CmsLruCacheObject theCacheObject) {
 
-        if (!isCached(theCacheObject)) {
+        if ((theCacheObject == null) || !m_members.containsKey(theCacheObject)) {
             return false;
         }
 
@@ -294,32 +378,23 @@ public class CmsLruCache extends java.lang.Object {
             return false;
         }
 
-        // set the list pointers correct
-        I_CmsLruCacheObject nextObj = theCacheObject.getNextLruObject();
-        if (nextObj == null) {
-            // case 1: the object is already at the head pos.
-            return true;
-        }
-        I_CmsLruCacheObject prevObj = theCacheObject.getPreviousLruObject();
-        if (prevObj == null) {
-            // case 2: the object at the tail pos., remove it from the tail to put it to the front as the new head
-            I_CmsLruCacheObject newTail = nextObj;
-            newTail.setPreviousLruObject(null);
-            m_listTail = newTail;
+        CmsAccessBuffer buffer = m_buffers[(int)Thread.currentThread().getId() & (m_buffers.length - 1)];
+        int pending = buffer.m_size.incrementAndGet();
+        if (pending > BUFFER_MAX_SIZE) {
+            // the buffer is full, drop the access
+            buffer.m_size.decrementAndGet();
         } else {
-            // case 3: the object is somewhere within the list, remove it to put it the front as the new head
-            prevObj.setNextLruObject(nextObj);
-            nextObj.setPreviousLruObject(prevObj);
+            buffer.m_queue.offer(theCacheObject);
         }
 
-        // set the touched object as the new head in the linked list:
-        I_CmsLruCacheObject oldHead = m_listHead;
-        if (oldHead != null) {
-            oldHead.setNextLruObject(theCacheObject);
-            theCacheObject.setNextLruObject(null);
-            theCacheObject.setPreviousLruObject(oldHead);
+        // apply the buffered accesses if nobody else is working on the list right now
+        if ((pending >= BUFFER_DRAIN_THRESHOLD) && m_lock.tryLock()) {
+            try {
+                drainBuffers();
+            } finally {
+                m_lock.unlock();
+            }
         }
-        m_listHead = theCacheObject;
 
         return true;
     }
@@ -367,10 +442,36 @@ public class CmsLruCache extends java.lang.Object {
         theCacheObject.setPreviousLruObject(null);
 
         // update the cache stats.
+        m_members.remove(theCacheObject);
         m_objectCosts -= theCacheObject.getLruCacheCosts();
         m_objectCount--;
     }
 
+    /**
+     * Applies the buffered accesses to the list of all cached objects.<p>
+     * 
+     * Must only be called with the lock held.<p>
+     */
+    private void drainBuffers() {
+
+        for (CmsAccessBuffer buffer : m_buffers) {
+            // don't drain more than was in the buffer when we started, other threads keep adding
+            int count = buffer.m_size.get();
+            while (count > 0) {
+                I_CmsLruCacheObject touchedObject = buffer.m_queue.poll();
+                if (touchedObject == null) {
+                    break;
+                }
+                buffer.m_size.decrementAndGet();
+                count--;
+                // the object may have been removed since it was touched 
+                if (isCached(touchedObject)) {
+                    moveToHead(touchedObject);
+                }
+            }
+        }
+    }
+
     /**
      * Removes the last recently used objects from the list of all cached objects as long
      * as the costs of all cached objects are higher than the allowed avg. costs of the cache.<p>
@@ -400,6 +501,7 @@ public class CmsLruCache extends java.lang.Object {
         theCacheObject.addToLruCache();
 
         // update the cache stats.
+        m_members.put(theCacheObject, Boolean.TRUE);
         m_objectCosts += theCacheObject.getLruCacheCosts();
         m_objectCount++;
     }
@@ -416,33 +518,48 @@ public class CmsLruCache extends java.lang.Object {
             // the cache is empty or the object is null (which is never cached)
             return false;
         }
+        return m_members.containsKey(theCacheObject);
+    }
+
+    /**
+     * Moves a cached object to the head of the list of all cached objects.<p>
+     * 
+     * @param theCacheObject the cached object to move
+     */
+    private void moveToHead(I_CmsLruCacheObject theCacheObject) {
 
+        // set the list pointers correct
         I_CmsLruCacheObject nextObj = theCacheObject.getNextLruObject();
+        if (nextObj == null) {
+            // case 1: the object is already at the head pos.
+            return;
+        }
         I_CmsLruCacheObject prevObj = theCacheObject.getPreviousLruObject();
-
-        if ((nextObj != null) || (prevObj != null)) {
-            // the object has either a predecessor or successor in the linked 
-            // list of all cached objects, so it is inside the cache
-            return true;
+        if (prevObj == null) {
+            // case 2: the object at the tail pos., remove it from the tail to put it to the front as the new head
+            I_CmsLruCacheObject newTail = nextObj;
+            newTail.setPreviousLruObject(null);
+            m_listTail = newTail;
+        } else {
+            // case 3: the object is somewhere within the list, remove it to put it the front as the new head
+            prevObj.setNextLruObject(nextObj);
+            nextObj.setPreviousLruObject(prevObj);
         }
 
-        // both nextObj and preObj are null
-        if ((m_objectCount == 1)
-            && (m_listHead != null)
-            && (m_listTail != null)
-            && m_listHead.equals(theCacheObject)
-            && m_listTail.equals(theCacheObject)) {
-            // the object is the one and only object in the cache
-            return true;
+        // set the touched object as the new head in the linked list:
+        I_CmsLruCacheObject oldHead = m_listHead;
+        if (oldHead != null) {
+            oldHead.setNextLruObject(theCacheObject);
+            theCacheObject.setNextLruObject(null);
+            theCacheObject.setPreviousLruObject(oldHead);
         }
-
-        return false;
+        m_listHead = theCacheObject;
     }
 
     /**
      * Removes the tailing object from the list of all cached objects.<p>
      */
-    private synchronized void removeTail() {
+    private void removeTail() {
 
         I_CmsLruCacheObject oldTail = m_listTail;
         if (oldTail != null) {
@@ -463,4 +580,4 @@ public class CmsLruCache extends java.lang.Object {
             decreaseCache(oldTail);
         }
     }
-}
\ No newline at end of file
+}
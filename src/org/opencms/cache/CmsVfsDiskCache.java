@@ -62,6 +62,10 @@ public class CmsVfsDiskCache {
      * 
      * If the required parent folders do not exists, they are also created.<p>
      * 
+     * The content is first written to a temporary file in the same folder, which is then renamed 
+     * to the given name. This way concurrent readers never see a partially written file, 
+     * and concurrent writers of the same file do not corrupt each other's output.<p>
+     * 
      * @param rfsName the RFS name of the file to save the content in
      * @param content the content of the file to save
      * 
@@ -71,17 +75,7 @@ public class CmsVfsDiskCache {
      */
     public static File saveFile(String rfsName, byte[] content) throws IOException {
 
-        File f = new File(rfsName);
-        File p = f.getParentFile();
-        if (!p.exists()) {
-            // create parent folders
-            p.mkdirs();
-        }
-        // write file contents
-        FileOutputStream fs = new FileOutputStream(f);
-        fs.write(content);
-        fs.close();
-        return f;
+        return saveFile(rfsName, content, -1);
     }
 
     /**
@@ -95,19 +89,39 @@ public class CmsVfsDiskCache {
      */
     public byte[] getCacheContent(String rfsName, long dateLastModified) {
 
+        File f = getCacheFile(rfsName, dateLastModified);
+        if (f != null) {
+            try {
+                return CmsFileUtil.readFile(f);
+            } catch (IOException e) {
+                // unable to read content
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the requested file in the disk cache, or <code>null</code> if the
+     * file is not found in the cache, or is found but outdated.<p>
+     * 
+     * Outdated files are removed from the cache.<p>
+     * 
+     * @param rfsName the file RFS name to look up in the cache 
+     * @param dateLastModified the date of last modification for the cache
+     * 
+     * @return the requested file in the VFS disk cache, or <code>null</code> 
+     */
+    public File getCacheFile(String rfsName, long dateLastModified) {
+
         dateLastModified = simplifyDateLastModified(dateLastModified);
-        try {
-            File f = new File(rfsName);
-            if (f.exists()) {
-                if (f.lastModified() != dateLastModified) {
-                    // last modification time different, remove cached file in RFS
-                    f.delete();
-                } else {
-                    return CmsFileUtil.readFile(f);
-                }
+        File f = new File(rfsName);
+        if (f.exists()) {
+            if (f.lastModified() != dateLastModified) {
+                // last modification time different, remove cached file in RFS
+                f.delete();
+            } else {
+                return f;
             }
-        } catch (IOException e) {
-            // unable to read content
         }
         return null;
     }
@@ -154,10 +168,61 @@ public class CmsVfsDiskCache {
      */
     public void saveCacheFile(String rfsName, byte[] content, long dateLastModified) throws IOException {
 
-        dateLastModified = simplifyDateLastModified(dateLastModified);
-        File f = saveFile(rfsName, content);
-        // set last modification date
-        f.setLastModified(dateLastModified);
+        saveFile(rfsName, content, simplifyDateLastModified(dateLastModified));
+    }
+
+    /**
+     * Saves the given file content to a RFS file of the given name (full path),
+     * setting the given date of last modification before the file becomes visible.<p> 
+     * 
+     * @param rfsName the RFS name of the file to save the content in
+     * @param content the content of the file to save
+     * @param dateLastModified the date of last modification to set, or a negative value to keep the current time
+     * 
+     * @return a reference to the File that was saved
+     * 
+     * @throws IOException in case of disk access errors
+     */
+    private static File saveFile(String rfsName, byte[] content, long dateLastModified) throws IOException {
+
+        File f = new File(rfsName);
+        File p = f.getParentFile();
+        if (!p.exists()) {
+            // create parent folders
+            p.mkdirs();
+        }
+        // write file contents to a temporary file
+        File tmp = File.createTempFile(f.getName() + ".", ".tmp", p);
+        boolean saved = false;
+        try {
+            FileOutputStream fs = new FileOutputStream(tmp);
+            try {
+                fs.write(content);
+            } finally {
+                fs.close();
+            }
+            if (dateLastModified >= 0) {
+                // set the date before the rename, otherwise a concurrent reader may delete the new file as outdated
+                tmp.setLastModified(dateLastModified);
+            }
+            // move the temporary file to its final name
+            if (!tmp.renameTo(f)) {
+                // on some platforms an existing file is not replaced by a rename
+                f.delete();
+                if (!tmp.renameTo(f)) {
+                    throw new IOException(Messages.get().getBundle().key(
+                        Messages.ERR_RENAME_CACHE_FILE_2,
+                        tmp.getAbsolutePath(),
+                        f.getAbsolutePath()));
+                }
+            }
+            saved = true;
+        } finally {
+            if (!saved) {
+                tmp.delete();
+            }
+        }
+        return f;
     }
 
     /**
@@ -37,7 +37,6 @@ import org.opencms.util.CmsUUID;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -172,7 +171,7 @@ public abstract class A_CmsCmisRepository implements I_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getAllVersions(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, java.lang.String, boolean)
      */
-    public synchronized List<ObjectData> getAllVersions(
+    public List<ObjectData> getAllVersions(
         CmsCmisCallContext context,
         String objectId,
         String versionSeriesId,
@@ -185,7 +184,7 @@ public abstract class A_CmsCmisRepository implements I_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getAppliedPolicies(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String)
      */
-    public synchronized List<ObjectData> getAppliedPolicies(CmsCmisCallContext context, String objectId, String filter) {
+    public List<ObjectData> getAppliedPolicies(CmsCmisCallContext context, String objectId, String filter) {
 
         throw notSupported();
     }
@@ -193,7 +192,7 @@ public abstract class A_CmsCmisRepository implements I_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getContentChanges(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.spi.Holder, boolean, java.lang.String, boolean, boolean, java.math.BigInteger)
      */
-    public synchronized ObjectList getContentChanges(
+    public ObjectList getContentChanges(
         CmsCmisCallContext context,
         Holder<String> changeLogToken,
         boolean includeProperties,
@@ -208,7 +207,7 @@ public abstract class A_CmsCmisRepository implements I_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getObjectOfLatestVersion(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, boolean, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.IncludeRelationships, java.lang.String, boolean, boolean)
      */
-    public synchronized ObjectData getObjectOfLatestVersion(
+    public ObjectData getObjectOfLatestVersion(
         CmsCmisCallContext context,
         String objectId,
         String versionSeriesId,
@@ -226,7 +225,7 @@ public abstract class A_CmsCmisRepository implements I_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getPropertiesOfLatestVersion(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, boolean, java.lang.String)
      */
-    public synchronized Properties getPropertiesOfLatestVersion(
+    public Properties getPropertiesOfLatestVersion(
         CmsCmisCallContext context,
         String objectId,
         String versionSeriesId,
@@ -239,7 +238,7 @@ public abstract class A_CmsCmisRepository implements I_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#query(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean, boolean, org.apache.chemistry.opencmis.commons.enums.IncludeRelationships, java.lang.String, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized ObjectList query(
+    public ObjectList query(
         CmsCmisCallContext context,
         String statement,
         boolean searchAllVersions,
@@ -270,31 +269,6 @@ public abstract class A_CmsCmisRepository implements I_CmsCmisRepository {
 
     }
 
-    /**
-     * Copies a range of bytes from an array into a new array.<p>
-     * 
-     * @param content the content array 
-     * @param offset the start offset in the array 
-     * @param length the length of the range 
-     *  
-     * @return the bytes from the given range of the content 
-     */
-    protected byte[] extractRange(byte[] content, BigInteger offset, BigInteger length) {
-
-        if ((offset == null) && (length == null)) {
-            return content;
-        }
-        if (offset == null) {
-            offset = BigInteger.ZERO;
-        }
-        long offsetLong = offset.longValue();
-        if (length == null) {
-            length = BigInteger.valueOf(content.length - offsetLong);
-        }
-        long lengthLong = length.longValue();
-        return Arrays.copyOfRange(content, (int)offsetLong, (int)(offsetLong + lengthLong));
-    }
-
     /**
      * Gets a user-readable name for a principal id read from an ACE.<p>
      * 
@@ -345,6 +319,43 @@ public abstract class A_CmsCmisRepository implements I_CmsCmisRepository {
         return cmsProperties;
     }
 
+    /**
+     * Returns the length of the requested range of a content.<p>
+     * 
+     * @param content the content array 
+     * @param start the start of the range, see {@link #getRangeStart(byte[], BigInteger)} 
+     * @param length the requested length of the range, or <code>null</code> for the rest of the content 
+     * 
+     * @return the length of the range, limited to the end of the content 
+     */
+    protected int getRangeLength(byte[] content, int start, BigInteger length) {
+
+        int available = content.length - start;
+        if ((length == null) || (length.compareTo(BigInteger.valueOf(available)) > 0)) {
+            return available;
+        }
+        return Math.max(0, length.intValue());
+    }
+
+    /**
+     * Returns the start of the requested range of a content.<p>
+     * 
+     * @param content the content array 
+     * @param offset the requested offset, or <code>null</code> for the start of the content 
+     * 
+     * @return the start of the range, limited to the length of the content 
+     */
+    protected int getRangeStart(byte[] content, BigInteger offset) {
+
+        if ((offset == null) || (offset.signum() < 0)) {
+            return 0;
+        }
+        if (offset.compareTo(BigInteger.valueOf(content.length)) > 0) {
+            return content.length;
+        }
+        return offset.intValue();
+    }
+
     /**
      * Helper method to create exceptions for unsupported features.<p>
      * 
@@ -27,6 +27,8 @@
 
 package org.opencms.cmis;
 
+import org.opencms.file.CmsObject;
+
 import java.io.File;
 import java.math.BigInteger;
 
@@ -38,6 +40,9 @@ import org.apache.chemistry.opencmis.commons.server.ObjectInfoHandler;
  */
 public class CmsCmisCallContext implements CallContext {
 
+    /** The CMS context of the current call. */
+    private CmsObject m_cms;
+
     /** The wrapped call context. */
     private CallContext m_context;
 
@@ -72,6 +77,16 @@ public class CmsCmisCallContext implements CallContext {
         return m_context.getBinding();
     }
 
+    /**
+     * Returns the CMS context of the current call.<p>
+     * 
+     * @return the CMS context, or <code>null</code> if it has not been initialized yet 
+     */
+    public CmsObject getCmsObject() {
+
+        return m_cms;
+    }
+
     /**
      * @see org.apache.chemistry.opencmis.commons.server.CallContext#getLength()
      */
@@ -154,4 +169,17 @@ public class CmsCmisCallContext implements CallContext {
         return m_context.isObjectInfoRequired();
     }
 
+    /**
+     * Sets the CMS context of the current call.<p>
+     * 
+     * The CMS context is only used by the thread processing the call, so it can be 
+     * reused for all operations of the call without logging in the user again.<p>
+     * 
+     * @param cms the CMS context 
+     */
+    public void setCmsObject(CmsObject cms) {
+
+        m_cms = cms;
+    }
+
 }
@@ -536,7 +536,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getAcl(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean)
      */
-    public synchronized Acl getAcl(CmsCmisCallContext context, String objectId, boolean onlyBasicPermissions) {
+    public Acl getAcl(CmsCmisCallContext context, String objectId, boolean onlyBasicPermissions) {
 
         return getHelper(objectId).getAcl(context, objectId, onlyBasicPermissions);
     }
@@ -544,7 +544,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getAllowableActions(org.opencms.cmis.CmsCmisCallContext, java.lang.String)
      */
-    public synchronized AllowableActions getAllowableActions(CmsCmisCallContext context, String objectId) {
+    public AllowableActions getAllowableActions(CmsCmisCallContext context, String objectId) {
 
         return getHelper(objectId).getAllowableActions(context, objectId);
     }
@@ -552,7 +552,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getCheckedOutDocs(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.IncludeRelationships, java.lang.String, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized ObjectList getCheckedOutDocs(
+    public ObjectList getCheckedOutDocs(
         CmsCmisCallContext context,
         String folderId,
         String filter,
@@ -571,7 +571,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getChildren(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.IncludeRelationships, java.lang.String, boolean, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized ObjectInFolderList getChildren(
+    public ObjectInFolderList getChildren(
         CmsCmisCallContext context,
         String folderId,
         String filter,
@@ -622,13 +622,18 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
             // prepare result
             ObjectInFolderListImpl result = new ObjectInFolderListImpl();
             String folderSitePath = cms.getRequestContext().getSitePath(folder);
-            List<CmsResource> children = cms.getResourcesInFolder(folderSitePath, CmsResourceFilter.DEFAULT);
-            CmsObjectListLimiter<CmsResource> limiter = new CmsObjectListLimiter<CmsResource>(
-                children,
-                maxItems,
-                skipCount);
+            // read one more child than requested to find out if there are more children 
+            List<CmsResource> children = cms.getResourcesInFolder(
+                folderSitePath,
+                CmsResourceFilter.DEFAULT,
+                skip,
+                max < Integer.MAX_VALUE ? max + 1 : max);
+            boolean hasMore = children.size() > max;
+            if (hasMore) {
+                children = children.subList(0, max);
+            }
             List<ObjectInFolderData> resultObjects = new ArrayList<ObjectInFolderData>();
-            for (CmsResource child : limiter) {
+            for (CmsResource child : children) {
                 // build and add child object
                 ObjectInFolderDataImpl objectInFolder = new ObjectInFolderDataImpl();
                 objectInFolder.setObject(helper.collectObjectData(
@@ -646,8 +651,11 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
                 resultObjects.add(objectInFolder);
             }
             result.setObjects(resultObjects);
-            result.setNumItems(BigInteger.valueOf(children.size()));
-            result.setHasMoreItems(Boolean.valueOf(limiter.hasMore()));
+            if (!hasMore) {
+                // the total number of children is only known on the last page
+                result.setNumItems(BigInteger.valueOf(skip + children.size()));
+            }
+            result.setHasMoreItems(Boolean.valueOf(hasMore));
             return result;
         } catch (CmsException e) {
             handleCmsException(e);
@@ -667,7 +675,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getContentStream(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized ContentStream getContentStream(
+    public ContentStream getContentStream(
         CmsCmisCallContext context,
         String objectId,
         String streamId,
@@ -690,11 +698,13 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
                 CmsFile file = cms.readFile(resource);
                 contents = file.getContents();
             }
-            contents = extractRange(contents, offset, length);
-            InputStream stream = new ByteArrayInputStream(contents);
+            // stream the requested range directly from the content instead of copying it
+            int start = getRangeStart(contents, offset);
+            int rangeLength = getRangeLength(contents, start, length);
+            InputStream stream = new ByteArrayInputStream(contents, start, rangeLength);
             ContentStreamImpl result = new ContentStreamImpl();
             result.setFileName(resource.getName());
-            result.setLength(BigInteger.valueOf(contents.length));
+            result.setLength(BigInteger.valueOf(rangeLength));
             result.setMimeType(OpenCms.getResourceManager().getMimeType(resource.getRootPath(), null, "text/plain"));
             result.setStream(stream);
 
@@ -708,7 +718,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getDescendants(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.math.BigInteger, java.lang.String, boolean, boolean, boolean)
      */
-    public synchronized List<ObjectInFolderContainer> getDescendants(
+    public List<ObjectInFolderContainer> getDescendants(
         CmsCmisCallContext context,
         String folderId,
         BigInteger depth,
@@ -797,7 +807,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getFolderParent(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String)
      */
-    public synchronized ObjectData getFolderParent(CmsCmisCallContext context, String folderId, String filter) {
+    public ObjectData getFolderParent(CmsCmisCallContext context, String folderId, String filter) {
 
         List<ObjectParentData> parents = getObjectParents(context, folderId, filter, false, false);
         if (parents.size() == 0) {
@@ -825,7 +835,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getObject(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.IncludeRelationships, java.lang.String, boolean, boolean)
      */
-    public synchronized ObjectData getObject(
+    public ObjectData getObject(
         CmsCmisCallContext context,
         String objectId,
         String filter,
@@ -849,7 +859,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getObjectByPath(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.IncludeRelationships, java.lang.String, boolean, boolean)
      */
-    public synchronized ObjectData getObjectByPath(
+    public ObjectData getObjectByPath(
         CmsCmisCallContext context,
         String path,
         String filter,
@@ -893,7 +903,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getObjectParents(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, boolean, boolean)
      */
-    public synchronized List<ObjectParentData> getObjectParents(
+    public List<ObjectParentData> getObjectParents(
         CmsCmisCallContext context,
         String objectId,
         String filter,
@@ -948,7 +958,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getObjectRelationships(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.RelationshipDirection, java.lang.String, java.lang.String, boolean, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized ObjectList getObjectRelationships(
+    public ObjectList getObjectRelationships(
         CmsCmisCallContext context,
         String objectId,
         boolean includeSubRelationshipTypes,
@@ -993,7 +1003,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getProperties(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String)
      */
-    public synchronized Properties getProperties(CmsCmisCallContext context, String objectId, String filter) {
+    public Properties getProperties(CmsCmisCallContext context, String objectId, String filter) {
 
         ObjectData object = getObject(context, objectId, null, false, null, null, false, false);
         return object.getProperties();
@@ -1002,7 +1012,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getRenditions(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized List<RenditionData> getRenditions(
+    public List<RenditionData> getRenditions(
         CmsCmisCallContext context,
         String objectId,
         String renditionFilter,
@@ -1030,7 +1040,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getRepositoryInfo()
      */
-    public synchronized RepositoryInfo getRepositoryInfo() {
+    public RepositoryInfo getRepositoryInfo() {
 
         // compile repository info
         RepositoryInfoImpl repositoryInfo = new RepositoryInfoImpl();
@@ -1104,7 +1114,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getTypeChildren(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized TypeDefinitionList getTypeChildren(
+    public TypeDefinitionList getTypeChildren(
         CmsCmisCallContext context,
         String typeId,
         boolean includePropertyDefinitions,
@@ -1117,7 +1127,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getTypeDefinition(org.opencms.cmis.CmsCmisCallContext, java.lang.String)
      */
-    public synchronized TypeDefinition getTypeDefinition(CmsCmisCallContext context, String typeId) {
+    public TypeDefinition getTypeDefinition(CmsCmisCallContext context, String typeId) {
 
         return m_typeManager.getTypeDefinition(typeId);
     }
@@ -1125,7 +1135,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getTypeDescendants(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.math.BigInteger, boolean)
      */
-    public synchronized List<TypeDefinitionContainer> getTypeDescendants(
+    public List<TypeDefinitionContainer> getTypeDescendants(
         CmsCmisCallContext context,
         String typeId,
         BigInteger depth,
@@ -1224,7 +1234,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
      * @see org.opencms.cmis.I_CmsCmisRepository#query(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean, boolean, org.apache.chemistry.opencmis.commons.enums.IncludeRelationships, java.lang.String, java.math.BigInteger, java.math.BigInteger)
      */
     @Override
-    public synchronized ObjectList query(
+    public ObjectList query(
         CmsCmisCallContext context,
         String statement,
         boolean searchAllVersions,
@@ -1398,24 +1408,32 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * Initializes a CMS context for the authentication data contained in a call context.<p>
      * 
+     * The CMS context is created once per call and stored in the call context, 
+     * so that the user is only logged in once per call.<p>
+     * 
      * @param context the call context
      * @return the initialized CMS context 
      */
     protected CmsObject getCmsObject(CmsCmisCallContext context) {
 
+        CmsObject cms = context.getCmsObject();
+        if (cms != null) {
+            // already initialized for this call
+            return cms;
+        }
         try {
             if (context.getUsername() == null) {
                 // user name can be null 
-                CmsObject cms = OpenCms.initCmsObject(OpenCms.getDefaultUsers().getUserGuest());
+                cms = OpenCms.initCmsObject(OpenCms.getDefaultUsers().getUserGuest());
                 cms.getRequestContext().setCurrentProject(m_adminCms.getRequestContext().getCurrentProject());
-                return cms;
             } else {
-                CmsObject cms = OpenCms.initCmsObject(m_adminCms);
+                cms = OpenCms.initCmsObject(m_adminCms);
                 CmsProject projectBeforeLogin = cms.getRequestContext().getCurrentProject();
                 cms.loginUser(context.getUsername(), context.getPassword());
                 cms.getRequestContext().setCurrentProject(projectBeforeLogin);
-                return cms;
             }
+            context.setCmsObject(cms);
+            return cms;
         } catch (CmsException e) {
             throw new CmisPermissionDeniedException(e.getLocalizedMessage(), e);
 
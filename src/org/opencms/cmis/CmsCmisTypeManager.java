@@ -107,19 +107,19 @@ public class CmsCmisTypeManager {
     private CmsObject m_adminCms;
 
     /** The list of OpenCms property definitions. */
-    private List<CmsPropertyDefinition> m_cmsPropertyDefinitions;
+    private volatile List<CmsPropertyDefinition> m_cmsPropertyDefinitions;
 
     /** The last update time. */
-    private long m_lastUpdate;
+    private volatile long m_lastUpdate;
 
     /** List of dynamic property providers. */
     private List<I_CmsPropertyProvider> m_propertyProviders = new ArrayList<I_CmsPropertyProvider>();
 
     /** The internal list of type definitions. */
-    private List<TypeDefinitionContainer> m_typeList;
+    private volatile List<TypeDefinitionContainer> m_typeList;
 
     /** The internal map of type definitions. */
-    private Map<String, TypeDefinitionContainerImpl> m_types;
+    private volatile Map<String, TypeDefinitionContainerImpl> m_types;
 
     /**
      * Creates a new type manager instance.<p>
@@ -756,15 +756,18 @@ public class CmsCmisTypeManager {
     }
 
     /**
-     * Creates the base types.
+     * Creates the base types.<p>
+     * 
+     * The types are created in new collections which replace the current ones when complete, 
+     * so concurrent readers always see a complete set of types.<p>
      * 
      * @throws CmsException if something goes wrong 
      */
     void setup() throws CmsException {
 
-        m_types = new HashMap<String, TypeDefinitionContainerImpl>();
-        m_typeList = new ArrayList<TypeDefinitionContainer>();
-        m_cmsPropertyDefinitions = m_adminCms.readAllPropertyDefinitions();
+        Map<String, TypeDefinitionContainerImpl> types = new HashMap<String, TypeDefinitionContainerImpl>();
+        List<TypeDefinitionContainer> typeList = new ArrayList<TypeDefinitionContainer>();
+        List<CmsPropertyDefinition> cmsPropertyDefinitions = m_adminCms.readAllPropertyDefinitions();
 
         // folder type
         FolderTypeDefinitionImpl folderType = new FolderTypeDefinitionImpl();
@@ -785,10 +788,10 @@ public class CmsCmisTypeManager {
 
         addBasePropertyDefinitions(folderType);
         addFolderPropertyDefinitions(folderType);
-        addCmsPropertyDefinitions(folderType);
+        addCmsPropertyDefinitions(folderType, cmsPropertyDefinitions);
         addProviderPropertyDefinitions(folderType);
 
-        addTypeInternal(folderType);
+        addTypeInternal(types, typeList, folderType);
 
         // document type
         DocumentTypeDefinitionImpl documentType = new DocumentTypeDefinitionImpl();
@@ -812,10 +815,10 @@ public class CmsCmisTypeManager {
 
         addBasePropertyDefinitions(documentType);
         addDocumentPropertyDefinitions(documentType);
-        addCmsPropertyDefinitions(documentType);
+        addCmsPropertyDefinitions(documentType, cmsPropertyDefinitions);
         addProviderPropertyDefinitions(documentType);
 
-        addTypeInternal(documentType);
+        addTypeInternal(types, typeList, documentType);
 
         // relationship types
         RelationshipTypeDefinitionImpl relationshipType = new RelationshipTypeDefinitionImpl();
@@ -832,18 +835,21 @@ public class CmsCmisTypeManager {
         relationshipType.setIsQueryable(Boolean.FALSE);
         relationshipType.setQueryName("cmis:relationship");
         relationshipType.setId(RELATIONSHIP_TYPE_ID);
-        List<String> typeList = new ArrayList<String>();
-        typeList.add("cmis:document");
-        typeList.add("cmis:folder");
-        relationshipType.setAllowedSourceTypes(typeList);
-        relationshipType.setAllowedTargetTypes(typeList);
+        List<String> allowedTypes = new ArrayList<String>();
+        allowedTypes.add("cmis:document");
+        allowedTypes.add("cmis:folder");
+        relationshipType.setAllowedSourceTypes(allowedTypes);
+        relationshipType.setAllowedTargetTypes(allowedTypes);
         addBasePropertyDefinitions(relationshipType);
         addRelationPropertyDefinitions(relationshipType);
-        addTypeInternal(relationshipType);
+        addTypeInternal(types, typeList, relationshipType);
 
         for (CmsRelationType relType : CmsRelationType.getAll()) {
-            createRelationshipType(relType);
+            createRelationshipType(types, typeList, relType);
         }
+        m_cmsPropertyDefinitions = cmsPropertyDefinitions;
+        m_typeList = typeList;
+        m_types = types;
         m_lastUpdate = System.currentTimeMillis();
     }
 
@@ -851,10 +857,13 @@ public class CmsCmisTypeManager {
      * Adds the CMIS property definitions corresponding to the OpenCms property definitions to a CMIS type definition.<p>
      *  
      * @param type the type to which the property definitions should be added
+     * @param cmsPropertyDefinitions the OpenCms property definitions 
      */
-    private void addCmsPropertyDefinitions(AbstractTypeDefinition type) {
+    private void addCmsPropertyDefinitions(
+        AbstractTypeDefinition type,
+        List<CmsPropertyDefinition> cmsPropertyDefinitions) {
 
-        for (CmsPropertyDefinition propDef : m_cmsPropertyDefinitions) {
+        for (CmsPropertyDefinition propDef : cmsPropertyDefinitions) {
             type.addPropertyDefinition(createOpenCmsPropertyDefinition(propDef));
             type.addPropertyDefinition(createPropDef(
                 INHERITED_PREFIX + propDef.getName(),
@@ -901,11 +910,16 @@ public class CmsCmisTypeManager {
     /**
      * Adds a type to collection with inheriting base type properties.
      * 
+     * @param types the map of type definitions to add the type to 
+     * @param typeList the list of type definitions to add the type to 
      * @param type the type definition to add
      * 
      * @return true if the type definition was added 
      */
-    private boolean addType(TypeDefinition type) {
+    private boolean addType(
+        Map<String, TypeDefinitionContainerImpl> types,
+        List<TypeDefinitionContainer> typeList,
+        TypeDefinition type) {
 
         if (type == null) {
             return false;
@@ -918,13 +932,13 @@ public class CmsCmisTypeManager {
         // find base type
         TypeDefinition baseType = null;
         if (type.getBaseTypeId() == BaseTypeId.CMIS_DOCUMENT) {
-            baseType = copyTypeDefintion(m_types.get(DOCUMENT_TYPE_ID).getTypeDefinition());
+            baseType = copyTypeDefintion(types.get(DOCUMENT_TYPE_ID).getTypeDefinition());
         } else if (type.getBaseTypeId() == BaseTypeId.CMIS_FOLDER) {
-            baseType = copyTypeDefintion(m_types.get(FOLDER_TYPE_ID).getTypeDefinition());
+            baseType = copyTypeDefintion(types.get(FOLDER_TYPE_ID).getTypeDefinition());
         } else if (type.getBaseTypeId() == BaseTypeId.CMIS_RELATIONSHIP) {
-            baseType = copyTypeDefintion(m_types.get(RELATIONSHIP_TYPE_ID).getTypeDefinition());
+            baseType = copyTypeDefintion(types.get(RELATIONSHIP_TYPE_ID).getTypeDefinition());
         } else if (type.getBaseTypeId() == BaseTypeId.CMIS_POLICY) {
-            baseType = copyTypeDefintion(m_types.get(POLICY_TYPE_ID).getTypeDefinition());
+            baseType = copyTypeDefintion(types.get(POLICY_TYPE_ID).getTypeDefinition());
         } else {
             return false;
         }
@@ -938,22 +952,27 @@ public class CmsCmisTypeManager {
         }
 
         // add it
-        addTypeInternal(newType);
+        addTypeInternal(types, typeList, newType);
         return true;
     }
 
     /**
      * Internal method which adds a new type, without adding any property definitions automatically.<p>
      * 
+     * @param types the map of type definitions to add the type to 
+     * @param typeList the list of type definitions to add the type to 
      * @param type the type to add 
      */
-    private void addTypeInternal(AbstractTypeDefinition type) {
+    private void addTypeInternal(
+        Map<String, TypeDefinitionContainerImpl> types,
+        List<TypeDefinitionContainer> typeList,
+        AbstractTypeDefinition type) {
 
         if (type == null) {
             return;
         }
 
-        if (m_types.containsKey(type.getId())) {
+        if (types.containsKey(type.getId())) {
             // can't overwrite a type
             return;
         }
@@ -963,7 +982,7 @@ public class CmsCmisTypeManager {
 
         // add to parent
         if (type.getParentTypeId() != null) {
-            TypeDefinitionContainerImpl tdc = m_types.get(type.getParentTypeId());
+            TypeDefinitionContainerImpl tdc = types.get(type.getParentTypeId());
             if (tdc != null) {
                 if (tdc.getChildren() == null) {
                     tdc.setChildren(new ArrayList<TypeDefinitionContainer>());
@@ -972,16 +991,21 @@ public class CmsCmisTypeManager {
             }
         }
 
-        m_types.put(type.getId(), tc);
-        m_typeList.add(tc);
+        types.put(type.getId(), tc);
+        typeList.add(tc);
     }
 
     /**
      * Creates a CMIS relationship subtype for a given OpenCms relation type.<p>
      * 
+     * @param types the map of type definitions to add the type to 
+     * @param typeList the list of type definitions to add the type to 
      * @param relType the OpenCms relation type
      */
-    private void createRelationshipType(CmsRelationType relType) {
+    private void createRelationshipType(
+        Map<String, TypeDefinitionContainerImpl> types,
+        List<TypeDefinitionContainer> typeList,
+        CmsRelationType relType) {
 
         // relationship types
         RelationshipTypeDefinitionImpl relationshipType = new RelationshipTypeDefinitionImpl();
@@ -1000,12 +1024,12 @@ public class CmsCmisTypeManager {
         String id = "opencms:" + relType.getName().toUpperCase();
         relationshipType.setQueryName(id);
         relationshipType.setId(id);
-        List<String> typeList = new ArrayList<String>();
-        typeList.add("cmis:document");
-        typeList.add("cmis:folder");
-        relationshipType.setAllowedSourceTypes(typeList);
-        relationshipType.setAllowedTargetTypes(typeList);
-        addType(relationshipType);
+        List<String> allowedTypes = new ArrayList<String>();
+        allowedTypes.add("cmis:document");
+        allowedTypes.add("cmis:folder");
+        relationshipType.setAllowedSourceTypes(allowedTypes);
+        relationshipType.setAllowedTargetTypes(allowedTypes);
+        addType(types, typeList, relationshipType);
     }
 
     /**
@@ -1046,16 +1070,22 @@ public class CmsCmisTypeManager {
 
     /** 
      * Refreshes the internal data if the last update was longer ago than the udpate interval.<p>
+     * 
+     * Only one thread performs the update, all others continue to use the current types.<p>
      */
-    private synchronized void refresh() {
+    private void refresh() {
 
-        try {
-            long now = System.currentTimeMillis();
-            if ((now - m_lastUpdate) > UPDATE_INTERVAL) {
-                setup();
+        if ((System.currentTimeMillis() - m_lastUpdate) <= UPDATE_INTERVAL) {
+            return;
+        }
+        synchronized (this) {
+            try {
+                if ((System.currentTimeMillis() - m_lastUpdate) > UPDATE_INTERVAL) {
+                    setup();
+                }
+            } catch (CmsException e) {
+                LOG.error(e.getLocalizedMessage(), e);
             }
-        } catch (CmsException e) {
-            LOG.error(e.getLocalizedMessage(), e);
         }
     }
 
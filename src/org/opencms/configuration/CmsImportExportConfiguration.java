@@ -145,6 +145,9 @@ public class CmsImportExportConfiguration extends A_CmsXmlConfiguration {
     /** Master node for import/export handlers. */
     public static final String N_IMPORTEXPORTHANDLERS = "importexporthandlers";
 
+    /** The node name of the import threads node. */
+    public static final String N_IMPORTTHREADS = "importthreads";
+
     /** The node name of an individual import version class. */
     public static final String N_IMPORTVERSION = "importversion";
 
@@ -217,6 +220,9 @@ public class CmsImportExportConfiguration extends A_CmsXmlConfiguration {
     /**  The node name of the static export export-rules node. */
     public static final String N_STATICEXPORT_EXPORTRULES = "export-rules";
 
+    /**  The node name of the static export exportthreads node. */
+    public static final String N_STATICEXPORT_EXPORTTHREADS = "exportthreads";
+
     /**  The node name of the static export exporturl node. */
     public static final String N_STATICEXPORT_EXPORTURL = "exporturl";
 
@@ -329,6 +335,9 @@ public class CmsImportExportConfiguration extends A_CmsXmlConfiguration {
         // old webapp rule
         digester.addCallMethod("*/" + N_IMPORTEXPORT + "/" + N_IMPORT + "/" + N_OLDWEBAPPURL, "setOldWebAppUrl", 0);
 
+        // import threads rule
+        digester.addCallMethod("*/" + N_IMPORTEXPORT + "/" + N_IMPORT + "/" + N_IMPORTTHREADS, "setImportThreads", 0);
+
         // add rules for the import versions
         digester.addObjectCreate("*/"
             + N_IMPORTEXPORT
@@ -489,6 +498,13 @@ public class CmsImportExportConfiguration extends A_CmsXmlConfiguration {
             + N_STATICEXPORT_RENDERSETTINGS
             + "/"
             + N_STATICEXPORT_PLAINOPTIMIZATION, "setPlainExportOptimization", 0);
+        // export threads rule
+        digester.addCallMethod("*/"
+            + N_STATICEXPORT
+            + "/"
+            + N_STATICEXPORT_RENDERSETTINGS
+            + "/"
+            + N_STATICEXPORT_EXPORTTHREADS, "setExportThreads", 0);
         // test resource rule
         digester.addCallMethod("*/"
             + N_STATICEXPORT
@@ -713,6 +729,9 @@ public class CmsImportExportConfiguration extends A_CmsXmlConfiguration {
             importElement.addElement(N_OLDWEBAPPURL).setText(m_importExportManager.getOldWebAppUrl());
         }
 
+        // <importthreads> node
+        importElement.addElement(N_IMPORTTHREADS).setText(String.valueOf(m_importExportManager.getImportThreads()));
+
         // <importversions> node
         Element resourcetypesElement = importElement.addElement(N_IMPORTVERSIONS);
         Iterator<I_CmsImport> importVersions = m_importExportManager.getImportVersionClasses().iterator();
@@ -854,6 +873,10 @@ public class CmsImportExportConfiguration extends A_CmsXmlConfiguration {
         rendersettingsElement.addElement(N_STATICEXPORT_PLAINOPTIMIZATION).addText(
             m_staticExportManager.getPlainExportOptimization());
 
+        // <exportthreads> node
+        rendersettingsElement.addElement(N_STATICEXPORT_EXPORTTHREADS).addText(
+            String.valueOf(m_staticExportManager.getExportThreads()));
+
         // <testresource> node
         Element testresourceElement = rendersettingsElement.addElement(N_STATICEXPORT_TESTRESOURCE);
         testresourceElement.addAttribute(A_URI, m_staticExportManager.getTestResource());
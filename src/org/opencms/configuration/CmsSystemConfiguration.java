@@ -144,6 +144,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
     /** The node name for the browser-based node. */
     public static final String N_BROWSER_BASED = "browser-based";
 
+    /** The node name for the cache map factory node. */
+    public static final String N_CACHEMAP = "cachemap";
+
     /** The node name for the cache-enabled node. */
     public static final String N_CACHE_ENABLED = "cache-enabled";
 
@@ -177,6 +180,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
     /** The node name for the defaultusers expression. */
     public static final String N_DEFAULTUSERS = "defaultusers";
 
+    /** The node name for the dependency-tracking node. */
+    public static final String N_DEPENDENCY_TRACKING = "dependency-tracking";
+
     /** The node name for the device selector node. */
     public static final String N_DEVICESELECTOR = "device-selector";
 
@@ -417,6 +423,12 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
     /** The size of the memory monitor's cache for online container pages. */
     public static final String N_SIZE_CONTAINERPAGE_ONLINE = "size-containerpage-online";
 
+    /** The size of the memory monitor's cache for file contents. */
+    public static final String N_SIZE_CONTENTS = "size-contents";
+
+    /** The maximum size of a single file content in the memory monitor's content cache. */
+    public static final String N_SIZE_CONTENTS_MAXENTRY = "size-contents-maxentry";
+
     /** The size of the memory monitor's cache for groups. */
     public static final String N_SIZE_GROUPS = "size-groups";
 
@@ -990,6 +1002,11 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
         digester.addCallParam("*/" + N_SYSTEM + "/" + N_FLEXCACHE + "/" + N_AVGCACHEBYTES, 3);
         digester.addCallParam("*/" + N_SYSTEM + "/" + N_FLEXCACHE + "/" + N_MAXENTRYBYTES, 4);
         digester.addCallParam("*/" + N_SYSTEM + "/" + N_FLEXCACHE + "/" + N_MAXKEYS, 5);
+        // add flexcache dependency tracking
+        digester.addCallMethod(
+            "*/" + N_SYSTEM + "/" + N_FLEXCACHE + "/" + N_DEPENDENCY_TRACKING,
+            "setDependencyTracking",
+            0);
         // add flexcache device selector
         digester.addCallMethod(
             "*/" + N_SYSTEM + "/" + N_FLEXCACHE + "/" + N_DEVICESELECTOR,
@@ -1057,6 +1074,17 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
             "*/" + N_SYSTEM + "/" + N_RESULTCACHE + "/" + N_SIZE_CONTAINERPAGE_ONLINE,
             "setContainerPageOnlineSize",
             0);
+        digester.addCallMethod(
+            "*/" + N_SYSTEM + "/" + N_RESULTCACHE + "/" + N_SIZE_CONTENTS,
+            "setContentCacheSize",
+            0);
+        digester.addCallMethod(
+            "*/" + N_SYSTEM + "/" + N_RESULTCACHE + "/" + N_SIZE_CONTENTS_MAXENTRY,
+            "setContentCacheMaxEntrySize",
+            0);
+        digester.addCallMethod("*/" + N_SYSTEM + "/" + N_RESULTCACHE + "/" + N_CACHEMAP, "addCacheMapFactory", 2);
+        digester.addCallParam("*/" + N_SYSTEM + "/" + N_RESULTCACHE + "/" + N_CACHEMAP, 0, A_TYPE);
+        digester.addCallParam("*/" + N_SYSTEM + "/" + N_RESULTCACHE + "/" + N_CACHEMAP, 1, A_CLASS);
         digester.addSetNext("*/" + N_SYSTEM + "/" + N_RESULTCACHE, "setCacheSettings");
 
         // set the notification time
@@ -1431,6 +1459,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
         flexcacheElement.addElement(N_MAXENTRYBYTES).addText(
             String.valueOf(m_cmsFlexCacheConfiguration.getMaxEntryBytes()));
         flexcacheElement.addElement(N_MAXKEYS).addText(String.valueOf(m_cmsFlexCacheConfiguration.getMaxKeys()));
+        if (!m_cmsFlexCacheConfiguration.isDependencyTracking()) {
+            flexcacheElement.addElement(N_DEPENDENCY_TRACKING).addText(Boolean.FALSE.toString());
+        }
         if (m_cmsFlexCacheConfiguration.getDeviceSelectorConfiguration() != null) {
             Element flexcacheDeviceSelectorElement = flexcacheElement.addElement(N_DEVICESELECTOR);
             flexcacheDeviceSelectorElement.addAttribute(
@@ -1476,6 +1507,19 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
         }
         cacheElement.addElement(N_SIZE_ACLS).setText(Integer.toString(m_cacheSettings.getAclCacheSize()));
         cacheElement.addElement(N_SIZE_PERMISSIONS).setText(Integer.toString(m_cacheSettings.getPermissionCacheSize()));
+        if (m_cacheSettings.getConfiguredContentCacheSize() > -1) {
+            cacheElement.addElement(N_SIZE_CONTENTS).setText(
+                Integer.toString(m_cacheSettings.getConfiguredContentCacheSize()));
+        }
+        if (m_cacheSettings.getConfiguredContentCacheMaxEntrySize() > -1) {
+            cacheElement.addElement(N_SIZE_CONTENTS_MAXENTRY).setText(
+                Integer.toString(m_cacheSettings.getConfiguredContentCacheMaxEntrySize()));
+        }
+        for (Map.Entry<String, String> entry : m_cacheSettings.getCacheMapFactories().entrySet()) {
+            Element cacheMapElement = cacheElement.addElement(N_CACHEMAP);
+            cacheMapElement.addAttribute(A_TYPE, entry.getKey());
+            cacheMapElement.addAttribute(A_CLASS, entry.getValue());
+        }
 
         // content notification settings
         if ((m_notificationTime != null) || (m_notificationProject != null)) {
@@ -39,13 +39,28 @@ import org.opencms.security.CmsPermissionSet;
  */
 public class CmsCacheKey implements I_CmsCacheKey {
 
-    /** Cache key for a list of sub-resources (files and folders) of a folder. */
+    /** 
+     * Cache key for a list of sub-resources (files and folders) of a folder. 
+     * 
+     * @deprecated use {@link CmsVfsCacheKey.KeyType#SUB_ALL} instead
+     */
+    @Deprecated
     public static final String CACHE_KEY_SUBALL = "_all_";
 
-    /** Cache key for a list of sub-files of a folder. */
+    /** 
+     * Cache key for a list of sub-files of a folder. 
+     * 
+     * @deprecated use {@link CmsVfsCacheKey.KeyType#SUB_FILES} instead
+     */
+    @Deprecated
     public static final String CACHE_KEY_SUBFILES = "_files_";
 
-    /** Cache key for a list of sub-folders of a folder. */
+    /** 
+     * Cache key for a list of sub-folders of a folder. 
+     * 
+     * @deprecated use {@link CmsVfsCacheKey.KeyType#SUB_FOLDERS} instead
+     */
+    @Deprecated
     public static final String CACHE_KEY_SUBFOLDERS = "_folders_";
 
     /**
@@ -27,6 +27,10 @@
 
 package org.opencms.db;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * The settings of the OpenCms memory monitor.<p>
  * 
@@ -40,6 +44,15 @@ public class CmsCacheSettings {
     /** The name of the class to generate cache keys. */
     private String m_cacheKeyGenerator;
 
+    /** The configured cache map factory class names, by cache type name. */
+    private Map<String, String> m_cacheMapFactories = new LinkedHashMap<String, String>();
+
+    /** The maximum size in kilobytes of a single file content in the memory monitor's content cache. */
+    private int m_contentCacheMaxEntrySize = -1; // this configuration entry is optional
+
+    /** The size in kilobytes of the memory monitor's cache for file contents. */
+    private int m_contentCacheSize = -1; // this configuration entry is optional
+
     /** The size of the memory monitor's cache for groups. */
     private int m_groupCacheSize;
 
@@ -84,6 +97,17 @@ public class CmsCacheSettings {
         super();
     }
 
+    /**
+     * Adds a cache map factory for the given cache type.<p>
+     * 
+     * @param type the name of the cache type, see {@link org.opencms.monitor.CmsMemoryMonitor.CacheType}
+     * @param className the name of the {@link org.opencms.monitor.I_CmsCacheMapFactory} class to use 
+     */
+    public void addCacheMapFactory(String type, String className) {
+
+        m_cacheMapFactories.put(type, className);
+    }
+
     /**
      * Returns the size of the memory monitor's cache for ACLs.<p>
      *
@@ -104,6 +128,40 @@ public class CmsCacheSettings {
         return m_cacheKeyGenerator;
     }
 
+    /**
+     * Returns the configured cache map factory class names, with the cache type names as keys.<p>
+     * 
+     * @return the configured cache map factory class names
+     */
+    public Map<String, String> getCacheMapFactories() {
+
+        return Collections.unmodifiableMap(m_cacheMapFactories);
+    }
+
+    /**
+     * Returns the maximum size in kilobytes of a single file content in the memory monitor's content cache.<p>
+     *
+     * Might be <code>-1</code> if configuration entry is missing.<p>
+     *
+     * @return the maximum size in kilobytes of a single file content in the content cache
+     */
+    public int getConfiguredContentCacheMaxEntrySize() {
+
+        return m_contentCacheMaxEntrySize;
+    }
+
+    /**
+     * Returns the size in kilobytes of the memory monitor's cache for file contents.<p>
+     *
+     * Might be <code>-1</code> if configuration entry is missing.<p>
+     *
+     * @return the size in kilobytes of the memory monitor's cache for file contents
+     */
+    public int getConfiguredContentCacheSize() {
+
+        return m_contentCacheSize;
+    }
+
     /**
      * Returns the size of the memory monitor's cache for organizational units.<p>
      *
@@ -152,6 +210,32 @@ public class CmsCacheSettings {
         return m_rolesCacheSize;
     }
 
+    /**
+     * Returns the maximum size in kilobytes of a single file content in the memory monitor's content cache.<p>
+     *
+     * @return the maximum size in kilobytes of a single file content in the content cache
+     */
+    public int getContentCacheMaxEntrySize() {
+
+        if (m_contentCacheMaxEntrySize < 0) {
+            return 256;
+        }
+        return m_contentCacheMaxEntrySize;
+    }
+
+    /**
+     * Returns the size in kilobytes of the memory monitor's cache for file contents.<p>
+     *
+     * @return the size in kilobytes of the memory monitor's cache for file contents
+     */
+    public int getContentCacheSize() {
+
+        if (m_contentCacheSize < 0) {
+            return 16384;
+        }
+        return m_contentCacheSize;
+    }
+
     /**
      * Returns the size of the memory monitor's cache for groups.<p>
      *
@@ -304,6 +388,26 @@ public class CmsCacheSettings {
         m_cacheKeyGenerator = classname;
     }
 
+    /**
+     * Sets the maximum size in kilobytes of a single file content in the memory monitor's content cache.<p>
+     *
+     * @param size the maximum size in kilobytes of a single file content in the content cache
+     */
+    public void setContentCacheMaxEntrySize(String size) {
+
+        m_contentCacheMaxEntrySize = getIntValue(size, 256);
+    }
+
+    /**
+     * Sets the size in kilobytes of the memory monitor's cache for file contents.<p>
+     *
+     * @param size the size in kilobytes of the memory monitor's cache for file contents
+     */
+    public void setContentCacheSize(String size) {
+
+        m_contentCacheSize = getIntValue(size, 16384);
+    }
+
     /**
      * Sets the size of the memory monitor's cache for groups.<p>
      *
@@ -31,6 +31,7 @@ import org.opencms.file.CmsProject;
 import org.opencms.file.CmsRequestContext;
 import org.opencms.file.CmsUser;
 import org.opencms.file.CmsVfsException;
+import org.opencms.flex.CmsFlexController;
 import org.opencms.flex.CmsFlexRequestContextInfo;
 import org.opencms.i18n.CmsMessageContainer;
 import org.opencms.main.CmsException;
@@ -81,6 +82,10 @@ public class CmsDbContext {
 
         if (m_requestContext != null) {
             m_flexRequestContextInfo = (CmsFlexRequestContextInfo)m_requestContext.getAttribute(CmsRequestUtil.HEADER_LAST_MODIFIED);
+            if (m_flexRequestContextInfo == null) {
+                // track the reads of all request contexts used while a Flex element is generated
+                m_flexRequestContextInfo = CmsFlexController.getThreadContextInfo();
+            }
         }
     }
 
@@ -122,6 +122,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Locale;
@@ -186,7 +187,12 @@ public final class CmsDriverManager implements I_CmsEventListener {
     /** Attribute login. */
     public static final String ATTRIBUTE_LOGIN = "A_LOGIN";
 
-    /** Cache key for all properties. */
+    /** 
+     * Cache key for all properties. 
+     * 
+     * @deprecated the property list cache uses {@link CmsVfsCacheKey} keys
+     */
+    @Deprecated
     public static final String CACHE_ALL_PROPERTIES = "_CAP_";
 
     /**
@@ -974,7 +980,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
                 CmsUUID publishHistoryId = new CmsUUID((String)event.getData().get(I_CmsEventListener.KEY_PUBLISHID));
                 report = (I_CmsReport)event.getData().get(I_CmsEventListener.KEY_REPORT);
                 dbc = (CmsDbContext)event.getData().get(I_CmsEventListener.KEY_DBCONTEXT);
-                m_monitor.clearCache();
+                clearPublishedResourcesCache(dbc, publishHistoryId);
                 writeExportPoints(dbc, report, publishHistoryId);
                 break;
 
@@ -1044,7 +1050,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
         }
 
         // clear the cache
-        m_monitor.clearAccessControlListCache();
+        clearAccessControlListCache(dbc, destination);
 
         // fire a resource modification event
         Map<String, Object> data = new HashMap<String, Object>(2);
@@ -1196,12 +1202,9 @@ public final class CmsDriverManager implements I_CmsEventListener {
         // copy relations
         copyRelations(dbc, source, newResource);
 
-        // copy the access control entries to the created resource
+        // copy the access control entries to the created resource, this also clears the affected caches
         copyAccessControlEntries(dbc, source, newResource, false);
 
-        // clear the cache
-        m_monitor.clearAccessControlListCache();
-
         List<CmsResource> modifiedResources = new ArrayList<CmsResource>();
         modifiedResources.add(source);
         modifiedResources.add(newResource);
@@ -1886,8 +1889,9 @@ public final class CmsDriverManager implements I_CmsEventListener {
             }
         } finally {
             // clear the internal caches
-            m_monitor.clearAccessControlListCache();
-            m_monitor.flushCache(CmsMemoryMonitor.CacheType.PROPERTY, CmsMemoryMonitor.CacheType.PROPERTY_LIST);
+            m_monitor.flushCache(CmsMemoryMonitor.CacheType.ACL, CmsMemoryMonitor.CacheType.PERMISSION);
+            clearResourceCache(dbc);
+            clearPropertyCache(dbc);
 
             if (newResource != null) {
                 // fire an event that a new resource has been created
@@ -2231,7 +2235,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
             }
         } finally {
             // clear the driver manager cache
-            m_monitor.flushCache(CmsMemoryMonitor.CacheType.PROPERTY, CmsMemoryMonitor.CacheType.PROPERTY_LIST);
+            clearPropertyCache(dbc, resource);
 
             // fire an event that all properties of a resource have been deleted
             OpenCms.fireCmsEvent(new CmsEvent(
@@ -3063,11 +3067,12 @@ public final class CmsDriverManager implements I_CmsEventListener {
         }
 
         // flush all caches
-        m_monitor.clearAccessControlListCache();
         m_monitor.flushCache(
-            CmsMemoryMonitor.CacheType.PROPERTY,
-            CmsMemoryMonitor.CacheType.PROPERTY_LIST,
+            CmsMemoryMonitor.CacheType.ACL,
+            CmsMemoryMonitor.CacheType.PERMISSION,
             CmsMemoryMonitor.CacheType.PROJECT_RESOURCES);
+        clearResourceCache(dbc);
+        clearPropertyCache(dbc);
 
         OpenCms.fireCmsEvent(new CmsEvent(
             I_CmsEventListener.EVENT_RESOURCE_DELETED,
@@ -4243,6 +4248,50 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return acList.getPermissions(user, getGroupsOfUser(dbc, user.getName(), false), getRolesForUser(dbc, user));
     }
 
+    /**
+     * Returns the fingerprint of the principals of the given user.<p>
+     *
+     * The fingerprint is built from the groups and the roles of the user and from the organizational unit of the user,
+     * so users with identical memberships share the same fingerprint. It does not include the user itself, 
+     * so it can only be used to cache permissions of resources without access control entries for the user.<p>
+     *
+     * @param dbc the current database context
+     * @param user the user to get the fingerprint for
+     *
+     * @return the fingerprint of the principals of the user
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public String getPrincipalFingerprint(CmsDbContext dbc, CmsUser user) throws CmsException {
+
+        String remoteAddress = dbc.getRequestContext().getRemoteAddress();
+        String cacheKey = user.getId().toString() + "_" + user.getOuFqn() + "_" + remoteAddress;
+        String fingerprint = m_monitor.getCachedPrincipalFingerprint(cacheKey);
+        if (fingerprint == null) {
+            // sort the ids, so the order of the memberships does not matter
+            Set<String> groupIds = new TreeSet<String>();
+            for (CmsGroup group : getGroupsOfUser(dbc, user.getName(), "", true, false, false, remoteAddress)) {
+                groupIds.add(group.getId().toString());
+            }
+            // the permission checks use the directly assigned roles, all other roles are derived from them
+            Set<String> roleIds = new TreeSet<String>();
+            for (CmsGroup role : getGroupsOfUser(dbc, user.getName(), "", true, true, true, remoteAddress)) {
+                roleIds.add(role.getId().toString());
+            }
+            StringBuffer buffer = new StringBuffer(64 + (40 * (groupIds.size() + roleIds.size())));
+            buffer.append(user.isGuestUser() ? "guest" : "user");
+            buffer.append('|');
+            buffer.append(user.getOuFqn());
+            buffer.append('|');
+            buffer.append(CmsStringUtil.collectionAsString(groupIds, ","));
+            buffer.append('|');
+            buffer.append(CmsStringUtil.collectionAsString(roleIds, ","));
+            fingerprint = CmsUUID.getConstantUUID(buffer.toString()).toString();
+            m_monitor.cachePrincipalFingerprint(cacheKey, fingerprint);
+        }
+        return fingerprint;
+    }
+
     /**
      * Returns the project driver.<p>
      *
@@ -4947,7 +4996,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
         while (i.hasNext()) {
             userDriver.writeAccessControlEntry(dbc, dbc.currentProject(), i.next());
         }
-        m_monitor.clearAccessControlListCache();
+        clearAccessControlListCache(dbc, resource);
     }
 
     /**
@@ -5326,7 +5375,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
     public void lockResource(CmsDbContext dbc, CmsResource resource, CmsLockType type) throws CmsException {
 
         // update the resource cache
-        m_monitor.clearResourceCache();
+        clearResourceCache(dbc);
 
         CmsProject project = dbc.currentProject();
 
@@ -5646,11 +5695,12 @@ public final class CmsDriverManager implements I_CmsEventListener {
         m_lockManager.moveResource(source.getRootPath(), destRes.getRootPath());
 
         // flush all relevant caches
-        m_monitor.clearAccessControlListCache();
         m_monitor.flushCache(
-            CmsMemoryMonitor.CacheType.PROPERTY,
-            CmsMemoryMonitor.CacheType.PROPERTY_LIST,
+            CmsMemoryMonitor.CacheType.ACL,
+            CmsMemoryMonitor.CacheType.PERMISSION,
             CmsMemoryMonitor.CacheType.PROJECT_RESOURCES);
+        clearResourceCache(dbc);
+        clearPropertyCache(dbc);
 
         List<CmsResource> resources = new ArrayList<CmsResource>(4);
         // source
@@ -5913,6 +5963,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
     public void publishJob(CmsObject cms, CmsDbContext dbc, CmsPublishList publishList, I_CmsReport report)
     throws CmsException {
 
+        boolean published = false;
         try {
             // check state and lock
             List<CmsResource> allResources = new ArrayList<CmsResource>(publishList.getFolderList());
@@ -5952,8 +6003,11 @@ public final class CmsDriverManager implements I_CmsEventListener {
 
             CmsProject onlineProject = readProject(dbc, CmsProject.ONLINE_PROJECT_ID);
 
-            // clear the cache
-            m_monitor.clearCache();
+            // clear the offline caches, the online caches are cleared after publishing
+            m_monitor.flushOfflineCache(
+                CmsMemoryMonitor.CacheType.RESOURCE,
+                CmsMemoryMonitor.CacheType.RESOURCE_LIST,
+                CmsMemoryMonitor.CacheType.PROPERTY_LIST);
 
             int publishTag = getNextPublishTag(dbc);
             getProjectDriver(dbc).publishProject(dbc, report, onlineProject, publishList, publishTag);
@@ -5981,9 +6035,14 @@ public final class CmsDriverManager implements I_CmsEventListener {
                 // if project was temporary set context to online project
                 cms.getRequestContext().setCurrentProject(onlineProject);
             }
+            published = true;
         } finally {
             // clear the cache again
-            m_monitor.clearCache();
+            if (published) {
+                clearPublishedResourcesCache(dbc, publishList.getPublishHistoryId());
+            } else {
+                m_monitor.clearCache();
+            }
         }
     }
 
@@ -6364,52 +6423,79 @@ public final class CmsDriverManager implements I_CmsEventListener {
         boolean getFiles,
         boolean checkPermissions) throws CmsException {
 
-        String cacheKey = null;
-        List<CmsResource> resourceList = null;
-        if (m_monitor.isEnabled(CmsMemoryMonitor.CacheType.RESOURCE_LIST)) { // check this here to skip the complex cache key generation
-            String time = "";
-            if (checkPermissions) {
-                // ensure correct caching if site time offset is set
-                if ((dbc.getRequestContext() != null)
-                    && (OpenCms.getSiteManager().getSiteForSiteRoot(dbc.getRequestContext().getSiteRoot()) != null)) {
-                    time += OpenCms.getSiteManager().getSiteForSiteRoot(dbc.getRequestContext().getSiteRoot()).getSiteMatcher().getTimeOffset();
-                }
-            }
-            // try to get the sub resources from the cache
-            cacheKey = getCacheKey(
-                new String[] {
-                    dbc.currentUser().getName(),
-                    getFolders
-                    ? (getFiles ? CmsCacheKey.CACHE_KEY_SUBALL : CmsCacheKey.CACHE_KEY_SUBFOLDERS)
-                    : CmsCacheKey.CACHE_KEY_SUBFILES,
-                    checkPermissions ? "+" + time : "-",
-                    filter.getCacheId(),
-                    resource.getRootPath()},
-                dbc);
+        List<CmsResource> resourceList = readCachedChildResources(dbc, resource, getFolders, getFiles);
 
-            resourceList = m_monitor.getCachedResourceList(cacheKey);
+        if (checkPermissions) {
+            // apply the permission filter, the single permission checks are cached
+            resourceList = filterPermissions(dbc, resourceList, filter);
         }
-        if ((resourceList == null) || !dbc.getProjectId().isNullUUID()) {
-            // read the result form the database
-            resourceList = getVfsDriver(dbc).readChildResources(
-                dbc,
-                dbc.currentProject(),
-                resource,
-                getFolders,
-                getFiles);
 
-            if (checkPermissions) {
-                // apply the permission filter
-                resourceList = filterPermissions(dbc, resourceList, filter);
+        // we must always apply the result filter and update the context dates
+        updateContextDependencies(dbc, resource, false);
+        return updateContextDates(dbc, resourceList, filter);
+    }
+
+    /**
+     * Returns a page of the child resources of a resource, that is the resources
+     * contained in a folder.<p>
+     *
+     * Other than {@link #readChildResources(CmsDbContext, CmsResource, CmsResourceFilter, boolean, boolean, boolean)}
+     * the permissions and the filter are only checked for the children up to the requested page, 
+     * so browsing large folders page by page does not check all children every time.<p>
+     *
+     * @param dbc the current database context
+     * @param resource the resource to return the child resources for
+     * @param filter the resource filter to use
+     * @param getFolders if true the child folders are included in the result
+     * @param getFiles if true the child files are included in the result
+     * @param skipCount the number of readable child resources to skip
+     * @param maxItems the maximum number of child resources to return
+     *
+     * @return a list of at most <code>maxItems</code> child resources
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public List<CmsResource> readChildResources(
+        CmsDbContext dbc,
+        CmsResource resource,
+        CmsResourceFilter filter,
+        boolean getFolders,
+        boolean getFiles,
+        int skipCount,
+        int maxItems) throws CmsException {
+
+        // only the children up to the requested page are checked in the shared child list
+        List<CmsResource> resourceList = readCachedChildResources(dbc, resource, getFolders, getFiles);
+
+        CmsResourceFilter permissionFilter = filter;
+        if (permissionFilter.requireTimerange()) {
+            // the time range is checked with the filter itself
+            permissionFilter = permissionFilter.addExcludeTimerange();
+        }
+        List<CmsResource> result = new ArrayList<CmsResource>();
+        int skip = skipCount;
+        for (int i = 0; (i < resourceList.size()) && (result.size() < maxItems); i++) {
+            CmsResource currentResource = resourceList.get(i);
+            if (!filter.isValid(dbc.getRequestContext(), currentResource)
+                || !m_securityManager.hasPermissions(
+                    dbc,
+                    currentResource,
+                    CmsPermissionSet.ACCESS_READ,
+                    true,
+                    permissionFilter).isAllowed()) {
+                continue;
             }
-            // cache the sub resources
-            if (dbc.getProjectId().isNullUUID()) {
-                m_monitor.cacheResourceList(cacheKey, resourceList);
+            if (skip > 0) {
+                skip--;
+            } else {
+                result.add(currentResource);
             }
         }
 
-        // we must always apply the result filter and update the context dates
-        return updateContextDates(dbc, resourceList, filter);
+        // the context dates depend on all child resources, including the "invalid" ones
+        updateContextDependencies(dbc, resource, false);
+        updateContextDates(dbc, resourceList);
+        return result;
     }
 
     /**
@@ -6669,7 +6755,19 @@ public final class CmsDriverManager implements I_CmsEventListener {
                 ((I_CmsHistoryResource)resource).getPublishTag()));
         } else {
             file = new CmsFile(resource);
-            file.setContents(getVfsDriver(dbc).readContent(dbc, projectId, resource.getResourceId()));
+            byte[] content = null;
+            boolean online = projectId.equals(CmsProject.ONLINE_PROJECT_ID);
+            if (online) {
+                // online contents only change during publishing, so the content date identifies the cached content
+                content = m_monitor.getCachedContent(resource.getResourceId(), resource.getDateContent());
+            }
+            if (content == null) {
+                content = getVfsDriver(dbc).readContent(dbc, projectId, resource.getResourceId());
+                if (online) {
+                    m_monitor.cacheContent(resource.getResourceId(), resource.getDateContent(), content);
+                }
+            }
+            file.setContents(content);
         }
         return file;
     }
@@ -6999,9 +7097,10 @@ public final class CmsDriverManager implements I_CmsEventListener {
 
         String cp = currentPath.toString();
         CmsUUID projectId = getProjectIdForContext(dbc);
+        boolean online = CmsProject.isOnlineProject(projectId);
 
         // key to cache the resources
-        String cacheKey = getCacheKey(null, false, projectId, cp);
+        CmsVfsCacheKey cacheKey = new CmsVfsCacheKey(CmsVfsCacheKey.KeyType.RESOURCE, online, cp);
         // the current resource
         CmsResource currentResource = m_monitor.getCachedResource(cacheKey);
         if ((currentResource == null) || !dbc.getProjectId().isNullUUID()) {
@@ -7028,7 +7127,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
             currentPath.append('/');
             // read the folder
             cp = currentPath.toString();
-            cacheKey = getCacheKey(null, false, projectId, cp);
+            cacheKey = new CmsVfsCacheKey(CmsVfsCacheKey.KeyType.RESOURCE, online, cp);
             currentResource = m_monitor.getCachedResource(cacheKey);
             if ((currentResource == null) || !dbc.getProjectId().isNullUUID()) {
                 currentResource = getVfsDriver(dbc).readFolder(dbc, projectId, cp);
@@ -7055,7 +7154,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
 
             // read the file
             cp = currentPath.toString();
-            cacheKey = getCacheKey(null, false, projectId, cp);
+            cacheKey = new CmsVfsCacheKey(CmsVfsCacheKey.KeyType.RESOURCE, online, cp);
             currentResource = m_monitor.getCachedResource(cacheKey);
             if ((currentResource == null) || !dbc.getProjectId().isNullUUID()) {
                 currentResource = getVfsDriver(dbc).readResource(dbc, projectId, cp, filter.includeDeleted());
@@ -7250,44 +7349,21 @@ public final class CmsDriverManager implements I_CmsEventListener {
     public List<CmsProperty> readPropertyObjects(CmsDbContext dbc, CmsResource resource, boolean search)
     throws CmsException {
 
+        updateContextPropertyDependencies(dbc, resource, search);
+
         // check if we have the result already cached
         CmsUUID projectId = getProjectIdForContext(dbc);
-        String cacheKey = getCacheKey(CACHE_ALL_PROPERTIES, search, projectId, resource.getRootPath());
+        CmsVfsCacheKey cacheKey = new CmsVfsCacheKey(
+            search ? CmsVfsCacheKey.KeyType.PROPERTIES_SEARCH : CmsVfsCacheKey.KeyType.PROPERTIES,
+            CmsProject.isOnlineProject(projectId),
+            resource.getRootPath());
 
         List<CmsProperty> properties = m_monitor.getCachedPropertyList(cacheKey);
 
         if ((properties == null) || !dbc.getProjectId().isNullUUID()) {
             // result not cached, let's look it up in the DB
             if (search) {
-                boolean cont;
-                properties = new ArrayList<CmsProperty>();
-                List<CmsProperty> parentProperties = null;
-
-                do {
-                    try {
-                        parentProperties = readPropertyObjects(dbc, resource, false);
-
-                        // make sure properties from lower folders "overwrite" properties from upper folders
-                        parentProperties.removeAll(properties);
-                        parentProperties.addAll(properties);
-
-                        properties.clear();
-                        properties.addAll(parentProperties);
-
-                        cont = resource.getRootPath().length() > 1;
-                    } catch (CmsSecurityException se) {
-                        // a security exception (probably no read permission) we return the current result
-                        cont = false;
-                    }
-                    if (cont) {
-                        // no permission check on parent folder is required since we must have "read"
-                        // permissions to read the child resource anyway
-                        resource = readResource(
-                            dbc,
-                            CmsResource.getParentFolder(resource.getRootPath()),
-                            CmsResourceFilter.ALL);
-                    }
-                } while (cont);
+                properties = readInheritedPropertyObjects(dbc, resource);
             } else {
                 properties = getVfsDriver(dbc).readPropertyObjects(dbc, dbc.currentProject(), resource);
                 //                for (CmsProperty prop : properties) {
@@ -7436,7 +7512,17 @@ public final class CmsDriverManager implements I_CmsEventListener {
 
         CmsUUID projectId = getProjectIdForContext(dbc);
         // please note: the filter will be applied in the security manager later
-        CmsResource resource = getVfsDriver(dbc).readResource(dbc, projectId, structureID, filter.includeDeleted());
+        CmsResource resource;
+        try {
+            resource = getVfsDriver(dbc).readResource(dbc, projectId, structureID, filter.includeDeleted());
+        } catch (CmsVfsResourceNotFoundException e) {
+            // the path of a missing resource is unknown, so the dependencies can not be tracked
+            CmsFlexRequestContextInfo info = dbc.getFlexRequestContextInfo();
+            if (info != null) {
+                info.getDependencies().setUntracked();
+            }
+            throw e;
+        }
 
         // context dates need to be updated
         updateContextDates(dbc, resource);
@@ -7465,7 +7551,17 @@ public final class CmsDriverManager implements I_CmsEventListener {
 
         CmsUUID projectId = getProjectIdForContext(dbc);
         // please note: the filter will be applied in the security manager later
-        CmsResource resource = getVfsDriver(dbc).readResource(dbc, projectId, resourcePath, filter.includeDeleted());
+        CmsResource resource;
+        try {
+            resource = getVfsDriver(dbc).readResource(dbc, projectId, resourcePath, filter.includeDeleted());
+        } catch (CmsVfsResourceNotFoundException e) {
+            // the result depends on the missing resource, it changes if the resource is created
+            CmsFlexRequestContextInfo info = dbc.getFlexRequestContextInfo();
+            if (info != null) {
+                info.updateFromMissingResource(resourcePath);
+            }
+            throw e;
+        }
 
         // context dates need to be updated
         updateContextDates(dbc, resource);
@@ -7496,11 +7592,13 @@ public final class CmsDriverManager implements I_CmsEventListener {
         boolean readTree) throws CmsException, CmsDataAccessException {
 
         // try to get the sub resources from the cache
-        String cacheKey = getCacheKey(new String[] {
+        CmsVfsCacheKey cacheKey = new CmsVfsCacheKey(
+            CmsVfsCacheKey.KeyType.RESOURCES,
+            isOnlineCacheKey(dbc),
+            parent.getRootPath(),
             dbc.currentUser().getName(),
             filter.getCacheId(),
-            readTree ? "+" : "-",
-            parent.getRootPath()}, dbc);
+            Boolean.valueOf(readTree));
 
         List<CmsResource> resourceList = m_monitor.getCachedResourceList(cacheKey);
         if ((resourceList == null) || !dbc.getProjectId().isNullUUID()) {
@@ -7535,6 +7633,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
             }
         }
         // we must always apply the result filter and update the context dates
+        updateContextDependencies(dbc, parent, readTree);
         return updateContextDates(dbc, resourceList, filter);
     }
 
@@ -7584,21 +7683,14 @@ public final class CmsDriverManager implements I_CmsEventListener {
         String value,
         CmsResourceFilter filter) throws CmsException {
 
-        String cacheKey;
-        if (value == null) {
-            cacheKey = getCacheKey(new String[] {
-                dbc.currentUser().getName(),
-                folder.getRootPath(),
-                propertyDefinition,
-                filter.getCacheId()}, dbc);
-        } else {
-            cacheKey = getCacheKey(new String[] {
-                dbc.currentUser().getName(),
-                folder.getRootPath(),
-                propertyDefinition,
-                value,
-                filter.getCacheId()}, dbc);
-        }
+        CmsVfsCacheKey cacheKey = new CmsVfsCacheKey(
+            CmsVfsCacheKey.KeyType.RESOURCES_WITH_PROPERTY,
+            isOnlineCacheKey(dbc),
+            folder.getRootPath(),
+            dbc.currentUser().getName(),
+            propertyDefinition,
+            value,
+            filter.getCacheId());
         List<CmsResource> resourceList = m_monitor.getCachedResourceList(cacheKey);
         if ((resourceList == null) || !dbc.getProjectId().isNullUUID()) {
             // first read the property definition
@@ -7618,6 +7710,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
             }
         }
         // we must always apply the result filter and update the context dates
+        updateContextDependencies(dbc, folder, true);
         return updateContextDates(dbc, resourceList, filter);
     }
 
@@ -7935,7 +8028,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
         setDateLastModified(dbc, resource, resource.getDateLastModified());
 
         // clear the cache
-        m_monitor.clearAccessControlListCache();
+        clearAccessControlListCache(dbc, resource);
 
         // fire a resource modification event
         Map<String, Object> data = new HashMap<String, Object>(2);
@@ -8178,7 +8271,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
         if ((properties != null) && !properties.isEmpty()) {
             // write the properties
             getVfsDriver(dbc).writePropertyObjects(dbc, dbc.currentProject(), resource, properties);
-            m_monitor.flushCache(CmsMemoryMonitor.CacheType.PROPERTY, CmsMemoryMonitor.CacheType.PROPERTY_LIST);
+            clearPropertyCache(dbc, resource);
         }
 
         // update the resource state
@@ -8201,7 +8294,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
         deleteRelationsWithSiblings(dbc, resource);
 
         // clear the cache
-        m_monitor.clearResourceCache();
+        clearResourceCache(dbc);
 
         if ((properties != null) && !properties.isEmpty()) {
             // resource and properties were modified
@@ -8495,7 +8588,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
             // write them to the restored resource
             writePropertyObjects(dbc, newResource, historyProperties, false);
 
-            m_monitor.clearResourceCache();
+            clearResourceCache(dbc);
         }
 
         Map<String, Object> data = new HashMap<String, Object>(2);
@@ -8597,7 +8690,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
             new String[] {resource.getRootPath()}), false);
 
         // clear the cache
-        m_monitor.clearResourceCache();
+        clearResourceCache(dbc);
 
         // fire the event
         Map<String, Object> data = new HashMap<String, Object>(2);
@@ -8639,7 +8732,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
             new String[] {resource.getRootPath()}), false);
 
         // clear the cache
-        m_monitor.clearResourceCache();
+        clearResourceCache(dbc);
 
         // fire the event
         Map<String, Object> data = new HashMap<String, Object>(2);
@@ -8680,7 +8773,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
             new String[] {resource.getRootPath()}), false);
 
         // clear the cache
-        m_monitor.clearResourceCache();
+        clearResourceCache(dbc);
 
         // fire the event
         Map<String, Object> data = new HashMap<String, Object>(2);
@@ -8838,7 +8931,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
             CmsLogEntryType.RESOURCE_UNDELETED,
             new String[] {resource.getRootPath()}), false);
         // clear the cache
-        m_monitor.clearResourceCache();
+        clearResourceCache(dbc);
 
         // fire change event
         Map<String, Object> data = new HashMap<String, Object>(2);
@@ -8931,7 +9024,11 @@ public final class CmsDriverManager implements I_CmsEventListener {
 
         // unlock all resources in the project
         m_lockManager.removeResourcesInProject(project.getUuid(), false);
-        m_monitor.clearResourceCache();
+        if (project.isOnlineProject()) {
+            m_monitor.clearResourceCache();
+        } else {
+            m_monitor.clearOfflineResourceCache();
+        }
         m_monitor.flushCache(CmsMemoryMonitor.CacheType.PROJECT, CmsMemoryMonitor.CacheType.PERMISSION);
     }
 
@@ -8952,7 +9049,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
     throws CmsException {
 
         // update the resource cache
-        m_monitor.clearResourceCache();
+        clearResourceCache(dbc);
 
         // now update lock status
         m_lockManager.removeResource(dbc, resource, force, removeSystemLock);
@@ -9313,7 +9410,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
         setDateLastModified(dbc, resource, resource.getDateLastModified());
 
         // clear the cache
-        m_monitor.clearAccessControlListCache();
+        clearAccessControlListCache(dbc, resource);
 
         // fire a resource modification event
         Map<String, Object> data = new HashMap<String, Object>(2);
@@ -9494,7 +9591,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
         deleteRelationsWithSiblings(dbc, resource);
 
         // update the cache
-        m_monitor.clearResourceCache();
+        clearResourceCache(dbc);
 
         Map<String, Object> data = new HashMap<String, Object>(2);
         data.put(I_CmsEventListener.KEY_RESOURCE, resource);
@@ -9681,8 +9778,8 @@ public final class CmsDriverManager implements I_CmsEventListener {
 
         } finally {
             // update the driver manager cache
-            m_monitor.clearResourceCache();
-            m_monitor.flushCache(CmsMemoryMonitor.CacheType.PROPERTY, CmsMemoryMonitor.CacheType.PROPERTY_LIST);
+            clearResourceCache(dbc);
+            clearPropertyCache(dbc, resource);
 
             // fire an event that a property of a resource has been modified
             Map<String, Object> data = new HashMap<String, Object>();
@@ -9762,8 +9859,8 @@ public final class CmsDriverManager implements I_CmsEventListener {
             }
         } finally {
             // update the driver manager cache
-            m_monitor.clearResourceCache();
-            m_monitor.flushCache(CmsMemoryMonitor.CacheType.PROPERTY, CmsMemoryMonitor.CacheType.PROPERTY_LIST);
+            clearResourceCache(dbc);
+            clearPropertyCache(dbc, resource);
 
             // fire an event that the properties of a resource have been modified
             OpenCms.fireCmsEvent(new CmsEvent(
@@ -9830,7 +9927,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
         }
 
         // update the cache
-        m_monitor.clearResourceCache();
+        clearResourceCache(dbc);
         Map<String, Object> data = new HashMap<String, Object>(2);
         data.put(I_CmsEventListener.KEY_RESOURCE, resource);
         data.put(I_CmsEventListener.KEY_CHANGE, new Integer(CHANGED_RESOURCE));
@@ -10353,6 +10450,100 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return false;
     }
 
+    /**
+     * Clears the access control list and permission caches affected by a change 
+     * of the access control entries of the given resource.<p>
+     *
+     * Only the entries of the resource and its sub-tree are removed. Since the access control entries 
+     * are shared by all siblings, the caches are cleared completely for a resource with siblings.<p>
+     *
+     * @param dbc the database context
+     * @param resource the resource whose access control entries have changed
+     */
+    private void clearAccessControlListCache(CmsDbContext dbc, CmsResource resource) {
+
+        if (resource.getSiblingCount() > 1) {
+            m_monitor.clearAccessControlListCache();
+        } else {
+            m_monitor.uncacheAccessControlLists(dbc.currentProject().isOnlineProject(), resource.getRootPath());
+        }
+    }
+
+    /**
+     * Clears the property caches affected by a property change in the project of the given context.<p>
+     *
+     * Changes in an offline project only flush the offline property caches.<p>
+     *
+     * @param dbc the database context
+     */
+    private void clearPropertyCache(CmsDbContext dbc) {
+
+        if (CmsProject.isOnlineProject(getProjectIdForContext(dbc))) {
+            m_monitor.flushCache(CmsMemoryMonitor.CacheType.PROPERTY, CmsMemoryMonitor.CacheType.PROPERTY_LIST);
+        } else {
+            m_monitor.flushOfflineCache(CmsMemoryMonitor.CacheType.PROPERTY, CmsMemoryMonitor.CacheType.PROPERTY_LIST);
+        }
+    }
+
+    /**
+     * Clears the property caches affected by a property change of the given resource.<p>
+     *
+     * Only the property lists of the resource and the inherited property lists of its sub-tree 
+     * are removed. If the resource is unknown or has siblings, which share the resource properties, 
+     * all property lists of the project are flushed.<p>
+     *
+     * @param dbc the database context
+     * @param resource the resource whose properties have changed, may be <code>null</code>
+     */
+    private void clearPropertyCache(CmsDbContext dbc, CmsResource resource) {
+
+        if ((resource == null) || (resource.getSiblingCount() > 1)) {
+            clearPropertyCache(dbc);
+            return;
+        }
+        m_monitor.flushCache(CmsMemoryMonitor.CacheType.PROPERTY);
+        m_monitor.uncachePropertyLists(
+            CmsProject.isOnlineProject(getProjectIdForContext(dbc)),
+            resource.getRootPath());
+    }
+
+    /**
+     * Clears the caches affected by the given publish job.<p>
+     *
+     * If the published resources can not be read, all caches are cleared.<p>
+     *
+     * @param dbc the database context
+     * @param publishHistoryId the publish history id of the publish job
+     */
+    private void clearPublishedResourcesCache(CmsDbContext dbc, CmsUUID publishHistoryId) {
+
+        List<CmsPublishedResource> publishedResources;
+        try {
+            publishedResources = getProjectDriver(dbc).readPublishedResources(dbc, publishHistoryId);
+        } catch (CmsException e) {
+            LOG.error(e.getLocalizedMessage(), e);
+            m_monitor.clearCache();
+            return;
+        }
+        m_monitor.clearCacheForPublishedResources(publishedResources);
+    }
+
+    /**
+     * Clears the resource caches affected by a resource change in the project of the given context.<p>
+     *
+     * Changes in an offline project only flush the offline resource caches.<p>
+     *
+     * @param dbc the database context
+     */
+    private void clearResourceCache(CmsDbContext dbc) {
+
+        if (CmsProject.isOnlineProject(getProjectIdForContext(dbc))) {
+            m_monitor.clearResourceCache();
+        } else {
+            m_monitor.clearOfflineResourceCache();
+        }
+    }
+
     /**
      * Copies all relations from the source resource to the target resource.<p>
      *
@@ -10578,26 +10769,39 @@ public final class CmsDriverManager implements I_CmsEventListener {
         boolean forFolder,
         int depth) throws CmsException {
 
-        String cacheKey = getCacheKey(
-            new String[] {
-                inheritedOnly ? "+" : "-",
-                forFolder ? "+" : "-",
-                Integer.toString(depth),
-                resource.getStructureId().toString()},
-            dbc);
-
-        CmsAccessControlList acl = m_monitor.getCachedACL(cacheKey);
+        // above the direct parent of a file, only the inherited entries of a folder are used, 
+        // and they are the same for all descendants at any depth, so this part of the list 
+        // is compiled once per folder and shared by all descendants
+        boolean inherited = (depth > 1) || ((depth > 0) && forFolder);
+        CmsVfsCacheKey cacheKey = null;
+        CmsAccessControlList acl = null;
+        if (dbc.getProjectId().isNullUUID()) {
+            // the root path is part of the key, so the entries of a sub-tree can be removed 
+            cacheKey = inherited ? new CmsVfsCacheKey(
+                CmsVfsCacheKey.KeyType.ACL,
+                dbc.currentProject().isOnlineProject(),
+                resource.getRootPath(),
+                resource.getStructureId()) : new CmsVfsCacheKey(
+                CmsVfsCacheKey.KeyType.ACL,
+                dbc.currentProject().isOnlineProject(),
+                resource.getRootPath(),
+                resource.getStructureId(),
+                Boolean.valueOf(inheritedOnly),
+                Boolean.valueOf(forFolder),
+                Integer.valueOf(depth));
 
-        // return the cached acl if already available
-        if ((acl != null) && dbc.getProjectId().isNullUUID()) {
-            return acl;
+            // return the cached acl if already available
+            acl = m_monitor.getCachedACL(cacheKey);
+            if (acl != null) {
+                return acl;
+            }
         }
 
         List<CmsAccessControlEntry> aces = getUserDriver(dbc).readAccessControlEntries(
             dbc,
             dbc.currentProject(),
             resource.getResourceId(),
-            (depth > 1) || ((depth > 0) && forFolder));
+            inherited);
 
         // sort the list of aces
         boolean overwriteAll = sortAceList(aces);
@@ -10649,62 +10853,12 @@ public final class CmsDriverManager implements I_CmsEventListener {
                 }
             }
         }
-        if (dbc.getProjectId().isNullUUID()) {
+        if (cacheKey != null) {
             m_monitor.cacheACL(cacheKey, acl);
         }
         return acl;
     }
 
-    /**
-     * Return a cache key build from the provided information.<p>
-     *
-     * @param prefix a prefix for the key
-     * @param flag a boolean flag for the key (only used if prefix is not null)
-     * @param projectId the project for which to generate the key
-     * @param resource the resource for which to generate the key
-     *
-     * @return String a cache key build from the provided information
-     */
-    private String getCacheKey(String prefix, boolean flag, CmsUUID projectId, String resource) {
-
-        StringBuffer b = new StringBuffer(64);
-        if (prefix != null) {
-            b.append(prefix);
-            b.append(flag ? '+' : '-');
-        }
-        b.append(CmsProject.isOnlineProject(projectId) ? '+' : '-');
-        return b.append(resource).toString();
-    }
-
-    /**
-     * Return a cache key build from the provided information.<p>
-     *
-     * @param keys an array of keys to generate the cache key from
-     * @param dbc the database context for which to generate the key
-     *
-     * @return String a cache key build from the provided information
-     */
-    private String getCacheKey(String[] keys, CmsDbContext dbc) {
-
-        if (!dbc.getProjectId().isNullUUID()) {
-            return "";
-        }
-        StringBuffer b = new StringBuffer(64);
-        int len = keys.length;
-        if (len > 0) {
-            for (int i = 0; i < len; i++) {
-                b.append(keys[i]);
-                b.append('_');
-            }
-        }
-        if (dbc.currentProject().isOnlineProject()) {
-            b.append("+");
-        } else {
-            b.append("-");
-        }
-        return b.toString();
-    }
-
     /**
      * Returns the correct project id.<p>
      *
@@ -10933,6 +11087,66 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return allUsers;
     }
 
+    /**
+     * Checks if the cache keys for the given database context have to be generated for the online project.<p>
+     *
+     * @param dbc the database context
+     *
+     * @return <code>true</code> if the current project of the database context is the online project
+     */
+    private boolean isOnlineCacheKey(CmsDbContext dbc) {
+
+        return dbc.currentProject().isOnlineProject();
+    }
+
+    /**
+     * Reads the child resources of a folder, using the child list cache that is shared by all users.<p>
+     *
+     * The cached child list is the raw list of the folder, independent of the user and the filter, 
+     * so the caller has to apply the filter and the permission checks. The returned list must not be modified.<p>
+     *
+     * @param dbc the current database context
+     * @param resource the folder to read the child resources for
+     * @param getFolders if true the child folders are included in the result
+     * @param getFiles if true the child files are included in the result
+     *
+     * @return the child resources of the folder
+     *
+     * @throws CmsException if something goes wrong
+     */
+    private List<CmsResource> readCachedChildResources(
+        CmsDbContext dbc,
+        CmsResource resource,
+        boolean getFolders,
+        boolean getFiles) throws CmsException {
+
+        CmsVfsCacheKey cacheKey = null;
+        List<CmsResource> resourceList = null;
+        if (m_monitor.isEnabled(CmsMemoryMonitor.CacheType.RESOURCE_LIST)) {
+            // try to get the sub resources from the cache
+            CmsVfsCacheKey.KeyType type = getFolders
+            ? (getFiles ? CmsVfsCacheKey.KeyType.SUB_ALL : CmsVfsCacheKey.KeyType.SUB_FOLDERS)
+            : CmsVfsCacheKey.KeyType.SUB_FILES;
+            cacheKey = new CmsVfsCacheKey(type, isOnlineCacheKey(dbc), resource.getRootPath());
+            resourceList = m_monitor.getCachedResourceList(cacheKey);
+        }
+        if ((resourceList == null) || !dbc.getProjectId().isNullUUID()) {
+            // read the result form the database
+            resourceList = getVfsDriver(dbc).readChildResources(
+                dbc,
+                dbc.currentProject(),
+                resource,
+                getFolders,
+                getFiles);
+
+            // cache the sub resources
+            if (dbc.getProjectId().isNullUUID() && (cacheKey != null)) {
+                m_monitor.cacheResourceList(cacheKey, resourceList);
+            }
+        }
+        return resourceList;
+    }
+
     /**
      * Reads all resources that are inside and changed in a specified project.<p>
      *
@@ -11008,6 +11222,50 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return result;
     }
 
+    /**
+     * Reads the properties of a resource including the properties inherited from its parent folders.<p>
+     *
+     * The result is built from the own properties of the resource and the inherited properties of 
+     * its parent folder. The latter are read with {@link #readPropertyObjects(CmsDbContext, CmsResource, boolean)}, 
+     * so they are computed only once per folder and taken from the property list cache for all descendants.<p>
+     *
+     * @param dbc the current database context
+     * @param resource the resource to read the properties for
+     *
+     * @return the properties of the resource, with the properties of lower folders overwriting those of upper folders
+     *
+     * @throws CmsException if something goes wrong
+     */
+    private List<CmsProperty> readInheritedPropertyObjects(CmsDbContext dbc, CmsResource resource)
+    throws CmsException {
+
+        List<CmsProperty> ownProperties;
+        try {
+            ownProperties = readPropertyObjects(dbc, resource, false);
+        } catch (CmsSecurityException se) {
+            // a security exception (probably no read permission), there is nothing to inherit
+            return new ArrayList<CmsProperty>();
+        }
+        String parentPath = CmsResource.getParentFolder(resource.getRootPath());
+        if (parentPath == null) {
+            return ownProperties;
+        }
+
+        // no permission check on parent folder is required since we must have "read"
+        // permissions to read the child resource anyway
+        CmsResource parent = readResource(dbc, parentPath, CmsResourceFilter.ALL);
+        Map<String, CmsProperty> properties = new LinkedHashMap<String, CmsProperty>();
+        for (CmsProperty property : readPropertyObjects(dbc, parent, true)) {
+            properties.put(property.getName(), property);
+        }
+        // make sure properties from lower folders "overwrite" properties from upper folders
+        for (CmsProperty property : ownProperties) {
+            properties.remove(property.getName());
+            properties.put(property.getName(), property);
+        }
+        return new ArrayList<CmsProperty>(properties.values());
+    }
+
     /**
      * Sorts the given list of {@link CmsAccessControlEntry} objects.<p>
      *
@@ -11301,8 +11559,8 @@ public final class CmsDriverManager implements I_CmsEventListener {
         }
 
         // update the cache
-        m_monitor.clearResourceCache();
-        m_monitor.flushCache(CmsMemoryMonitor.CacheType.PROPERTY, CmsMemoryMonitor.CacheType.PROPERTY_LIST);
+        clearResourceCache(dbc);
+        clearPropertyCache(dbc);
 
         if ((offlineResource == null) || offlineResource.getRootPath().equals(onlineResource.getRootPath())) {
             log(dbc, new CmsLogEntry(
@@ -11416,6 +11674,39 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return result;
     }
 
+    /**
+     * Updates the dependencies of the current users context with a folder whose resources have been read.<p>
+     *
+     * This is required for the removal of elements from the Flex cache that list the resources of a folder,
+     * in case a resource is added to or removed from the folder.<p>
+     *
+     * @param dbc the current database context
+     * @param folder the folder whose resources have been read
+     * @param readTree <code>true</code> if the complete sub tree of the folder has been read
+     */
+    private void updateContextDependencies(CmsDbContext dbc, CmsResource folder, boolean readTree) {
+
+        CmsFlexRequestContextInfo info = dbc.getFlexRequestContextInfo();
+        if (info != null) {
+            info.updateFromFolder(folder, readTree);
+        }
+    }
+
+    /**
+     * Updates the dependencies of the current users context with a resource whose properties have been read.<p>
+     *
+     * @param dbc the current database context
+     * @param resource the resource whose properties have been read
+     * @param search <code>true</code> if the properties have been read with inheritance from the parent folders
+     */
+    private void updateContextPropertyDependencies(CmsDbContext dbc, CmsResource resource, boolean search) {
+
+        CmsFlexRequestContextInfo info = dbc.getFlexRequestContextInfo();
+        if (info != null) {
+            info.updateFromProperties(resource, search);
+        }
+    }
+
     /**
      * Updates the state of a resource, depending on the <code>resourceState</code> parameter.<p>
      *
@@ -4002,6 +4002,58 @@ public final class CmsSecurityManager {
         return result;
     }
 
+    /**
+     * Returns a page of the child resources of a resource, that is the resources
+     * contained in a folder.<p>
+     * 
+     * @param context the current request context
+     * @param resource the resource to return the child resources for
+     * @param filter the resource filter to use
+     * @param getFolders if true the child folders are included in the result
+     * @param getFiles if true the child files are included in the result
+     * @param skipCount the number of readable child resources to skip
+     * @param maxItems the maximum number of child resources to return
+     *
+     * @return a list of at most <code>maxItems</code> child resources
+     *
+     * @throws CmsException if something goes wrong
+     * @throws CmsSecurityException if the user has insufficient permission for the given resource (read is required)
+     * 
+     * @see CmsDriverManager#readChildResources(CmsDbContext, CmsResource, CmsResourceFilter, boolean, boolean, int, int)
+     */
+    public List<CmsResource> readChildResources(
+        CmsRequestContext context,
+        CmsResource resource,
+        CmsResourceFilter filter,
+        boolean getFolders,
+        boolean getFiles,
+        int skipCount,
+        int maxItems) throws CmsException, CmsSecurityException {
+
+        List<CmsResource> result = null;
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            // check the access permissions
+            checkPermissions(dbc, resource, CmsPermissionSet.ACCESS_READ, true, CmsResourceFilter.ALL);
+            result = m_driverManager.readChildResources(
+                dbc,
+                resource,
+                filter,
+                getFolders,
+                getFiles,
+                skipCount,
+                maxItems);
+        } catch (Exception e) {
+            dbc.report(
+                null,
+                Messages.get().container(Messages.ERR_READ_CHILD_RESOURCES_1, context.getSitePath(resource)),
+                e);
+        } finally {
+            dbc.clear();
+        }
+        return result;
+    }
+
     /**
      * Returns the default file for the given folder.<p>
      *
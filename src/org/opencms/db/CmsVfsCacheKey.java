@@ -0,0 +1,209 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.db;
+
+import org.opencms.monitor.CmsMemoryMonitor;
+import org.opencms.monitor.I_CmsMemoryMonitorable;
+
+import java.util.Arrays;
+
+/**
+ * Immutable cache key for the resource, resource list and property list caches of the driver manager.<p>
+ * 
+ * In contrast to the string based cache keys, no intermediate strings have to be built 
+ * to look up a cached entry, and the hash code is computed only once.<p>
+ * 
+ * @since 8.5.0
+ */
+public final class CmsVfsCacheKey implements I_CmsMemoryMonitorable {
+
+    /** The kinds of cached VFS lookups. */
+    public enum KeyType {
+        /** The access control list of a resource. */
+        ACL,
+        /** A permission check result for a resource. */
+        PERMISSION,
+        /** The properties of a resource. */
+        PROPERTIES,
+        /** The properties of a resource, including the properties inherited from the parent folders. */
+        PROPERTIES_SEARCH,
+        /** A single resource read by path. */
+        RESOURCE,
+        /** The resources below a folder, read with a resource filter. */
+        RESOURCES,
+        /** The resources having a given property below a folder. */
+        RESOURCES_WITH_PROPERTY,
+        /** The sub-files and sub-folders of a folder. */
+        SUB_ALL,
+        /** The sub-files of a folder. */
+        SUB_FILES,
+        /** The sub-folders of a folder. */
+        SUB_FOLDERS;
+    }
+
+    /** Constant for an empty list of additional key parts. */
+    private static final Object[] NO_PARTS = new Object[0];
+
+    /** The precomputed hash code. */
+    private final int m_hashCode;
+
+    /** Flag indicating if the key is for the online project. */
+    private final boolean m_online;
+
+    /** The additional parts of the key, like the user name or the filter id. */
+    private final Object[] m_parts;
+
+    /** The root path of the resource. */
+    private final String m_rootPath;
+
+    /** The key type. */
+    private final KeyType m_type;
+
+    /**
+     * Creates a new cache key.<p>
+     * 
+     * @param type the key type
+     * @param online <code>true</code> if the key is for the online project
+     * @param rootPath the root path of the resource
+     */
+    public CmsVfsCacheKey(KeyType type, boolean online, String rootPath) {
+
+        this(type, online, rootPath, NO_PARTS);
+    }
+
+    /**
+     * Creates a new cache key with additional key parts.<p>
+     * 
+     * The key parts must be immutable and implement <code>equals</code> and 
+     * <code>hashCode</code>, <code>null</code> values are allowed.<p>
+     * 
+     * @param type the key type
+     * @param online <code>true</code> if the key is for the online project
+     * @param rootPath the root path of the resource
+     * @param parts the additional key parts
+     */
+    public CmsVfsCacheKey(KeyType type, boolean online, String rootPath, Object... parts) {
+
+        m_type = type;
+        m_online = online;
+        m_rootPath = rootPath;
+        m_parts = parts;
+        int hash = (31 * type.hashCode()) + (online ? 1231 : 1237);
+        hash = (31 * hash) + ((rootPath != null) ? rootPath.hashCode() : 0);
+        m_hashCode = (31 * hash) + Arrays.hashCode(parts);
+    }
+
+    /**
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(Object obj) {
+
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof CmsVfsCacheKey)) {
+            return false;
+        }
+        CmsVfsCacheKey other = (CmsVfsCacheKey)obj;
+        return (m_hashCode == other.m_hashCode)
+            && (m_type == other.m_type)
+            && (m_online == other.m_online)
+            && ((m_rootPath == null) ? (other.m_rootPath == null) : m_rootPath.equals(other.m_rootPath))
+            && Arrays.equals(m_parts, other.m_parts);
+    }
+
+    /**
+     * @see org.opencms.monitor.I_CmsMemoryMonitorable#getMemorySize()
+     */
+    public int getMemorySize() {
+
+        int size = 40 + CmsMemoryMonitor.getMemorySize(m_rootPath);
+        for (Object part : m_parts) {
+            size += 8 + CmsMemoryMonitor.getMemorySize(part);
+        }
+        return size;
+    }
+
+    /**
+     * Returns the root path of the resource.<p>
+     * 
+     * @return the root path of the resource
+     */
+    public String getRootPath() {
+
+        return m_rootPath;
+    }
+
+    /**
+     * Returns the key type.<p>
+     * 
+     * @return the key type
+     */
+    public KeyType getType() {
+
+        return m_type;
+    }
+
+    /**
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+
+        return m_hashCode;
+    }
+
+    /**
+     * Returns <code>true</code> if the key is for the online project.<p>
+     * 
+     * @return <code>true</code> if the key is for the online project
+     */
+    public boolean isOnline() {
+
+        return m_online;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+
+        StringBuffer result = new StringBuffer(64);
+        result.append(m_type);
+        result.append(m_online ? '+' : '-');
+        result.append(m_rootPath);
+        for (Object part : m_parts) {
+            result.append('_');
+            result.append(part);
+        }
+        return result.toString();
+    }
+}
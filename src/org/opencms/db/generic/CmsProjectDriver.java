@@ -43,7 +43,6 @@ import org.opencms.db.CmsPublishedResource;
 import org.opencms.db.CmsResourceState;
 import org.opencms.db.CmsVisitEntryFilter;
 import org.opencms.db.I_CmsDriver;
-import org.opencms.db.I_CmsHistoryDriver;
 import org.opencms.db.I_CmsPreparedStatementParameter;
 import org.opencms.db.I_CmsProjectDriver;
 import org.opencms.db.I_CmsVfsDriver;
@@ -73,6 +72,7 @@ import org.opencms.main.CmsLog;
 import org.opencms.main.I_CmsEventListener;
 import org.opencms.main.OpenCms;
 import org.opencms.publish.CmsPublishJobInfoBean;
+import org.opencms.relations.CmsRelation;
 import org.opencms.relations.CmsRelationFilter;
 import org.opencms.report.I_CmsReport;
 import org.opencms.security.CmsOrganizationalUnit;
@@ -94,9 +94,11 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.logging.Log;
@@ -110,6 +112,284 @@ import com.google.common.collect.Sets;
  */
 public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
 
+    /**
+     * This private class keeps the pending writes of a batched publish in
+     * {@link CmsProjectDriver#publishProject(CmsDbContext, I_CmsReport, CmsProject, CmsPublishList, int)}.<p>
+     */
+    private class CmsPublishBatch {
+
+        /** The resources to copy to the online project with the next batch. */
+        private List<CmsPublishCopy> m_copies;
+
+        /** Signals if the online copies may be written in batches. */
+        private boolean m_copyEnabled;
+
+        /** The online structure ids of the folders by root path. */
+        private Map<String, CmsUUID> m_folderIds;
+
+        /** The online property definition ids by name. */
+        private Map<String, CmsUUID> m_propertyDefinitionIds;
+
+        /** The number of resources with a written state. */
+        private int m_stateResetCount;
+
+        /** The resources to reset the state for with the next batch. */
+        private List<CmsResource> m_stateResets;
+
+        /** The time needed to write the resource states in milliseconds. */
+        private long m_stateResetTime;
+
+        /**
+         * The constructor.<p>
+         *
+         * @param copyEnabled if the online copies may be written in batches
+         */
+        public CmsPublishBatch(boolean copyEnabled) {
+
+            m_copyEnabled = copyEnabled;
+            m_copies = new ArrayList<CmsPublishCopy>(m_publishBatchSize);
+            m_folderIds = new HashMap<String, CmsUUID>();
+            m_propertyDefinitionIds = new HashMap<String, CmsUUID>();
+            m_stateResets = new ArrayList<CmsResource>(m_publishBatchSize);
+        }
+
+        /**
+         * Adds a published resource to the pending state resets, and writes
+         * the resource states if the batch is full.<p>
+         *
+         * @param dbc the current database context
+         * @param report the report to print errors to
+         * @param resource the published resource
+         *
+         * @throws CmsException if reporting an error fails
+         */
+        public void addStateReset(CmsDbContext dbc, I_CmsReport report, CmsResource resource) throws CmsException {
+
+            resource.setState(CmsResource.STATE_UNCHANGED);
+            m_stateResets.add(resource);
+            if (m_stateResets.size() >= m_publishBatchSize) {
+                flushStateResets(dbc, report);
+            }
+        }
+
+        /**
+         * Writes the pending resource states.<p>
+         *
+         * @param dbc the current database context
+         * @param report the report to print errors to
+         *
+         * @throws CmsException if reporting an error fails
+         */
+        public void flushStateResets(CmsDbContext dbc, I_CmsReport report) throws CmsException {
+
+            m_stateResetCount += m_stateResets.size();
+            m_stateResetTime += flushResourceStates(dbc, report, m_stateResets);
+        }
+
+        /**
+         * Returns the resources to copy to the online project with the next batch.<p>
+         *
+         * @return the resources to copy to the online project with the next batch
+         */
+        public List<CmsPublishCopy> getCopies() {
+
+            return m_copies;
+        }
+
+        /**
+         * Returns the online structure ids of the folders by root path.<p>
+         *
+         * @return the online structure ids of the folders by root path
+         */
+        public Map<String, CmsUUID> getFolderIds() {
+
+            return m_folderIds;
+        }
+
+        /**
+         * Returns the online property definition ids by name.<p>
+         *
+         * @return the online property definition ids by name
+         */
+        public Map<String, CmsUUID> getPropertyDefinitionIds() {
+
+            return m_propertyDefinitionIds;
+        }
+
+        /**
+         * Returns the number of resources with a written state.<p>
+         *
+         * @return the number of resources with a written state
+         */
+        public int getStateResetCount() {
+
+            return m_stateResetCount;
+        }
+
+        /**
+         * Returns the time needed to write the resource states in milliseconds.<p>
+         *
+         * @return the time needed to write the resource states in milliseconds
+         */
+        public long getStateResetTime() {
+
+            return m_stateResetTime;
+        }
+
+        /**
+         * Checks if the online copies may be written in batches.<p>
+         *
+         * @return <code>true</code> if the online copies may be written in batches
+         */
+        public boolean isCopyEnabled() {
+
+            return m_copyEnabled;
+        }
+    }
+
+    /**
+     * This private class keeps the offline data of a resource that is copied
+     * to the online project with a batch.<p>
+     */
+    private class CmsPublishCopy {
+
+        /** The offline content, or <code>null</code> for folders. */
+        private byte[] m_content;
+
+        /** Signals if the online content has to be replaced. */
+        private boolean m_contentChanged;
+
+        /** The index of the resource in the publish list. */
+        private int m_index;
+
+        /** Signals if the resource exists online already. */
+        private boolean m_online;
+
+        /** The online structure id of the parent folder. */
+        private CmsUUID m_parentId;
+
+        /** The offline properties. */
+        private List<CmsProperty> m_properties;
+
+        /** The offline relations with the resource as source. */
+        private List<CmsRelation> m_relations;
+
+        /** The offline resource. */
+        private CmsResource m_resource;
+
+        /**
+         * The constructor.<p>
+         *
+         * @param resource the offline resource
+         * @param index the index of the resource in the publish list
+         * @param online if the resource exists online already
+         * @param parentId the online structure id of the parent folder
+         * @param content the offline content, or <code>null</code> for folders
+         * @param contentChanged if the online content has to be replaced
+         * @param properties the offline properties
+         * @param relations the offline relations with the resource as source
+         */
+        public CmsPublishCopy(
+            CmsResource resource,
+            int index,
+            boolean online,
+            CmsUUID parentId,
+            byte[] content,
+            boolean contentChanged,
+            List<CmsProperty> properties,
+            List<CmsRelation> relations) {
+
+            m_resource = resource;
+            m_index = index;
+            m_online = online;
+            m_parentId = parentId;
+            m_content = content;
+            m_contentChanged = contentChanged;
+            m_properties = properties;
+            m_relations = relations;
+        }
+
+        /**
+         * Returns the offline content, or <code>null</code> for folders.<p>
+         *
+         * @return the offline content
+         */
+        public byte[] getContent() {
+
+            return m_content;
+        }
+
+        /**
+         * Returns the index of the resource in the publish list.<p>
+         *
+         * @return the index of the resource in the publish list
+         */
+        public int getIndex() {
+
+            return m_index;
+        }
+
+        /**
+         * Returns the online structure id of the parent folder.<p>
+         *
+         * @return the online structure id of the parent folder
+         */
+        public CmsUUID getParentId() {
+
+            return m_parentId;
+        }
+
+        /**
+         * Returns the offline properties.<p>
+         *
+         * @return the offline properties
+         */
+        public List<CmsProperty> getProperties() {
+
+            return m_properties;
+        }
+
+        /**
+         * Returns the offline relations with the resource as source.<p>
+         *
+         * @return the offline relations with the resource as source
+         */
+        public List<CmsRelation> getRelations() {
+
+            return m_relations;
+        }
+
+        /**
+         * Returns the offline resource.<p>
+         *
+         * @return the offline resource
+         */
+        public CmsResource getResource() {
+
+            return m_resource;
+        }
+
+        /**
+         * Checks if the online content has to be replaced.<p>
+         *
+         * @return <code>true</code> if the online content has to be replaced
+         */
+        public boolean isContentChanged() {
+
+            return m_contentChanged;
+        }
+
+        /**
+         * Checks if the resource exists online already.<p>
+         *
+         * @return <code>true</code> if the resource exists online already
+         */
+        public boolean isOnline() {
+
+            return m_online;
+        }
+    }
+
     /**
      * This private class is a temporary storage for the method {@link CmsProjectDriver#readLocks(CmsDbContext)}.<p>
      */
@@ -185,15 +465,24 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
 
     }
 
+    /** Attribute name for the history entries to delete at the end of a batched publish. */
+    public static final String DBC_ATTR_DEFERRED_HISTORY = "DBC_ATTR_DEFERRED_HISTORY";
+
     /** Attribute name for reading the project of a resource. */
     public static final String DBC_ATTR_READ_PROJECT_FOR_RESOURCE = "DBC_ATTR_READ_PROJECT_FOR_RESOURCE";
 
+    /** The configuration parameter for the number of resources written in one JDBC batch while publishing. */
+    public static final String PARAM_PUBLISH_BATCH_SIZE = "db.project.publish.batchSize";
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(org.opencms.db.generic.CmsProjectDriver.class);
 
     /** The driver manager. */
     protected CmsDriverManager m_driverManager;
 
+    /** The number of resources written in one JDBC batch while publishing, 0 disables the batched publish mode. */
+    protected int m_publishBatchSize;
+
     /** The SQL manager. */
     protected CmsSqlManager m_sqlManager;
 
@@ -868,6 +1157,7 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
         String classname = configuration.get("db.project.sqlmanager");
         m_sqlManager = initSqlManager(classname);
         m_sqlManager.init(I_CmsProjectDriver.DRIVER_TYPE_ID, poolUrl);
+        m_publishBatchSize = configuration.getInteger(PARAM_PUBLISH_BATCH_SIZE, 0);
 
         m_driverManager = driverManager;
 
@@ -1160,11 +1450,10 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
 
                 dbc.pop();
                 // delete old historical entries
-                m_driverManager.getHistoryDriver(dbc).deleteEntries(
+                internalDeleteHistoryEntries(
                     dbc,
-                    new CmsHistoryFile(offlineResource),
-                    OpenCms.getSystemInfo().getHistoryVersionsAfterDeletion(),
-                    -1);
+                    offlineResource,
+                    OpenCms.getSystemInfo().getHistoryVersionsAfterDeletion());
 
                 report.println(
                     org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
@@ -1195,11 +1484,7 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
 
                 dbc.pop();
                 // delete old historical entries
-                m_driverManager.getHistoryDriver(dbc).deleteEntries(
-                    dbc,
-                    new CmsHistoryFile(offlineResource),
-                    OpenCms.getSystemInfo().getHistoryVersions(),
-                    -1);
+                internalDeleteHistoryEntries(dbc, offlineResource, OpenCms.getSystemInfo().getHistoryVersions());
 
                 report.println(
                     org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
@@ -1223,11 +1508,7 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
 
                 dbc.pop();
                 // delete old historical entries
-                m_driverManager.getHistoryDriver(dbc).deleteEntries(
-                    dbc,
-                    new CmsHistoryFile(offlineResource),
-                    OpenCms.getSystemInfo().getHistoryVersions(),
-                    -1);
+                internalDeleteHistoryEntries(dbc, offlineResource, OpenCms.getSystemInfo().getHistoryVersions());
 
                 report.println(
                     org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
@@ -1592,6 +1873,18 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
         Set<CmsUUID> publishedContentIds = new HashSet<CmsUUID>();
         Set<CmsUUID> publishedIds = new HashSet<CmsUUID>();
 
+        // in batched mode the online copies and states are written in batches and the history is pruned at the end 
+        CmsPublishBatch batch = null;
+        List<CmsPair<CmsResource, Integer>> deferredHistory = null;
+        if (m_publishBatchSize > 0) {
+            // the copies are only batched for the plain offline to online publish of this driver
+            CmsUUID dbcProjectId = dbc.getProjectId();
+            batch = new CmsPublishBatch((m_driverManager.getProjectDriver(dbc) == this)
+                && ((dbcProjectId == null) || dbcProjectId.isNullUUID()));
+            deferredHistory = new ArrayList<CmsPair<CmsResource, Integer>>();
+            dbc.setAttribute(DBC_ATTR_DEFERRED_HISTORY, deferredHistory);
+        }
+
         try {
 
             ////////////////////////////////////////////////////////////////////////////////////////
@@ -1623,6 +1916,7 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
             }
 
             publishedFolderCount = 0;
+            long phaseStart = System.currentTimeMillis();
             int foldersSize = publishList.getFolderList().size();
             if (foldersSize > 0) {
                 report.println(
@@ -1632,46 +1926,76 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
 
             Iterator<CmsResource> itFolders = publishList.getFolderList().iterator();
             I_CmsProjectDriver projectDriver = m_driverManager.getProjectDriver(dbc);
-            I_CmsHistoryDriver historyDriver = m_driverManager.getHistoryDriver(dbc);
             while (itFolders.hasNext()) {
                 CmsResource currentFolder = itFolders.next();
                 try {
                     if (currentFolder.getState().isNew() || currentFolder.getState().isChanged()) {
-                        // bounce the current publish task through all project drivers
-                        projectDriver.publishFolder(
-                            dbc,
-                            report,
-                            ++publishedFolderCount,
-                            foldersSize,
-                            onlineProject,
-                            new CmsFolder(currentFolder),
-                            publishList.getPublishHistoryId(),
-                            publishTag);
-
-                        dbc.pop();
-
-                        publishedIds.add(currentFolder.getStructureId());
-                        // log it
-                        CmsLogEntryType type = currentFolder.getState().isNew()
-                        ? CmsLogEntryType.RESOURCE_PUBLISHED_NEW
-                        : CmsLogEntryType.RESOURCE_PUBLISHED_MODIFIED;
-                        m_driverManager.log(dbc, new CmsLogEntry(
-                            dbc,
-                            currentFolder.getStructureId(),
-                            type,
-                            new String[] {currentFolder.getRootPath()}), true);
-
-                        // delete old historical entries
-                        historyDriver.deleteEntries(
-                            dbc,
-                            new CmsHistoryFile(currentFolder),
-                            OpenCms.getSystemInfo().getHistoryVersions(),
-                            -1);
-
-                        // reset the resource state to UNCHANGED and the last-modified-in-project-ID to 0
-                        internalResetResourceState(dbc, currentFolder);
-
-                        m_driverManager.unlockResource(dbc, currentFolder, true, true);
+                        publishedFolderCount++;
+                        CmsPublishCopy copy = null;
+                        if (batch != null) {
+                            copy = prepareBatchedCopy(
+                                dbc,
+                                onlineProject,
+                                currentFolder,
+                                publishedFolderCount,
+                                publishedContentIds,
+                                batch);
+                        }
+                        if (copy != null) {
+                            // the folder is copied to the online project with the next batch
+                            batch.getCopies().add(copy);
+                            if (batch.getCopies().size() >= m_publishBatchSize) {
+                                flushCopies(
+                                    dbc,
+                                    report,
+                                    foldersSize,
+                                    onlineProject,
+                                    batch,
+                                    publishedContentIds,
+                                    publishedIds,
+                                    publishList.getPublishHistoryId(),
+                                    publishTag);
+                            }
+                        } else {
+                            if (batch != null) {
+                                // keep the publish order, the folder may depend on the pending copies
+                                flushCopies(
+                                    dbc,
+                                    report,
+                                    foldersSize,
+                                    onlineProject,
+                                    batch,
+                                    publishedContentIds,
+                                    publishedIds,
+                                    publishList.getPublishHistoryId(),
+                                    publishTag);
+                            }
+
+                            // bounce the current publish task through all project drivers
+                            projectDriver.publishFolder(
+                                dbc,
+                                report,
+                                publishedFolderCount,
+                                foldersSize,
+                                onlineProject,
+                                new CmsFolder(currentFolder),
+                                publishList.getPublishHistoryId(),
+                                publishTag);
+
+                            dbc.pop();
+                            if (batch != null) {
+                                // the folder may have been moved, so read the online folder ids again
+                                batch.getFolderIds().clear();
+                            }
+
+                            // delete old historical entries
+                            internalDeleteHistoryEntries(
+                                dbc,
+                                currentFolder,
+                                OpenCms.getSystemInfo().getHistoryVersions());
+
+                            finishPublishedResource(dbc, report, currentFolder, batch, publishedIds);
+                        }
                     } else {
                         // state == unchanged !!?? something went really wrong
                         report.print(Messages.get().container(Messages.RPT_PUBLISH_FOLDER_0), I_CmsReport.FORMAT_NOTE);
@@ -1702,16 +2026,36 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
                 }
             }
 
+            if (batch != null) {
+                flushCopies(
+                    dbc,
+                    report,
+                    foldersSize,
+                    onlineProject,
+                    batch,
+                    publishedContentIds,
+                    publishedIds,
+                    publishList.getPublishHistoryId(),
+                    publishTag);
+            }
             if (foldersSize > 0) {
                 report.println(
                     Messages.get().container(Messages.RPT_PUBLISH_FOLDERS_END_0),
                     I_CmsReport.FORMAT_HEADLINE);
             }
+            if (batch != null) {
+                reportPublishPhase(
+                    report,
+                    Messages.RPT_PUBLISH_PHASE_FOLDERS_3,
+                    publishedFolderCount,
+                    System.currentTimeMillis() - phaseStart);
+            }
 
             ///////////////////////////////////////////////////////////////////////////////////////
             // publish changed/new/deleted files
 
             publishedFileCount = 0;
+            phaseStart = System.currentTimeMillis();
             int filesSize = publishList.getFileList().size();
 
             if (filesSize > 0) {
@@ -1736,37 +2080,61 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
             while (itFiles.hasNext()) {
                 CmsResource currentResource = itFiles.next();
                 try {
-                    // bounce the current publish task through all project drivers
-                    projectDriver.publishFile(
-                        dbc,
-                        report,
-                        ++publishedFileCount,
-                        filesSize,
-                        onlineProject,
-                        currentResource,
-                        publishedContentIds,
-                        publishList.getPublishHistoryId(),
-                        publishTag);
-
-                    CmsResourceState state = currentResource.getState();
-                    if (!state.isDeleted()) {
-                        // reset the resource state to UNCHANGED and the last-modified-in-project-ID to 0
-                        internalResetResourceState(dbc, currentResource);
+                    publishedFileCount++;
+                    CmsPublishCopy copy = null;
+                    if (batch != null) {
+                        copy = prepareBatchedCopy(
+                            dbc,
+                            onlineProject,
+                            currentResource,
+                            publishedFileCount,
+                            publishedContentIds,
+                            batch);
                     }
+                    if (copy != null) {
+                        // the file is copied to the online project with the next batch
+                        batch.getCopies().add(copy);
+                        if (batch.getCopies().size() >= m_publishBatchSize) {
+                            flushCopies(
+                                dbc,
+                                report,
+                                filesSize,
+                                onlineProject,
+                                batch,
+                                publishedContentIds,
+                                publishedIds,
+                                publishList.getPublishHistoryId(),
+                                publishTag);
+                        }
+                    } else {
+                        if (batch != null) {
+                            // keep the publish order, deleted files may free paths for the following files
+                            flushCopies(
+                                dbc,
+                                report,
+                                filesSize,
+                                onlineProject,
+                                batch,
+                                publishedContentIds,
+                                publishedIds,
+                                publishList.getPublishHistoryId(),
+                                publishTag);
+                        }
 
-                    // unlock it
-                    m_driverManager.unlockResource(dbc, currentResource, true, true);
-                    // log it
-                    CmsLogEntryType type = state.isNew() ? CmsLogEntryType.RESOURCE_PUBLISHED_NEW : (state.isDeleted()
-                    ? CmsLogEntryType.RESOURCE_PUBLISHED_DELETED
-                    : CmsLogEntryType.RESOURCE_PUBLISHED_MODIFIED);
-                    m_driverManager.log(dbc, new CmsLogEntry(
-                        dbc,
-                        currentResource.getStructureId(),
-                        type,
-                        new String[] {currentResource.getRootPath()}), true);
+                        // bounce the current publish task through all project drivers
+                        projectDriver.publishFile(
+                            dbc,
+                            report,
+                            publishedFileCount,
+                            filesSize,
+                            onlineProject,
+                            currentResource,
+                            publishedContentIds,
+                            publishList.getPublishHistoryId(),
+                            publishTag);
 
-                    publishedIds.add(currentResource.getStructureId());
+                        finishPublishedResource(dbc, report, currentResource, batch, publishedIds);
+                    }
                     dbc.pop();
                 } catch (Throwable t) {
                     dbc.report(
@@ -1776,19 +2144,36 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
                 }
             }
 
+            if (batch != null) {
+                flushCopies(
+                    dbc,
+                    report,
+                    filesSize,
+                    onlineProject,
+                    batch,
+                    publishedContentIds,
+                    publishedIds,
+                    publishList.getPublishHistoryId(),
+                    publishTag);
+            }
             if (filesSize > 0) {
                 report.println(Messages.get().container(Messages.RPT_PUBLISH_FILES_END_0), I_CmsReport.FORMAT_HEADLINE);
             }
+            if (batch != null) {
+                reportPublishPhase(
+                    report,
+                    Messages.RPT_PUBLISH_PHASE_FILES_3,
+                    publishedFileCount,
+                    System.currentTimeMillis() - phaseStart);
+            }
 
             ////////////////////////////////////////////////////////////////////////////////////////
 
             // publish deleted folders
             List<CmsResource> deletedFolders = publishList.getDeletedFolderList();
-            if (deletedFolders.isEmpty()) {
-                return;
-            }
 
             deletedFolderCount = 0;
+            phaseStart = System.currentTimeMillis();
             int deletedFoldersSize = deletedFolders.size();
             if (deletedFoldersSize > 0) {
                 report.println(
@@ -1814,11 +2199,10 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
 
                     dbc.pop();
                     // delete old historical entries
-                    m_driverManager.getHistoryDriver(dbc).deleteEntries(
+                    internalDeleteHistoryEntries(
                         dbc,
-                        new CmsHistoryFile(currentFolder),
-                        OpenCms.getSystemInfo().getHistoryVersionsAfterDeletion(),
-                        -1);
+                        currentFolder,
+                        OpenCms.getSystemInfo().getHistoryVersionsAfterDeletion());
 
                     publishedIds.add(currentFolder.getStructureId());
                     // unlock it
@@ -1844,6 +2228,43 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
             if (deletedFoldersSize > 0) {
                 report.println(Messages.get().container(Messages.RPT_DELETE_FOLDERS_END_0), I_CmsReport.FORMAT_HEADLINE);
             }
+
+            if (batch != null) {
+                reportPublishPhase(
+                    report,
+                    Messages.RPT_PUBLISH_PHASE_DELETED_FOLDERS_3,
+                    deletedFolderCount,
+                    System.currentTimeMillis() - phaseStart);
+
+                // write the remaining resource states
+                batch.flushStateResets(dbc, report);
+                reportPublishPhase(
+                    report,
+                    Messages.RPT_PUBLISH_PHASE_STATES_3,
+                    batch.getStateResetCount(),
+                    batch.getStateResetTime());
+
+                // delete the old historical entries of all published resources
+                dbc.removeAttribute(DBC_ATTR_DEFERRED_HISTORY);
+                phaseStart = System.currentTimeMillis();
+                for (CmsPair<CmsResource, Integer> entry : deferredHistory) {
+                    try {
+                        internalDeleteHistoryEntries(dbc, entry.getFirst(), entry.getSecond().intValue());
+                    } catch (Throwable t) {
+                        dbc.report(
+                            report,
+                            Messages.get().container(
+                                Messages.ERR_DELETE_HISTORY_VERSIONS_1,
+                                entry.getFirst().getRootPath()),
+                            t);
+                    }
+                }
+                reportPublishPhase(
+                    report,
+                    Messages.RPT_PUBLISH_PHASE_HISTORY_3,
+                    deferredHistory.size(),
+                    System.currentTimeMillis() - phaseStart);
+            }
         } catch (OutOfMemoryError o) {
             // clear all caches to reclaim memory
             OpenCms.fireCmsEvent(new CmsEvent(
@@ -1856,6 +2277,7 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
             }
             throw new CmsDataAccessException(message, o);
         } finally {
+            dbc.removeAttribute(DBC_ATTR_DEFERRED_HISTORY);
             // reset vfs driver internal info after publishing
             m_driverManager.getVfsDriver(dbc).publishVersions(dbc, null, false);
             Object[] msgArgs = new Object[] {
@@ -3053,6 +3475,30 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
             CmsProject.CmsProjectType.valueOf(res.getInt(m_sqlManager.readQuery("C_PROJECTS_PROJECT_TYPE_0"))));
     }
 
+    /**
+     * Deletes the old historical entries of a published resource.<p>
+     *
+     * During a batched publish the deletion is deferred until all resources have been published.<p>
+     *
+     * @param dbc the current database context
+     * @param resource the published resource
+     * @param versionsToKeep the number of versions to keep
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    @SuppressWarnings("unchecked")
+    protected void internalDeleteHistoryEntries(CmsDbContext dbc, CmsResource resource, int versionsToKeep)
+    throws CmsDataAccessException {
+
+        List<CmsPair<CmsResource, Integer>> deferredHistory = (List<CmsPair<CmsResource, Integer>>)dbc.getAttribute(
+            DBC_ATTR_DEFERRED_HISTORY);
+        if (deferredHistory != null) {
+            deferredHistory.add(CmsPair.create(resource, Integer.valueOf(versionsToKeep)));
+            return;
+        }
+        m_driverManager.getHistoryDriver(dbc).deleteEntries(dbc, new CmsHistoryFile(resource), versionsToKeep, -1);
+    }
+
     /**
      * Builds a publish list from serialized data.<p>
      *
@@ -3088,6 +3534,38 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
         return new CmsLogEntry(userId, date, structureId, type, data);
     }
 
+    /**
+     * Removes the online content of files published with a batch, or moves it to the history 
+     * if the history is enabled.<p>
+     *
+     * @param dbc the current database context
+     * @param conn the connection of the current batch
+     * @param files the files to remove the online content for
+     *
+     * @throws SQLException if a database access error occurs
+     */
+    protected void internalRemoveOnlineContents(CmsDbContext dbc, Connection conn, List<CmsFile> files)
+    throws SQLException {
+
+        PreparedStatement stmt = null;
+        try {
+            if (OpenCms.getSystemInfo().isHistoryEnabled()) {
+                // put the online content in the history
+                stmt = m_sqlManager.getPreparedStatement(conn, "C_ONLINE_CONTENTS_HISTORY");
+            } else {
+                // remove the online content
+                stmt = m_sqlManager.getPreparedStatement(conn, "C_ONLINE_CONTENTS_DELETE");
+            }
+            for (CmsFile file : files) {
+                stmt.setString(1, file.getResourceId().toString());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        } finally {
+            m_sqlManager.closeAll(dbc, null, stmt, null);
+        }
+    }
+
     /**
      * Resets the state to UNCHANGED for a specified resource.<p>
      *
@@ -3120,31 +3598,126 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
     }
 
     /**
-     * Serialize publish list to write it as byte array to the database.<p>
+     * Resets the state of the given published resources in JDBC batches.<p>
      *
-     * @param publishList the publish list
-     * @return byte array containing the publish list data
-     * @throws IOException if something goes wrong
-     */
-    protected byte[] internalSerializePublishList(CmsPublishList publishList) throws IOException {
-
-        // serialize the publish list
-        ByteArrayOutputStream bout = new ByteArrayOutputStream();
-        ObjectOutputStream oout = new ObjectOutputStream(bout);
-        oout.writeObject(publishList);
-        oout.close();
-        return bout.toByteArray();
-    }
-
-    /**
-     * Writes the needed history entries.<p>
+     * Writes the same data as {@link #internalResetResourceState(CmsDbContext, CmsResource)}, 
+     * using one batch per statement for all given resources. The state of the 
+     * resources has to be set to UNCHANGED already.<p>
      *
      * @param dbc the current database context
-     * @param resource the offline resource
-     * @param state the state to store in the publish history entry
-     * @param properties the offline properties
-     * @param publishHistoryId the current publish process id
-     * @param publishTag the current publish process tag
+     * @param resources the resources to reset the state for
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    protected void internalResetResourceStates(CmsDbContext dbc, List<CmsResource> resources)
+    throws CmsDataAccessException {
+
+        CmsProject project = dbc.currentProject();
+        if (resources.isEmpty() || project.isOnlineProject()) {
+            return;
+        }
+
+        // read the online version numbers before writing, see CmsVfsDriver#internalUpdateVersions
+        List<Map<String, Integer>> onlineVersions = null;
+        if (dbc.getRequestContext() != null) {
+            I_CmsVfsDriver vfsDriver = m_driverManager.getVfsDriver(dbc);
+            onlineVersions = new ArrayList<Map<String, Integer>>(resources.size());
+            for (CmsResource resource : resources) {
+                onlineVersions.add(vfsDriver.readVersions(
+                    dbc,
+                    CmsProject.ONLINE_PROJECT_ID,
+                    resource.getResourceId(),
+                    resource.getStructureId()));
+            }
+        }
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+
+            stmt = m_sqlManager.getPreparedStatement(conn, project, "C_RESOURCES_UPDATE_RESOURCE_STATE");
+            for (CmsResource resource : resources) {
+                stmt.setInt(1, resource.getState().getState());
+                stmt.setString(2, project.getUuid().toString());
+                stmt.setString(3, resource.getResourceId().toString());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            m_sqlManager.closeAll(dbc, null, stmt, null);
+
+            stmt = m_sqlManager.getPreparedStatement(conn, project, "C_RESOURCES_UPDATE_STRUCTURE_STATE");
+            for (CmsResource resource : resources) {
+                stmt.setInt(1, resource.getState().getState());
+                stmt.setString(2, resource.getStructureId().toString());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            m_sqlManager.closeAll(dbc, null, stmt, null);
+
+            stmt = m_sqlManager.getPreparedStatement(conn, project, "C_RESOURCES_UPDATE_RELEASE_EXPIRED");
+            for (CmsResource resource : resources) {
+                stmt.setLong(1, resource.getDateReleased());
+                stmt.setLong(2, resource.getDateExpired());
+                stmt.setString(3, resource.getStructureId().toString());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            m_sqlManager.closeAll(dbc, null, stmt, null);
+
+            if (onlineVersions != null) {
+                stmt = m_sqlManager.getPreparedStatement(conn, project, "C_RESOURCES_UPDATE_RESOURCE_VERSION");
+                for (int i = 0; i < resources.size(); i++) {
+                    stmt.setInt(1, onlineVersions.get(i).get(I_CmsEventListener.KEY_RESOURCE).intValue());
+                    stmt.setString(2, resources.get(i).getResourceId().toString());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                m_sqlManager.closeAll(dbc, null, stmt, null);
+
+                stmt = m_sqlManager.getPreparedStatement(conn, project, "C_RESOURCES_UPDATE_STRUCTURE_VERSION");
+                for (int i = 0; i < resources.size(); i++) {
+                    stmt.setInt(1, onlineVersions.get(i).get("structure").intValue());
+                    stmt.setString(2, resources.get(i).getStructureId().toString());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(Messages.get().container(
+                Messages.ERR_GENERIC_SQL_1,
+                CmsDbSqlException.getErrorQuery(stmt)), e);
+        } finally {
+            m_sqlManager.closeAll(dbc, conn, stmt, null);
+        }
+    }
+
+    /**
+     * Serialize publish list to write it as byte array to the database.<p>
+     *
+     * @param publishList the publish list
+     * @return byte array containing the publish list data
+     * @throws IOException if something goes wrong
+     */
+    protected byte[] internalSerializePublishList(CmsPublishList publishList) throws IOException {
+
+        // serialize the publish list
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        ObjectOutputStream oout = new ObjectOutputStream(bout);
+        oout.writeObject(publishList);
+        oout.close();
+        return bout.toByteArray();
+    }
+
+    /**
+     * Writes the needed history entries.<p>
+     *
+     * @param dbc the current database context
+     * @param resource the offline resource
+     * @param state the state to store in the publish history entry
+     * @param properties the offline properties
+     * @param publishHistoryId the current publish process id
+     * @param publishTag the current publish process tag
      *
      * @throws CmsDataAccessException if something goes wrong
      */
@@ -3182,6 +3755,48 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
         }
     }
 
+    /**
+     * Writes the online content of files published with a batch.<p>
+     *
+     * Replaces the online content like {@link I_CmsVfsDriver#createOnlineContent(CmsDbContext, CmsUUID, byte[], int, boolean, boolean)},
+     * using one JDBC batch per statement. Drivers which can not write the content in batches
+     * have to override this method, and must use the given connection for all statements.<p>
+     *
+     * @param dbc the current database context
+     * @param conn the connection of the current batch
+     * @param files the files with the content to write
+     * @param publishTag the publish tag
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     * @throws SQLException if a database access error occurs
+     */
+    protected void internalWriteOnlineContents(CmsDbContext dbc, Connection conn, List<CmsFile> files, int publishTag)
+    throws CmsDataAccessException, SQLException {
+
+        internalRemoveOnlineContents(dbc, conn, files);
+        PreparedStatement stmt = null;
+        try {
+            // create the new online content
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_ONLINE_CONTENTS_WRITE");
+            for (CmsFile file : files) {
+                byte[] contents = file.getContents();
+                stmt.setString(1, file.getResourceId().toString());
+                if (contents.length < 2000) {
+                    stmt.setBytes(2, contents);
+                } else {
+                    stmt.setBinaryStream(2, new ByteArrayInputStream(contents), contents.length);
+                }
+                stmt.setInt(3, publishTag);
+                stmt.setInt(4, publishTag);
+                stmt.setInt(5, 1); // keep online
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        } finally {
+            m_sqlManager.closeAll(dbc, null, stmt, null);
+        }
+    }
+
     /**
      * Build the whole WHERE SQL statement part for the given log entry filter.<p>
      *
@@ -3765,4 +4380,664 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
         m_driverManager.getVfsDriver(dbc).updateRelations(dbc, onlineProject, offlineResource);
     }
 
-}
\ No newline at end of file
+    /**
+     * Completes the publish of a resource whose online copy was written with a batch.<p>
+     *
+     * Writes the version numbers, the ACL and the history like
+     * {@link #publishFolder(CmsDbContext, I_CmsReport, int, int, CmsProject, CmsFolder, CmsUUID, int)} and
+     * {@link #publishFile(CmsDbContext, I_CmsReport, int, int, CmsProject, CmsResource, Set, CmsUUID, int)} do.<p>
+     *
+     * @param dbc the current database context
+     * @param report the report to print the progress to
+     * @param n the number of resources in the current publish phase
+     * @param onlineProject the online project
+     * @param copy the written copy
+     * @param publishedContentIds contains the UUIDs of already published content records
+     * @param publishHistoryId the publish history id
+     * @param publishTag the publish tag
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    private void finishBatchedCopy(
+        CmsDbContext dbc,
+        I_CmsReport report,
+        int n,
+        CmsProject onlineProject,
+        CmsPublishCopy copy,
+        Set<CmsUUID> publishedContentIds,
+        CmsUUID publishHistoryId,
+        int publishTag) throws CmsDataAccessException {
+
+        CmsResource offlineResource = copy.getResource();
+        try {
+            report.print(
+                org.opencms.report.Messages.get().container(
+                    org.opencms.report.Messages.RPT_SUCCESSION_2,
+                    String.valueOf(copy.getIndex()),
+                    String.valueOf(n)),
+                I_CmsReport.FORMAT_NOTE);
+            report.print(
+                Messages.get().container(
+                    offlineResource.isFolder() ? Messages.RPT_PUBLISH_FOLDER_0 : Messages.RPT_PUBLISH_FILE_0),
+                I_CmsReport.FORMAT_NOTE);
+            report.print(org.opencms.report.Messages.get().container(
+                org.opencms.report.Messages.RPT_ARGUMENT_1,
+                dbc.removeSiteRoot(offlineResource.getRootPath())));
+            report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
+
+            // update version numbers
+            m_driverManager.getVfsDriver(dbc).publishVersions(dbc, offlineResource, true);
+
+            try {
+                // write the ACL online
+                m_driverManager.getUserDriver(dbc).publishAccessControlEntries(
+                    dbc,
+                    dbc.currentProject(),
+                    onlineProject,
+                    offlineResource.getResourceId(),
+                    offlineResource.getResourceId());
+            } catch (CmsDataAccessException e) {
+                if (LOG.isErrorEnabled()) {
+                    LOG.error(
+                        Messages.get().getBundle().key(Messages.LOG_PUBLISHING_ACL_1, offlineResource.getRootPath()),
+                        e);
+                }
+                throw e;
+            }
+
+            if (offlineResource.isFolder()) {
+                internalWriteHistory(
+                    dbc,
+                    offlineResource,
+                    offlineResource.getState(),
+                    copy.getProperties(),
+                    publishHistoryId,
+                    publishTag);
+            } else {
+                CmsFile offlineFile = new CmsFile(offlineResource);
+                offlineFile.setContents(copy.getContent());
+                internalWriteHistory(
+                    dbc,
+                    offlineFile,
+                    offlineResource.getState(),
+                    copy.getProperties(),
+                    publishHistoryId,
+                    publishTag);
+                // mark the content as written, like publishFileContent does
+                publishedContentIds.add(offlineResource.getResourceId());
+            }
+
+            // delete old historical entries
+            internalDeleteHistoryEntries(dbc, offlineResource, OpenCms.getSystemInfo().getHistoryVersions());
+
+            if (offlineResource.isFile()) {
+                m_driverManager.publishUrlNameMapping(dbc, offlineResource);
+            }
+
+            report.println(
+                org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
+                I_CmsReport.FORMAT_OK);
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(Messages.get().getBundle().key(
+                    offlineResource.isFolder() ? Messages.LOG_PUBLISHING_FOLDER_3 : Messages.LOG_PUBLISHING_FILE_3,
+                    String.valueOf(copy.getIndex()),
+                    String.valueOf(n),
+                    offlineResource.getRootPath()));
+            }
+        } finally {
+            // notify the app. that the published resource and it's properties have been modified offline
+            OpenCms.fireCmsEvent(new CmsEvent(
+                I_CmsEventListener.EVENT_RESOURCE_AND_PROPERTIES_MODIFIED,
+                Collections.<String, Object> singletonMap(I_CmsEventListener.KEY_RESOURCE, offlineResource)));
+        }
+    }
+
+    /**
+     * Resets the state of a published resource, unlocks it and writes the publish log entry.<p>
+     *
+     * @param dbc the current database context
+     * @param report the report to print errors to
+     * @param resource the published resource
+     * @param batch the pending writes of a batched publish, or <code>null</code> if not publishing in batches
+     * @param publishedIds the structure ids of the published resources
+     *
+     * @throws CmsException if something goes wrong
+     */
+    private void finishPublishedResource(
+        CmsDbContext dbc,
+        I_CmsReport report,
+        CmsResource resource,
+        CmsPublishBatch batch,
+        Set<CmsUUID> publishedIds) throws CmsException {
+
+        CmsResourceState state = resource.getState();
+        if (!state.isDeleted()) {
+            // reset the resource state to UNCHANGED and the last-modified-in-project-ID to 0
+            if (batch != null) {
+                batch.addStateReset(dbc, report, resource);
+            } else {
+                internalResetResourceState(dbc, resource);
+            }
+        }
+
+        // unlock it
+        m_driverManager.unlockResource(dbc, resource, true, true);
+        // log it
+        CmsLogEntryType type = state.isNew() ? CmsLogEntryType.RESOURCE_PUBLISHED_NEW : (state.isDeleted()
+        ? CmsLogEntryType.RESOURCE_PUBLISHED_DELETED
+        : CmsLogEntryType.RESOURCE_PUBLISHED_MODIFIED);
+        m_driverManager.log(
+            dbc,
+            new CmsLogEntry(dbc, resource.getStructureId(), type, new String[] {resource.getRootPath()}),
+            true);
+
+        publishedIds.add(resource.getStructureId());
+    }
+
+    /**
+     * Writes the pending online copies of a batched publish and completes the publish of the copied resources.<p>
+     *
+     * If the batch fails, it is rolled back and the resources are published one by one, so that
+     * errors are reported per resource.<p>
+     *
+     * @param dbc the current database context
+     * @param report the report to print the progress to
+     * @param n the number of resources in the current publish phase
+     * @param onlineProject the online project
+     * @param batch the pending writes, the copies will be empty afterwards
+     * @param publishedContentIds contains the UUIDs of already published content records
+     * @param publishedIds the structure ids of the published resources
+     * @param publishHistoryId the publish history id
+     * @param publishTag the publish tag
+     *
+     * @throws CmsException if reporting an error fails
+     */
+    private void flushCopies(
+        CmsDbContext dbc,
+        I_CmsReport report,
+        int n,
+        CmsProject onlineProject,
+        CmsPublishBatch batch,
+        Set<CmsUUID> publishedContentIds,
+        Set<CmsUUID> publishedIds,
+        CmsUUID publishHistoryId,
+        int publishTag) throws CmsException {
+
+        List<CmsPublishCopy> copies = batch.getCopies();
+        if (copies.isEmpty()) {
+            return;
+        }
+
+        boolean written = false;
+        try {
+            writeBatchedCopies(dbc, onlineProject, batch, publishTag);
+            written = true;
+        } catch (CmsDataAccessException e) {
+            LOG.warn(
+                Messages.get().getBundle().key(
+                    Messages.LOG_ERROR_BATCH_PUBLISHING_RESOURCES_1,
+                    String.valueOf(copies.size())),
+                e);
+        }
+
+        for (CmsPublishCopy copy : copies) {
+            CmsResource resource = copy.getResource();
+            try {
+                if (written) {
+                    finishBatchedCopy(
+                        dbc,
+                        report,
+                        n,
+                        onlineProject,
+                        copy,
+                        publishedContentIds,
+                        publishHistoryId,
+                        publishTag);
+                } else if (resource.isFolder()) {
+                    // the folder is not online yet, so its id has to be read again for the following copies
+                    batch.getFolderIds().remove(resource.getRootPath());
+                    publishFolder(
+                        dbc,
+                        report,
+                        copy.getIndex(),
+                        n,
+                        onlineProject,
+                        new CmsFolder(resource),
+                        publishHistoryId,
+                        publishTag);
+                    dbc.pop();
+                    // delete old historical entries
+                    internalDeleteHistoryEntries(dbc, resource, OpenCms.getSystemInfo().getHistoryVersions());
+                } else {
+                    publishFile(
+                        dbc,
+                        report,
+                        copy.getIndex(),
+                        n,
+                        onlineProject,
+                        resource,
+                        publishedContentIds,
+                        publishHistoryId,
+                        publishTag);
+                }
+                finishPublishedResource(dbc, report, resource, batch, publishedIds);
+                dbc.pop();
+            } catch (Throwable t) {
+                String key = resource.isFolder()
+                ? Messages.ERR_ERROR_PUBLISHING_FOLDER_1
+                : Messages.ERR_ERROR_PUBLISHING_FILE_1;
+                dbc.report(report, Messages.get().container(key, resource.getRootPath()), t);
+            }
+        }
+        copies.clear();
+    }
+
+    /**
+     * Writes the pending resource states of a batched publish.<p>
+     *
+     * If the batch fails, the states are written one by one, so that errors are reported per resource.<p>
+     *
+     * @param dbc the current database context
+     * @param report the report to print errors to
+     * @param resources the resources to reset the state for, will be empty afterwards
+     *
+     * @return the time needed in milliseconds
+     *
+     * @throws CmsException if reporting an error fails
+     */
+    private long flushResourceStates(CmsDbContext dbc, I_CmsReport report, List<CmsResource> resources)
+    throws CmsException {
+
+        long start = System.currentTimeMillis();
+        try {
+            internalResetResourceStates(dbc, resources);
+        } catch (CmsDataAccessException e) {
+            LOG.warn(
+                Messages.get().getBundle().key(
+                    Messages.LOG_ERROR_BATCH_RESETTING_RESOURCE_STATES_1,
+                    String.valueOf(resources.size())),
+                e);
+            for (CmsResource resource : resources) {
+                try {
+                    internalResetResourceState(dbc, resource);
+                } catch (Throwable t) {
+                    dbc.report(
+                        report,
+                        Messages.get().container(Messages.ERR_ERROR_PUBLISHING_FILE_1, resource.getRootPath()),
+                        t);
+                }
+            }
+        }
+        resources.clear();
+        return System.currentTimeMillis() - start;
+    }
+
+    /**
+     * Reads the offline data of a resource that can be copied to the online project with a batch.<p>
+     *
+     * Only new and changed resources without siblings, which are neither moved nor replaced, are
+     * copied in batches. All other resources, and resources which need a property definition
+     * that does not exist online yet, have to be published one by one.<p>
+     *
+     * @param dbc the current database context
+     * @param onlineProject the online project
+     * @param offlineResource the resource to publish
+     * @param index the index of the resource in the publish list
+     * @param publishedContentIds contains the UUIDs of already published content records
+     * @param batch the pending writes of the batched publish
+     *
+     * @return the data to copy, or <code>null</code> if the resource has to be published one by one
+     */
+    private CmsPublishCopy prepareBatchedCopy(
+        CmsDbContext dbc,
+        CmsProject onlineProject,
+        CmsResource offlineResource,
+        int index,
+        Set<CmsUUID> publishedContentIds,
+        CmsPublishBatch batch) {
+
+        CmsResourceState state = offlineResource.getState();
+        if (!batch.isCopyEnabled()
+            || !(state.isNew() || state.isChanged())
+            || (offlineResource.getSiblingCount() != 1)
+            || publishedContentIds.contains(offlineResource.getResourceId())
+            || (offlineResource.isFolder() ? (offlineResource.getLength() != -1) : (offlineResource.getLength() < 0))) {
+            return null;
+        }
+        String parentPath = CmsResource.getParentFolder(offlineResource.getRootPath());
+        if (parentPath == null) {
+            // the root folder
+            return null;
+        }
+
+        I_CmsVfsDriver vfsDriver = m_driverManager.getVfsDriver(dbc);
+        CmsUUID onlineProjectId = onlineProject.getUuid();
+        try {
+            boolean online;
+            boolean contentChanged = true;
+            try {
+                CmsResource onlineResource = vfsDriver.readResource(
+                    dbc,
+                    onlineProjectId,
+                    offlineResource.getStructureId(),
+                    true);
+                if (!state.isChanged()
+                    || !onlineResource.getRootPath().equals(offlineResource.getRootPath())
+                    || !onlineResource.getResourceId().equals(offlineResource.getResourceId())
+                    || (onlineResource.getSiblingCount() != 1)) {
+                    // moved or replaced resources, or new resources that exist online already
+                    return null;
+                }
+                online = true;
+                contentChanged = onlineResource.getDateContent() < offlineResource.getDateContent();
+            } catch (CmsVfsResourceNotFoundException e) {
+                if (!state.isNew()
+                    || vfsDriver.validateResourceIdExists(dbc, onlineProjectId, offlineResource.getResourceId())) {
+                    return null;
+                }
+                if (offlineResource.isFolder()) {
+                    // new folders are created like in createResource, which handles existing paths and restored folders
+                    try {
+                        vfsDriver.readResource(dbc, onlineProjectId, offlineResource.getRootPath(), true);
+                        return null;
+                    } catch (CmsVfsResourceNotFoundException e1) {
+                        // the path is free
+                    }
+                    int lastVersion = m_driverManager.getHistoryDriver(dbc).readLastVersion(
+                        dbc,
+                        offlineResource.getStructureId());
+                    if (lastVersion > 0) {
+                        return null;
+                    }
+                }
+                online = false;
+            }
+
+            CmsUUID parentId = batch.getFolderIds().get(parentPath);
+            if (parentId == null) {
+                // throws an exception if the parent folder is not online
+                parentId = vfsDriver.readFolder(dbc, onlineProjectId, parentPath).getStructureId();
+                batch.getFolderIds().put(parentPath, parentId);
+            }
+
+            List<CmsProperty> properties = vfsDriver.readPropertyObjects(dbc, dbc.currentProject(), offlineResource);
+            for (CmsProperty property : properties) {
+                if (!batch.getPropertyDefinitionIds().containsKey(property.getName())) {
+                    // throws an exception if the property definition does not exist online yet
+                    CmsUUID definitionId = vfsDriver.readPropertyDefinition(
+                        dbc,
+                        property.getName(),
+                        onlineProjectId).getId();
+                    batch.getPropertyDefinitionIds().put(property.getName(), definitionId);
+                }
+            }
+
+            List<CmsRelation> relations = vfsDriver.readRelations(
+                dbc,
+                dbc.currentProject().getUuid(),
+                offlineResource,
+                CmsRelationFilter.TARGETS);
+
+            byte[] content = null;
+            if (offlineResource.isFile()) {
+                content = vfsDriver.readContent(dbc, dbc.currentProject().getUuid(), offlineResource.getResourceId());
+                // reset the labeled link flag before writing the online file
+                int flags = offlineResource.getFlags();
+                flags &= ~CmsResource.FLAG_LABELED;
+                offlineResource.setFlags(flags);
+            } else {
+                batch.getFolderIds().put(offlineResource.getRootPath(), offlineResource.getStructureId());
+            }
+
+            return new CmsPublishCopy(
+                offlineResource,
+                index,
+                online,
+                parentId,
+                content,
+                contentChanged,
+                properties,
+                relations);
+        } catch (CmsDataAccessException e) {
+            // publish the resource one by one, this will report the error if it persists
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(e.getLocalizedMessage(), e);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Prints the throughput of a phase of a batched publish to the report and the log.<p>
+     *
+     * @param report the report to print to
+     * @param key the message key of the phase, with the count, duration and throughput as parameters
+     * @param count the number of processed resources
+     * @param duration the duration of the phase in milliseconds
+     */
+    private void reportPublishPhase(I_CmsReport report, String key, int count, long duration) {
+
+        long throughput = (count * 1000L) / Math.max(1, duration);
+        CmsMessageContainer message = Messages.get().container(
+            key,
+            String.valueOf(count),
+            String.valueOf(duration),
+            String.valueOf(throughput));
+        if (LOG.isInfoEnabled()) {
+            LOG.info(message.key());
+        }
+        report.println(message, I_CmsReport.FORMAT_NOTE);
+    }
+
+    /**
+     * Writes the online copies of the pending resources of a batched publish.<p>
+     *
+     * Writes the same structure, resource, property, relation and content records as publishing
+     * the resources one by one, using one JDBC batch per statement. The batches are written in
+     * a transaction, which is rolled back if a batch fails.<p>
+     *
+     * @param dbc the current database context
+     * @param onlineProject the online project
+     * @param batch the pending writes
+     * @param publishTag the publish tag
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    private void writeBatchedCopies(CmsDbContext dbc, CmsProject onlineProject, CmsPublishBatch batch, int publishTag)
+    throws CmsDataAccessException {
+
+        CmsUUID onlineProjectId = onlineProject.getUuid();
+        List<CmsPublishCopy> newCopies = new ArrayList<CmsPublishCopy>();
+        List<CmsPublishCopy> changedCopies = new ArrayList<CmsPublishCopy>();
+        List<CmsFile> changedContents = new ArrayList<CmsFile>();
+        List<CmsUUID> keptContents = new ArrayList<CmsUUID>();
+        for (CmsPublishCopy copy : batch.getCopies()) {
+            if (copy.isOnline()) {
+                changedCopies.add(copy);
+            } else {
+                newCopies.add(copy);
+            }
+            if (copy.getResource().isFile()) {
+                if (copy.isContentChanged()) {
+                    CmsFile file = new CmsFile(copy.getResource());
+                    file.setContents(copy.getContent());
+                    changedContents.add(file);
+                } else {
+                    keptContents.add(copy.getResource().getResourceId());
+                }
+            }
+        }
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        boolean transaction = false;
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            if (conn.getAutoCommit()) {
+                conn.setAutoCommit(false);
+                transaction = true;
+            }
+
+            if (!newCopies.isEmpty()) {
+                // create the resource records online
+                stmt = m_sqlManager.getPreparedStatement(conn, onlineProjectId, "C_RESOURCES_WRITE");
+                for (CmsPublishCopy copy : newCopies) {
+                    CmsResource resource = copy.getResource();
+                    // initial resource version, like createResource for folders and publishResource for files
+                    CmsVfsDriver.prepareOnlineResourceWrite(stmt, resource, resource.isFolder() ? 0 : 1);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                m_sqlManager.closeAll(dbc, null, stmt, null);
+
+                // create the structure records online
+                stmt = m_sqlManager.getPreparedStatement(conn, onlineProjectId, "C_STRUCTURE_WRITE");
+                for (CmsPublishCopy copy : newCopies) {
+                    CmsVfsDriver.prepareOnlineStructureWrite(
+                        stmt,
+                        copy.getResource(),
+                        copy.getParentId().toString(),
+                        0);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                m_sqlManager.closeAll(dbc, null, stmt, null);
+
+                // repair the online relations pointing to the path of a new folder, see createResource
+                stmt = m_sqlManager.getPreparedStatement(conn, onlineProjectId, "C_RELATIONS_REPAIR_BROKEN");
+                for (CmsPublishCopy copy : newCopies) {
+                    if (copy.getResource().isFolder()) {
+                        stmt.setString(1, copy.getResource().getStructureId().toString());
+                        stmt.setString(2, copy.getResource().getRootPath());
+                        stmt.addBatch();
+                    }
+                }
+                stmt.executeBatch();
+                m_sqlManager.closeAll(dbc, null, stmt, null);
+            }
+
+            if (!changedCopies.isEmpty()) {
+                // update the online resource records
+                stmt = m_sqlManager.getPreparedStatement(conn, onlineProjectId, "C_RESOURCES_UPDATE_RESOURCES");
+                for (CmsPublishCopy copy : changedCopies) {
+                    CmsVfsDriver.prepareOnlineResourceUpdate(stmt, copy.getResource(), 1);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                m_sqlManager.closeAll(dbc, null, stmt, null);
+
+                // update the online structure records
+                stmt = m_sqlManager.getPreparedStatement(conn, onlineProjectId, "C_RESOURCES_UPDATE_STRUCTURE");
+                for (CmsPublishCopy copy : changedCopies) {
+                    CmsVfsDriver.prepareOnlineStructureUpdate(stmt, copy.getResource(), copy.getParentId().toString());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                m_sqlManager.closeAll(dbc, null, stmt, null);
+
+                // delete the online properties
+                stmt = m_sqlManager.getPreparedStatement(
+                    conn,
+                    onlineProjectId,
+                    "C_PROPERTIES_DELETE_ALL_STRUCTURE_AND_RESOURCE_VALUES");
+                for (CmsPublishCopy copy : changedCopies) {
+                    stmt.setString(1, copy.getResource().getResourceId().toString());
+                    stmt.setInt(2, CmsProperty.RESOURCE_RECORD_MAPPING);
+                    stmt.setString(3, copy.getResource().getStructureId().toString());
+                    stmt.setInt(4, CmsProperty.STRUCTURE_RECORD_MAPPING);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                m_sqlManager.closeAll(dbc, null, stmt, null);
+            }
+
+            // write the properties online
+            stmt = m_sqlManager.getPreparedStatement(conn, onlineProjectId, "C_PROPERTIES_CREATE");
+            for (CmsPublishCopy copy : batch.getCopies()) {
+                for (CmsProperty property : copy.getProperties()) {
+                    String definitionId = batch.getPropertyDefinitionIds().get(property.getName()).toString();
+                    if (CmsStringUtil.isNotEmptyOrWhitespaceOnly(property.getStructureValue())) {
+                        stmt.setString(1, new CmsUUID().toString());
+                        stmt.setString(2, definitionId);
+                        stmt.setString(3, copy.getResource().getStructureId().toString());
+                        stmt.setInt(4, CmsProperty.STRUCTURE_RECORD_MAPPING);
+                        stmt.setString(5, m_sqlManager.validateEmpty(property.getStructureValue()));
+                        stmt.addBatch();
+                    }
+                    if (CmsStringUtil.isNotEmptyOrWhitespaceOnly(property.getResourceValue())) {
+                        stmt.setString(1, new CmsUUID().toString());
+                        stmt.setString(2, definitionId);
+                        stmt.setString(3, copy.getResource().getResourceId().toString());
+                        stmt.setInt(4, CmsProperty.RESOURCE_RECORD_MAPPING);
+                        stmt.setString(5, m_sqlManager.validateEmpty(property.getResourceValue()));
+                        stmt.addBatch();
+                    }
+                }
+            }
+            stmt.executeBatch();
+            m_sqlManager.closeAll(dbc, null, stmt, null);
+
+            // replace the online relations, see CmsVfsDriver#updateRelations
+            stmt = m_sqlManager.getPreparedStatementForSql(conn, m_sqlManager.readQuery(
+                onlineProjectId,
+                "C_DELETE_RELATIONS")
+                + BEGIN_CONDITION
+                + m_sqlManager.readQuery(onlineProjectId, "C_RELATION_FILTER_SOURCE_ID")
+                + END_CONDITION);
+            for (CmsPublishCopy copy : batch.getCopies()) {
+                stmt.setString(1, copy.getResource().getStructureId().toString());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            m_sqlManager.closeAll(dbc, null, stmt, null);
+
+            stmt = m_sqlManager.getPreparedStatement(conn, onlineProjectId, "C_CREATE_RELATION");
+            for (CmsPublishCopy copy : batch.getCopies()) {
+                for (CmsRelation relation : copy.getRelations()) {
+                    CmsVfsDriver.prepareRelationWrite(stmt, relation);
+                    stmt.addBatch();
+                }
+            }
+            stmt.executeBatch();
+            m_sqlManager.closeAll(dbc, null, stmt, null);
+
+            if (!keptContents.isEmpty()) {
+                // the online content is still up to date, only update the publish tag
+                stmt = m_sqlManager.getPreparedStatement(conn, "C_HISTORY_CONTENTS_UPDATE");
+                for (CmsUUID resourceId : keptContents) {
+                    stmt.setInt(1, publishTag);
+                    stmt.setString(2, resourceId.toString());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                m_sqlManager.closeAll(dbc, null, stmt, null);
+            }
+            stmt = null;
+            if (!changedContents.isEmpty()) {
+                internalWriteOnlineContents(dbc, conn, changedContents, publishTag);
+            }
+
+            if (transaction) {
+                conn.commit();
+                conn.setAutoCommit(true);
+                transaction = false;
+            }
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(Messages.get().container(
+                Messages.ERR_GENERIC_SQL_1,
+                CmsDbSqlException.getErrorQuery(stmt)), e);
+        } finally {
+            if (transaction) {
+                // roll back the failed batch, so that the resources can be published one by one
+                try {
+                    conn.rollback();
+                    conn.setAutoCommit(true);
+                } catch (SQLException e) {
+                    LOG.error(e.getLocalizedMessage(), e);
+                }
+            }
+            m_sqlManager.closeAll(dbc, conn, stmt, null);
+        }
+    }
+}
@@ -190,6 +190,131 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         return CmsStringUtil.substitute(path, "_", "|_");
     }
 
+    /**
+     * Sets the parameters of the <code>C_RESOURCES_UPDATE_RESOURCES</code> statement for publishing 
+     * the given offline resource to an existing online resource record.<p>
+     *
+     * @param stmt the statement to set the parameters for
+     * @param offlineResource the offline resource to publish
+     * @param siblingCount the online sibling count
+     *
+     * @throws SQLException if a database access error occurs
+     */
+    protected static void prepareOnlineResourceUpdate(
+        PreparedStatement stmt,
+        CmsResource offlineResource,
+        int siblingCount) throws SQLException {
+
+        stmt.setInt(1, offlineResource.getTypeId());
+        stmt.setInt(2, offlineResource.getFlags());
+        stmt.setLong(3, offlineResource.getDateLastModified());
+        stmt.setString(4, offlineResource.getUserLastModified().toString());
+        stmt.setInt(5, CmsResource.STATE_UNCHANGED.getState());
+        stmt.setInt(6, offlineResource.getLength());
+        stmt.setLong(7, offlineResource.getDateContent());
+        stmt.setString(8, offlineResource.getProjectLastModified().toString());
+        stmt.setInt(9, siblingCount);
+        stmt.setString(10, offlineResource.getResourceId().toString());
+    }
+
+    /**
+     * Sets the parameters of the <code>C_RESOURCES_WRITE</code> statement for publishing 
+     * the given offline resource to a new online resource record.<p>
+     *
+     * @param stmt the statement to set the parameters for
+     * @param offlineResource the offline resource to publish
+     * @param resourceVersion the initial resource version
+     *
+     * @throws SQLException if a database access error occurs
+     */
+    protected static void prepareOnlineResourceWrite(
+        PreparedStatement stmt,
+        CmsResource offlineResource,
+        int resourceVersion) throws SQLException {
+
+        stmt.setString(1, offlineResource.getResourceId().toString());
+        stmt.setInt(2, offlineResource.getTypeId());
+        stmt.setInt(3, offlineResource.getFlags());
+        stmt.setLong(4, offlineResource.getDateCreated());
+        stmt.setString(5, offlineResource.getUserCreated().toString());
+        stmt.setLong(6, offlineResource.getDateLastModified());
+        stmt.setString(7, offlineResource.getUserLastModified().toString());
+        stmt.setInt(8, CmsResource.STATE_UNCHANGED.getState());
+        stmt.setInt(9, offlineResource.getLength());
+        stmt.setLong(10, offlineResource.getDateContent());
+        stmt.setString(11, offlineResource.getProjectLastModified().toString());
+        stmt.setInt(12, 1); // initial siblings count
+        stmt.setInt(13, resourceVersion);
+    }
+
+    /**
+     * Sets the parameters of the <code>C_RESOURCES_UPDATE_STRUCTURE</code> statement for publishing 
+     * the given offline resource to an existing online structure record.<p>
+     *
+     * @param stmt the statement to set the parameters for
+     * @param offlineResource the offline resource to publish
+     * @param parentId the id of the online parent folder
+     *
+     * @throws SQLException if a database access error occurs
+     */
+    protected static void prepareOnlineStructureUpdate(
+        PreparedStatement stmt,
+        CmsResource offlineResource,
+        String parentId) throws SQLException {
+
+        stmt.setString(1, offlineResource.getResourceId().toString());
+        stmt.setString(2, CmsFileUtil.removeTrailingSeparator(offlineResource.getRootPath()));
+        stmt.setInt(3, CmsResource.STATE_UNCHANGED.getState());
+        stmt.setLong(4, offlineResource.getDateReleased());
+        stmt.setLong(5, offlineResource.getDateExpired());
+        stmt.setString(6, parentId);
+        stmt.setString(7, offlineResource.getStructureId().toString());
+    }
+
+    /**
+     * Sets the parameters of the <code>C_STRUCTURE_WRITE</code> statement for publishing 
+     * the given offline resource to a new online structure record.<p>
+     *
+     * @param stmt the statement to set the parameters for
+     * @param offlineResource the offline resource to publish
+     * @param parentId the id of the online parent folder
+     * @param structureVersion the initial structure version
+     *
+     * @throws SQLException if a database access error occurs
+     */
+    protected static void prepareOnlineStructureWrite(
+        PreparedStatement stmt,
+        CmsResource offlineResource,
+        String parentId,
+        int structureVersion) throws SQLException {
+
+        stmt.setString(1, offlineResource.getStructureId().toString());
+        stmt.setString(2, offlineResource.getResourceId().toString());
+        stmt.setString(3, CmsFileUtil.removeTrailingSeparator(offlineResource.getRootPath()));
+        stmt.setInt(4, CmsResource.STATE_UNCHANGED.getState());
+        stmt.setLong(5, offlineResource.getDateReleased());
+        stmt.setLong(6, offlineResource.getDateExpired());
+        stmt.setString(7, parentId);
+        stmt.setInt(8, structureVersion);
+    }
+
+    /**
+     * Sets the parameters of the <code>C_CREATE_RELATION</code> statement for the given relation.<p>
+     *
+     * @param stmt the statement to set the parameters for
+     * @param relation the relation to write
+     *
+     * @throws SQLException if a database access error occurs
+     */
+    protected static void prepareRelationWrite(PreparedStatement stmt, CmsRelation relation) throws SQLException {
+
+        stmt.setString(1, relation.getSourceId().toString());
+        stmt.setString(2, relation.getSourcePath());
+        stmt.setString(3, relation.getTargetId().toString());
+        stmt.setString(4, relation.getTargetPath());
+        stmt.setInt(5, relation.getType().getId());
+    }
+
     /**
      * @see org.opencms.db.I_CmsVfsDriver#addUrlNameMappingEntry(org.opencms.db.CmsDbContext, boolean, org.opencms.db.urlname.CmsUrlNameMappingEntry)
      */
@@ -561,11 +686,7 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         try {
             conn = m_sqlManager.getConnection(dbc);
             stmt = m_sqlManager.getPreparedStatement(conn, projectId, "C_CREATE_RELATION");
-            stmt.setString(1, relation.getSourceId().toString());
-            stmt.setString(2, relation.getSourcePath());
-            stmt.setString(3, relation.getTargetId().toString());
-            stmt.setString(4, relation.getTargetPath());
-            stmt.setInt(5, relation.getType().getId());
+            prepareRelationWrite(stmt, relation);
 
             if (LOG.isDebugEnabled()) {
                 LOG.debug(Messages.get().getBundle().key(
@@ -1501,7 +1622,6 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
 
         // validate the resource length
         internalValidateResourceLength(offlineResource);
-        int resourceSize = offlineResource.getLength();
 
         String resourcePath = CmsFileUtil.removeTrailingSeparator(offlineResource.getRootPath());
 
@@ -1516,35 +1636,14 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
                 // the resource record exists online already
                 // update the online resource record
                 stmt = m_sqlManager.getPreparedStatement(conn, onlineProject, "C_RESOURCES_UPDATE_RESOURCES");
-                stmt.setInt(1, offlineResource.getTypeId());
-                stmt.setInt(2, offlineResource.getFlags());
-                stmt.setLong(3, offlineResource.getDateLastModified());
-                stmt.setString(4, offlineResource.getUserLastModified().toString());
-                stmt.setInt(5, CmsResource.STATE_UNCHANGED.getState());
-                stmt.setInt(6, resourceSize);
-                stmt.setLong(7, offlineResource.getDateContent());
-                stmt.setString(8, offlineResource.getProjectLastModified().toString());
-                stmt.setInt(9, sibCount);
-                stmt.setString(10, offlineResource.getResourceId().toString());
+                prepareOnlineResourceUpdate(stmt, offlineResource, sibCount);
                 stmt.executeUpdate();
                 m_sqlManager.closeAll(dbc, conn, stmt, null);
             } else {
                 // the resource record does NOT exist online yet
                 // create the resource record online
                 stmt = m_sqlManager.getPreparedStatement(conn, onlineProject, "C_RESOURCES_WRITE");
-                stmt.setString(1, offlineResource.getResourceId().toString());
-                stmt.setInt(2, offlineResource.getTypeId());
-                stmt.setInt(3, offlineResource.getFlags());
-                stmt.setLong(4, offlineResource.getDateCreated());
-                stmt.setString(5, offlineResource.getUserCreated().toString());
-                stmt.setLong(6, offlineResource.getDateLastModified());
-                stmt.setString(7, offlineResource.getUserLastModified().toString());
-                stmt.setInt(8, CmsResource.STATE_UNCHANGED.getState());
-                stmt.setInt(9, resourceSize);
-                stmt.setLong(10, offlineResource.getDateContent());
-                stmt.setString(11, offlineResource.getProjectLastModified().toString());
-                stmt.setInt(12, 1); // initial siblings count
-                stmt.setInt(13, 1); // initial resource version
+                prepareOnlineResourceWrite(stmt, offlineResource, 1);
                 stmt.executeUpdate();
                 m_sqlManager.closeAll(dbc, conn, stmt, null);
             }
@@ -1559,26 +1658,14 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
             if (structureExists) {
                 // update the online structure record
                 stmt = m_sqlManager.getPreparedStatement(conn, onlineProject, "C_RESOURCES_UPDATE_STRUCTURE");
-                stmt.setString(1, offlineResource.getResourceId().toString());
-                stmt.setString(2, resourcePath);
-                stmt.setInt(3, CmsResource.STATE_UNCHANGED.getState());
-                stmt.setLong(4, offlineResource.getDateReleased());
-                stmt.setLong(5, offlineResource.getDateExpired());
-                stmt.setString(6, parentId);
-                stmt.setString(7, offlineResource.getStructureId().toString());
+                prepareOnlineStructureUpdate(stmt, offlineResource, parentId);
                 stmt.executeUpdate();
                 m_sqlManager.closeAll(dbc, null, stmt, null);
             } else {
                 // create the structure record online
                 stmt = m_sqlManager.getPreparedStatement(conn, onlineProject, "C_STRUCTURE_WRITE");
-                stmt.setString(1, offlineResource.getStructureId().toString());
-                stmt.setString(2, offlineResource.getResourceId().toString());
-                stmt.setString(3, resourcePath);
-                stmt.setInt(4, CmsResource.STATE_UNCHANGED.getState());
-                stmt.setLong(5, offlineResource.getDateReleased());
-                stmt.setLong(6, offlineResource.getDateExpired());
-                stmt.setString(7, parentId);
-                stmt.setInt(8, resourceExists ? 1 : 0); // new resources start with 0, new siblings with 1
+                // new resources start with 0, new siblings with 1
+                prepareOnlineStructureWrite(stmt, offlineResource, parentId, resourceExists ? 1 : 0);
                 stmt.executeUpdate();
                 m_sqlManager.closeAll(dbc, null, stmt, null);
             }
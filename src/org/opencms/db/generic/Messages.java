@@ -361,6 +361,12 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_DELETING_PROPERTIES_1 = "LOG_DELETING_PROPERTIES_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_ERROR_BATCH_PUBLISHING_RESOURCES_1 = "LOG_ERROR_BATCH_PUBLISHING_RESOURCES_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_ERROR_BATCH_RESETTING_RESOURCE_STATES_1 = "LOG_ERROR_BATCH_RESETTING_RESOURCE_STATES_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_ERROR_RESETTING_RESOURCE_STATE_1 = "LOG_ERROR_RESETTING_RESOURCE_STATE_1";
 
@@ -457,6 +463,21 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String RPT_PUBLISH_FOLDERS_END_0 = "RPT_PUBLISH_FOLDERS_END_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_PUBLISH_PHASE_DELETED_FOLDERS_3 = "RPT_PUBLISH_PHASE_DELETED_FOLDERS_3";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_PUBLISH_PHASE_FILES_3 = "RPT_PUBLISH_PHASE_FILES_3";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_PUBLISH_PHASE_FOLDERS_3 = "RPT_PUBLISH_PHASE_FOLDERS_3";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_PUBLISH_PHASE_HISTORY_3 = "RPT_PUBLISH_PHASE_HISTORY_3";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_PUBLISH_PHASE_STATES_3 = "RPT_PUBLISH_PHASE_STATES_3";
+
     /** Message constant for key in the resource bundle. */
     public static final String RPT_PUBLISH_STAT_4 = "RPT_PUBLISH_STAT_4";
 
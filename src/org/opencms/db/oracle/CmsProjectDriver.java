@@ -34,6 +34,7 @@ import org.opencms.db.CmsDbSqlException;
 import org.opencms.db.generic.CmsSqlManager;
 import org.opencms.db.generic.Messages;
 import org.opencms.file.CmsDataAccessException;
+import org.opencms.file.CmsFile;
 import org.opencms.publish.CmsPublishJobInfoBean;
 import org.opencms.util.CmsUUID;
 
@@ -43,6 +44,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.List;
 
 import org.apache.commons.dbcp.DelegatingResultSet;
 
@@ -114,6 +116,63 @@ public class CmsProjectDriver extends org.opencms.db.generic.CmsProjectDriver {
             content);
     }
 
+    /**
+     * Writes the BLOBs of the online contents on the connection of the batch, so that they are 
+     * part of its transaction. The empty BLOBs are inserted in a batch, then every BLOB is 
+     * selected for update and written.<p>
+     * 
+     * @see org.opencms.db.generic.CmsProjectDriver#internalWriteOnlineContents(org.opencms.db.CmsDbContext, java.sql.Connection, java.util.List, int)
+     */
+    @Override
+    protected void internalWriteOnlineContents(CmsDbContext dbc, Connection conn, List<CmsFile> files, int publishTag)
+    throws CmsDataAccessException, SQLException {
+
+        internalRemoveOnlineContents(dbc, conn, files);
+        PreparedStatement stmt = null;
+        ResultSet res = null;
+        CmsUUID resourceId = null;
+        try {
+            // create the new empty online content
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_ORACLE_ONLINE_CONTENTS_WRITE");
+            for (CmsFile file : files) {
+                stmt.setString(1, file.getResourceId().toString());
+                stmt.setInt(2, publishTag);
+                stmt.setInt(3, publishTag);
+                stmt.setInt(4, 1); // keep online
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            m_sqlManager.closeAll(dbc, null, stmt, null);
+
+            // now write the BLOBs
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_ORACLE_ONLINE_CONTENTS_UPDATECONTENT");
+            for (CmsFile file : files) {
+                resourceId = file.getResourceId();
+                stmt.setString(1, resourceId.toString());
+                stmt.setInt(2, publishTag);
+                stmt.setInt(3, publishTag);
+                res = ((DelegatingResultSet)stmt.executeQuery()).getInnermostDelegate();
+                if (!res.next()) {
+                    throw new CmsDbEntryNotFoundException(Messages.get().container(
+                        Messages.LOG_READING_RESOURCE_1,
+                        resourceId));
+                }
+                byte[] contents = file.getContents();
+                OutputStream output = CmsUserDriver.getOutputStreamFromBlob(res, "FILE_CONTENT");
+                output.write(contents, 0, contents.length);
+                output.close();
+                m_sqlManager.closeAll(dbc, null, null, res);
+                res = null;
+            }
+        } catch (IOException e) {
+            throw new CmsDbIoException(
+                Messages.get().container(Messages.ERR_WRITING_TO_OUTPUT_STREAM_1, resourceId),
+                e);
+        } finally {
+            m_sqlManager.closeAll(dbc, null, stmt, res);
+        }
+    }
+
     /**
      * Writes data for a publish job.<p>
      * 
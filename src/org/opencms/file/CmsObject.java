@@ -1633,6 +1633,32 @@ public final class CmsObject {
         return m_securityManager.readChildResources(m_context, resource, filter, true, true);
     }
 
+    /**
+     * Returns a page of the child resources of a resource, that is the resources
+     * contained in a folder.<p>
+     * 
+     * Use this instead of {@link #getResourcesInFolder(String, CmsResourceFilter)} when only 
+     * a part of a large folder is needed, since permissions are only checked up to the requested page.<p>
+     * 
+     * @param resourcename the full current site relative path of the resource to return the child resources for
+     * @param filter the resource filter to use
+     * @param skipCount the number of child resources to skip
+     * @param maxItems the maximum number of child resources to return
+     * 
+     * @return a list of at most <code>maxItems</code> child <code>{@link CmsResource}</code>s
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    public List<CmsResource> getResourcesInFolder(
+        String resourcename,
+        CmsResourceFilter filter,
+        int skipCount,
+        int maxItems) throws CmsException {
+
+        CmsResource resource = readResource(resourcename, CmsResourceFilter.ALL);
+        return m_securityManager.readChildResources(m_context, resource, filter, true, true, skipCount, maxItems);
+    }
+
     /**
      * Adjusts the absolute resource root path for the current site.<p> 
      * 
@@ -27,29 +27,40 @@
 
 package org.opencms.flex;
 
+import org.opencms.ade.configuration.CmsADEManager;
+import org.opencms.cache.CmsConcurrentLruMap;
 import org.opencms.cache.CmsLruCache;
 import org.opencms.cache.I_CmsLruCacheObject;
+import org.opencms.db.CmsPublishedResource;
 import org.opencms.file.CmsObject;
+import org.opencms.file.types.CmsResourceTypeJsp;
+import org.opencms.file.types.CmsResourceTypeXmlContainerPage;
 import org.opencms.jsp.util.I_CmsJspDeviceSelector;
 import org.opencms.loader.CmsJspLoader;
+import org.opencms.loader.CmsLoaderException;
+import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
 import org.opencms.main.I_CmsEventListener;
 import org.opencms.main.OpenCms;
 import org.opencms.security.CmsRole;
-import org.opencms.util.CmsCollectionsGenericWrapper;
 import org.opencms.util.CmsFileUtil;
 import org.opencms.util.CmsStringUtil;
+import org.opencms.util.CmsUUID;
 
 import java.io.File;
-import java.util.Collection;
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
-import org.apache.commons.collections.map.LRUMap;
 import org.apache.commons.logging.Log;
 
 /**
@@ -89,8 +100,11 @@ import org.apache.commons.logging.Log;
  * </ul>
  *
  * Cache clearing is handled using events.
- * The cache is fully flushed if an event {@link I_CmsEventListener#EVENT_PUBLISH_PROJECT} 
- * or {@link I_CmsEventListener#EVENT_CLEAR_CACHES} is caught.<p>
+ * The cache is fully flushed if an event {@link I_CmsEventListener#EVENT_CLEAR_CACHES} is caught.
+ * If an event {@link I_CmsEventListener#EVENT_PUBLISH_PROJECT} is caught, only the entries 
+ * that depend on one of the published resources are removed, see {@link CmsFlexCacheDependencies}.
+ * The cache is fully flushed on publish if the dependency tracking is disabled in the configuration, 
+ * or if a JSP, an ADE configuration or a resource below {@link #TEMPLATE_FOLDER} has been published.<p>
  * 
  * @since 6.0.0 
  * 
@@ -125,12 +139,9 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
     }
 
     /**
-     * Extended LRUMap that handles the variations in case a key is removed.<p>
+     * Concurrent LRU map that handles the variations in case a key is evicted.<p>
      */
-    class CmsFlexKeyMap extends LRUMap {
-
-        /** Serial version UID required for safe serialization. */
-        private static final long serialVersionUID = 6931995916013396902L;
+    class CmsFlexKeyMap extends CmsConcurrentLruMap<String, CmsFlexCacheVariation> {
 
         /**
          * Initialize the map with the given size.<p>
@@ -144,35 +155,23 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
 
         /**
          * Ensures that all variations that referenced by this key are released
-         * if the key is released.<p>
-         * 
-         * @param entry the entry to remove
+         * if the key is evicted.<p>
          * 
-         * @return <code>true</code> to actually delete the entry
-         * 
-         * @see LRUMap#removeLRU(LinkEntry)
+         * @see org.opencms.cache.CmsConcurrentLruMap#onEviction(java.lang.Object, java.lang.Object)
          */
         @Override
-        protected boolean removeLRU(LinkEntry entry) {
+        protected void onEviction(String key, CmsFlexCacheVariation v) {
 
-            CmsFlexCacheVariation v = (CmsFlexCacheVariation)entry.getValue();
-            if (v == null) {
-                return true;
-            }
             Map<String, I_CmsLruCacheObject> m = v.m_map;
             if ((m == null) || (m.size() == 0)) {
-                return true;
+                return;
             }
-            Collection<I_CmsLruCacheObject> entries = m.values();
-            synchronized (m_variationCache) {
-                for (I_CmsLruCacheObject e : entries) {
-                    m_variationCache.remove(e);
-                }
-                v.m_map.clear();
-                v.m_map = null;
-                v.m_key = null;
+            // copy the entries, removing an entry from the LRU cache removes it from the variation map
+            List<I_CmsLruCacheObject> entries = new ArrayList<I_CmsLruCacheObject>(m.values());
+            for (I_CmsLruCacheObject e : entries) {
+                m_variationCache.remove(e);
             }
-            return true;
+            m.clear();
         }
     }
 
@@ -206,12 +205,18 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
     /** Initial size for variation lists, should be a power of 2. */
     public static final int INITIAL_CAPACITY_VARIATIONS = 8;
 
+    /** The maximum time in milliseconds a request waits for the regeneration of an entry by a concurrent request. */
+    public static final long MAX_REGENERATION_WAIT = 30000;
+
     /** Offline repository constant. */
     public static final String REPOSITORY_OFFLINE = "offline";
 
     /** Online repository constant. */
     public static final String REPOSITORY_ONLINE = "online";
 
+    /** Resources below this folder are considered as templates, publishing them clears the complete cache. */
+    public static final String TEMPLATE_FOLDER = "/system/modules/";
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsFlexCache.class);
 
@@ -221,6 +226,12 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
     /** Indicates if offline resources should be cached or not. */
     private boolean m_cacheOffline;
 
+    /** Counter for the requests that have been served with an entry regenerated by a concurrent request. */
+    private AtomicLong m_coalescedHits;
+
+    /** Indicates if only the entries depending on published resources are removed on publish. */
+    private boolean m_dependencyTracking;
+
     /** The device selector. */
     private I_CmsJspDeviceSelector m_deviceSelector;
 
@@ -230,9 +241,15 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
     /** Map to store the entries for fast lookup. */
     private Map<String, CmsFlexCacheVariation> m_keyCache;
 
+    /** The latches of the entries that are currently regenerated, by resource name and variation. */
+    private ConcurrentMap<String, CountDownLatch> m_regenerations;
+
     /** Counter for the size. */
     private int m_size;
 
+    /** Counter for the requests served with an expired entry while the entry was regenerated. */
+    private AtomicLong m_staleHits;
+
     /**
      * Constructor for class CmsFlexCache.<p>
      *
@@ -248,6 +265,10 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
 
         m_enabled = configuration.isCacheEnabled();
         m_cacheOffline = configuration.isCacheOffline();
+        m_dependencyTracking = configuration.isDependencyTracking();
+        m_regenerations = new ConcurrentHashMap<String, CountDownLatch>();
+        m_coalescedHits = new AtomicLong();
+        m_staleHits = new AtomicLong();
 
         // set the local device selector
         m_deviceSelector = configuration.getDeviceSelector();
@@ -262,7 +283,7 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
 
         if (m_enabled) {
             CmsFlexKeyMap flexKeyMap = new CmsFlexKeyMap(maxKeys);
-            m_keyCache = Collections.synchronizedMap(CmsCollectionsGenericWrapper.<String, CmsFlexCacheVariation> map(flexKeyMap));
+            m_keyCache = flexKeyMap;
             OpenCms.getMemoryMonitor().register(getClass().getName() + ".m_resourceMap", flexKeyMap);
 
             OpenCms.addCmsEventListener(this, new int[] {
@@ -304,6 +325,19 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
 
         switch (event.getType()) {
             case I_CmsEventListener.EVENT_PUBLISH_PROJECT:
+                Object publishHistoryId = (event.getData() != null)
+                ? event.getData().get(I_CmsEventListener.KEY_PUBLISHID)
+                : null;
+                if (m_dependencyTracking && (publishHistoryId != null)) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug(Messages.get().getBundle().key(
+                            Messages.LOG_FLEXCACHE_RECEIVED_EVENT_PUBLISH_PROJECT_0));
+                    }
+                    clearPublishedResources(new CmsUUID((String)publishHistoryId));
+                    break;
+                }
+                // without dependency tracking the complete cache is cleared
+                //$FALL-THROUGH$
             case I_CmsEventListener.EVENT_CLEAR_CACHES:
                 if (LOG.isDebugEnabled()) {
                     LOG.debug(Messages.get().getBundle().key(Messages.LOG_FLEXCACHE_RECEIVED_EVENT_CLEAR_CACHE_0));
@@ -435,6 +469,20 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         return null;
     }
 
+    /**
+     * Returns the number of requests that have been served with a missing entry regenerated by a concurrent request.<p>
+     * 
+     * These requests have not generated the entry again, 
+     * this happens for resources with the <code>coalesce</code> cache directive.
+     * Requests that stopped waiting before the regeneration was finished are not counted.<p>
+     * 
+     * @return the number of requests that have been served with an entry regenerated by a concurrent request
+     */
+    public long getCoalescedHits() {
+
+        return m_coalescedHits.get();
+    }
+
     /**
      * Returns the device selector.<p>
      *
@@ -455,6 +503,18 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         return m_variationCache;
     }
 
+    /**
+     * Returns the number of requests that have been served with an expired entry while the entry was regenerated.<p>
+     * 
+     * This happens for resources with the <code>stale</code> cache directive.<p>
+     * 
+     * @return the number of requests served with an expired entry
+     */
+    public long getStaleHits() {
+
+        return m_staleHits.get();
+    }
+
     /**
      * Indicates if the cache is enabled (i.e. actually
      * caching entries) or not.<p>
@@ -489,12 +549,30 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         return m_variationCache.size();
     }
 
+    /**
+     * Ends the regeneration of an entry started with {@link #startRegeneration(CmsFlexCacheKey, String)}.<p>
+     * 
+     * All requests waiting for the regeneration are notified.<p>
+     * 
+     * @param key the key of the regenerated entry
+     * @param variation the variation of the regenerated entry
+     */
+    void endRegeneration(CmsFlexCacheKey key, String variation) {
+
+        CountDownLatch latch = m_regenerations.remove(key.getResource().concat(variation));
+        if (latch != null) {
+            latch.countDown();
+        }
+    }
+
     /**
      * Looks up a specific entry in the cache.<p>
      * 
      * In case a found entry has a timeout set, it will be checked upon lookup.
      * In case the timeout of the entry has been reached, it will be removed from
-     * the cache (and null will be returned in this case).<p>
+     * the cache (and null will be returned in this case).
+     * If the key of the entry allows stale entries, the expired entry is returned 
+     * until the grace period of the key has passed, see {@link #serveStale(CmsFlexCacheEntry)}.<p>
      *
      * @param key The key to look for in the cache
      * @return the entry found for the key, or null if key is not in the cache
@@ -520,7 +598,12 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
                 // no cache entry available for variation
                 return null;
             }
-            if (entry.getDateExpires() < System.currentTimeMillis()) {
+            long now = System.currentTimeMillis();
+            if (entry.getDateExpires() < now) {
+                if ((v.m_key.getStale() > 0) && ((entry.getDateExpires() + (v.m_key.getStale() * 60000)) > now)) {
+                    // cache entry expired, but may be served while it is regenerated
+                    return entry;
+                }
                 // cache entry avaiable but expired, remove entry
                 m_variationCache.remove(entry);
                 return null;
@@ -655,6 +738,66 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         }
     }
 
+    /**
+     * Checks if an expired entry is served to the current request.<p>
+     * 
+     * The first request that finds the expired entry regenerates it, all other 
+     * requests are served the expired entry until the regeneration is finished.
+     * The regenerating request must call {@link CmsFlexCacheEntry#endRegeneration()} 
+     * when the regeneration is finished.<p>
+     * 
+     * @param entry the expired entry
+     * 
+     * @return <code>true</code> if the expired entry is served, 
+     *      <code>false</code> if the current request must regenerate the entry 
+     */
+    boolean serveStale(CmsFlexCacheEntry entry) {
+
+        if (entry.startRegeneration()) {
+            return false;
+        }
+        m_staleHits.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Starts the regeneration of a missing entry, 
+     * or waits until a concurrent request has finished the regeneration of the entry.<p>
+     * 
+     * If this method returns <code>true</code>, the caller must regenerate the entry and
+     * call {@link #endRegeneration(CmsFlexCacheKey, String)} afterwards.
+     * If this method returns <code>false</code>, the entry has been regenerated by a concurrent request 
+     * and should be looked up in the cache again. 
+     * A request waits at most {@link #MAX_REGENERATION_WAIT} milliseconds for the concurrent request,
+     * only the requests regenerating the same entry wait for each other.<p>
+     * 
+     * @param key the key of the missing entry
+     * @param variation the variation of the missing entry
+     * 
+     * @return <code>true</code> if the caller must regenerate the entry
+     */
+    boolean startRegeneration(CmsFlexCacheKey key, String variation) {
+
+        String regeneration = key.getResource().concat(variation);
+        CountDownLatch latch = m_regenerations.putIfAbsent(regeneration, new CountDownLatch(1));
+        if (latch == null) {
+            // no concurrent regeneration, the latch of this request has been added
+            return true;
+        }
+        try {
+            if (latch.await(MAX_REGENERATION_WAIT, TimeUnit.MILLISECONDS)) {
+                // only count the hit if the concurrent request has actually cached the entry
+                CmsFlexCacheVariation v = m_keyCache.get(key.getResource());
+                if ((v != null) && (v.m_map.get(variation) != null)) {
+                    m_coalescedHits.incrementAndGet();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
     /**
      * Empties the cache completely.<p>
      */
@@ -837,6 +980,97 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         clearAccordingToSuffix(CACHE_ONLINESUFFIX, true);
     }
 
+    /**
+     * Removes all entries that depend on one of the resources published with the given publish job.<p>
+     * 
+     * The keys of the published resources are removed as well, since the caching property may have changed.
+     * If a template or an ADE configuration has been published, or if the published resources can not be read, 
+     * the complete cache is cleared. The ADE configuration is read with a separate <code>CmsObject</code>,
+     * so elements depending on it can not be tracked.<p>
+     * 
+     * @param publishHistoryId the publish history id of the publish job
+     */
+    private void clearPublishedResources(CmsUUID publishHistoryId) {
+
+        if (!isEnabled()) {
+            return;
+        }
+        List<CmsPublishedResource> publishedResources;
+        try {
+            CmsObject cms = OpenCms.initCmsObject(OpenCms.getDefaultUsers().getUserGuest());
+            publishedResources = cms.readPublishedResources(publishHistoryId);
+        } catch (CmsException e) {
+            LOG.error(e.getLocalizedMessage(), e);
+            clear();
+            return;
+        }
+        Set<String> paths = new HashSet<String>(publishedResources.size());
+        for (CmsPublishedResource resource : publishedResources) {
+            String rootPath = resource.getRootPath();
+            if (CmsResourceTypeJsp.isJspTypeId(resource.getType()) || rootPath.startsWith(TEMPLATE_FOLDER)) {
+                // templates may be included in any cached element
+                if (LOG.isInfoEnabled()) {
+                    LOG.info(Messages.get().getBundle().key(Messages.LOG_FLEXCACHE_CLEAR_TEMPLATE_1, rootPath));
+                }
+                clear();
+                return;
+            }
+            if (isConfiguration(resource.getType())) {
+                // the ADE configuration may be used by any cached element
+                if (LOG.isInfoEnabled()) {
+                    LOG.info(Messages.get().getBundle().key(Messages.LOG_FLEXCACHE_CLEAR_CONFIGURATION_1, rootPath));
+                }
+                clear();
+                return;
+            }
+            paths.add(rootPath);
+        }
+        removeDependentEntries(paths);
+    }
+
+    /**
+     * Checks if the given dependencies contain one of the given resources.<p>
+     * 
+     * @param dependencies the dependencies to check
+     * @param paths the root paths of the changed resources
+     * 
+     * @return <code>true</code> if the dependencies contain one of the given resources
+     */
+    private boolean dependsOn(CmsFlexCacheDependencies dependencies, Set<String> paths) {
+
+        if (dependencies.isUntracked()) {
+            return true;
+        }
+        Iterator<String> i = paths.iterator();
+        while (i.hasNext()) {
+            if (dependencies.dependsOn(i.next())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the given resource type is one of the ADE configuration types.<p>
+     * 
+     * @param typeId the resource type id to check
+     * 
+     * @return <code>true</code> if the given resource type is one of the ADE configuration types
+     */
+    private boolean isConfiguration(int typeId) {
+
+        String typeName;
+        try {
+            typeName = OpenCms.getResourceManager().getResourceType(typeId).getTypeName();
+        } catch (CmsLoaderException e) {
+            // unknown resource type, can not be a configuration
+            return false;
+        }
+        return CmsADEManager.CONFIG_TYPE.equals(typeName)
+            || CmsADEManager.MODULE_CONFIG_TYPE.equals(typeName)
+            || CmsResourceTypeXmlContainerPage.INHERIT_CONTAINER_CONFIG_TYPE_NAME.equals(typeName);
+    }
+
     /**
      * This method purges the JSP repository dirs,
      * i.e. it deletes all JSP files that OpenCms has written to the
@@ -883,12 +1117,13 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         if (o != null) {
             // We already have a variation map for this resource
             Map<String, I_CmsLruCacheObject> m = o.m_map;
-            boolean wasAdded = true;
-            if (!m.containsKey(key.getVariation())) {
-                wasAdded = m_variationCache.add(theCacheEntry);
-            } else {
-                wasAdded = m_variationCache.touch(theCacheEntry);
+            I_CmsLruCacheObject previous = m.get(key.getVariation());
+            if ((previous != null) && (previous != theCacheEntry)) {
+                // the entry has been regenerated, e.g. because it was expired 
+                m_variationCache.remove(previous);
+                m.remove(key.getVariation());
             }
+            boolean wasAdded = m_variationCache.add(theCacheEntry);
 
             if (wasAdded) {
                 theCacheEntry.setVariationData(key.getVariation(), m);
@@ -916,4 +1151,50 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
             LOG.debug(Messages.get().getBundle().key(Messages.LOG_FLEXCACHE_ADDED_ENTRY_1, theCacheEntry.toString()));
         }
     }
+
+    /**
+     * Removes all entries that depend on one of the given resources, 
+     * as well as the keys of the given resources.<p>
+     * 
+     * @param paths the root paths of the changed resources
+     */
+    private synchronized void removeDependentEntries(Set<String> paths) {
+
+        int removed = 0;
+        // create new set to avoid ConcurrentModificationExceptions
+        Set<String> cacheKeys = new HashSet<String>(m_keyCache.keySet());
+        Iterator<String> i = cacheKeys.iterator();
+        while (i.hasNext()) {
+            String cacheKey = i.next();
+            CmsFlexCacheVariation v = m_keyCache.get(cacheKey);
+            if (v == null) {
+                continue;
+            }
+            String resourceName = cacheKey;
+            if (cacheKey.endsWith(CACHE_ONLINESUFFIX)) {
+                resourceName = cacheKey.substring(0, cacheKey.length() - CACHE_ONLINESUFFIX.length());
+            } else if (cacheKey.endsWith(CACHE_OFFLINESUFFIX)) {
+                resourceName = cacheKey.substring(0, cacheKey.length() - CACHE_OFFLINESUFFIX.length());
+            }
+            boolean removeKey = paths.contains(resourceName);
+            List<I_CmsLruCacheObject> entries = new ArrayList<I_CmsLruCacheObject>(v.m_map.values());
+            for (I_CmsLruCacheObject entry : entries) {
+                if (removeKey || dependsOn(((CmsFlexCacheEntry)entry).getDependencies(), paths)) {
+                    v.m_map.values().remove(entry);
+                    m_variationCache.remove(entry);
+                    m_size--;
+                    removed++;
+                }
+            }
+            if (removeKey) {
+                m_keyCache.remove(cacheKey);
+            }
+        }
+        if (LOG.isInfoEnabled()) {
+            LOG.info(Messages.get().getBundle().key(
+                Messages.LOG_FLEXCACHE_CLEAR_DEPENDENT_2,
+                new Integer(removed),
+                new Integer(paths.size())));
+        }
+    }
 }
\ No newline at end of file
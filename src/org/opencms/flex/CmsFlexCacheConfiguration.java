@@ -52,6 +52,9 @@ public class CmsFlexCacheConfiguration {
     /** Indicates if offline resources should be cached or not. */
     private boolean m_cacheOffline;
 
+    /** Indicates if only the cache entries depending on published resources are removed on publish. */
+    private boolean m_dependencyTracking;
+
     /** The device selector. */
     private I_CmsJspDeviceSelector m_deviceSelector;
 
@@ -75,11 +78,12 @@ public class CmsFlexCacheConfiguration {
     private int m_maxKeys;
 
     /**
-     * Empty public constructor for the digester.
+     * Public constructor for the digester.
      */
     public CmsFlexCacheConfiguration() {
 
-        // empty public constructor for digester 
+        // dependency tracking is enabled by default
+        m_dependencyTracking = true;
     }
 
     /**
@@ -191,6 +195,18 @@ public class CmsFlexCacheConfiguration {
         return m_cacheOffline;
     }
 
+    /**
+     * Checks if only the cache entries depending on published resources are removed on publish.<p>
+     * 
+     * If this is <code>false</code>, the complete cache is cleared on publish.<p>
+     *
+     * @return <code>true</code> if dependency tracking is enabled
+     */
+    public boolean isDependencyTracking() {
+
+        return m_dependencyTracking;
+    }
+
     /**
      * Sets the avgCacheBytes.<p>
      *
@@ -221,6 +237,16 @@ public class CmsFlexCacheConfiguration {
         m_cacheOffline = cacheOffline;
     }
 
+    /**
+     * Enables or disables the dependency tracking.<p>
+     *
+     * @param dependencyTracking <code>"true"</code> to enable the dependency tracking
+     */
+    public void setDependencyTracking(String dependencyTracking) {
+
+        m_dependencyTracking = Boolean.valueOf(dependencyTracking).booleanValue();
+    }
+
     /**
      * Sets the device selector configuration.<p>
      *
@@ -0,0 +1,212 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.flex;
+
+import org.opencms.file.CmsResource;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Contains the VFS resources a Flex cache entry was generated from.<p>
+ * 
+ * The dependencies are collected while an element is generated, from the resources, 
+ * folder listings and missing resources read by the driver manager with any request context 
+ * on the thread generating the element, e.g. also with a separately initialized <code>CmsObject</code>.
+ * When a project is published, only the Flex cache entries that depend on one of the published 
+ * resources are removed from the cache.<p>
+ * 
+ * Dependencies that are not read through the driver manager (e.g. search results read from an index, 
+ * or data cached by another request) can not be tracked. Elements that use such data must be marked as 
+ * untracked with {@link CmsFlexController#markUntracked()}, untracked entries are removed on every publish.<p>
+ * 
+ * @since 8.5.0 
+ */
+public class CmsFlexCacheDependencies {
+
+    /** The maximum number of dependencies recorded before the dependencies are considered untracked. */
+    public static final int MAX_DEPENDENCIES = 512;
+
+    /** The root paths of the folders whose direct children have been read. */
+    private Set<String> m_folders;
+
+    /** The root paths of the resources that have been read. */
+    private Set<String> m_resources;
+
+    /** The root paths of the folders whose complete sub tree has been read. */
+    private Set<String> m_trees;
+
+    /** Indicates if the dependencies can not be tracked. */
+    private boolean m_untracked;
+
+    /**
+     * Creates a new, empty set of dependencies.<p>
+     */
+    public CmsFlexCacheDependencies() {
+
+        m_folders = new HashSet<String>();
+        m_resources = new HashSet<String>();
+        m_trees = new HashSet<String>();
+    }
+
+    /**
+     * Creates a copy of the given dependencies.<p>
+     * 
+     * @param dependencies the dependencies to copy
+     */
+    public CmsFlexCacheDependencies(CmsFlexCacheDependencies dependencies) {
+
+        m_folders = new HashSet<String>(dependencies.m_folders);
+        m_resources = new HashSet<String>(dependencies.m_resources);
+        m_trees = new HashSet<String>(dependencies.m_trees);
+        m_untracked = dependencies.m_untracked;
+    }
+
+    /**
+     * Adds a dependency on the resources in the given folder.<p>
+     * 
+     * @param rootPath the root path of the folder
+     * @param readTree <code>true</code> if the complete sub tree of the folder has been read, 
+     *      <code>false</code> if only the direct children have been read 
+     */
+    public void addFolder(String rootPath, boolean readTree) {
+
+        if (m_untracked) {
+            return;
+        }
+        if (readTree) {
+            m_trees.add(rootPath);
+        } else {
+            m_folders.add(rootPath);
+        }
+        checkSize();
+    }
+
+    /**
+     * Adds a dependency on the resource with the given root path.<p>
+     * 
+     * @param rootPath the root path of the resource
+     */
+    public void addResource(String rootPath) {
+
+        if (m_untracked) {
+            return;
+        }
+        m_resources.add(rootPath);
+        checkSize();
+    }
+
+    /**
+     * Adds a dependency on the resource with the given root path as well as on all its parent folders.<p>
+     * 
+     * This is used if properties have been read with inheritance.<p>
+     * 
+     * @param rootPath the root path of the resource
+     */
+    public void addResourceAndParents(String rootPath) {
+
+        String path = rootPath;
+        while ((path != null) && !m_untracked) {
+            m_resources.add(path);
+            path = CmsResource.getParentFolder(path);
+        }
+        checkSize();
+    }
+
+    /**
+     * Checks if a change of the resource with the given root path affects these dependencies.<p>
+     * 
+     * Untracked dependencies are affected by any change.<p>
+     * 
+     * @param rootPath the root path of the changed resource
+     * 
+     * @return <code>true</code> if a change of the resource affects these dependencies
+     */
+    public boolean dependsOn(String rootPath) {
+
+        if (m_untracked || m_resources.contains(rootPath)) {
+            return true;
+        }
+        String parentFolder = CmsResource.getParentFolder(rootPath);
+        if ((parentFolder != null) && m_folders.contains(parentFolder)) {
+            return true;
+        }
+        Iterator<String> i = m_trees.iterator();
+        while (i.hasNext()) {
+            if (rootPath.startsWith(i.next())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns <code>true</code> if these dependencies can not be tracked.<p>
+     * 
+     * @return <code>true</code> if these dependencies can not be tracked
+     */
+    public boolean isUntracked() {
+
+        return m_untracked;
+    }
+
+    /**
+     * Marks these dependencies as untracked.<p>
+     * 
+     * The recorded dependencies are discarded.<p>
+     */
+    public void setUntracked() {
+
+        m_untracked = true;
+        m_folders.clear();
+        m_resources.clear();
+        m_trees.clear();
+    }
+
+    /**
+     * Returns the number of recorded dependencies.<p>
+     * 
+     * @return the number of recorded dependencies
+     */
+    public int size() {
+
+        return m_folders.size() + m_resources.size() + m_trees.size();
+    }
+
+    /**
+     * Marks these dependencies as untracked if too many dependencies have been recorded.<p>
+     */
+    private void checkSize() {
+
+        if (size() > MAX_DEPENDENCIES) {
+            setUntracked();
+        }
+    }
+}
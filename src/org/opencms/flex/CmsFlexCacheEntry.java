@@ -89,6 +89,9 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
     /** The "last modified" date for this Flex cache entry. */
     private long m_dateLastModified;
 
+    /** The VFS resources this Flex cache entry was generated from. */
+    private CmsFlexCacheDependencies m_dependencies;
+
     /** The list of items for this resource. */
     private List<Object> m_elements;
 
@@ -104,6 +107,9 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
     /** A redirection target (if redirection is set). */
     private String m_redirectTarget;
 
+    /** Indicates if this expired cache entry is currently regenerated. */
+    private boolean m_regenerating;
+
     /** The key under which this cache entry is stored in the variation map. */
     private String m_variationKey;
 
@@ -242,6 +248,16 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
         return m_elements;
     }
 
+    /**
+     * Ends the regeneration of this expired cache entry.<p>
+     * 
+     * @see #startRegeneration()
+     */
+    public synchronized void endRegeneration() {
+
+        m_regenerating = false;
+    }
+
     /** 
      * Returns the expiration date of this cache entry,
      * this is set to the time when the entry becomes invalid.<p>
@@ -263,6 +279,22 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
         return m_dateLastModified;
     }
 
+    /**
+     * Returns the VFS resources this Flex cache entry was generated from.<p>
+     * 
+     * If no dependencies have been set, the returned dependencies are untracked.<p>
+     * 
+     * @return the VFS resources this Flex cache entry was generated from
+     */
+    public CmsFlexCacheDependencies getDependencies() {
+
+        if (m_dependencies == null) {
+            m_dependencies = new CmsFlexCacheDependencies();
+            m_dependencies.setUntracked();
+        }
+        return m_dependencies;
+    }
+
     /**
      * @see org.opencms.cache.I_CmsLruCacheObject#getLruCacheCosts()
      */
@@ -465,6 +497,16 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
         setDateLastModified(now - (daytime % timeoutMinutes));
     }
 
+    /**
+     * Sets the VFS resources this Flex cache entry was generated from.<p>
+     * 
+     * @param dependencies the VFS resources this Flex cache entry was generated from
+     */
+    public void setDependencies(CmsFlexCacheDependencies dependencies) {
+
+        m_dependencies = dependencies;
+    }
+
     /**
      * @see org.opencms.cache.I_CmsLruCacheObject#setNextLruObject(org.opencms.cache.I_CmsLruCacheObject)
      */
@@ -518,6 +560,23 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
         m_variationMap = theVariationMap;
     }
 
+    /**
+     * Starts the regeneration of this expired cache entry.<p>
+     * 
+     * Only one request at a time can regenerate the entry.<p>
+     * 
+     * @return <code>true</code> if the regeneration has been started, 
+     *      <code>false</code> if the entry is already regenerated by another request
+     */
+    public synchronized boolean startRegeneration() {
+
+        if (m_regenerating) {
+            return false;
+        }
+        m_regenerating = true;
+        return true;
+    }
+
     /** 
      * @see java.lang.Object#toString()
      *
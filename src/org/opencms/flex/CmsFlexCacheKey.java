@@ -119,6 +119,12 @@ public class CmsFlexCacheKey {
     /** Flex cache keyword: container-element. */
     private static final String CACHE_22_CONTAINER_ELEMENT = "container-element";
 
+    /** Flex cache keyword: coalesce. */
+    private static final String CACHE_23_COALESCE = "coalesce";
+
+    /** Flex cache keyword: stale. */
+    private static final String CACHE_24_STALE = "stale";
+
     /** The list of keywords of the Flex cache language. */
     private static final List<String> CACHE_COMMANDS = Arrays.asList(new String[] {
         CACHE_00_ALWAYS,
@@ -142,7 +148,9 @@ public class CmsFlexCacheKey {
         CACHE_18_ATTRS,
         CACHE_19_NO_ATTRS,
         CACHE_20_DEVICE,
-        CACHE_22_CONTAINER_ELEMENT});
+        CACHE_22_CONTAINER_ELEMENT,
+        CACHE_23_COALESCE,
+        CACHE_24_STALE});
 
     /** Marker to identify use of certain String key members (uri, ip etc.). */
     private static final String IS_USED = "/ /";
@@ -156,6 +164,9 @@ public class CmsFlexCacheKey {
     /** Cache key variable: List of attributes. */
     private Set<String> m_attrs;
 
+    /** Cache key variable: Indicates if concurrent requests wait for a single regeneration of a missing entry. */
+    private boolean m_coalesce;
+
     /** Cache key variable: The current container element. */
     private String m_containerElement;
 
@@ -201,6 +212,9 @@ public class CmsFlexCacheKey {
     /** Cache key variable: The current site root. */
     private String m_site;
 
+    /** Cache key variable: Grace period in minutes in which an expired entry is served while it is regenerated. */
+    private long m_stale;
+
     /** Cache key variable: Timeout of the resource. */
     private long m_timeout;
 
@@ -235,6 +249,7 @@ public class CmsFlexCacheKey {
         m_variation = "never";
         m_always = -1;
         m_timeout = -1;
+        m_stale = -1;
         if (cacheDirectives != null) {
             parseFlexKey(cacheDirectives);
         }
@@ -685,6 +700,18 @@ public class CmsFlexCacheKey {
             str.append(m_timeout);
             str.append(");");
         }
+        if (m_coalesce) {
+            // add coalesce
+            str.append(CACHE_23_COALESCE);
+            str.append(";");
+        }
+        if (m_stale > 0) {
+            // add stale grace period
+            str.append(CACHE_24_STALE);
+            str.append("=(");
+            str.append(m_stale);
+            str.append(");");
+        }
         if (m_schemes != null) {
             // add schemes
             str.append(CACHE_08_SCHEMES);
@@ -736,6 +763,16 @@ public class CmsFlexCacheKey {
         return m_resource;
     }
 
+    /**
+     * Returns the grace period in minutes in which an expired entry is served while it is regenerated.<p>
+     *
+     * @return the grace period in minutes, or a value &lt;= 0 if expired entries are not served
+     */
+    protected long getStale() {
+
+        return m_stale;
+    }
+
     /**
      * Returns the timeout.<p>
      *
@@ -756,6 +793,16 @@ public class CmsFlexCacheKey {
         return m_variation;
     }
 
+    /**
+     * Returns <code>true</code> if concurrent requests wait for a single regeneration of a missing entry.<p>
+     *
+     * @return <code>true</code> if concurrent requests wait for a single regeneration of a missing entry
+     */
+    protected boolean isCoalesce() {
+
+        return m_coalesce;
+    }
+
     /**
      * Sets the variation.<p>
      *
@@ -899,6 +946,14 @@ public class CmsFlexCacheKey {
                     case 21: // container element
                         m_containerElement = IS_USED;
                         break;
+                    case 22: // coalesce
+                        m_coalesce = true;
+                        break;
+                    case 23: // stale
+                        m_stale = Integer.parseInt(v);
+                        // serving stale entries requires a single regeneration
+                        m_coalesce = true;
+                        break;
                     default: // unknown directive, throw error
                         m_parseError = true;
                 }
@@ -57,6 +57,9 @@ public class CmsFlexController {
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsFlexController.class);
 
+    /** The context info of the element currently generated by a thread. */
+    private static final ThreadLocal<CmsFlexRequestContextInfo> THREAD_CONTEXT_INFO = new ThreadLocal<CmsFlexRequestContextInfo>();
+
     /** The CmsFlexCache where the result will be cached in, required for the dispatcher. */
     private CmsFlexCache m_cache;
 
@@ -182,6 +185,20 @@ public class CmsFlexController {
         return (CmsFlexController)req.getAttribute(ATTRIBUTE_NAME);
     }
 
+    /**
+     * Returns the context info of the element currently generated by the current thread.<p>
+     * 
+     * This is used to track the VFS reads of all request contexts used while an element is generated,
+     * not only the reads with the request context of the controller.<p>
+     * 
+     * @return the context info of the current element, or <code>null</code> if the current thread 
+     *      does not generate a Flex element 
+     */
+    public static CmsFlexRequestContextInfo getThreadContextInfo() {
+
+        return THREAD_CONTEXT_INFO.get();
+    }
+
     /**
      * Provides access to a root cause Exception that might have occurred in a complex include scenario.<p>
      * 
@@ -280,6 +297,22 @@ public class CmsFlexController {
         return false;
     }
 
+    /**
+     * Marks the element currently generated by the current thread as untracked.<p>
+     * 
+     * This must be used by code that provides VFS data without reading the VFS resources, 
+     * e.g. search results read from an index.<p>
+     * 
+     * @see #markUntracked()
+     */
+    public static void markThreadUntracked() {
+
+        CmsFlexRequestContextInfo info = THREAD_CONTEXT_INFO.get();
+        if (info != null) {
+            info.getDependencies().setUntracked();
+        }
+    }
+
     /**
      * Removes the controller attribute from a request.<p>
      * 
@@ -374,6 +407,7 @@ public class CmsFlexController {
             m_flexResponseList.clear();
         }
         m_flexResponseList = null;
+        THREAD_CONTEXT_INFO.remove();
         if (m_req != null) {
             m_req.removeAttribute(ATTRIBUTE_NAME);
         }
@@ -471,6 +505,29 @@ public class CmsFlexController {
         return (m_flexContextInfoList.get(pos)).getDateLastModified();
     }
 
+    /**
+     * Returns a copy of the VFS resources read while generating the current element,
+     * including the given resource the element is generated from.<p>
+     * 
+     * @param resource the resource the current element is generated from
+     * 
+     * @return the VFS resources the current element depends on
+     */
+    public CmsFlexCacheDependencies getDependencies(CmsResource resource) {
+
+        CmsFlexCacheDependencies result;
+        int pos = m_flexContextInfoList.size() - 1;
+        if (pos < 0) {
+            // no context info available, so nothing has been tracked
+            result = new CmsFlexCacheDependencies();
+            result.setUntracked();
+        } else {
+            result = new CmsFlexCacheDependencies((m_flexContextInfoList.get(pos)).getDependencies());
+        }
+        result.addResource(resource.getRootPath());
+        return result;
+    }
+
     /**
      * Returns the size of the response stack.<p>
      * 
@@ -570,6 +627,23 @@ public class CmsFlexController {
         return m_top;
     }
 
+    /**
+     * Marks the current element as untracked.<p>
+     * 
+     * This must be used by elements that depend on VFS data which is not read through the driver manager, 
+     * e.g. from a cache filled by another request.
+     * Untracked elements are removed from the Flex cache on every publish.<p>
+     */
+    public void markUntracked() {
+
+        int pos = m_flexContextInfoList.size() - 1;
+        if (pos < 0) {
+            // ensure a valid position is used
+            return;
+        }
+        (m_flexContextInfoList.get(pos)).getDependencies().setUntracked();
+    }
+
     /**
      * Removes the topmost request/response pair from the stack.<p>
      */
@@ -585,8 +659,8 @@ public class CmsFlexController {
             CmsFlexRequestContextInfo info = m_flexContextInfoList.remove(m_flexContextInfoList.size() - 1);
             if (m_flexContextInfoList.size() > 0) {
                 (m_flexContextInfoList.get(0)).merge(info);
-                updateRequestContextInfo();
             }
+            updateRequestContextInfo();
         }
     }
 
@@ -695,9 +769,12 @@ public class CmsFlexController {
     private void updateRequestContextInfo() {
 
         if ((m_flexContextInfoList != null) && !m_flexContextInfoList.isEmpty()) {
-            m_cmsObject.getRequestContext().setAttribute(
-                CmsRequestUtil.HEADER_LAST_MODIFIED,
-                m_flexContextInfoList.get(m_flexContextInfoList.size() - 1));
+            CmsFlexRequestContextInfo info = m_flexContextInfoList.get(m_flexContextInfoList.size() - 1);
+            m_cmsObject.getRequestContext().setAttribute(CmsRequestUtil.HEADER_LAST_MODIFIED, info);
+            // reads with other request contexts, e.g. of copied CmsObjects, must be tracked for the current element as well
+            THREAD_CONTEXT_INFO.set(info);
+        } else {
+            THREAD_CONTEXT_INFO.remove();
         }
     }
 }
\ No newline at end of file
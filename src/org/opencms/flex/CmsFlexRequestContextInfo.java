@@ -28,6 +28,7 @@
 package org.opencms.flex;
 
 import org.opencms.file.CmsResource;
+import org.opencms.util.CmsFileUtil;
 
 /**
  * Contains information about the OpenCms request context required by the 
@@ -36,7 +37,7 @@ import org.opencms.file.CmsResource;
  * An instance of this class is attached to every <code>CmsRequestContext</code> as 
  * an attribute as soon as the request context is wrapped in a flex response.
  * Information about the "last modified" and "expire" times of VFS resources are 
- * stored in this Object.<p> 
+ * stored in this Object, as well as the VFS resources the current element depends on.<p> 
  * 
  * @since 6.0.0 
  */
@@ -48,6 +49,9 @@ public class CmsFlexRequestContextInfo {
     /** The currently calculated "last modified" date for this request context.  */
     private long m_dateLastModified;
 
+    /** The VFS resources read in this request context. */
+    private CmsFlexCacheDependencies m_dependencies;
+
     /**
      * Public constructor.<p>
      */
@@ -55,6 +59,7 @@ public class CmsFlexRequestContextInfo {
 
         // by default the expiration date is the max long value
         m_dateExpires = CmsResource.DATE_EXPIRED_DEFAULT;
+        m_dependencies = new CmsFlexCacheDependencies();
     }
 
     /**
@@ -77,6 +82,16 @@ public class CmsFlexRequestContextInfo {
         return m_dateLastModified;
     }
 
+    /**
+     * Returns the VFS resources read in this context.<p>
+     * 
+     * @return the VFS resources read in this context
+     */
+    public CmsFlexCacheDependencies getDependencies() {
+
+        return m_dependencies;
+    }
+
     /**
      * Merges this context info with the values from the other context info.<p>
      *  
@@ -134,17 +149,58 @@ public class CmsFlexRequestContextInfo {
         updateDateExpires(dateExpires);
     }
 
+    /**
+     * Updates the dependencies of this context with a folder whose resources have been read.<p>
+     * 
+     * @param folder the folder whose resources have been read
+     * @param readTree <code>true</code> if the complete sub tree of the folder has been read
+     */
+    public void updateFromFolder(CmsResource folder, boolean readTree) {
+
+        m_dependencies.addFolder(folder.getRootPath(), readTree);
+    }
+
+    /**
+     * Updates the dependencies of this context with a resource that has been read, but does not exist.<p>
+     * 
+     * The result of such a read changes if the resource is created, either as file or as folder.<p>
+     * 
+     * @param rootPath the root path of the missing resource
+     */
+    public void updateFromMissingResource(String rootPath) {
+
+        m_dependencies.addResource(CmsFileUtil.removeTrailingSeparator(rootPath));
+        m_dependencies.addResource(CmsFileUtil.addTrailingSeparator(rootPath));
+    }
+
+    /**
+     * Updates the dependencies of this context with a resource whose properties have been read.<p>
+     * 
+     * @param resource the resource whose properties have been read
+     * @param search <code>true</code> if the properties have been read with inheritance from the parent folders
+     */
+    public void updateFromProperties(CmsResource resource, boolean search) {
+
+        if (search) {
+            m_dependencies.addResourceAndParents(resource.getRootPath());
+        } else {
+            m_dependencies.addResource(resource.getRootPath());
+        }
+    }
+
     /**
      * Updates the "last modified" date for this context as well as the
      * "expires" date with the values from a given resource.<p>
      * 
      * The "expires" date is the calculated from the given date values 
-     * of resource release and expiration and also the current time.<p>
+     * of resource release and expiration and also the current time.
+     * The resource is also added to the dependencies of this context.<p>
      * 
      * @param resource the resource to use for updating the context values
      */
     public void updateFromResource(CmsResource resource) {
 
+        m_dependencies.addResource(resource.getRootPath());
         // first set the last modification date
         updateDateLastModified(resource.getDateLastModified());
         // now use both release and expiration date from the resource to update the expires info
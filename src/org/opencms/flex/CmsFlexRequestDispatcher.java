@@ -292,6 +292,11 @@ public class CmsFlexRequestDispatcher implements RequestDispatcher {
         // push req/res to controller stack
         controller.push(w_req, w_res);
 
+        // the expired entry regenerated by this request, if any
+        CmsFlexCacheEntry staleEntry = null;
+        // the variation of the missing entry regenerated by this request, if any
+        String regeneration = null;
+
         // now that the req/res are on the stack, we need to make sure that they are removed later
         // that's why we have this try { ... } finally { ... } clause here
         try {
@@ -299,29 +304,14 @@ public class CmsFlexRequestDispatcher implements RequestDispatcher {
             if (f_req.isCacheable()) {
                 // caching is on, check if requested resource is already in cache            
                 entry = cache.get(w_req.getCmsCacheKey());
-                if (entry != null) {
-                    // the target is already in the cache
-                    try {
-                        if (LOG.isDebugEnabled()) {
-                            LOG.debug(Messages.get().getBundle().key(
-                                Messages.LOG_FLEXREQUESTDISPATCHER_LOADING_RESOURCE_FROM_CACHE_1,
-                                m_vfsTarget));
-                        }
-                        controller.updateDates(entry.getDateLastModified(), entry.getDateExpires());
-                        entry.service(w_req, w_res);
-                    } catch (CmsException e) {
-                        Throwable t;
-                        if (e.getCause() != null) {
-                            t = e.getCause();
-                        } else {
-                            t = e;
-                        }
-                        t = controller.setThrowable(e, m_vfsTarget);
-                        throw new ServletException(Messages.get().getBundle().key(
-                            Messages.ERR_FLEXREQUESTDISPATCHER_ERROR_LOADING_RESOURCE_FROM_CACHE_1,
-                            m_vfsTarget), t);
-                    }
-                } else {
+                if ((entry != null)
+                    && (entry.getDateExpires() < System.currentTimeMillis())
+                    && !cache.serveStale(entry)) {
+                    // the entry is expired, this request regenerates it while others are served the expired entry
+                    staleEntry = entry;
+                    entry = null;
+                }
+                if (entry == null) {
                     // cache is on and resource is not yet cached, so we need to read the cache key for the response
                     CmsFlexCacheKey res_key = cache.getKey(CmsFlexCacheKey.getKeyName(m_vfsTarget, w_req.isOnline()));
                     if (res_key != null) {
@@ -370,6 +360,42 @@ public class CmsFlexRequestDispatcher implements RequestDispatcher {
                                 cacheProperty));
                         }
                     }
+                    CmsFlexCacheKey resKey = w_res.getCmsCacheKey();
+                    if ((staleEntry == null) && resKey.isCoalesce() && w_req.isCacheable()) {
+                        String variation = resKey.matchRequestKey(w_req.getCmsCacheKey());
+                        if (variation != null) {
+                            if (cache.startRegeneration(resKey, variation)) {
+                                // this request regenerates the entry, concurrent requests wait for it
+                                regeneration = variation;
+                            } else {
+                                // a concurrent request has regenerated the entry
+                                entry = cache.get(w_req.getCmsCacheKey());
+                            }
+                        }
+                    }
+                }
+                if (entry != null) {
+                    // the target is already in the cache
+                    try {
+                        if (LOG.isDebugEnabled()) {
+                            LOG.debug(Messages.get().getBundle().key(
+                                Messages.LOG_FLEXREQUESTDISPATCHER_LOADING_RESOURCE_FROM_CACHE_1,
+                                m_vfsTarget));
+                        }
+                        controller.updateDates(entry.getDateLastModified(), entry.getDateExpires());
+                        entry.service(w_req, w_res);
+                    } catch (CmsException e) {
+                        Throwable t;
+                        if (e.getCause() != null) {
+                            t = e.getCause();
+                        } else {
+                            t = e;
+                        }
+                        t = controller.setThrowable(e, m_vfsTarget);
+                        throw new ServletException(Messages.get().getBundle().key(
+                            Messages.ERR_FLEXREQUESTDISPATCHER_ERROR_LOADING_RESOURCE_FROM_CACHE_1,
+                            m_vfsTarget), t);
+                    }
                 }
             }
 
@@ -434,6 +460,8 @@ public class CmsFlexRequestDispatcher implements RequestDispatcher {
                         entry.setDateLastModified(controller.getDateLastModified());
                         entry.setDateExpires(controller.getDateExpires());
                     }
+                    // remember the resources the entry depends on, used to remove the entry on publish
+                    entry.setDependencies(controller.getDependencies(resource));
                     cache.put(w_res.getCmsCacheKey(), entry, variation);
                 } else {
                     // result can not be cached, do not use "last modified" optimization
@@ -455,6 +483,13 @@ public class CmsFlexRequestDispatcher implements RequestDispatcher {
                 result = null;
             }
         } finally {
+            // notify the requests waiting for the regeneration
+            if (regeneration != null) {
+                cache.endRegeneration(w_res.getCmsCacheKey(), regeneration);
+            }
+            if (staleEntry != null) {
+                staleEntry.endRegeneration();
+            }
             // indicate to response that include is finished
             f_res.setCmsIncludeMode(false);
             f_req.removeIncludeCall(m_vfsTarget);
@@ -32,6 +32,7 @@ import org.opencms.file.CmsProperty;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
 import org.opencms.file.CmsUser;
+import org.opencms.gwt.shared.rpc.CmsConcurrentRpc;
 import org.opencms.lock.CmsLock;
 import org.opencms.lock.CmsLockActionRecord;
 import org.opencms.lock.CmsLockActionRecord.LockChange;
@@ -43,24 +44,32 @@ import org.opencms.security.CmsRoleViolationException;
 import org.opencms.util.CmsUUID;
 
 import java.io.IOException;
+import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.servlet.ServletException;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
 
 import org.apache.commons.logging.Log;
 
+import com.google.gwt.user.server.rpc.RPCRequest;
 import com.google.gwt.user.server.rpc.RemoteServiceServlet;
 import com.google.gwt.user.server.rpc.SerializationPolicy;
 
 /**
  * Wrapper for GWT services served through OpenCms.<p>
  * 
+ * RPC calls of the same session are serialized, unless the called service method 
+ * is annotated with {@link CmsConcurrentRpc}.<p>
+ * 
  * @since 8.0.0
  */
 public class CmsGwtService extends RemoteServiceServlet {
@@ -68,6 +77,9 @@ public class CmsGwtService extends RemoteServiceServlet {
     /** The static log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsGwtService.class);
 
+    /** The session attribute name for the lock used to serialize the RPC calls of a session. */
+    private static final String SESSION_ATTR_RPC_LOCK = "__OCMS_RPC_LOCK__";
+
     /** Serialization id. */
     private static final long serialVersionUID = 8119684308154724518L;
 
@@ -77,6 +89,9 @@ public class CmsGwtService extends RemoteServiceServlet {
     /** The current CMS context. */
     private ThreadLocal<CmsObject> m_perThreadCmsObject;
 
+    /** The session lock held by the current RPC call, if any. */
+    private ThreadLocal<Lock> m_perThreadSessionLock = new ThreadLocal<Lock>();
+
     /**
      * Constructor.<p>
      */
@@ -191,7 +206,16 @@ public class CmsGwtService extends RemoteServiceServlet {
     public void service(ServletRequest arg0, ServletResponse arg1) throws ServletException, IOException {
 
         arg1.setCharacterEncoding(arg0.getCharacterEncoding());
-        super.service(arg0, arg1);
+        try {
+            super.service(arg0, arg1);
+        } finally {
+            // release the session lock acquired in onAfterRequestDeserialized, if any 
+            Lock lock = m_perThreadSessionLock.get();
+            if (lock != null) {
+                m_perThreadSessionLock.remove();
+                lock.unlock();
+            }
+        }
     }
 
     /**
@@ -363,6 +387,40 @@ public class CmsGwtService extends RemoteServiceServlet {
         return result;
     }
 
+    /**
+     * Checks if the given RPC call may be executed concurrently with other calls of the same session.<p>
+     * 
+     * @param rpcRequest the decoded RPC request 
+     * 
+     * @return <code>true</code> if the called service method is annotated with {@link CmsConcurrentRpc}
+     */
+    protected boolean isConcurrentCall(RPCRequest rpcRequest) {
+
+        Method method = rpcRequest.getMethod();
+        return (method != null) && method.isAnnotationPresent(CmsConcurrentRpc.class);
+    }
+
+    /**
+     * Acquires the session lock before a RPC call is invoked, unless the called method is safe for concurrent execution.<p>
+     * 
+     * The lock is released at the end of {@link #service(ServletRequest, ServletResponse)}.<p>
+     * 
+     * @see com.google.gwt.user.server.rpc.RemoteServiceServlet#onAfterRequestDeserialized(com.google.gwt.user.server.rpc.RPCRequest)
+     */
+    @Override
+    protected void onAfterRequestDeserialized(RPCRequest rpcRequest) {
+
+        super.onAfterRequestDeserialized(rpcRequest);
+        if (isConcurrentCall(rpcRequest) || (m_perThreadSessionLock.get() != null)) {
+            return;
+        }
+        Lock lock = getSessionLock(getRequest());
+        if (lock != null) {
+            lock.lock();
+            m_perThreadSessionLock.set(lock);
+        }
+    }
+
     /**
      * Tries to unlock a resource.<p>
      * 
@@ -376,4 +434,27 @@ public class CmsGwtService extends RemoteServiceServlet {
             LOG.debug("Unable to unlock " + resource.getRootPath(), e);
         }
     }
+
+    /**
+     * Returns the lock used to serialize the RPC calls of the session of the given request.<p>
+     * 
+     * @param request the current request 
+     * 
+     * @return the session lock, or <code>null</code> if there is no session 
+     */
+    private Lock getSessionLock(HttpServletRequest request) {
+
+        HttpSession session = request.getSession();
+        if (session == null) {
+            return null;
+        }
+        synchronized (session) {
+            Lock lock = (Lock)session.getAttribute(SESSION_ATTR_RPC_LOCK);
+            if (lock == null) {
+                lock = new ReentrantLock();
+                session.setAttribute(SESSION_ATTR_RPC_LOCK, lock);
+            }
+            return lock;
+        }
+    }
 }
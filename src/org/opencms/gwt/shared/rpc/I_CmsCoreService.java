@@ -77,6 +77,7 @@ public interface I_CmsCoreService extends RemoteService {
      * 
      * @throws CmsRpcException if something goes wrong 
      */
+    @CmsConcurrentRpc
     List<CmsCategoryTreeEntry> getCategories(String fromCatPath, boolean includeSubCats, List<String> refVfsPaths)
     throws CmsRpcException;
 
@@ -89,6 +90,7 @@ public interface I_CmsCoreService extends RemoteService {
      * 
      * @throws CmsRpcException if something goes wrong 
      */
+    @CmsConcurrentRpc
     List<CmsCategoryTreeEntry> getCategoriesForSitePath(String sitePath) throws CmsRpcException;
 
     /**
@@ -100,6 +102,7 @@ public interface I_CmsCoreService extends RemoteService {
      * 
      * @throws CmsRpcException if something goes wrong
      */
+    @CmsConcurrentRpc
     CmsResourceCategoryInfo getCategoryInfo(CmsUUID structureId) throws CmsRpcException;
 
     /**
@@ -134,6 +137,7 @@ public interface I_CmsCoreService extends RemoteService {
      * 
      * @throws CmsRpcException if something goes wrong
      */
+    @CmsConcurrentRpc
     CmsResourceState getResourceState(CmsUUID structureId) throws CmsRpcException;
 
     /**
@@ -159,6 +163,7 @@ public interface I_CmsCoreService extends RemoteService {
      *         
      * @throws CmsRpcException if something goes wrong
      */
+    @CmsConcurrentRpc
     String getWorkplaceLink(CmsUUID structureId) throws CmsRpcException;
 
     /**
@@ -188,6 +193,7 @@ public interface I_CmsCoreService extends RemoteService {
     /**
      * An RPC method which does nothing and is just used to keep the session alive.<p>
      */
+    @CmsConcurrentRpc
     void ping();
 
     /**
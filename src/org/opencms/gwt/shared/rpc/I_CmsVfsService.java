@@ -102,6 +102,7 @@ public interface I_CmsVfsService extends RemoteService {
      * 
      * @throws CmsRpcException if something goes wrong
      */
+    @CmsConcurrentRpc
     List<CmsAliasBean> getAliasesForPage(CmsUUID uuid) throws CmsRpcException;
 
     /**
@@ -113,6 +114,7 @@ public interface I_CmsVfsService extends RemoteService {
      * 
      * @throws CmsRpcException if the RPC call goes wrong 
      */
+    @CmsConcurrentRpc
     CmsAvailabilityInfoBean getAvailabilityInfo(CmsUUID structureId) throws CmsRpcException;
 
     /**
@@ -124,6 +126,7 @@ public interface I_CmsVfsService extends RemoteService {
      * 
      * @throws CmsRpcException if the RPC call goes wrong
      */
+    @CmsConcurrentRpc
     CmsAvailabilityInfoBean getAvailabilityInfo(String vfsPath) throws CmsRpcException;
 
     /**
@@ -135,6 +138,7 @@ public interface I_CmsVfsService extends RemoteService {
      * 
      * @throws CmsRpcException if something goes wrong 
      */
+    @CmsConcurrentRpc
     CmsDeleteResourceBean getBrokenLinks(CmsUUID structureId) throws CmsRpcException;
 
     /**
@@ -146,6 +150,7 @@ public interface I_CmsVfsService extends RemoteService {
      * 
      * @throws CmsRpcException if something goes wrong 
      */
+    @CmsConcurrentRpc
     CmsDeleteResourceBean getBrokenLinks(String sitePath) throws CmsRpcException;
 
     /**
@@ -157,6 +162,7 @@ public interface I_CmsVfsService extends RemoteService {
      * 
      * @throws CmsRpcException if something goes wrong 
      */
+    @CmsConcurrentRpc
     List<CmsVfsEntryBean> getChildren(String path) throws CmsRpcException;
 
     /**
@@ -166,6 +172,7 @@ public interface I_CmsVfsService extends RemoteService {
      * 
      * @throws CmsRpcException if something goes wrong 
      */
+    @CmsConcurrentRpc
     ArrayList<String> getDefinedProperties() throws CmsRpcException;
 
     /**
@@ -199,6 +206,7 @@ public interface I_CmsVfsService extends RemoteService {
      * 
      * @throws CmsRpcException if the RPC call goes wrong 
      */
+    @CmsConcurrentRpc
     CmsListInfoBean getPageInfo(CmsUUID structureId) throws CmsRpcException;
 
     /**
@@ -210,6 +218,7 @@ public interface I_CmsVfsService extends RemoteService {
      * 
      * @throws CmsRpcException if the RPC call goes wrong 
      */
+    @CmsConcurrentRpc
     CmsListInfoBean getPageInfo(String vfsPath) throws CmsRpcException;
 
     /**
@@ -222,6 +231,7 @@ public interface I_CmsVfsService extends RemoteService {
      * 
      * @throws CmsRpcException if something goes wrong 
      */
+    @CmsConcurrentRpc
     CmsPreviewInfo getPreviewInfo(CmsUUID structureId, String locale) throws CmsRpcException;
 
     /**
@@ -234,6 +244,7 @@ public interface I_CmsVfsService extends RemoteService {
      * 
      * @throws CmsRpcException if something goes wrong
      */
+    @CmsConcurrentRpc
     CmsPreviewInfo getPreviewInfo(String sitePath, String locale) throws CmsRpcException;
 
     /***
@@ -276,6 +287,7 @@ public interface I_CmsVfsService extends RemoteService {
      * 
      * @throws CmsRpcException if something goes wrong  
      */
+    @CmsConcurrentRpc
     List<CmsVfsEntryBean> getRootEntries() throws CmsRpcException;
 
     /**
@@ -287,6 +299,7 @@ public interface I_CmsVfsService extends RemoteService {
      * 
      * @throws CmsRpcException if something goes wrong
      */
+    @CmsConcurrentRpc
     String getSitePath(CmsUUID structureId) throws CmsRpcException;
 
     /**
@@ -296,6 +309,7 @@ public interface I_CmsVfsService extends RemoteService {
      * @return the property information for that resource 
      * @throws CmsRpcException
      */
+    @CmsConcurrentRpc
     CmsPropertiesBean loadPropertyData(CmsUUID id) throws CmsRpcException;
 
     /**
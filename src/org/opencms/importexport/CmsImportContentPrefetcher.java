@@ -0,0 +1,212 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.importexport;
+
+import org.opencms.main.CmsLog;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Reads the contents of the files of an import ahead of the VFS writes.<p>
+ * 
+ * The files are read and decompressed by a pool of worker threads in the order in which 
+ * they appear in the manifest. Only a limited number of files is read ahead, so that the 
+ * memory required does not depend on the size of the import.<p>
+ * 
+ * If a file is requested that has not been read ahead, for example because the manifest 
+ * lists it twice, the content is read directly from the import file.<p>
+ * 
+ * @since 8.5.0 
+ */
+public class CmsImportContentPrefetcher {
+
+    /**
+     * A file that is read ahead.<p>
+     */
+    private static class CmsPrefetchEntry {
+
+        /** The content of the file. */
+        protected Future<byte[]> m_content;
+
+        /** The name of the file in the import. */
+        protected String m_source;
+
+        /**
+         * Creates a new entry.<p>
+         * 
+         * @param source the name of the file in the import
+         * @param content the content of the file
+         */
+        protected CmsPrefetchEntry(String source, Future<byte[]> content) {
+
+            m_source = source;
+            m_content = content;
+        }
+    }
+
+    /** The number of files read ahead for every thread. */
+    public static final int FILES_PER_THREAD = 4;
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsImportContentPrefetcher.class);
+
+    /** The files that are currently read ahead, in the order of the manifest. */
+    private LinkedList<CmsPrefetchEntry> m_entries;
+
+    /** The executor that reads the files. */
+    private ExecutorService m_executor;
+
+    /** The import helper used to read the files. */
+    private CmsImportHelper m_helper;
+
+    /** The names of the files that have not yet been read, in the order of the manifest. */
+    private Iterator<String> m_sources;
+
+    /** The maximal number of files read ahead. */
+    private int m_window;
+
+    /**
+     * Creates a new prefetcher.<p>
+     * 
+     * @param helper the import helper used to read the files
+     * @param sources the names of the files with content in the order of the manifest
+     * @param threads the number of threads used to read the files
+     */
+    public CmsImportContentPrefetcher(CmsImportHelper helper, List<String> sources, int threads) {
+
+        m_helper = helper;
+        m_sources = sources.iterator();
+        m_entries = new LinkedList<CmsPrefetchEntry>();
+        m_executor = Executors.newFixedThreadPool(threads);
+        m_window = threads * FILES_PER_THREAD;
+        fill();
+    }
+
+    /**
+     * Returns the content of the file with the given name.<p>
+     * 
+     * Files that are read ahead of the requested file are skipped, 
+     * since the manifest is processed in order.<p>
+     * 
+     * @param source the name of the file in the import
+     * 
+     * @return the content of the file
+     * 
+     * @throws CmsImportExportException if the file could not be read
+     */
+    public byte[] getFileBytes(String source) throws CmsImportExportException {
+
+        CmsPrefetchEntry entry = null;
+        for (CmsPrefetchEntry current : m_entries) {
+            if (current.m_source.equals(source)) {
+                entry = current;
+                break;
+            }
+        }
+        if (entry == null) {
+            // the file has not been read ahead
+            return m_helper.getFileBytes(source);
+        }
+        // remove all files up to the requested one
+        CmsPrefetchEntry removed;
+        do {
+            removed = m_entries.removeFirst();
+            if (removed != entry) {
+                removed.m_content.cancel(true);
+            }
+        } while (removed != entry);
+        fill();
+        try {
+            return getContent(entry);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return m_helper.getFileBytes(source);
+        }
+    }
+
+    /**
+     * Stops reading the files and releases the worker threads.<p>
+     */
+    public void shutDown() {
+
+        m_executor.shutdownNow();
+        m_entries.clear();
+    }
+
+    /**
+     * Starts reading the next files until the maximal number of files is read ahead.<p>
+     */
+    private void fill() {
+
+        while ((m_entries.size() < m_window) && m_sources.hasNext()) {
+            final String source = m_sources.next();
+            Future<byte[]> content = m_executor.submit(new Callable<byte[]>() {
+
+                public byte[] call() throws CmsImportExportException {
+
+                    return m_helper.getFileBytes(source);
+                }
+            });
+            m_entries.add(new CmsPrefetchEntry(source, content));
+        }
+    }
+
+    /**
+     * Waits until the content of the given entry has been read and returns it.<p>
+     * 
+     * @param entry the entry to get the content for
+     * 
+     * @return the content of the file
+     * 
+     * @throws CmsImportExportException if the file could not be read
+     * @throws InterruptedException if the current thread was interrupted while waiting
+     */
+    private byte[] getContent(CmsPrefetchEntry entry) throws CmsImportExportException, InterruptedException {
+
+        try {
+            return entry.m_content.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CmsImportExportException) {
+                throw (CmsImportExportException)e.getCause();
+            }
+            LOG.error(e.getCause().getLocalizedMessage(), e.getCause());
+            // read the file again in the current thread to get a meaningful error
+            return m_helper.getFileBytes(entry.m_source);
+        }
+    }
+}
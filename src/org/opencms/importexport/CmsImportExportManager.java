@@ -379,6 +379,9 @@ public class CmsImportExportManager {
     /** Import principal group translations. */
     private Map<String, String> m_importGroupTranslations;
 
+    /** The number of threads used to read and process the imported files. */
+    private int m_importThreads;
+
     /** Import principal user translations. */
     private Map<String, String> m_importUserTranslations;
 
@@ -411,6 +414,7 @@ public class CmsImportExportManager {
         m_importUserTranslations = new HashMap<String, String>();
         m_overwriteCollidingResources = true;
         m_importVersionClasses = new ArrayList<I_CmsImport>();
+        m_importThreads = 1;
     }
 
     /**
@@ -654,6 +658,19 @@ public class CmsImportExportManager {
         return m_importGroupTranslations;
     }
 
+    /**
+     * Returns the number of threads used to read and process the imported files.<p>
+     * 
+     * With more than one thread, the file contents are read from the import file ahead 
+     * of the VFS writes, and the links of the imported files are rewritten in parallel.<p>
+     * 
+     * @return the number of threads used to read and process the imported files
+     */
+    public int getImportThreads() {
+
+        return m_importThreads;
+    }
+
     /**
      * Returns the configured principal user translations.<p>
      * 
@@ -808,6 +825,30 @@ public class CmsImportExportManager {
         m_extendedHtmlImportDefault = extendedHtmlImportDefault;
     }
 
+    /**
+     * Sets the number of threads used to read and process the imported files.<p>
+     * 
+     * Values lower than 1 are ignored.<p>
+     * 
+     * @param threads the number of threads used to read and process the imported files
+     */
+    public void setImportThreads(String threads) {
+
+        try {
+            int value = Integer.parseInt(threads.trim());
+            if (value > 0) {
+                m_importThreads = value;
+            }
+        } catch (NumberFormatException e) {
+            LOG.error(Messages.get().getBundle().key(Messages.LOG_IMPORTEXPORT_INVALID_IMPORT_THREADS_1, threads), e);
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(Messages.get().getBundle().key(
+                Messages.LOG_IMPORTEXPORT_SET_IMPORT_THREADS_1,
+                String.valueOf(m_importThreads)));
+        }
+    }
+
     /**
      * Sets the URL of a 4.x OpenCms app. (e.g. http://localhost:8080/opencms/opencms/)
      * from which content was exported.<p>
@@ -273,6 +273,25 @@ public class CmsImportHelper {
         return m_zipFile;
     }
 
+    /**
+     * Checks if the import file contains the file with the given name.<p>
+     * 
+     * In contrast to {@link #getFileBytes(String)}, the content of the file is not read.<p>
+     * 
+     * @param filename the name of the file to check
+     * 
+     * @return <code>true</code> if the import file contains the file with the given name
+     */
+    public boolean hasFile(String filename) {
+
+        if (getZipFile() != null) {
+            // path to file might be relative, too
+            return (getZipFile().getEntry(filename) != null)
+                || (filename.startsWith("/") && (getZipFile().getEntry(filename.substring(1)) != null));
+        }
+        return new File(getFolder(), filename).isFile();
+    }
+
     /**
      * Opens the import file.<p>
      * 
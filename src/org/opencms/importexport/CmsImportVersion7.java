@@ -52,6 +52,7 @@ import org.opencms.main.OpenCms;
 import org.opencms.relations.CmsRelation;
 import org.opencms.relations.CmsRelationType;
 import org.opencms.relations.I_CmsLinkParseable;
+import org.opencms.report.CmsBufferedReport;
 import org.opencms.report.I_CmsReport;
 import org.opencms.security.CmsAccessControlEntry;
 import org.opencms.security.CmsOrganizationalUnit;
@@ -75,10 +76,14 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.zip.ZipFile;
 
 import org.apache.commons.codec.binary.Base64;
@@ -296,6 +301,9 @@ public class CmsImportVersion7 implements I_CmsImport {
     /** The set of resource ids of files which actually are contained in the zip file. */
     private Set<CmsUUID> m_contentFiles = new HashSet<CmsUUID>();
 
+    /** The names of the files with content in the import, in the order of the manifest. */
+    private List<String> m_contentSources = new ArrayList<String>();
+
     /** The date created value. */
     private long m_dateCreated;
 
@@ -365,9 +373,15 @@ public class CmsImportVersion7 implements I_CmsImport {
     /** The import parameters to use. */
     private CmsImportParameters m_parameters;
 
+    /** The resource ids of the parseable resources, at the same positions as in {@link #m_parseables}. */
+    private List<CmsUUID> m_parseableResourceIds;
+
     /** The list of resource to be parsed, this is a global list, which will be handled at the end of the import. */
     private List<String> m_parseables;
 
+    /** Reads the file contents ahead of the VFS writes, or <code>null</code> if the files are read directly. */
+    private CmsImportContentPrefetcher m_prefetcher;
+
     /** The project description. */
     private String m_projectDescription;
 
@@ -526,10 +540,10 @@ public class CmsImportVersion7 implements I_CmsImport {
     public void addContentFile(String source, String resourceId) {
 
         if ((source != null) && (resourceId != null)) {
-            try {
-                m_helper.getFileBytes(source);
+            if (m_helper.hasFile(source)) {
                 m_contentFiles.add(new CmsUUID(resourceId));
-            } catch (CmsImportExportException e) {
+                m_contentSources.add(source);
+            } else {
                 LOG.info("File not found in import: " + source);
             }
         }
@@ -1341,9 +1355,16 @@ public class CmsImportVersion7 implements I_CmsImport {
             m_helper.openFile();
             m_helper.cacheDtdSystemId(DTD_LOCATION, DTD_FILENAME, CmsConfigurationManager.DEFAULT_DTD_PREFIX);
             findContentFiles();
+            int threads = OpenCms.getImportExportManager().getImportThreads();
+            if (threads > 1) {
+                // read the file contents in parallel ahead of the VFS writes
+                m_prefetcher = new CmsImportContentPrefetcher(m_helper, m_contentSources, threads);
+            }
+            long startTime = System.currentTimeMillis();
             // start the parsing process
             stream = m_helper.getFileStream(CmsImportExportManager.EXPORT_MANIFEST);
             digester.parse(stream);
+            reportThroughput(startTime);
         } catch (Exception ioe) {
             if (LOG.isErrorEnabled()) {
                 LOG.error(
@@ -1361,6 +1382,10 @@ public class CmsImportVersion7 implements I_CmsImport {
             } catch (Exception e) {
                 // noop
             }
+            if (m_prefetcher != null) {
+                m_prefetcher.shutDown();
+                m_prefetcher = null;
+            }
             m_helper.closeFile();
         }
     }
@@ -1786,7 +1811,9 @@ public class CmsImportVersion7 implements I_CmsImport {
                 byte[] content = null;
                 // get the file content
                 if (m_source != null) {
-                    content = m_helper.getFileBytes(m_source);
+                    content = (m_prefetcher != null)
+                    ? m_prefetcher.getFileBytes(m_source)
+                    : m_helper.getFileBytes(m_source);
                 }
                 int size = 0;
                 if (content != null) {
@@ -1851,6 +1878,7 @@ public class CmsImportVersion7 implements I_CmsImport {
                     if (OpenCms.getResourceManager().getResourceType(m_resource.getTypeId()) instanceof I_CmsLinkParseable) {
                         // store for later use
                         m_parseables.add(getCms().getSitePath(m_resource));
+                        m_parseableResourceIds.add(m_resource.getResourceId());
                     }
                     if (LOG.isInfoEnabled()) {
                         LOG.info(Messages.get().getBundle().key(
@@ -2169,6 +2197,7 @@ public class CmsImportVersion7 implements I_CmsImport {
         m_fileCounter = 1;
         m_totalFiles = 0;
         m_parseables = new ArrayList<String>();
+        m_parseableResourceIds = new ArrayList<CmsUUID>();
 
         m_parameters = parameters;
 
@@ -2236,56 +2265,19 @@ public class CmsImportVersion7 implements I_CmsImport {
 
         report.println(Messages.get().container(Messages.RPT_START_PARSE_LINKS_0), I_CmsReport.FORMAT_HEADLINE);
 
-        int i = 0;
-        Iterator<String> it = m_parseables.iterator();
-        while (it.hasNext()) {
-            String resName = it.next();
-
-            report.print(
-                org.opencms.report.Messages.get().container(
-                    org.opencms.report.Messages.RPT_SUCCESSION_2,
-                    String.valueOf(i + 1),
-                    String.valueOf(m_parseables.size())),
-                I_CmsReport.FORMAT_NOTE);
-
-            report.print(Messages.get().container(Messages.RPT_PARSE_LINKS_FOR_1, resName), I_CmsReport.FORMAT_NOTE);
-            report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
-
-            try {
-                CmsFile file = cms.readFile(resName);
-                // make sure the date last modified is kept...
-                file.setDateLastModified(file.getDateLastModified());
-                // make sure the file is locked
-                CmsLock lock = cms.getLock(file);
-                if (lock.isUnlocked()) {
-                    cms.lockResource(resName);
-                } else if (!lock.isDirectlyOwnedInProjectBy(cms)) {
-                    cms.changeLock(resName);
-                }
-                // rewrite the file
-                cms.writeFile(file);
-
-                report.println(
-                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
-                    I_CmsReport.FORMAT_OK);
-            } catch (Throwable e) {
-                report.addWarning(e);
-                report.println(
-                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_FAILED_0),
-                    I_CmsReport.FORMAT_ERROR);
-                if (LOG.isWarnEnabled()) {
-                    LOG.warn(Messages.get().getBundle().key(Messages.LOG_IMPORTEXPORT_REWRITING_1, resName));
-                }
-                if (LOG.isDebugEnabled()) {
-                    LOG.debug(e.getLocalizedMessage(), e);
-                }
+        int threads = Math.min(OpenCms.getImportExportManager().getImportThreads(), m_parseables.size());
+        if (threads > 1) {
+            rewriteParseablesParallel(threads);
+        } else {
+            for (int i = 0; i < m_parseables.size(); i++) {
+                rewriteParseable(cms, report, i);
             }
-            i++;
         }
         cms.getRequestContext().removeAttribute(CmsLogEntry.ATTR_LOG_ENTRY);
 
         report.println(Messages.get().container(Messages.RPT_END_PARSE_LINKS_0), I_CmsReport.FORMAT_HEADLINE);
         m_parseables = null;
+        m_parseableResourceIds = null;
     }
 
     /**
@@ -3259,6 +3251,7 @@ public class CmsImportVersion7 implements I_CmsImport {
         digester.addCallParam("export/files/file/source", 0);
         digester.addCallParam("export/files/file/uuidresource", 1);
         m_contentFiles.clear();
+        m_contentSources.clear();
         digester.push(this);
         InputStream stream = null;
         try {
@@ -3320,6 +3313,138 @@ public class CmsImportVersion7 implements I_CmsImport {
         return m_immutables;
     }
 
+    /**
+     * Writes the number of imported files and the import duration to the report.<p>
+     * 
+     * @param startTime the time the import of the files was started
+     */
+    protected void reportThroughput(long startTime) {
+
+        int files = m_fileCounter - 1;
+        long duration = Math.max(System.currentTimeMillis() - startTime, 1);
+        getReport().println(
+            Messages.get().container(
+                Messages.RPT_IMPORT_THROUGHPUT_3,
+                String.valueOf(files),
+                CmsStringUtil.formatRuntime(duration),
+                String.valueOf((files * 1000L) / duration)),
+            I_CmsReport.FORMAT_NOTE);
+    }
+
+    /**
+     * Rewrites a single parseable file, to assure link check.<p>
+     * 
+     * @param cms the OpenCms user context to use
+     * @param report the report to write the output to
+     * @param index the position of the file in the list of parseable files
+     */
+    protected void rewriteParseable(CmsObject cms, I_CmsReport report, int index) {
+
+        String resName = m_parseables.get(index);
+        report.print(
+            org.opencms.report.Messages.get().container(
+                org.opencms.report.Messages.RPT_SUCCESSION_2,
+                String.valueOf(index + 1),
+                String.valueOf(m_parseables.size())),
+            I_CmsReport.FORMAT_NOTE);
+
+        report.print(Messages.get().container(Messages.RPT_PARSE_LINKS_FOR_1, resName), I_CmsReport.FORMAT_NOTE);
+        report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
+
+        try {
+            CmsFile file = cms.readFile(resName);
+            // make sure the date last modified is kept...
+            file.setDateLastModified(file.getDateLastModified());
+            // make sure the file is locked
+            CmsLock lock = cms.getLock(file);
+            if (lock.isUnlocked()) {
+                cms.lockResource(resName);
+            } else if (!lock.isDirectlyOwnedInProjectBy(cms)) {
+                cms.changeLock(resName);
+            }
+            // rewrite the file
+            cms.writeFile(file);
+
+            report.println(
+                org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
+                I_CmsReport.FORMAT_OK);
+        } catch (Throwable e) {
+            report.addWarning(e);
+            report.println(
+                org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_FAILED_0),
+                I_CmsReport.FORMAT_ERROR);
+            if (LOG.isWarnEnabled()) {
+                LOG.warn(Messages.get().getBundle().key(Messages.LOG_IMPORTEXPORT_REWRITING_1, resName));
+            }
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(e.getLocalizedMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Rewrites all parseable files with a pool of worker threads.<p>
+     * 
+     * Siblings share their content, so all siblings of a resource are rewritten 
+     * one after the other by the same thread. The report output of every resource 
+     * is buffered, so that the output of different threads does not get mixed up.<p>
+     * 
+     * @param threads the number of threads to use
+     */
+    protected void rewriteParseablesParallel(int threads) {
+
+        final I_CmsReport report = getReport();
+        // group the siblings by their resource id
+        Map<CmsUUID, List<Integer>> siblings = new LinkedHashMap<CmsUUID, List<Integer>>();
+        for (int i = 0; i < m_parseables.size(); i++) {
+            CmsUUID resourceId = m_parseableResourceIds.get(i);
+            List<Integer> positions = siblings.get(resourceId);
+            if (positions == null) {
+                positions = new ArrayList<Integer>(1);
+                siblings.put(resourceId, positions);
+            }
+            positions.add(Integer.valueOf(i));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (final List<Integer> positions : siblings.values()) {
+                executor.execute(new Runnable() {
+
+                    public void run() {
+
+                        CmsBufferedReport buffer = new CmsBufferedReport(report);
+                        try {
+                            // every thread needs its own context
+                            CmsObject cms = OpenCms.initCmsObject(getCms());
+                            cms.getRequestContext().setAttribute(CmsLogEntry.ATTR_LOG_ENTRY, Boolean.FALSE);
+                            for (Integer position : positions) {
+                                rewriteParseable(cms, buffer, position.intValue());
+                            }
+                        } catch (Throwable e) {
+                            LOG.error(e.getLocalizedMessage(), e);
+                            buffer.println(e);
+                        } finally {
+                            synchronized (report) {
+                                buffer.flush();
+                            }
+                        }
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            try {
+                while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    // wait until all files have been rewritten
+                }
+            } catch (InterruptedException e) {
+                LOG.error(Messages.get().getBundle().key(Messages.LOG_IMPORTEXPORT_INTERRUPTED_REWRITING_0), e);
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     /**
      * Checks whether the content for the resource being imported exists either in the VFS or in the import file.<p>
      * 
@@ -214,6 +214,12 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_IMPORTEXPORT_IMMUTABLE_RESOURCES_SIZE_1 = "LOG_IMPORTEXPORT_IMMUTABLE_RESOURCES_SIZE_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_IMPORTEXPORT_INTERRUPTED_REWRITING_0 = "LOG_IMPORTEXPORT_INTERRUPTED_REWRITING_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_IMPORTEXPORT_INVALID_IMPORT_THREADS_1 = "LOG_IMPORTEXPORT_INVALID_IMPORT_THREADS_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_IMPORTEXPORT_ORIGINAL_RESOURCE_NAME_1 = "LOG_IMPORTEXPORT_ORIGINAL_RESOURCE_NAME_1";
 
@@ -226,6 +232,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_IMPORTEXPORT_SET_CONVERT_PARAMETER_1 = "LOG_IMPORTEXPORT_SET_CONVERT_PARAMETER_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_IMPORTEXPORT_SET_IMPORT_THREADS_1 = "LOG_IMPORTEXPORT_SET_IMPORT_THREADS_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_IMPORTEXPORT_SET_OLD_WEBAPP_URL_1 = "LOG_IMPORTEXPORT_SET_OLD_WEBAPP_URL_1";
 
@@ -325,6 +334,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String RPT_IMPORT_PROJECT_0 = "RPT_IMPORT_PROJECT_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_IMPORT_THROUGHPUT_3 = "RPT_IMPORT_THROUGHPUT_3";
+
     /** Message constant for key in the resource bundle. */
     public static final String RPT_IMPORT_USER_0 = "RPT_IMPORT_USER_0";
 
@@ -27,6 +27,7 @@
 
 package org.opencms.loader;
 
+import org.opencms.cache.CmsVfsDiskCache;
 import org.opencms.configuration.CmsParameterConfiguration;
 import org.opencms.file.CmsFile;
 import org.opencms.file.CmsObject;
@@ -39,7 +40,11 @@ import org.opencms.util.CmsRequestUtil;
 import org.opencms.util.CmsStringUtil;
 import org.opencms.workplace.CmsWorkplaceManager;
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Iterator;
 import java.util.Locale;
 
@@ -48,25 +53,67 @@ import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.apache.commons.logging.Log;
+
 /**
  * Dump loader for binary or other unprocessed resource types.<p>
  * 
  * This loader is also used to deliver static sub-elements of pages processed 
  * by other loaders.<p>
  * 
+ * Large online files are mirrored to a RFS stream cache and delivered from there, 
+ * so they are never held in memory completely. The loader supports single byte ranges 
+ * requested with the <code>Range</code> and <code>If-Range</code> headers.<p>
+ * 
  * @since 6.0.0 
  */
 public class CmsDumpLoader implements I_CmsResourceLoader {
 
+    /** The configuration parameter for the stream cache repository folder. */
+    public static final String CONFIGURATION_STREAM_FOLDER = "stream.folder";
+
+    /** The configuration parameter for the file size from which files are delivered from the stream cache. */
+    public static final String CONFIGURATION_STREAM_THRESHOLD = "stream.threshold";
+
     /** The id of this loader. */
     public static final int RESOURCE_LOADER_ID = 1;
 
+    /** The default stream cache repository folder. */
+    public static final String STREAM_REPOSITORY_DEFAULT = "/WEB-INF/streamcache/";
+
+    /** The default file size from which files are delivered from the stream cache. */
+    public static final int STREAM_THRESHOLD_DEFAULT = 1024 * 1024;
+
+    /** The prefix of a byte range in the "Range" header. */
+    private static final String BYTES_UNIT = "bytes=";
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsDumpLoader.class);
+
+    /** Locks for creating the stream cache files, selected by the hash code of the file name. */
+    private static final Object[] STREAM_CACHE_LOCKS = new Object[32];
+
+    /** The buffer size used for streaming the file contents. */
+    private static final int STREAM_BUFFER_SIZE = 8192;
+
     /** The maximum age for dumped contents in the clients cache. */
     private static long m_clientCacheMaxAge;
 
     /** The resource loader configuration. */
     private CmsParameterConfiguration m_configuration;
 
+    /** The stream cache for large files, <code>null</code> if the stream cache is not used. */
+    private CmsVfsDiskCache m_streamCache;
+
+    /** The file size from which files are delivered from the stream cache. */
+    private int m_streamThreshold;
+
+    static {
+        for (int i = 0; i < STREAM_CACHE_LOCKS.length; i++) {
+            STREAM_CACHE_LOCKS[i] = new Object();
+        }
+    }
+
     /**
      * The constructor of the class is empty and does nothing.<p>
      */
@@ -176,10 +223,27 @@ public class CmsDumpLoader implements I_CmsResourceLoader {
             m_clientCacheMaxAge = Long.parseLong(String.valueOf(maxAge));
         }
 
+        m_streamThreshold = m_configuration.getInteger(CONFIGURATION_STREAM_THRESHOLD, STREAM_THRESHOLD_DEFAULT);
+        if (m_streamThreshold >= 0) {
+            String folder = m_configuration.getString(CONFIGURATION_STREAM_FOLDER, STREAM_REPOSITORY_DEFAULT);
+            m_streamCache = new CmsVfsDiskCache(OpenCms.getSystemInfo().getWebApplicationRfsPath(), folder.trim());
+        } else {
+            // a negative threshold disables the stream cache 
+            m_streamCache = null;
+        }
+
         if (CmsLog.INIT.isInfoEnabled()) {
             if (maxAge != null) {
                 CmsLog.INIT.info(Messages.get().getBundle().key(Messages.INIT_CLIENT_CACHE_MAX_AGE_1, maxAge));
             }
+            if (m_streamCache != null) {
+                CmsLog.INIT.info(Messages.get().getBundle().key(
+                    Messages.INIT_STREAM_REPOSITORY_PATH_1,
+                    m_streamCache.getRepositoryPath()));
+                CmsLog.INIT.info(Messages.get().getBundle().key(
+                    Messages.INIT_STREAM_THRESHOLD_1,
+                    Integer.valueOf(m_streamThreshold)));
+            }
             CmsLog.INIT.info(Messages.get().getBundle().key(
                 Messages.INIT_LOADER_INITIALIZED_1,
                 this.getClass().getName()));
@@ -229,13 +293,20 @@ public class CmsDumpLoader implements I_CmsResourceLoader {
             return;
         }
 
-        // make sure we have the file contents available
-        CmsFile file = cms.readFile(resource);
+        // large online files are delivered from the stream cache, all others from memory 
+        File streamFile = getStreamFile(cms, resource);
+        CmsFile file = null;
+        long length;
+        if (streamFile != null) {
+            length = streamFile.length();
+        } else {
+            file = cms.readFile(resource);
+            length = file.getContents().length;
+        }
 
-        // set response status to "200 - OK" (required for static export "on-demand")
-        res.setStatus(HttpServletResponse.SC_OK);
-        // set content length header
-        res.setContentLength(file.getContents().length);
+        String etag = getETag(resource);
+        res.setHeader(CmsRequestUtil.HEADER_ETAG, etag);
+        res.setHeader(CmsRequestUtil.HEADER_ACCEPT_RANGES, "bytes");
 
         if (CmsWorkplaceManager.isWorkplaceUser(req)) {
             // prevent caching for Workplace users
@@ -243,7 +314,7 @@ public class CmsDumpLoader implements I_CmsResourceLoader {
             CmsRequestUtil.setNoCacheHeaders(res);
         } else {
             // set date last modified header
-            res.setDateHeader(CmsRequestUtil.HEADER_LAST_MODIFIED, file.getDateLastModified());
+            res.setDateHeader(CmsRequestUtil.HEADER_LAST_MODIFIED, resource.getDateLastModified());
 
             // set "Expires" only if cache control is not already set
             if (!res.containsHeader(CmsRequestUtil.HEADER_CACHE_CONTROL)) {
@@ -257,7 +328,39 @@ public class CmsDumpLoader implements I_CmsResourceLoader {
             }
         }
 
-        service(cms, file, req, res);
+        long start = 0;
+        long end = length - 1;
+        long[] range = getRange(req, etag, resource.getDateLastModified(), length);
+        if (range != null) {
+            if (range[0] >= length) {
+                // set response status to "416 - requested range not satisfiable"
+                res.setHeader(CmsRequestUtil.HEADER_CONTENT_RANGE, "bytes */" + length);
+                res.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            start = range[0];
+            end = range[1];
+            // set response status to "206 - partial content"
+            res.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            res.setHeader(CmsRequestUtil.HEADER_CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        } else {
+            // set response status to "200 - OK" (required for static export "on-demand")
+            res.setStatus(HttpServletResponse.SC_OK);
+        }
+        // set content length header
+        long contentLength = end - start + 1;
+        if (contentLength <= Integer.MAX_VALUE) {
+            res.setContentLength((int)contentLength);
+        } else {
+            // set the content length as String to be able to use a long
+            res.setHeader(CmsRequestUtil.HEADER_CONTENT_LENGTH, String.valueOf(contentLength));
+        }
+
+        if (streamFile != null) {
+            writeFile(streamFile, start, contentLength, res.getOutputStream());
+        } else {
+            res.getOutputStream().write(file.getContents(), (int)start, (int)contentLength);
+        }
     }
 
     /**
@@ -266,7 +369,12 @@ public class CmsDumpLoader implements I_CmsResourceLoader {
     public void service(CmsObject cms, CmsResource resource, ServletRequest req, ServletResponse res)
     throws CmsException, IOException {
 
-        res.getOutputStream().write(cms.readFile(resource).getContents());
+        File streamFile = getStreamFile(cms, resource);
+        if (streamFile != null) {
+            writeFile(streamFile, 0, streamFile.length(), res.getOutputStream());
+        } else {
+            res.getOutputStream().write(cms.readFile(resource).getContents());
+        }
     }
 
     /**
@@ -301,4 +409,193 @@ public class CmsDumpLoader implements I_CmsResourceLoader {
         }
         return false;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the entity tag of the given resource.<p>
+     * 
+     * The entity tag is built from the resource id and the date the content was last modified.<p>
+     * 
+     * @param resource the resource to get the entity tag for
+     * 
+     * @return the entity tag of the given resource
+     */
+    protected String getETag(CmsResource resource) {
+
+        return "\"" + resource.getResourceId() + "-" + Long.toHexString(resource.getDateContent()) + "\"";
+    }
+
+    /**
+     * Returns the byte range requested with the "Range" header.<p>
+     * 
+     * Only a single byte range is supported. If the request contains no range, a range that can not be parsed, 
+     * several ranges, or an "If-Range" header that does not match the current entity tag or 
+     * modification date, <code>null</code> is returned and the complete content should be delivered.<p>
+     * 
+     * If the range can not be satisfied, the returned start position is equal to the content length.<p>
+     * 
+     * @param req the current request
+     * @param etag the entity tag of the requested resource
+     * @param dateLastModified the date the requested resource was last modified
+     * @param length the length of the content
+     * 
+     * @return the first and the last requested byte position, or <code>null</code> 
+     */
+    protected long[] getRange(HttpServletRequest req, String etag, long dateLastModified, long length) {
+
+        String header = req.getHeader(CmsRequestUtil.HEADER_RANGE);
+        if ((header == null) || !header.startsWith(BYTES_UNIT) || (header.indexOf(',') >= 0)) {
+            return null;
+        }
+        String ifRange = req.getHeader(CmsRequestUtil.HEADER_IF_RANGE);
+        if (ifRange != null) {
+            if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+                // weak entity tags never match
+                if (!ifRange.equals(etag)) {
+                    return null;
+                }
+            } else {
+                long date;
+                try {
+                    date = req.getDateHeader(CmsRequestUtil.HEADER_IF_RANGE);
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+                // the "Last-Modified" header only has a precision of seconds
+                if ((date / 1000) != (dateLastModified / 1000)) {
+                    return null;
+                }
+            }
+        }
+        String spec = header.substring(BYTES_UNIT.length()).trim();
+        int pos = spec.indexOf('-');
+        if (pos < 0) {
+            return null;
+        }
+        long start;
+        long end;
+        try {
+            if (pos == 0) {
+                // suffix range, e.g. "bytes=-500" for the last 500 bytes
+                long suffix = Long.parseLong(spec.substring(1).trim());
+                start = (suffix > 0) ? Math.max(0, length - suffix) : length;
+                end = length - 1;
+            } else {
+                start = Long.parseLong(spec.substring(0, pos).trim());
+                end = length - 1;
+                String last = spec.substring(pos + 1).trim();
+                if (last.length() > 0) {
+                    long lastPos = Long.parseLong(last);
+                    if (lastPos < start) {
+                        // syntactically invalid range, must be ignored
+                        return null;
+                    }
+                    end = Math.min(lastPos, end);
+                }
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return new long[] {Math.min(start, length), end};
+    }
+
+    /**
+     * Returns the stream cache file for the given resource, or <code>null</code> 
+     * if the resource should not be delivered from the stream cache.<p>
+     * 
+     * Only online files at least as large as the configured threshold are delivered from the stream cache. 
+     * If the stream cache file does not exist or is outdated, it is created from the file content.<p>
+     * 
+     * @param cms the current users OpenCms context
+     * @param resource the requested resource
+     * 
+     * @return the stream cache file for the given resource, or <code>null</code>
+     * 
+     * @throws CmsException if reading the file content fails
+     */
+    protected File getStreamFile(CmsObject cms, CmsResource resource) throws CmsException {
+
+        if ((m_streamCache == null)
+            || (resource instanceof CmsFile)
+            || (resource.getLength() < m_streamThreshold)
+            || !cms.getRequestContext().getCurrentProject().isOnlineProject()) {
+            return null;
+        }
+        String rfsName = m_streamCache.getCacheName(true, resource.getRootPath(), null);
+        File f = getStreamFile(rfsName, resource);
+        if (f != null) {
+            return f;
+        }
+        synchronized (STREAM_CACHE_LOCKS[(rfsName.hashCode() & 0x7fffffff) % STREAM_CACHE_LOCKS.length]) {
+            // check again, another thread might have created the file in the meantime
+            f = getStreamFile(rfsName, resource);
+            if (f != null) {
+                return f;
+            }
+            CmsFile file = cms.readFile(resource);
+            try {
+                m_streamCache.saveCacheFile(rfsName, file.getContents(), resource.getDateContent());
+            } catch (IOException e) {
+                LOG.warn(Messages.get().getBundle().key(Messages.LOG_STREAM_CACHE_FAILED_1, resource.getRootPath()), e);
+                return null;
+            }
+            return getStreamFile(rfsName, resource);
+        }
+    }
+
+    /**
+     * Writes a part of the given file to the given output stream.<p>
+     * 
+     * @param file the file to write
+     * @param start the position of the first byte to write
+     * @param length the number of bytes to write
+     * @param out the output stream to write to
+     * 
+     * @throws IOException in case of errors reading the file or writing the output stream 
+     */
+    protected void writeFile(File file, long start, long length, OutputStream out) throws IOException {
+
+        InputStream in = new FileInputStream(file);
+        try {
+            long skipped = 0;
+            while (skipped < start) {
+                long n = in.skip(start - skipped);
+                if (n <= 0) {
+                    throw new IOException(file.getAbsolutePath());
+                }
+                skipped += n;
+            }
+            byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+            long remaining = length;
+            while (remaining > 0) {
+                int n = in.read(buffer, 0, (int)Math.min(buffer.length, remaining));
+                if (n < 0) {
+                    break;
+                }
+                out.write(buffer, 0, n);
+                remaining -= n;
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Returns the current stream cache file with the given name for the given resource, 
+     * or <code>null</code> if the file does not exist or is outdated.<p>
+     * 
+     * @param rfsName the RFS name of the stream cache file
+     * @param resource the resource the stream cache file belongs to
+     * 
+     * @return the current stream cache file, or <code>null</code>
+     */
+    private File getStreamFile(String rfsName, CmsResource resource) {
+
+        File f = m_streamCache.getCacheFile(rfsName, resource.getDateContent());
+        if ((f != null) && (f.length() != resource.getLength())) {
+            // the modification date of the cache file has only a precision of seconds
+            f.delete();
+            return null;
+        }
+        return f;
+    }
+}
@@ -42,6 +42,12 @@ import org.opencms.util.CmsStringUtil;
 
 import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -71,6 +77,9 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
     /** The configuration parameter for the OpenCms XML configuration to set the maximum image blur size. */
     public static final String CONFIGURATION_MAX_BLUR_SIZE = "image.scaling.maxblursize";
 
+    /** The configuration parameter for the OpenCms XML configuration to set the maximum number of concurrent image scale operations. */
+    public static final String CONFIGURATION_MAX_CONCURRENT = "image.scaling.maxconcurrent";
+
     /** The configuration parameter for the OpenCms XML configuration to set the maximum image scale size. */
     public static final String CONFIGURATION_MAX_SCALE_SIZE = "image.scaling.maxsize";
 
@@ -98,6 +107,15 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
     /** The maximum image size (width * height) to apply image blurring when down scaling (setting this to high may cause "out of memory" errors). */
     protected static int m_maxBlurSize = CmsImageScaler.SCALE_DEFAULT_MAX_BLUR_SIZE;
 
+    /** The maximum number of image scale operations that run at the same time, 0 means the number of available processors. */
+    protected static int m_maxConcurrent;
+
+    /** The scale operations currently in progress, with the disk cache name of the scaled image as key. */
+    protected static ConcurrentMap<String, FutureTask<byte[]>> m_scalingInProgress = new ConcurrentHashMap<String, FutureTask<byte[]>>();
+
+    /** Limits the number of image scale operations that run at the same time. */
+    protected static Semaphore m_scalingPermits;
+
     /** The disk cache to use for saving scaled image versions. */
     protected static CmsVfsNameBasedDiskCache m_vfsDiskCache;
 
@@ -197,6 +215,9 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
             if (CONFIGURATION_DOWNSCALE.equals(paramName)) {
                 m_downScaleParams = paramValue.trim();
             }
+            if (CONFIGURATION_MAX_CONCURRENT.equals(paramName)) {
+                m_maxConcurrent = CmsStringUtil.getIntValue(paramValue, 0, paramName);
+            }
         }
         super.addConfigurationParameter(paramName, paramValue);
     }
@@ -241,6 +262,7 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
         m_enabled = false;
         m_imageRepositoryFolder = null;
         m_vfsDiskCache = null;
+        m_scalingPermits = null;
     }
 
     /**
@@ -283,6 +305,10 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
                 OpenCms.getSystemInfo().getWebApplicationRfsPath(),
                 m_imageRepositoryFolder);
         }
+        if (m_maxConcurrent <= 0) {
+            m_maxConcurrent = Runtime.getRuntime().availableProcessors();
+        }
+        m_scalingPermits = new Semaphore(m_maxConcurrent, true);
         OpenCms.addCmsEventListener(this);
         // output setup information
         if (CmsLog.INIT.isInfoEnabled()) {
@@ -292,6 +318,9 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
             CmsLog.INIT.info(Messages.get().getBundle().key(
                 Messages.INIT_IMAGE_SCALING_ENABLED_1,
                 Boolean.valueOf(m_enabled)));
+            CmsLog.INIT.info(Messages.get().getBundle().key(
+                Messages.INIT_IMAGE_SCALING_MAX_CONCURRENT_1,
+                new Integer(m_maxConcurrent)));
         }
     }
 
@@ -326,6 +355,9 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
      * If the scaled version does not exist in the cache, it is created. 
      * Unscaled versions of the images are also stored in the cache.<p>
      * 
+     * If several requests for the same scaled version arrive at the same time, 
+     * only the first one creates it, while the others wait for the result.<p>
+     * 
      * @param cms the current users OpenCms context
      * @param resource the base VFS resource for the image
      * @param scaler the configured image scaler
@@ -343,29 +375,100 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
         byte[] content = m_vfsDiskCache.getCacheContent(cacheName);
 
         CmsFile file;
-        if (content != null) {
-            if (resource instanceof CmsFile) {
-                // the original file content must be modified (required e.g. for static export)
-                file = (CmsFile)resource;
-            } else {
-                // this is no file, but we don't want to use "upgrade" since we don't need to read the content from the VFS
-                file = new CmsFile(resource);
+        if (content == null) {
+            final CmsObject finalCms = cms;
+            final CmsResource finalResource = resource;
+            final CmsImageScaler finalScaler = scaler;
+            final String finalCacheName = cacheName;
+            FutureTask<byte[]> task = new FutureTask<byte[]>(new Callable<byte[]>() {
+
+                public byte[] call() throws Exception {
+
+                    return createScaledImage(finalCms, finalResource, finalScaler, finalCacheName);
+                }
+            });
+            FutureTask<byte[]> running = m_scalingInProgress.putIfAbsent(cacheName, task);
+            if (running == null) {
+                // no other thread is creating this image, so do it now
+                try {
+                    task.run();
+                } finally {
+                    m_scalingInProgress.remove(cacheName);
+                }
+                running = task;
             }
-            // save the content in the file
-            file.setContents(content);
-        } else {
-            // we must read the content from the VFS (if this has not been done yet)
-            file = cms.readFile(resource);
-            // upgrade the file (load the content)
-            if (scaler.isValid()) {
-                // valid scaling parameters found, scale the content
-                content = scaler.scaleImage(file);
-                // exchange the content of the file with the scaled version
-                file.setContents(content);
+            try {
+                content = running.get();
+            } catch (InterruptedException e) {
+                // keep the interrupt for the caller and create the image without waiting for the other thread
+                Thread.currentThread().interrupt();
+                content = createScaledImage(cms, resource, scaler, cacheName);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (running == task) {
+                    // the image was created by this thread, so the error belongs to this request
+                    if (cause instanceof IOException) {
+                        throw (IOException)cause;
+                    } else if (cause instanceof CmsException) {
+                        throw (CmsException)cause;
+                    } else if (cause instanceof RuntimeException) {
+                        throw (RuntimeException)cause;
+                    }
+                    throw (Error)cause;
+                }
+                // the error happened in the context of another request, try again with the current context
+                content = createScaledImage(cms, resource, scaler, cacheName);
             }
-            // save the file content in the cache
-            m_vfsDiskCache.saveCacheFile(cacheName, file.getContents());
         }
+        if (resource instanceof CmsFile) {
+            // the original file content must be modified (required e.g. for static export)
+            file = (CmsFile)resource;
+        } else {
+            // this is no file, but we don't want to use "upgrade" since we don't need to read the content from the VFS
+            file = new CmsFile(resource);
+        }
+        // save the content in the file
+        file.setContents(content);
         return file;
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates a scaled version of the given OpenCms VFS image resource and saves it in the disk cache.<p>
+     * 
+     * The number of image scale operations that run at the same time is limited 
+     * with the {@link #CONFIGURATION_MAX_CONCURRENT} configuration option.<p> 
+     * 
+     * @param cms the current users OpenCms context
+     * @param resource the base VFS resource for the image
+     * @param scaler the configured image scaler
+     * @param cacheName the disk cache name of the scaled image
+     * 
+     * @return the content of the scaled image
+     * 
+     * @throws IOException in case of errors accessing the disk based cache
+     * @throws CmsException in case of errors accessing the OpenCms VFS
+     */
+    protected byte[] createScaledImage(CmsObject cms, CmsResource resource, CmsImageScaler scaler, String cacheName)
+    throws IOException, CmsException {
+
+        // we must read the content from the VFS (if this has not been done yet)
+        byte[] content = cms.readFile(resource).getContents();
+        if (scaler.isValid()) {
+            // valid scaling parameters found, scale the content
+            Semaphore permits = m_scalingPermits;
+            if (permits != null) {
+                permits.acquireUninterruptibly();
+            }
+            try {
+                content = scaler.scaleImage(content, resource.getRootPath());
+            } finally {
+                if (permits != null) {
+                    permits.release();
+                }
+            }
+        }
+        // save the file content in the cache
+        m_vfsDiskCache.saveCacheFile(cacheName, content);
+        return content;
+    }
+}
@@ -157,6 +157,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String INIT_IMAGE_SCALING_ENABLED_1 = "INIT_IMAGE_SCALING_ENABLED_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String INIT_IMAGE_SCALING_MAX_CONCURRENT_1 = "INIT_IMAGE_SCALING_MAX_CONCURRENT_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String INIT_JSP_CACHE_SIZE_1 = "INIT_JSP_CACHE_SIZE_1";
 
@@ -187,6 +190,12 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String INIT_STARTING_LOADER_CONFIG_0 = "INIT_STARTING_LOADER_CONFIG_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String INIT_STREAM_REPOSITORY_PATH_1 = "INIT_STREAM_REPOSITORY_PATH_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String INIT_STREAM_THRESHOLD_1 = "INIT_STREAM_THRESHOLD_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String INIT_WEBAPP_PATH_1 = "INIT_WEBAPP_PATH_1";
 
@@ -226,6 +235,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_READ_MIMETYPES_FAILED_2 = "LOG_READ_MIMETYPES_FAILED_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_STREAM_CACHE_FAILED_1 = "LOG_STREAM_CACHE_FAILED_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_UNSUPPORTED_ENC_1 = "LOG_UNSUPPORTED_ENC_1";
 
@@ -0,0 +1,336 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.lock;
+
+import org.opencms.monitor.CmsMemoryMonitor;
+import org.opencms.monitor.I_CmsMemoryMonitorable;
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * The table of the current locks, indexed by root path, lock owner and project.<p>
+ * 
+ * The locks are kept sorted by root path, so all locks in a sub-tree are found without 
+ * scanning all locks. The additional indexes by user id and project id contain the owners and 
+ * projects of both the edition lock and the system lock of a resource.<p>
+ * 
+ * Since {@link CmsLock} objects are mutable, a lock must be put into the table again after 
+ * its related lock has been changed, otherwise the user and project indexes may be outdated.<p>
+ * 
+ * All methods are synchronized, the returned lists are copies.<p>
+ * 
+ * @since 8.5.0
+ */
+public class CmsLockIndex implements I_CmsMemoryMonitorable {
+
+    /**
+     * An entry of the lock table, with the user and project ids the lock was indexed for.<p>
+     */
+    private static class Entry {
+
+        /** The lock. */
+        CmsLock m_lock;
+
+        /** The ids of the projects the lock was indexed for. */
+        Set<CmsUUID> m_projectIds = new HashSet<CmsUUID>(2);
+
+        /** The ids of the users the lock was indexed for. */
+        Set<CmsUUID> m_userIds = new HashSet<CmsUUID>(2);
+
+        /**
+         * Creates a new entry for the given lock.<p>
+         * 
+         * @param lock the lock
+         */
+        Entry(CmsLock lock) {
+
+            m_lock = lock;
+            addIds(lock.getEditionLock());
+            addIds(lock.getSystemLock());
+        }
+
+        /**
+         * Adds the user and project id of the given lock to the ids of this entry.<p>
+         * 
+         * @param lock the lock
+         */
+        private void addIds(CmsLock lock) {
+
+            if ((lock != null) && !lock.isUnlocked()) {
+                if (lock.getUserId() != null) {
+                    m_userIds.add(lock.getUserId());
+                }
+                if (lock.getProjectId() != null) {
+                    m_projectIds.add(lock.getProjectId());
+                }
+            }
+        }
+    }
+
+    /** The lock entries, by root path. */
+    private TreeMap<String, Entry> m_entries = new TreeMap<String, Entry>();
+
+    /** The root paths of the locks, by project id. */
+    private Map<CmsUUID, Set<String>> m_pathsByProject = new HashMap<CmsUUID, Set<String>>();
+
+    /** The root paths of the locks, by user id. */
+    private Map<CmsUUID, Set<String>> m_pathsByUser = new HashMap<CmsUUID, Set<String>>();
+
+    /**
+     * Removes all locks.<p>
+     */
+    public synchronized void clear() {
+
+        m_entries.clear();
+        m_pathsByProject.clear();
+        m_pathsByUser.clear();
+    }
+
+    /**
+     * Returns the lock of the resource with the given root path.<p>
+     * 
+     * @param rootPath the root path of the resource
+     *  
+     * @return the lock of the resource, or <code>null</code> if the resource is not locked
+     */
+    public synchronized CmsLock get(String rootPath) {
+
+        Entry entry = m_entries.get(rootPath);
+        return (entry != null) ? entry.m_lock : null;
+    }
+
+    /**
+     * Returns all locks.<p>
+     * 
+     * @return all locks
+     */
+    public synchronized List<CmsLock> getLocks() {
+
+        return getLocks(m_entries.values().iterator());
+    }
+
+    /**
+     * Returns the locks of all resources with a root path that starts with the given path.<p>
+     * 
+     * For a folder, these are the lock of the folder itself and the locks of all resources in the sub-tree.<p>
+     * 
+     * @param rootPath the root path to look for
+     * 
+     * @return the locks of all resources with a root path that starts with the given path
+     */
+    public synchronized List<CmsLock> getLocks(String rootPath) {
+
+        SortedMap<String, Entry> subTree = m_entries.subMap(rootPath, rootPath + Character.MAX_VALUE);
+        return getLocks(subTree.values().iterator());
+    }
+
+    /**
+     * Returns all locks which have an edition or system lock in the given project.<p>
+     * 
+     * @param projectId the id of the project
+     * 
+     * @return all locks in the given project
+     */
+    public synchronized List<CmsLock> getLocksForProject(CmsUUID projectId) {
+
+        return getLocks(m_pathsByProject.get(projectId));
+    }
+
+    /**
+     * Returns all locks which have an edition or system lock owned by the given user.<p>
+     * 
+     * @param userId the id of the user
+     * 
+     * @return all locks owned by the given user
+     */
+    public synchronized List<CmsLock> getLocksForUser(CmsUUID userId) {
+
+        return getLocks(m_pathsByUser.get(userId));
+    }
+
+    /**
+     * @see org.opencms.monitor.I_CmsMemoryMonitorable#getMemorySize()
+     */
+    public synchronized int getMemorySize() {
+
+        int size = 0;
+        for (String rootPath : m_entries.keySet()) {
+            size += CmsMemoryMonitor.getMemorySize(rootPath);
+        }
+        return size;
+    }
+
+    /**
+     * Returns the root paths of all locked resources.<p>
+     * 
+     * @return the root paths of all locked resources
+     */
+    public synchronized List<String> getPaths() {
+
+        return new ArrayList<String>(m_entries.keySet());
+    }
+
+    /**
+     * Puts the given lock into the table, replacing the current lock of the resource.<p>
+     * 
+     * @param lock the lock to put
+     */
+    public synchronized void put(CmsLock lock) {
+
+        String rootPath = lock.getResourceName();
+        remove(rootPath);
+        Entry entry = new Entry(lock);
+        m_entries.put(rootPath, entry);
+        addPath(m_pathsByProject, entry.m_projectIds, rootPath);
+        addPath(m_pathsByUser, entry.m_userIds, rootPath);
+    }
+
+    /**
+     * Removes the lock of the resource with the given root path.<p>
+     * 
+     * @param rootPath the root path of the resource
+     * 
+     * @return the removed lock, or <code>null</code> if the resource was not locked
+     */
+    public synchronized CmsLock remove(String rootPath) {
+
+        Entry entry = m_entries.remove(rootPath);
+        if (entry == null) {
+            return null;
+        }
+        removePath(m_pathsByProject, entry.m_projectIds, rootPath);
+        removePath(m_pathsByUser, entry.m_userIds, rootPath);
+        return entry.m_lock;
+    }
+
+    /**
+     * Replaces all locks in the table with the given locks.<p>
+     * 
+     * @param locks the new locks, by root path
+     */
+    public synchronized void replace(Map<String, CmsLock> locks) {
+
+        clear();
+        for (CmsLock lock : locks.values()) {
+            put(lock);
+        }
+    }
+
+    /**
+     * Returns the number of locked resources.<p>
+     * 
+     * @return the number of locked resources
+     */
+    public synchronized int size() {
+
+        return m_entries.size();
+    }
+
+    /**
+     * Adds the given root path to the index for the given ids.<p>
+     * 
+     * @param index the index 
+     * @param ids the ids
+     * @param rootPath the root path to add
+     */
+    private void addPath(Map<CmsUUID, Set<String>> index, Set<CmsUUID> ids, String rootPath) {
+
+        for (CmsUUID id : ids) {
+            Set<String> paths = index.get(id);
+            if (paths == null) {
+                paths = new HashSet<String>();
+                index.put(id, paths);
+            }
+            paths.add(rootPath);
+        }
+    }
+
+    /**
+     * Returns the locks of the given entries.<p>
+     * 
+     * @param entries the entries
+     * 
+     * @return the locks of the given entries
+     */
+    private List<CmsLock> getLocks(Iterator<Entry> entries) {
+
+        List<CmsLock> result = new ArrayList<CmsLock>();
+        while (entries.hasNext()) {
+            result.add(entries.next().m_lock);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the locks of the resources with the given root paths.<p>
+     * 
+     * @param rootPaths the root paths, may be <code>null</code>
+     * 
+     * @return the locks of the resources with the given root paths
+     */
+    private List<CmsLock> getLocks(Set<String> rootPaths) {
+
+        List<CmsLock> result = new ArrayList<CmsLock>();
+        if (rootPaths != null) {
+            for (String rootPath : rootPaths) {
+                result.add(m_entries.get(rootPath).m_lock);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes the given root path from the index for the given ids.<p>
+     * 
+     * @param index the index 
+     * @param ids the ids
+     * @param rootPath the root path to remove
+     */
+    private void removePath(Map<CmsUUID, Set<String>> index, Set<CmsUUID> ids, String rootPath) {
+
+        for (CmsUUID id : ids) {
+            Set<String> paths = index.get(id);
+            if (paths != null) {
+                paths.remove(rootPath);
+                if (paths.isEmpty()) {
+                    index.remove(id);
+                }
+            }
+        }
+    }
+}
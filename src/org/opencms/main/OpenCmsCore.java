@@ -1571,13 +1571,9 @@ public final class OpenCmsCore {
             // set runtime variables
             rpcService.setCms(cms);
             try {
-                Object lock = req.getSession();
-                if (lock == null) {
-                    lock = new Object();
-                }
-                synchronized (lock) {
-                    rpcService.service(req, res);
-                }
+                // calls of the same session are serialized by the service itself, 
+                // except for the methods that are marked as safe for concurrent execution
+                rpcService.service(req, res);
                 // update the session info
                 m_sessionManager.updateSessionInfo(cms, req);
             } finally {
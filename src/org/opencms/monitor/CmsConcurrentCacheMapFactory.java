@@ -0,0 +1,53 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.monitor;
+
+import org.opencms.cache.CmsConcurrentLruMap;
+import org.opencms.monitor.CmsMemoryMonitor.CacheType;
+
+import java.util.Map;
+
+/**
+ * Cache map factory which creates {@link CmsConcurrentLruMap} instances.<p>
+ * 
+ * Cache hits on these maps never block, which makes this factory the better choice
+ * for the heavily used VFS caches on systems with many concurrent requests.<p>
+ * 
+ * @since 8.5.0
+ */
+public class CmsConcurrentCacheMapFactory implements I_CmsCacheMapFactory {
+
+    /**
+     * @see org.opencms.monitor.I_CmsCacheMapFactory#createMap(org.opencms.monitor.CmsMemoryMonitor.CacheType, int)
+     */
+    public <K, V> Map<K, V> createMap(CacheType type, int maxSize) {
+
+        return new CmsConcurrentLruMap<K, V>(maxSize);
+    }
+}
@@ -27,6 +27,8 @@
 
 package org.opencms.monitor;
 
+import org.opencms.cache.CmsConcurrentLruMap;
+import org.opencms.cache.CmsContentLruCache;
 import org.opencms.cache.CmsLruCache;
 import org.opencms.cache.CmsMemoryObjectCache;
 import org.opencms.cache.CmsVfsMemoryObjectCache;
@@ -35,6 +37,8 @@ import org.opencms.db.CmsCacheSettings;
 import org.opencms.db.CmsDriverManager;
 import org.opencms.db.CmsPublishedResource;
 import org.opencms.db.CmsSecurityManager;
+import org.opencms.db.CmsVfsCacheKey;
+import org.opencms.db.generic.CmsUserDriver;
 import org.opencms.file.CmsFile;
 import org.opencms.file.CmsGroup;
 import org.opencms.file.CmsObject;
@@ -46,6 +50,7 @@ import org.opencms.file.CmsUser;
 import org.opencms.flex.CmsFlexCache.CmsFlexCacheVariation;
 import org.opencms.i18n.CmsLocaleManager;
 import org.opencms.lock.CmsLock;
+import org.opencms.lock.CmsLockIndex;
 import org.opencms.lock.CmsLockManager;
 import org.opencms.mail.CmsMailTransport;
 import org.opencms.mail.CmsSimpleMail;
@@ -76,10 +81,13 @@ import java.util.Collections;
 import java.util.ConcurrentModificationException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.mail.internet.InternetAddress;
 
@@ -101,6 +109,8 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     public enum CacheType {
         /** Access Control Lists cache. */
         ACL,
+        /** File content cache. */
+        CONTENT,
         /** Content Definition cache. */
         CONTENT_DEFINITION,
         /** Group cache. */
@@ -164,7 +174,10 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     private static final int MAX_DEPTH = 5;
 
     /** Cache for access control lists. */
-    private Map<String, CmsAccessControlList> m_cacheAccessControlList;
+    private Map<CmsVfsCacheKey, CmsAccessControlList> m_cacheAccessControlList;
+
+    /** Cache for online file contents. */
+    private CmsContentLruCache<CmsUUID> m_cacheContent;
 
     /** A temporary cache for XML content definitions. */
     private Map<String, CmsXmlContentDefinition> m_cacheContentDefinitions;
@@ -179,7 +192,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     private Map<String, Locale> m_cacheLocale;
 
     /** Cache for the resource locks. */
-    private Map<String, CmsLock> m_cacheLock;
+    private CmsLockIndex m_cacheLock;
 
     /** The memory object cache map. */
     private Map<String, Object> m_cacheMemObject;
@@ -188,7 +201,10 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     private Map<String, CmsOrganizationalUnit> m_cacheOrgUnit;
 
     /** Cache for permission checks. */
-    private Map<String, I_CmsPermissionHandler.CmsPermissionCheckResult> m_cachePermission;
+    private Map<CmsVfsCacheKey, I_CmsPermissionHandler.CmsPermissionCheckResult> m_cachePermission;
+
+    /** Cache for the principal fingerprints of users. */
+    private Map<String, String> m_cachePrincipalFingerprint;
 
     /** Cache for offline projects. */
     private Map<String, CmsProject> m_cacheProject;
@@ -199,17 +215,26 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     /** Cache for properties. */
     private Map<String, CmsProperty> m_cacheProperty;
 
-    /** Cache for property lists. */
-    private Map<String, List<CmsProperty>> m_cachePropertyList;
+    /** Cache for offline property lists. */
+    private Map<CmsVfsCacheKey, List<CmsProperty>> m_cachePropertyList;
+
+    /** Cache for online property lists. */
+    private Map<CmsVfsCacheKey, List<CmsProperty>> m_cachePropertyListOnline;
 
     /** Cache for published resources. */
     private Map<String, List<CmsPublishedResource>> m_cachePublishedResources;
 
-    /** Cache for resources. */
-    private Map<String, CmsResource> m_cacheResource;
+    /** Cache for offline resources. */
+    private Map<CmsVfsCacheKey, CmsResource> m_cacheResource;
 
-    /** Cache for resource lists. */
-    private Map<String, List<CmsResource>> m_cacheResourceList;
+    /** Cache for offline resource lists. */
+    private Map<CmsVfsCacheKey, List<CmsResource>> m_cacheResourceList;
+
+    /** Cache for online resource lists. */
+    private Map<CmsVfsCacheKey, List<CmsResource>> m_cacheResourceListOnline;
+
+    /** Cache for online resources. */
+    private Map<CmsVfsCacheKey, CmsResource> m_cacheResourceOnline;
 
     /** Cache for role lists. */
     private Map<String, List<CmsRole>> m_cacheRoleLists;
@@ -235,8 +260,11 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     /** The memory monitor configuration. */
     private CmsMemoryMonitorConfiguration m_configuration;
 
+    /** The configured cache map factories. */
+    private Map<CacheType, I_CmsCacheMapFactory> m_cacheMapFactories;
+
     /** Map to keep track of disabled caches. */
-    private Map<CacheType, Boolean> m_disabled = new HashMap<CacheType, Boolean>();
+    private Map<CacheType, Boolean> m_disabled = new ConcurrentHashMap<CacheType, Boolean>();
 
     /** Interval in which emails are send. */
     private int m_intervalEmail;
@@ -277,6 +305,12 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     /** Contains the object to be monitored. */
     private Map<String, Object> m_monitoredObjects;
 
+    /** The path index of the ACL cache. */
+    private CmsVfsCachePathIndex<CmsAccessControlList> m_pathIndexAccessControlList;
+
+    /** The path index of the permission cache. */
+    private CmsVfsCachePathIndex<I_CmsPermissionHandler.CmsPermissionCheckResult> m_pathIndexPermission;
+
     /** Buffer for publish history. */
     private Buffer m_publishHistory;
 
@@ -528,12 +562,44 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      * @param key the cache key
      * @param acl the acl to cache
      */
-    public void cacheACL(String key, CmsAccessControlList acl) {
+    public void cacheACL(CmsVfsCacheKey key, CmsAccessControlList acl) {
 
         if (m_disabled.get(CacheType.ACL) != null) {
             return;
         }
-        m_cacheAccessControlList.put(key, acl);
+        m_pathIndexAccessControlList.put(key, acl);
+    }
+
+    /**
+     * Caches the given acl under the given cache key.<p>
+     * 
+     * String keys do not carry the root path of the resource, so these entries are removed 
+     * whenever the access control entries of any resource change.<p>
+     * 
+     * @param key the cache key
+     * @param acl the acl to cache
+     * 
+     * @deprecated use {@link #cacheACL(CmsVfsCacheKey, CmsAccessControlList)} instead
+     */
+    @Deprecated
+    public void cacheACL(String key, CmsAccessControlList acl) {
+
+        cacheACL(getVfsCacheKey(CmsVfsCacheKey.KeyType.ACL, key), acl);
+    }
+
+    /**
+     * Caches the given online file content.<p>
+     * 
+     * @param resourceId the resource id of the file
+     * @param dateContent the date the content of the file was last modified
+     * @param content the file content to cache
+     */
+    public void cacheContent(CmsUUID resourceId, long dateContent, byte[] content) {
+
+        if (m_disabled.get(CacheType.CONTENT) != null) {
+            return;
+        }
+        m_cacheContent.put(resourceId, dateContent, content);
     }
 
     /**
@@ -593,7 +659,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         if (m_disabled.get(CacheType.LOCK) != null) {
             return;
         }
-        m_cacheLock.put(lock.getResourceName(), lock);
+        m_cacheLock.put(lock);
     }
 
     /**
@@ -630,12 +696,45 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      * @param key the cache key
      * @param permission the permission check result to cache
      */
-    public void cachePermission(String key, I_CmsPermissionHandler.CmsPermissionCheckResult permission) {
+    public void cachePermission(CmsVfsCacheKey key, I_CmsPermissionHandler.CmsPermissionCheckResult permission) {
 
         if (m_disabled.get(CacheType.PERMISSION) != null) {
             return;
         }
-        m_cachePermission.put(key, permission);
+        m_pathIndexPermission.put(key, permission);
+    }
+
+    /**
+     * Caches the given permission check result under the given cache key.<p>
+     * 
+     * String keys do not carry the root path of the resource, so these entries are removed 
+     * whenever the access control entries of any resource change.<p>
+     * 
+     * @param key the cache key
+     * @param permission the permission check result to cache
+     * 
+     * @deprecated use {@link #cachePermission(CmsVfsCacheKey, I_CmsPermissionHandler.CmsPermissionCheckResult)} instead
+     */
+    @Deprecated
+    public void cachePermission(String key, I_CmsPermissionHandler.CmsPermissionCheckResult permission) {
+
+        cachePermission(getVfsCacheKey(CmsVfsCacheKey.KeyType.PERMISSION, key), permission);
+    }
+
+    /**
+     * Caches the given principal fingerprint under the given cache key.<p>
+     * 
+     * The fingerprints depend on the group memberships, so they are flushed together with the user groups.<p>
+     * 
+     * @param key the cache key
+     * @param fingerprint the principal fingerprint to cache
+     */
+    public void cachePrincipalFingerprint(String key, String fingerprint) {
+
+        if (m_disabled.get(CacheType.USERGROUPS) != null) {
+            return;
+        }
+        m_cachePrincipalFingerprint.put(key, fingerprint);
     }
 
     /**
@@ -686,12 +785,33 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      * @param key the cache key
      * @param propertyList the property list to cache
      */
-    public void cachePropertyList(String key, List<CmsProperty> propertyList) {
+    public void cachePropertyList(CmsVfsCacheKey key, List<CmsProperty> propertyList) {
 
         if (m_disabled.get(CacheType.PROPERTY_LIST) != null) {
             return;
         }
-        m_cachePropertyList.put(key, propertyList);
+        if (key.isOnline()) {
+            m_cachePropertyListOnline.put(key, propertyList);
+        } else {
+            m_cachePropertyList.put(key, propertyList);
+        }
+    }
+
+    /**
+     * Caches the given property list under the given cache key.<p>
+     * 
+     * String keys carry neither the online flag nor the root path of the resource, so these entries are 
+     * kept with the offline entries, which are removed whenever a property changes.<p>
+     * 
+     * @param key the cache key
+     * @param propertyList the property list to cache
+     * 
+     * @deprecated use {@link #cachePropertyList(CmsVfsCacheKey, List)} instead
+     */
+    @Deprecated
+    public void cachePropertyList(String key, List<CmsProperty> propertyList) {
+
+        cachePropertyList(getVfsCacheKey(CmsVfsCacheKey.KeyType.PROPERTIES, key), propertyList);
     }
 
     /**
@@ -742,12 +862,33 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      * @param key the cache key
      * @param resource the resource to cache
      */
-    public void cacheResource(String key, CmsResource resource) {
+    public void cacheResource(CmsVfsCacheKey key, CmsResource resource) {
 
         if (m_disabled.get(CacheType.RESOURCE) != null) {
             return;
         }
-        m_cacheResource.put(key, resource);
+        if (key.isOnline()) {
+            m_cacheResourceOnline.put(key, resource);
+        } else {
+            m_cacheResource.put(key, resource);
+        }
+    }
+
+    /**
+     * Caches the given resource under the given cache key.<p>
+     * 
+     * String keys carry neither the online flag nor the root path of the resource, so these entries are 
+     * kept with the offline entries, which are removed whenever an offline resource changes.<p>
+     * 
+     * @param key the cache key
+     * @param resource the resource to cache
+     * 
+     * @deprecated use {@link #cacheResource(CmsVfsCacheKey, CmsResource)} instead
+     */
+    @Deprecated
+    public void cacheResource(String key, CmsResource resource) {
+
+        cacheResource(getVfsCacheKey(CmsVfsCacheKey.KeyType.RESOURCE, key), resource);
     }
 
     /**
@@ -756,12 +897,33 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      * @param key the cache key
      * @param resourceList the resource list to cache
      */
-    public void cacheResourceList(String key, List<CmsResource> resourceList) {
+    public void cacheResourceList(CmsVfsCacheKey key, List<CmsResource> resourceList) {
 
         if (m_disabled.get(CacheType.RESOURCE_LIST) != null) {
             return;
         }
-        m_cacheResourceList.put(key, resourceList);
+        if (key.isOnline()) {
+            m_cacheResourceListOnline.put(key, resourceList);
+        } else {
+            m_cacheResourceList.put(key, resourceList);
+        }
+    }
+
+    /**
+     * Caches the given resource list under the given cache key.<p>
+     * 
+     * String keys carry neither the online flag nor the root path of the resource, so these entries are 
+     * kept with the offline entries, which are removed whenever an offline resource changes.<p>
+     * 
+     * @param key the cache key
+     * @param resourceList the resource list to cache
+     * 
+     * @deprecated use {@link #cacheResourceList(CmsVfsCacheKey, List)} instead
+     */
+    @Deprecated
+    public void cacheResourceList(String key, List<CmsResource> resourceList) {
+
+        cacheResourceList(getVfsCacheKey(CmsVfsCacheKey.KeyType.RESOURCES, key), resourceList);
     }
 
     /**
@@ -900,6 +1062,57 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         flushCache(CacheType.PROPERTY_LIST);
         flushCache(CacheType.PROJECT_RESOURCES);
         flushCache(CacheType.PUBLISHED_RESOURCES);
+        flushCache(CacheType.CONTENT);
+    }
+
+    /**
+     * Clears the caches after a publish job.<p>
+     * 
+     * In contrast to {@link #clearCache()}, only the online resources, resource lists and property lists 
+     * affected by the published resources are removed. These are the entries for the published resources themselves,
+     * the sub-resource lists of their parent folders, the resource lists read below their ancestor folders 
+     * and the property lists read with search for their descendants. The online access control lists and 
+     * permission check results are removed for the sub-trees of the published resources only. 
+     * The principal caches are only cleared if organizational units were published. Since publishing 
+     * changes the state of the offline resources, the offline resource entries are cleared completely.<p>
+     * 
+     * @param publishedResources the resources published by the publish job 
+     */
+    public void clearCacheForPublishedResources(List<CmsPublishedResource> publishedResources) {
+
+        boolean principalsChanged = false;
+        for (CmsPublishedResource publishedResource : publishedResources) {
+            if (publishedResource.getRootPath().startsWith(CmsUserDriver.ORGUNIT_BASE_FOLDER)) {
+                principalsChanged = true;
+                break;
+            }
+        }
+        if (principalsChanged) {
+            clearPrincipalsCache();
+        } else {
+            // the role checks for resources depend on the resources
+            flushCache(CacheType.HAS_ROLE);
+            flushCache(CacheType.ROLE_LIST);
+        }
+
+        flushCache(CacheType.PROJECT);
+        flushCache(CacheType.PROJECT_RESOURCES);
+        flushCache(CacheType.PUBLISHED_RESOURCES);
+        flushOfflineCache(CacheType.RESOURCE, CacheType.RESOURCE_LIST, CacheType.PROPERTY_LIST);
+        uncacheOnlineResources(publishedResources);
+    }
+
+    /**
+     * Clears the offline entries of the resource caches when an offline resource was changed.<p>
+     * 
+     * @see #clearResourceCache()
+     */
+    public void clearOfflineResourceCache() {
+
+        flushOfflineCache(CacheType.RESOURCE);
+        flushOfflineCache(CacheType.RESOURCE_LIST);
+        flushCache(CacheType.HAS_ROLE);
+        flushCache(CacheType.ROLE_LIST);
     }
 
     /**
@@ -996,7 +1209,10 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         for (CacheType type : types) {
             switch (type) {
                 case ACL:
-                    m_cacheAccessControlList.clear();
+                    m_pathIndexAccessControlList.clear();
+                    break;
+                case CONTENT:
+                    m_cacheContent.clear();
                     break;
                 case CONTENT_DEFINITION:
                     m_cacheContentDefinitions.clear();
@@ -1020,7 +1236,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
                     m_cacheOrgUnit.clear();
                     break;
                 case PERMISSION:
-                    m_cachePermission.clear();
+                    m_pathIndexPermission.clear();
                     break;
                 case PROJECT:
                     m_cacheProject.clear();
@@ -1033,6 +1249,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
                     break;
                 case PROPERTY_LIST:
                     m_cachePropertyList.clear();
+                    m_cachePropertyListOnline.clear();
                     break;
                 case PUBLISHED_RESOURCES:
                     m_cachePublishedResources.clear();
@@ -1045,9 +1262,11 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
                     break;
                 case RESOURCE:
                     m_cacheResource.clear();
+                    m_cacheResourceOnline.clear();
                     break;
                 case RESOURCE_LIST:
                     m_cacheResourceList.clear();
+                    m_cacheResourceListOnline.clear();
                     break;
                 case ROLE_LIST:
                     m_cacheRoleLists.clear();
@@ -1057,6 +1276,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
                     break;
                 case USERGROUPS:
                     m_cacheUserGroups.clear();
+                    m_cachePrincipalFingerprint.clear();
                     break;
                 case USER_LIST:
                     m_cacheUserList.clear();
@@ -1120,16 +1340,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
             flushCache(CacheType.LOCK);
             return;
         }
-        // initialize new lock cache
-        Map<String, CmsLock> newLockCache = Collections.synchronizedMap(newLocks);
-        // register it
-        register(CmsLockManager.class.getName(), newLockCache);
-        // save the old cache
-        Map<String, CmsLock> oldCache = m_cacheLock;
-        // replace the old by the new cache
-        m_cacheLock = newLockCache;
-        // clean up the old cache
-        oldCache.clear();
+        m_cacheLock.replace(newLocks);
     }
 
     /**
@@ -1143,6 +1354,33 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         flushCache(CacheType.MEMORY_OBJECT);
     }
 
+    /**
+     * Flushes the offline entries of the given caches.<p>
+     * 
+     * Only the resource, resource list and property list caches keep online and offline entries apart, 
+     * all other given caches are flushed completely.<p>
+     * 
+     * @param types the cache types to flush
+     */
+    public void flushOfflineCache(CacheType... types) {
+
+        for (CacheType type : types) {
+            switch (type) {
+                case PROPERTY_LIST:
+                    m_cachePropertyList.clear();
+                    break;
+                case RESOURCE:
+                    m_cacheResource.clear();
+                    break;
+                case RESOURCE_LIST:
+                    m_cacheResourceList.clear();
+                    break;
+                default:
+                    flushCache(type);
+            }
+        }
+    }
+
     /**
      * Flushes the organizational unit cache.<p>
      * 
@@ -1349,7 +1587,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public List<String> getAllCachedLockPaths() {
 
-        return new ArrayList<String>(m_cacheLock.keySet());
+        return m_cacheLock.getPaths();
     }
 
     /**
@@ -1359,7 +1597,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public List<CmsLock> getAllCachedLocks() {
 
-        return new ArrayList<CmsLock>(m_cacheLock.values());
+        return m_cacheLock.getLocks();
     }
 
     /**
@@ -1391,11 +1629,39 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      * 
      * @return the ACL cached with the given cache key
      */
-    public CmsAccessControlList getCachedACL(String key) {
+    public CmsAccessControlList getCachedACL(CmsVfsCacheKey key) {
 
         return m_cacheAccessControlList.get(key);
     }
 
+    /**
+     * Returns the ACL cached with the given cache key or <code>null</code> if not found.<p>
+     * 
+     * @param key the cache key to look for
+     * 
+     * @return the ACL cached with the given cache key
+     * 
+     * @deprecated use {@link #getCachedACL(CmsVfsCacheKey)} instead
+     */
+    @Deprecated
+    public CmsAccessControlList getCachedACL(String key) {
+
+        return getCachedACL(getVfsCacheKey(CmsVfsCacheKey.KeyType.ACL, key));
+    }
+
+    /**
+     * Returns the cached online content of the file with the given resource id.<p>
+     * 
+     * @param resourceId the resource id of the file
+     * @param dateContent the date the content of the file was last modified
+     * 
+     * @return the cached content, or <code>null</code> if no content with the given modification date is cached
+     */
+    public byte[] getCachedContent(CmsUUID resourceId, long dateContent) {
+
+        return m_cacheContent.get(resourceId, dateContent);
+    }
+
     /**
      * Returns the xml content definition cached with the given cache key or <code>null</code> if not found.<p>
      * 
@@ -1448,6 +1714,44 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         return m_cacheLock.get(rootPath);
     }
 
+    /**
+     * Returns all cached locks of resources with a root path that starts with the given path.<p>
+     * 
+     * For a folder, these are the lock of the folder itself and the locks of all resources in the sub-tree.<p>
+     * 
+     * @param rootPath the root path to look for
+     * 
+     * @return a list of {@link CmsLock} objects
+     */
+    public List<CmsLock> getCachedLocks(String rootPath) {
+
+        return m_cacheLock.getLocks(rootPath);
+    }
+
+    /**
+     * Returns all cached locks which have an edition or system lock in the given project.<p>
+     * 
+     * @param projectId the id of the project
+     * 
+     * @return a list of {@link CmsLock} objects
+     */
+    public List<CmsLock> getCachedLocksForProject(CmsUUID projectId) {
+
+        return m_cacheLock.getLocksForProject(projectId);
+    }
+
+    /**
+     * Returns all cached locks which have an edition or system lock owned by the given user.<p>
+     * 
+     * @param userId the id of the user
+     * 
+     * @return a list of {@link CmsLock} objects
+     */
+    public List<CmsLock> getCachedLocksForUser(CmsUUID userId) {
+
+        return m_cacheLock.getLocksForUser(userId);
+    }
+
     /**
      * Returns the memory object cached with the given cache key or <code>null</code> if not found.<p>
      * 
@@ -1479,11 +1783,38 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      * 
      * @return the permission check result cached with the given cache key
      */
-    public I_CmsPermissionHandler.CmsPermissionCheckResult getCachedPermission(String key) {
+    public I_CmsPermissionHandler.CmsPermissionCheckResult getCachedPermission(CmsVfsCacheKey key) {
 
         return m_cachePermission.get(key);
     }
 
+    /**
+     * Returns the permission check result cached with the given cache key or <code>null</code> if not found.<p>
+     * 
+     * @param key the cache key to look for
+     * 
+     * @return the permission check result cached with the given cache key
+     * 
+     * @deprecated use {@link #getCachedPermission(CmsVfsCacheKey)} instead
+     */
+    @Deprecated
+    public I_CmsPermissionHandler.CmsPermissionCheckResult getCachedPermission(String key) {
+
+        return getCachedPermission(getVfsCacheKey(CmsVfsCacheKey.KeyType.PERMISSION, key));
+    }
+
+    /**
+     * Returns the principal fingerprint cached with the given cache key or <code>null</code> if not found.<p>
+     * 
+     * @param key the cache key to look for
+     * 
+     * @return the principal fingerprint cached with the given cache key
+     */
+    public String getCachedPrincipalFingerprint(String key) {
+
+        return m_cachePrincipalFingerprint.get(key);
+    }
+
     /**
      * Returns the project cached with the given cache key or <code>null</code> if not found.<p>
      * 
@@ -1527,9 +1858,24 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      * 
      * @return the property list cached with the given cache key
      */
+    public List<CmsProperty> getCachedPropertyList(CmsVfsCacheKey key) {
+
+        return key.isOnline() ? m_cachePropertyListOnline.get(key) : m_cachePropertyList.get(key);
+    }
+
+    /**
+     * Returns the property list cached with the given cache key or <code>null</code> if not found.<p>
+     * 
+     * @param key the cache key to look for
+     * 
+     * @return the property list cached with the given cache key
+     * 
+     * @deprecated use {@link #getCachedPropertyList(CmsVfsCacheKey)} instead
+     */
+    @Deprecated
     public List<CmsProperty> getCachedPropertyList(String key) {
 
-        return m_cachePropertyList.get(key);
+        return getCachedPropertyList(getVfsCacheKey(CmsVfsCacheKey.KeyType.PROPERTIES, key));
     }
 
     /**
@@ -1592,9 +1938,36 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      * 
      * @return the resource cached with the given cache key
      */
+    public CmsResource getCachedResource(CmsVfsCacheKey key) {
+
+        return key.isOnline() ? m_cacheResourceOnline.get(key) : m_cacheResource.get(key);
+    }
+
+    /**
+     * Returns the resource cached with the given cache key or <code>null</code> if not found.<p>
+     * 
+     * @param key the cache key to look for
+     * 
+     * @return the resource cached with the given cache key
+     * 
+     * @deprecated use {@link #getCachedResource(CmsVfsCacheKey)} instead
+     */
+    @Deprecated
     public CmsResource getCachedResource(String key) {
 
-        return m_cacheResource.get(key);
+        return getCachedResource(getVfsCacheKey(CmsVfsCacheKey.KeyType.RESOURCE, key));
+    }
+
+    /**
+     * Returns the resource list cached with the given cache key or <code>null</code> if not found.<p>
+     * 
+     * @param key the cache key to look for
+     * 
+     * @return the resource list cached with the given cache key
+     */
+    public List<CmsResource> getCachedResourceList(CmsVfsCacheKey key) {
+
+        return key.isOnline() ? m_cacheResourceListOnline.get(key) : m_cacheResourceList.get(key);
     }
 
     /**
@@ -1603,10 +1976,13 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      * @param key the cache key to look for
      * 
      * @return the resource list cached with the given cache key
+     * 
+     * @deprecated use {@link #getCachedResourceList(CmsVfsCacheKey)} instead
      */
+    @Deprecated
     public List<CmsResource> getCachedResourceList(String key) {
 
-        return m_cacheResourceList.get(key);
+        return getCachedResourceList(getVfsCacheKey(CmsVfsCacheKey.KeyType.RESOURCES, key));
     }
 
     /**
@@ -1820,12 +2196,36 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
             }
         }
 
+        // initialize the configured cache map factories
+        m_cacheMapFactories = new HashMap<CacheType, I_CmsCacheMapFactory>();
+        for (Map.Entry<String, String> entry : cacheSettings.getCacheMapFactories().entrySet()) {
+            try {
+                CacheType type = CacheType.valueOf(entry.getKey());
+                I_CmsCacheMapFactory factory = (I_CmsCacheMapFactory)Class.forName(entry.getValue()).newInstance();
+                m_cacheMapFactories.put(type, factory);
+                if (CmsLog.INIT.isInfoEnabled()) {
+                    CmsLog.INIT.info(Messages.get().getBundle().key(
+                        Messages.LOG_MM_CACHE_MAP_FACTORY_2,
+                        type,
+                        entry.getValue()));
+                }
+            } catch (Exception e) {
+                LOG.error(
+                    Messages.get().getBundle().key(
+                        Messages.LOG_MM_CACHE_MAP_FACTORY_INVALID_2,
+                        entry.getKey(),
+                        entry.getValue()),
+                    e);
+            }
+        }
+
         // create and register all system caches
 
         // temporary xml entities cache
-        Map<String, byte[]> xmlTemporaryCache = CmsCollectionsGenericWrapper.createLRUMap(128);
-        m_cacheXmlTemporaryEntity = Collections.synchronizedMap(xmlTemporaryCache);
-        register(CmsXmlEntityResolver.class.getName() + ".xmlEntityTemporaryCache", m_cacheXmlTemporaryEntity);
+        m_cacheXmlTemporaryEntity = createCache(
+            CacheType.XML_ENTITY_TEMP,
+            128,
+            CmsXmlEntityResolver.class.getName() + ".xmlEntityTemporaryCache");
 
         // permanent xml entities cache
         Map<String, byte[]> xmlPermanentCache = new HashMap<String, byte[]>(32);
@@ -1833,14 +2233,14 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         register(CmsXmlEntityResolver.class.getName() + ".xmlEntityPermanentCache", m_cacheXmlPermanentEntity);
 
         // xml content definitions cache
-        Map<String, CmsXmlContentDefinition> contentDefinitionsCache = CmsCollectionsGenericWrapper.createLRUMap(64);
-        m_cacheContentDefinitions = Collections.synchronizedMap(contentDefinitionsCache);
-        register(CmsXmlEntityResolver.class.getName() + ".contentDefinitionsCache", m_cacheContentDefinitions);
+        m_cacheContentDefinitions = createCache(
+            CacheType.CONTENT_DEFINITION,
+            64,
+            CmsXmlEntityResolver.class.getName() + ".contentDefinitionsCache");
 
         // lock cache
-        Map<String, CmsLock> lockCache = new HashMap<String, CmsLock>();
-        m_cacheLock = Collections.synchronizedMap(lockCache);
-        register(CmsLockManager.class.getName(), lockCache);
+        m_cacheLock = new CmsLockIndex();
+        register(CmsLockManager.class.getName(), m_cacheLock);
 
         // locale cache
         Map<String, Locale> map = new HashMap<String, Locale>();
@@ -1848,44 +2248,59 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         register(CmsLocaleManager.class.getName(), map);
 
         // permissions cache
-        Map<String, I_CmsPermissionHandler.CmsPermissionCheckResult> lruPermissions = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getPermissionCacheSize());
-        m_cachePermission = Collections.synchronizedMap(lruPermissions);
-        register(CmsSecurityManager.class.getName(), lruPermissions);
+        m_cachePermission = createCache(
+            CacheType.PERMISSION,
+            cacheSettings.getPermissionCacheSize(),
+            CmsSecurityManager.class.getName());
+        m_pathIndexPermission = new CmsVfsCachePathIndex<I_CmsPermissionHandler.CmsPermissionCheckResult>(
+            m_cachePermission,
+            cacheSettings.getPermissionCacheSize());
 
         // user cache
-        Map<String, CmsUser> lruUsers = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getUserCacheSize());
-        m_cacheUser = Collections.synchronizedMap(lruUsers);
-        register(CmsDriverManager.class.getName() + ".userCache", lruUsers);
+        m_cacheUser = createCache(
+            CacheType.USER,
+            cacheSettings.getUserCacheSize(),
+            CmsDriverManager.class.getName() + ".userCache");
 
         // user list cache
-        Map<String, List<CmsUser>> lruUserList = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getUserCacheSize());
-        m_cacheUserList = Collections.synchronizedMap(lruUserList);
-        register(CmsDriverManager.class.getName() + ".userListCache", lruUserList);
+        m_cacheUserList = createCache(
+            CacheType.USER_LIST,
+            cacheSettings.getUserCacheSize(),
+            CmsDriverManager.class.getName() + ".userListCache");
 
         // group cache
-        Map<String, CmsGroup> lruGroup = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getGroupCacheSize());
-        m_cacheGroup = Collections.synchronizedMap(lruGroup);
-        register(CmsDriverManager.class.getName() + ".groupCache", lruGroup);
+        m_cacheGroup = createCache(
+            CacheType.GROUP,
+            cacheSettings.getGroupCacheSize(),
+            CmsDriverManager.class.getName() + ".groupCache");
 
         // organizational unit cache
-        Map<String, CmsOrganizationalUnit> lruOrgUnit = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getOrgUnitCacheSize());
-        m_cacheOrgUnit = Collections.synchronizedMap(lruOrgUnit);
-        register(CmsDriverManager.class.getName() + ".orgUnitCache", lruOrgUnit);
+        m_cacheOrgUnit = createCache(
+            CacheType.ORG_UNIT,
+            cacheSettings.getOrgUnitCacheSize(),
+            CmsDriverManager.class.getName() + ".orgUnitCache");
 
         // user groups list cache
-        Map<String, List<CmsGroup>> lruUserGroups = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getUserGroupsCacheSize());
-        m_cacheUserGroups = Collections.synchronizedMap(lruUserGroups);
-        register(CmsDriverManager.class.getName() + ".userGroupsCache", lruUserGroups);
+        m_cacheUserGroups = createCache(
+            CacheType.USERGROUPS,
+            cacheSettings.getUserGroupsCacheSize(),
+            CmsDriverManager.class.getName() + ".userGroupsCache");
+        m_cachePrincipalFingerprint = createCache(
+            CacheType.USERGROUPS,
+            cacheSettings.getUserGroupsCacheSize(),
+            CmsDriverManager.class.getName() + ".principalFingerprintCache");
 
         // project cache
-        Map<String, CmsProject> lruProjects = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getProjectCacheSize());
-        m_cacheProject = Collections.synchronizedMap(lruProjects);
-        register(CmsDriverManager.class.getName() + ".projectCache", lruProjects);
+        m_cacheProject = createCache(
+            CacheType.PROJECT,
+            cacheSettings.getProjectCacheSize(),
+            CmsDriverManager.class.getName() + ".projectCache");
 
         // project resources cache cache
-        Map<String, List<CmsResource>> lruProjectResources = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getProjectResourcesCacheSize());
-        m_cacheProjectResources = Collections.synchronizedMap(lruProjectResources);
-        register(CmsDriverManager.class.getName() + ".projectResourcesCache", lruProjectResources);
+        m_cacheProjectResources = createCache(
+            CacheType.PROJECT_RESOURCES,
+            cacheSettings.getProjectResourcesCacheSize(),
+            CmsDriverManager.class.getName() + ".projectResourcesCache");
 
         // publish history
         int size = configuration.getPublishManager().getPublishHistorySize();
@@ -1899,44 +2314,73 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         register(CmsPublishQueue.class.getName() + ".publishQueue", buffer);
 
         // resource cache
-        Map<String, CmsResource> lruResources = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getResourceCacheSize());
-        m_cacheResource = Collections.synchronizedMap(lruResources);
-        register(CmsDriverManager.class.getName() + ".resourceCache", lruResources);
+        m_cacheResource = createCache(
+            CacheType.RESOURCE,
+            cacheSettings.getResourceCacheSize(),
+            CmsDriverManager.class.getName() + ".resourceCache");
+        m_cacheResourceOnline = createCache(
+            CacheType.RESOURCE,
+            cacheSettings.getResourceCacheSize(),
+            CmsDriverManager.class.getName() + ".onlineResourceCache");
 
         // roles cache
-        Map<String, Boolean> lruHasRoles = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getRolesCacheSize());
-        m_cacheHasRoles = Collections.synchronizedMap(lruHasRoles);
-        register(CmsDriverManager.class.getName() + ".rolesCache", lruHasRoles);
+        m_cacheHasRoles = createCache(
+            CacheType.HAS_ROLE,
+            cacheSettings.getRolesCacheSize(),
+            CmsDriverManager.class.getName() + ".rolesCache");
 
         // role lists cache
-        Map<String, List<CmsRole>> lruRoleLists = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getRolesCacheSize());
-        m_cacheRoleLists = Collections.synchronizedMap(lruRoleLists);
-        register(CmsDriverManager.class.getName() + ".roleListsCache", lruRoleLists);
+        m_cacheRoleLists = createCache(
+            CacheType.ROLE_LIST,
+            cacheSettings.getRolesCacheSize(),
+            CmsDriverManager.class.getName() + ".roleListsCache");
 
         // resource list cache
-        Map<String, List<CmsResource>> lruResourceList = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getResourcelistCacheSize());
-        m_cacheResourceList = Collections.synchronizedMap(lruResourceList);
-        register(CmsDriverManager.class.getName() + ".resourceListCache", lruResourceList);
+        m_cacheResourceList = createCache(
+            CacheType.RESOURCE_LIST,
+            cacheSettings.getResourcelistCacheSize(),
+            CmsDriverManager.class.getName() + ".resourceListCache");
+        m_cacheResourceListOnline = createCache(
+            CacheType.RESOURCE_LIST,
+            cacheSettings.getResourcelistCacheSize(),
+            CmsDriverManager.class.getName() + ".onlineResourceListCache");
 
         // property cache
-        Map<String, CmsProperty> lruProperty = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getPropertyCacheSize());
-        m_cacheProperty = Collections.synchronizedMap(lruProperty);
-        register(CmsDriverManager.class.getName() + ".propertyCache", lruProperty);
+        m_cacheProperty = createCache(
+            CacheType.PROPERTY,
+            cacheSettings.getPropertyCacheSize(),
+            CmsDriverManager.class.getName() + ".propertyCache");
 
         // property list cache
-        Map<String, List<CmsProperty>> lruPropertyList = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getPropertyListsCacheSize());
-        m_cachePropertyList = Collections.synchronizedMap(lruPropertyList);
-        register(CmsDriverManager.class.getName() + ".propertyListCache", lruPropertyList);
+        m_cachePropertyList = createCache(
+            CacheType.PROPERTY_LIST,
+            cacheSettings.getPropertyListsCacheSize(),
+            CmsDriverManager.class.getName() + ".propertyListCache");
+        m_cachePropertyListOnline = createCache(
+            CacheType.PROPERTY_LIST,
+            cacheSettings.getPropertyListsCacheSize(),
+            CmsDriverManager.class.getName() + ".onlinePropertyListCache");
 
         // published resources list cache
-        Map<String, List<CmsPublishedResource>> lruPublishedResources = CmsCollectionsGenericWrapper.createLRUMap(5);
-        m_cachePublishedResources = Collections.synchronizedMap(lruPublishedResources);
-        register(CmsDriverManager.class.getName() + ".publishedResourcesCache", lruPublishedResources);
+        m_cachePublishedResources = createCache(
+            CacheType.PUBLISHED_RESOURCES,
+            5,
+            CmsDriverManager.class.getName() + ".publishedResourcesCache");
 
         // acl cache
-        Map<String, CmsAccessControlList> lruAcl = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getAclCacheSize());
-        m_cacheAccessControlList = Collections.synchronizedMap(lruAcl);
-        register(CmsDriverManager.class.getName() + ".accessControlListCache", lruAcl);
+        m_cacheAccessControlList = createCache(
+            CacheType.ACL,
+            cacheSettings.getAclCacheSize(),
+            CmsDriverManager.class.getName() + ".accessControlListCache");
+        m_pathIndexAccessControlList = new CmsVfsCachePathIndex<CmsAccessControlList>(
+            m_cacheAccessControlList,
+            cacheSettings.getAclCacheSize());
+
+        // online file content cache
+        m_cacheContent = new CmsContentLruCache<CmsUUID>(
+            cacheSettings.getContentCacheSize() * 1024L,
+            cacheSettings.getContentCacheMaxEntrySize() * 1024);
+        register(CmsDriverManager.class.getName() + ".contentCache", m_cacheContent);
 
         // vfs object cache
         Map<String, Object> vfsObjectCache = new HashMap<String, Object>();
@@ -2191,6 +2635,38 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         }
     }
 
+    /**
+     * Removes the cached access control lists and permission check results affected by 
+     * a change of the access control entries of the given resource.<p>
+     * 
+     * These are the entries of the resource itself and of all resources in its sub-tree, 
+     * the entries of other sub-trees are kept. Since the resource lists may be filtered by 
+     * permissions, the resource lists of the project are cleared, too.<p>
+     * 
+     * @param online <code>true</code> to remove the online entries, <code>false</code> for the offline ones
+     * @param rootPath the root path of the changed resource
+     */
+    public void uncacheAccessControlLists(boolean online, String rootPath) {
+
+        m_pathIndexAccessControlList.removeSubTree(online, rootPath);
+        m_pathIndexPermission.removeSubTree(online, rootPath);
+        if (online) {
+            flushCache(CacheType.RESOURCE_LIST);
+        } else {
+            flushOfflineCache(CacheType.RESOURCE_LIST);
+        }
+    }
+
+    /**
+     * Removes the cached online content of the file with the given resource id.<p>
+     * 
+     * @param resourceId the resource id of the file
+     */
+    public void uncacheContent(CmsUUID resourceId) {
+
+        m_cacheContent.remove(resourceId);
+    }
+
     /**
      * Removes the given xml content definition from the cache.<p>
      * 
@@ -2250,6 +2726,39 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         m_cacheProject.remove(project.getName());
     }
 
+    /**
+     * Removes the cached property lists affected by a property change of the given resource.<p>
+     * 
+     * The own properties of the resource are removed, as well as the inherited properties 
+     * of the resource and of all resources in its sub-tree.<p>
+     * 
+     * @param online <code>true</code> to remove the online property lists, <code>false</code> for the offline ones
+     * @param rootPath the root path of the changed resource
+     */
+    public void uncachePropertyLists(boolean online, String rootPath) {
+
+        Map<CmsVfsCacheKey, List<CmsProperty>> cache = online ? m_cachePropertyListOnline : m_cachePropertyList;
+        boolean folder = CmsResource.isFolder(rootPath);
+        List<CmsVfsCacheKey> keys = new ArrayList<CmsVfsCacheKey>();
+        synchronized (cache) {
+            for (CmsVfsCacheKey key : cache.keySet()) {
+                String path = key.getRootPath();
+                // the entries cached with deprecated String keys have no root path and may belong to any resource
+                if ((path == null)
+                    || rootPath.equals(path)
+                    || (folder
+                        && (key.getType() == CmsVfsCacheKey.KeyType.PROPERTIES_SEARCH)
+                        && (path != null)
+                        && path.startsWith(rootPath))) {
+                    keys.add(key);
+                }
+            }
+        }
+        for (CmsVfsCacheKey key : keys) {
+            cache.remove(key);
+        }
+    }
+
     /**
      * Removes the given publish job from the cache.<p>
      * 
@@ -2363,13 +2872,16 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         if (obj instanceof Map) {
             return Integer.toString(((Map<?, ?>)obj).size());
         }
+        if (obj instanceof CmsLockIndex) {
+            return Integer.toString(((CmsLockIndex)obj).size());
+        }
         return "-";
     }
 
     /**
      * Returns the total size of key strings within a monitored map.<p>
      * 
-     * The keys must be of type {@link String}.<p>
+     * The keys must be of type {@link String} or {@link I_CmsMemoryMonitorable}.<p>
      * 
      * @param map the map
      * @param depth the max recursion depth for calculation the size
@@ -2400,6 +2912,8 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
                 if (obj instanceof String) {
                     String st = (String)obj;
                     keySize += (st.length() * 2);
+                } else if (obj instanceof I_CmsMemoryMonitorable) {
+                    keySize += ((I_CmsMemoryMonitorable)obj).getMemorySize();
                 }
             }
         } catch (ConcurrentModificationException e) {
@@ -2435,7 +2949,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     /**
      * Returns the max costs for all items within a monitored object.<p>
      * 
-     * <code>obj</code> must be of type {@link CmsLruCache} or {@link LRUMap}.<p>
+     * <code>obj</code> must be of type {@link CmsLruCache}, {@link LRUMap} or {@link CmsConcurrentLruMap}.<p>
      * 
      * @param obj the object
      * 
@@ -2449,6 +2963,9 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         if (obj instanceof LRUMap) {
             return Integer.toString(((LRUMap)obj).maxSize());
         }
+        if (obj instanceof CmsConcurrentLruMap) {
+            return Integer.toString(((CmsConcurrentLruMap<?, ?>)obj).maxSize());
+        }
 
         return "-";
     }
@@ -2557,8 +3074,11 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
                 + form.sprintf(getLimit(obj))
                 + "   "
                 + "Size: "
-                + form.sprintf(Long.toString(size))
-                + "\n";
+                + form.sprintf(Long.toString(size));
+            if (obj instanceof CmsContentLruCache<?>) {
+                content += "   " + "Hits: " + form.sprintf(((CmsContentLruCache<?>)obj).getHitRate() + "%");
+            }
+            content += "\n";
         }
         content += "\nTotal size of cache memory monitored: " + totalSize + " (" + (totalSize / 1048576) + ")\n\n";
 
@@ -2663,6 +3183,16 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
                         form.sprintf(getItems(obj)),
                         form.sprintf(getLimit(obj)),
                         form.sprintf(Long.toString(size))}));
+                if (obj instanceof CmsContentLruCache<?>) {
+                    CmsContentLruCache<?> contentCache = (CmsContentLruCache<?>)obj;
+                    LOG.info(Messages.get().getBundle().key(
+                        Messages.LOG_MM_CACHE_HITS_4,
+                        new Object[] {
+                            name1.sprintf(key),
+                            String.valueOf(contentCache.getHits()),
+                            String.valueOf(contentCache.getMisses()),
+                            String.valueOf(contentCache.getHitRate())}));
+                }
             }
 
             LOG.info(Messages.get().getBundle().key(
@@ -2731,4 +3261,193 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         m_memoryCurrent.update();
         m_memoryAverage.calculateAverage(m_memoryCurrent);
     }
+
+    /**
+     * Creates and registers a size limited cache of the given type.<p>
+     * 
+     * If a cache map factory is configured for the given type, it is used to create the cache map, 
+     * otherwise a synchronized {@link LRUMap} is used.<p>
+     * 
+     * @param <K> the type of the cache keys
+     * @param <V> the type of the cached values
+     * @param type the cache type
+     * @param size the maximum number of cache entries
+     * @param name the name to register the cache with
+     * 
+     * @return the new cache map
+     */
+    private <K, V> Map<K, V> createCache(CacheType type, int size, String name) {
+
+        I_CmsCacheMapFactory factory = m_cacheMapFactories.get(type);
+        if (factory == null) {
+            Map<K, V> lruMap = CmsCollectionsGenericWrapper.createLRUMap(size);
+            register(name, lruMap);
+            return Collections.synchronizedMap(lruMap);
+        }
+        Map<K, V> cache = factory.createMap(type, size);
+        register(name, cache);
+        return cache;
+    }
+
+    /**
+     * Checks if the given root path or one of its parent folders is contained in the given set of paths.<p>
+     * 
+     * @param paths the set of paths
+     * @param rootPath the root path to check
+     * 
+     * @return <code>true</code> if the given root path or one of its parent folders is contained in the set
+     */
+    private boolean containsPathOrParent(Set<String> paths, String rootPath) {
+
+        String path = rootPath;
+        while (path != null) {
+            if (paths.contains(path)) {
+                return true;
+            }
+            path = CmsResource.getParentFolder(path);
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the given list contains a resource with one of the given resource ids.<p>
+     * 
+     * @param resources the resources to check, may be <code>null</code>
+     * @param resourceIds the resource ids to look for
+     * 
+     * @return <code>true</code> if the list contains a resource with one of the given resource ids
+     */
+    private boolean containsResourceId(List<CmsResource> resources, Set<CmsUUID> resourceIds) {
+
+        if (resourceIds.isEmpty() || (resources == null)) {
+            return false;
+        }
+        for (CmsResource resource : resources) {
+            if (resourceIds.contains(resource.getResourceId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the VFS cache key for a key of the deprecated String based caching methods.<p>
+     * 
+     * The key has no root path and is an offline key.<p>
+     * 
+     * @param type the type of the cache key
+     * @param key the String key
+     * 
+     * @return the VFS cache key
+     */
+    private CmsVfsCacheKey getVfsCacheKey(CmsVfsCacheKey.KeyType type, String key) {
+
+        return new CmsVfsCacheKey(type, false, null, key);
+    }
+
+    /**
+     * Removes the online resources, resource lists, property lists, access control lists and permission 
+     * check results affected by the given published resources.<p>
+     * 
+     * The resource records, shared properties and access control entries of siblings can not be told from 
+     * the cache keys, so for published resources with siblings the cached online resources and resource lists 
+     * are checked for their resource id, and all online property lists, access control lists and permission 
+     * check results are removed.<p>
+     * 
+     * @param publishedResources the published resources
+     */
+    private void uncacheOnlineResources(List<CmsPublishedResource> publishedResources) {
+
+        // the published paths
+        Set<String> paths = new HashSet<String>();
+        // the parent folders of the published paths, for the sub-resource lists
+        Set<String> parents = new HashSet<String>();
+        // the published paths and all their ancestor folders, for the resource lists read in a sub-tree
+        Set<String> ancestors = new HashSet<String>();
+        // the resource ids of published resources with siblings
+        Set<CmsUUID> resourceIds = new HashSet<CmsUUID>();
+        for (CmsPublishedResource publishedResource : publishedResources) {
+            String rootPath = publishedResource.getRootPath();
+            paths.add(rootPath);
+            ancestors.add(rootPath);
+            String parent = CmsResource.getParentFolder(rootPath);
+            if (parent != null) {
+                parents.add(parent);
+            }
+            while ((parent != null) && ancestors.add(parent)) {
+                parent = CmsResource.getParentFolder(parent);
+            }
+            if (publishedResource.getSiblingCount() > 1) {
+                resourceIds.add(publishedResource.getResourceId());
+            }
+            if (publishedResource.getResourceId() != null) {
+                uncacheContent(publishedResource.getResourceId());
+            }
+        }
+
+        // collect the affected keys first, since the cache maps may only provide snapshots of their entries
+        List<CmsVfsCacheKey> keys = new ArrayList<CmsVfsCacheKey>();
+        synchronized (m_cacheResourceOnline) {
+            for (Map.Entry<CmsVfsCacheKey, CmsResource> entry : m_cacheResourceOnline.entrySet()) {
+                CmsResource resource = entry.getValue();
+                if (paths.contains(entry.getKey().getRootPath())
+                    || ((resource != null) && resourceIds.contains(resource.getResourceId()))) {
+                    keys.add(entry.getKey());
+                }
+            }
+        }
+        for (CmsVfsCacheKey key : keys) {
+            m_cacheResourceOnline.remove(key);
+        }
+
+        keys.clear();
+        synchronized (m_cacheResourceListOnline) {
+            for (Map.Entry<CmsVfsCacheKey, List<CmsResource>> entry : m_cacheResourceListOnline.entrySet()) {
+                CmsVfsCacheKey key = entry.getKey();
+                boolean affected;
+                switch (key.getType()) {
+                    case SUB_ALL:
+                    case SUB_FILES:
+                    case SUB_FOLDERS:
+                        affected = parents.contains(key.getRootPath()) || paths.contains(key.getRootPath());
+                        break;
+                    default:
+                        // the lists read in a sub-tree are filtered by the permissions, which depend on the parent folders
+                        affected = ancestors.contains(key.getRootPath())
+                            || containsPathOrParent(paths, key.getRootPath());
+                }
+                if (affected || containsResourceId(entry.getValue(), resourceIds)) {
+                    keys.add(key);
+                }
+            }
+        }
+        for (CmsVfsCacheKey key : keys) {
+            m_cacheResourceListOnline.remove(key);
+        }
+
+        // the access control lists are inherited, so the entries of the published sub-trees are removed
+        m_pathIndexAccessControlList.removeSubTrees(true, resourceIds.isEmpty() ? paths : null);
+        m_pathIndexPermission.removeSubTrees(true, resourceIds.isEmpty() ? paths : null);
+
+        if (!resourceIds.isEmpty()) {
+            m_cachePropertyListOnline.clear();
+            return;
+        }
+        keys.clear();
+        synchronized (m_cachePropertyListOnline) {
+            for (CmsVfsCacheKey key : m_cachePropertyListOnline.keySet()) {
+                if (key.getType() == CmsVfsCacheKey.KeyType.PROPERTIES_SEARCH) {
+                    // inherited properties are affected by changes of the parent folders
+                    if (containsPathOrParent(paths, key.getRootPath())) {
+                        keys.add(key);
+                    }
+                } else if (paths.contains(key.getRootPath())) {
+                    keys.add(key);
+                }
+            }
+        }
+        for (CmsVfsCacheKey key : keys) {
+            m_cachePropertyListOnline.remove(key);
+        }
+    }
 }
@@ -0,0 +1,212 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.monitor;
+
+import org.opencms.db.CmsVfsCacheKey;
+import org.opencms.file.CmsResource;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Index of the keys of a VFS cache by the root paths of the keys.<p>
+ *
+ * The entries of a sub-tree are removed without scanning all keys of the cache.
+ * All changes of the cache must be done through the index, reading is done on the cache itself.<p>
+ *
+ * Keys without root path are removed together with every sub-tree, since they may belong to any resource.<p>
+ *
+ * The cache may drop entries on its own, so the index may still contain keys which are no longer cached.
+ * These keys are pruned when the index has grown to twice the size of the cache.<p>
+ *
+ * @param <V> the type of the cached values
+ *
+ * @since 8.5.0
+ */
+public class CmsVfsCachePathIndex<V> {
+
+    /** The root path the keys without root path are indexed with. */
+    private static final String NO_PATH = "";
+
+    /** The indexed cache. */
+    private Map<CmsVfsCacheKey, V> m_cache;
+
+    /** The keys of the cache by their root paths. */
+    private TreeMap<String, Set<CmsVfsCacheKey>> m_keys;
+
+    /** The number of indexed keys which causes the keys no longer cached to be pruned. */
+    private int m_pruneSize;
+
+    /** The number of indexed keys. */
+    private int m_size;
+
+    /**
+     * Creates a new index for the given cache.<p>
+     *
+     * @param cache the cache to index
+     * @param cacheSize the maximum number of entries of the cache
+     */
+    public CmsVfsCachePathIndex(Map<CmsVfsCacheKey, V> cache, int cacheSize) {
+
+        m_cache = cache;
+        m_keys = new TreeMap<String, Set<CmsVfsCacheKey>>();
+        m_pruneSize = 2 * Math.max(cacheSize, 1);
+    }
+
+    /**
+     * Removes all entries from the cache and the index.<p>
+     */
+    public synchronized void clear() {
+
+        m_cache.clear();
+        m_keys.clear();
+        m_size = 0;
+    }
+
+    /**
+     * Caches the given value and indexes its key.<p>
+     *
+     * @param key the cache key
+     * @param value the value to cache
+     */
+    public synchronized void put(CmsVfsCacheKey key, V value) {
+
+        m_cache.put(key, value);
+        String path = (key.getRootPath() != null) ? key.getRootPath() : NO_PATH;
+        Set<CmsVfsCacheKey> keys = m_keys.get(path);
+        if (keys == null) {
+            keys = new HashSet<CmsVfsCacheKey>();
+            m_keys.put(path, keys);
+        }
+        if (keys.add(key)) {
+            m_size++;
+            if (m_size > m_pruneSize) {
+                prune();
+            }
+        }
+    }
+
+    /**
+     * Removes the entries for the given resource and all resources in its sub-tree.<p>
+     *
+     * @param online <code>true</code> to remove the online entries, <code>false</code> for the offline ones
+     * @param rootPath the root path of the resource
+     */
+    public synchronized void removeSubTree(boolean online, String rootPath) {
+
+        remove(online, rootPath);
+        remove(online, NO_PATH);
+    }
+
+    /**
+     * Removes the entries for the given resources and all resources in their sub-trees.<p>
+     *
+     * @param online <code>true</code> to remove the online entries, <code>false</code> for the offline ones
+     * @param rootPaths the root paths of the resources, or <code>null</code> to remove all entries
+     */
+    public synchronized void removeSubTrees(boolean online, Collection<String> rootPaths) {
+
+        if (rootPaths == null) {
+            remove(online, null);
+            return;
+        }
+        for (String rootPath : rootPaths) {
+            remove(online, rootPath);
+        }
+        remove(online, NO_PATH);
+    }
+
+    /**
+     * Removes the keys no longer contained in the cache from the index.<p>
+     */
+    private void prune() {
+
+        Iterator<Set<CmsVfsCacheKey>> itKeys = m_keys.values().iterator();
+        while (itKeys.hasNext()) {
+            Set<CmsVfsCacheKey> keys = itKeys.next();
+            Iterator<CmsVfsCacheKey> it = keys.iterator();
+            while (it.hasNext()) {
+                if (!m_cache.containsKey(it.next())) {
+                    it.remove();
+                    m_size--;
+                }
+            }
+            if (keys.isEmpty()) {
+                itKeys.remove();
+            }
+        }
+        // if the cache is really larger than configured, avoid pruning again with every new key
+        m_pruneSize = Math.max(m_pruneSize, 2 * m_size);
+    }
+
+    /**
+     * Removes the entries for the given root path from the cache and the index.<p>
+     *
+     * For a folder, the entries of all resources in its sub-tree are removed, too.
+     * The entries without root path are removed independently of the online flag.<p>
+     *
+     * @param online <code>true</code> to remove the online entries, <code>false</code> for the offline ones
+     * @param rootPath the root path, or <code>null</code> to remove the entries of all paths
+     */
+    private void remove(boolean online, String rootPath) {
+
+        Map<String, Set<CmsVfsCacheKey>> affected;
+        if (rootPath == null) {
+            affected = m_keys;
+        } else if (CmsResource.isFolder(rootPath)) {
+            affected = m_keys.subMap(rootPath, rootPath + Character.MAX_VALUE);
+        } else {
+            affected = m_keys.subMap(rootPath, true, rootPath, true);
+        }
+        List<String> emptyPaths = new ArrayList<String>();
+        for (Map.Entry<String, Set<CmsVfsCacheKey>> entry : affected.entrySet()) {
+            boolean noPath = NO_PATH.equals(entry.getKey());
+            Iterator<CmsVfsCacheKey> it = entry.getValue().iterator();
+            while (it.hasNext()) {
+                CmsVfsCacheKey key = it.next();
+                if (noPath || (key.isOnline() == online)) {
+                    m_cache.remove(key);
+                    it.remove();
+                    m_size--;
+                }
+            }
+            if (entry.getValue().isEmpty()) {
+                emptyPaths.add(entry.getKey());
+            }
+        }
+        for (String path : emptyPaths) {
+            m_keys.remove(path);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.monitor;
+
+import org.opencms.monitor.CmsMemoryMonitor.CacheType;
+
+import java.util.Map;
+
+/**
+ * Creates the maps used as storage for the size limited caches of the memory monitor.<p>
+ * 
+ * The factory to use can be configured for each {@link CacheType} in the <code>resultcache</code>
+ * node of <code>opencms-system.xml</code>. The maps created must be safe to use by concurrent threads
+ * without any external synchronization.<p>
+ * 
+ * @since 8.5.0
+ */
+public interface I_CmsCacheMapFactory {
+
+    /**
+     * Creates a new, empty map to store the entries of the cache of the given type.<p>
+     * 
+     * @param <K> the type of the cache keys
+     * @param <V> the type of the cached values
+     * @param type the type of the cache
+     * @param maxSize the maximum number of entries of the cache 
+     * 
+     * @return a new thread safe map
+     */
+    <K, V> Map<K, V> createMap(CacheType type, int maxSize);
+}
@@ -0,0 +1,338 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.report;
+
+import org.opencms.i18n.CmsMessageContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Report that buffers all output and writes it to another report on request.<p>
+ * 
+ * This is used if several threads work on parts of the same task in parallel. Every thread 
+ * writes to its own buffered report, and the coordinating thread calls {@link #flush()} 
+ * in the order the parts are finished, so that the output of the threads does not get mixed up 
+ * in the target report.<p>
+ * 
+ * All methods that only read information are delegated to the target report directly.<p>
+ * 
+ * @since 8.5.0 
+ */
+public class CmsBufferedReport implements I_CmsReport {
+
+    /**
+     * A single buffered report entry.<p>
+     */
+    private static final class Entry {
+
+        /** The report format. */
+        protected int m_format;
+
+        /** The message to print. */
+        protected CmsMessageContainer m_message;
+
+        /** Indicates if a line break is printed after the message. */
+        protected boolean m_newLine;
+
+        /** The object for an added error or warning. */
+        protected Object m_object;
+
+        /** The throwable to print. */
+        protected Throwable m_throwable;
+
+        /**
+         * Constructor.<p>
+         * 
+         * @param message the message to print
+         * @param format the report format
+         * @param newLine indicates if a line break is printed after the message
+         */
+        protected Entry(CmsMessageContainer message, int format, boolean newLine) {
+
+            m_message = message;
+            m_format = format;
+            m_newLine = newLine;
+        }
+    }
+
+    /** Format constant used to mark added errors. */
+    private static final int ADD_ERROR = -1;
+
+    /** Format constant used to mark added warnings. */
+    private static final int ADD_WARNING = -2;
+
+    /** The buffered report entries. */
+    private List<Entry> m_entries;
+
+    /** The report to write the buffered output to. */
+    private I_CmsReport m_report;
+
+    /**
+     * Creates a new buffered report.<p>
+     * 
+     * @param report the report to write the buffered output to
+     */
+    public CmsBufferedReport(I_CmsReport report) {
+
+        m_report = report;
+        m_entries = new ArrayList<Entry>();
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#addError(java.lang.Object)
+     */
+    public void addError(Object obj) {
+
+        Entry entry = new Entry(null, ADD_ERROR, false);
+        entry.m_object = obj;
+        add(entry);
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#addWarning(java.lang.Object)
+     */
+    public void addWarning(Object obj) {
+
+        Entry entry = new Entry(null, ADD_WARNING, false);
+        entry.m_object = obj;
+        add(entry);
+    }
+
+    /**
+     * Writes all buffered output to the target report and clears the buffer.<p>
+     */
+    public synchronized void flush() {
+
+        for (Entry entry : m_entries) {
+            if (entry.m_format == ADD_ERROR) {
+                m_report.addError(entry.m_object);
+            } else if (entry.m_format == ADD_WARNING) {
+                m_report.addWarning(entry.m_object);
+            } else if (entry.m_throwable != null) {
+                m_report.println(entry.m_throwable);
+            } else if (entry.m_message == null) {
+                m_report.println();
+            } else if (entry.m_newLine) {
+                m_report.println(entry.m_message, entry.m_format);
+            } else {
+                m_report.print(entry.m_message, entry.m_format);
+            }
+        }
+        m_entries.clear();
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#formatRuntime()
+     */
+    public String formatRuntime() {
+
+        return m_report.formatRuntime();
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#getErrors()
+     */
+    public List<Object> getErrors() {
+
+        return m_report.getErrors();
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#getLastEntryTime()
+     */
+    public long getLastEntryTime() {
+
+        return m_report.getLastEntryTime();
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#getLocale()
+     */
+    public Locale getLocale() {
+
+        return m_report.getLocale();
+    }
+
+    /**
+     * Returns the report the buffered output is written to.<p>
+     * 
+     * @return the report the buffered output is written to
+     */
+    public I_CmsReport getReport() {
+
+        return m_report;
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#getReportUpdate()
+     */
+    public String getReportUpdate() {
+
+        return m_report.getReportUpdate();
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#getRuntime()
+     */
+    public long getRuntime() {
+
+        return m_report.getRuntime();
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#getSiteRoot()
+     */
+    public String getSiteRoot() {
+
+        return m_report.getSiteRoot();
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#getWarnings()
+     */
+    public List<Object> getWarnings() {
+
+        return m_report.getWarnings();
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#hasError()
+     */
+    public boolean hasError() {
+
+        return m_report.hasError();
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#hasWarning()
+     */
+    public boolean hasWarning() {
+
+        return m_report.hasWarning();
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#print(org.opencms.i18n.CmsMessageContainer)
+     */
+    public void print(CmsMessageContainer container) {
+
+        print(container, FORMAT_DEFAULT);
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#print(org.opencms.i18n.CmsMessageContainer, int)
+     */
+    public void print(CmsMessageContainer container, int format) {
+
+        add(new Entry(container, format, false));
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#println()
+     */
+    public void println() {
+
+        add(new Entry(null, FORMAT_DEFAULT, true));
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#println(org.opencms.i18n.CmsMessageContainer)
+     */
+    public void println(CmsMessageContainer container) {
+
+        println(container, FORMAT_DEFAULT);
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#println(org.opencms.i18n.CmsMessageContainer, int)
+     */
+    public void println(CmsMessageContainer container, int format) {
+
+        add(new Entry(container, format, true));
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#println(java.lang.Throwable)
+     */
+    public void println(Throwable t) {
+
+        Entry entry = new Entry(null, FORMAT_DEFAULT, true);
+        entry.m_throwable = t;
+        add(entry);
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#printMessageWithParam(org.opencms.i18n.CmsMessageContainer, java.lang.Object)
+     */
+    public void printMessageWithParam(CmsMessageContainer container, Object param) {
+
+        print(container, I_CmsReport.FORMAT_NOTE);
+        print(Messages.get().container(Messages.RPT_ARGUMENT_1, param));
+        print(Messages.get().container(Messages.RPT_DOTS_0));
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#printMessageWithParam(int, int, org.opencms.i18n.CmsMessageContainer, java.lang.Object)
+     */
+    public void printMessageWithParam(int m, int n, CmsMessageContainer container, Object param) {
+
+        print(
+            Messages.get().container(Messages.RPT_SUCCESSION_2, String.valueOf(m), String.valueOf(n)),
+            I_CmsReport.FORMAT_NOTE);
+        printMessageWithParam(container, param);
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#removeSiteRoot(java.lang.String)
+     */
+    public String removeSiteRoot(String resourcename) {
+
+        return m_report.removeSiteRoot(resourcename);
+    }
+
+    /**
+     * @see org.opencms.report.I_CmsReport#resetRuntime()
+     */
+    public void resetRuntime() {
+
+        m_report.resetRuntime();
+    }
+
+    /**
+     * Adds an entry to the buffer.<p>
+     * 
+     * @param entry the entry to add
+     */
+    private synchronized void add(Entry entry) {
+
+        m_entries.add(entry);
+    }
+}
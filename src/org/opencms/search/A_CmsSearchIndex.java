@@ -58,6 +58,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.logging.Log;
 import org.apache.lucene.store.FSDirectory;
@@ -79,6 +80,9 @@ public abstract class A_CmsSearchIndex implements I_CmsConfigurationParameterHan
     /** Constant for additional parameter for index content extraction. */
     public static final String EXTRACT_CONTENT = A_LEGACY_PARAM_PREFIX + ".extractContent";
 
+    /** Constant for additional parameter to enable the incremental rebuild of the index (default: false). */
+    public static final String INCREMENTAL_REBUILD = A_LEGACY_PARAM_PREFIX + ".incrementalRebuild";
+
     /** Constant for additional parameter for controlling how many hits are loaded at maximum (default: 1000). */
     public static final String MAX_HITS = A_LEGACY_PARAM_PREFIX + ".maxHits";
 
@@ -133,9 +137,15 @@ public abstract class A_CmsSearchIndex implements I_CmsConfigurationParameterHan
     /** The name of the search field configuration used by this index. */
     private String m_fieldConfigurationName;
 
+    /** Signals whether the index is rebuilt incremental. */
+    private boolean m_incrementalRebuild;
+
     /** The index writer to use. */
     private I_CmsIndexWriter m_indexWriter;
 
+    /** The journal of the resources that still have to be updated in this index. */
+    private CmsIndexingJournal m_journal;
+
     /** The locale of this index. */
     private Locale m_locale;
 
@@ -201,6 +211,8 @@ public abstract class A_CmsSearchIndex implements I_CmsConfigurationParameterHan
             m_extractContent = Boolean.valueOf(value).booleanValue();
         } else if (BACKUP_REINDEXING.equals(key)) {
             m_backupReindexing = Boolean.valueOf(value).booleanValue();
+        } else if (INCREMENTAL_REBUILD.equals(key)) {
+            m_incrementalRebuild = Boolean.valueOf(value).booleanValue();
         } else if (PRIORITY.equals(key)) {
             m_priority = Integer.parseInt(value);
             if (m_priority < Thread.MIN_PRIORITY) {
@@ -301,6 +313,9 @@ public abstract class A_CmsSearchIndex implements I_CmsConfigurationParameterHan
         if (isBackupReindexing()) {
             result.put(BACKUP_REINDEXING, String.valueOf(m_backupReindexing));
         }
+        if (isIncrementalRebuild()) {
+            result.put(INCREMENTAL_REBUILD, String.valueOf(m_incrementalRebuild));
+        }
         return result;
     }
 
@@ -370,6 +385,23 @@ public abstract class A_CmsSearchIndex implements I_CmsConfigurationParameterHan
         return m_fieldConfigurationName;
     }
 
+    /**
+     * Returns the root paths of all documents currently stored in this index.<p>
+     * 
+     * This is used by the incremental rebuild to find the documents of resources 
+     * that no longer exist. The default implementation returns <code>null</code>, 
+     * which means that the indexed paths can not be determined and that an incremental 
+     * rebuild is not possible for this index.<p>
+     * 
+     * @return the root paths of all documents currently stored in this index, or <code>null</code>
+     * 
+     * @see #isIncrementalRebuild()
+     */
+    public Set<String> getIndexedRootPaths() {
+
+        return null;
+    }
+
     /**
      * Returns a new index writer for this index.<p>
      * 
@@ -414,6 +446,21 @@ public abstract class A_CmsSearchIndex implements I_CmsConfigurationParameterHan
         return indexWriter;
     }
 
+    /**
+     * Returns the journal of the resources that still have to be updated in this index.<p>
+     * 
+     * The journal is stored in the RFS next to the index directory.<p>
+     * 
+     * @return the journal of this index
+     */
+    public synchronized CmsIndexingJournal getJournal() {
+
+        if (m_journal == null) {
+            m_journal = new CmsIndexingJournal(getPath());
+        }
+        return m_journal;
+    }
+
     /**
      * Returns the language locale of this index.<p>
      * 
@@ -510,6 +557,24 @@ public abstract class A_CmsSearchIndex implements I_CmsConfigurationParameterHan
         return m_rebuild;
     }
 
+    /**
+     * Returns the indexed resources below the given folder that have to be reindexed 
+     * because the access control entries of the folder have been changed.<p>
+     * 
+     * This is required if the index stores information a resource inherits from its parent folders, 
+     * like the read permissions. The indexer only calls this for folders with changed access control 
+     * entries. The default implementation returns an empty list.<p>
+     * 
+     * @param cms the OpenCms context used for indexing
+     * @param folder the changed folder
+     * 
+     * @return the resources to reindex
+     */
+    public List<CmsResource> getResourcesToReindex(CmsObject cms, CmsResource folder) {
+
+        return Collections.emptyList();
+    }
+
     /**
      * Returns all configured sources names of this search index.<p>
      * 
@@ -667,6 +732,22 @@ public abstract class A_CmsSearchIndex implements I_CmsConfigurationParameterHan
         return m_extractContent;
     }
 
+    /**
+     * Returns <code>true</code> if a rebuild of this index only updates the changed resources.<p>
+     * 
+     * In this mode the existing index is not dropped when it is rebuilt. Only resources 
+     * whose date of last modification or content date differ from the values stored 
+     * in the index are extracted again, and documents of resources that no longer exist 
+     * are deleted. Changes to the field configuration still require a complete rebuild 
+     * with this option disabled.<p>
+     * 
+     * @return <code>true</code> if a rebuild of this index only updates the changed resources
+     */
+    public boolean isIncrementalRebuild() {
+
+        return m_incrementalRebuild;
+    }
+
     /**
      * Returns <code>true</code> if a resource requires read permission to be incuded in the result list.<p>
      * 
@@ -75,7 +75,12 @@ public class CmsDependencyIndexer extends CmsVfsIndexer {
                 // check all published resources if they match this indexer / source
                 CmsPublishedResource pubRes = i.next();
                 // VFS resources will always have a structure id
-                if (!pubRes.getStructureId().isNullUUID() && pubRes.isFile()) {
+                if (!pubRes.getStructureId().isNullUUID() && pubRes.isFolder()) {
+                    // folders have no dependencies, but the documents below may inherit their permissions
+                    if (isInsideSource(source, pubRes)) {
+                        addResourceToUpdateData(pubRes, result);
+                    }
+                } else if (!pubRes.getStructureId().isNullUUID() && pubRes.isFile()) {
                     // use utility method from CmsProject to check if published resource is "inside" this index source
                     if (CmsProject.isInsideProject(source.getResourcesNames(), pubRes.getRootPath())) {
                         // the resource is "inside" this index source
@@ -0,0 +1,291 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.search;
+
+import org.opencms.db.CmsPublishedResource;
+import org.opencms.db.CmsResourceState;
+import org.opencms.main.CmsLog;
+import org.opencms.util.CmsUUID;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Persistent journal of the resources that still have to be updated in a search index.<p>
+ * 
+ * The journal is a local file that is only appended to. Every line describes one 
+ * {@link CmsPublishedResource}. When an index update starts, the current entries are moved 
+ * to a separate "pending" file with {@link #checkpoint()}, and after the update has 
+ * been written to the index they are removed with {@link #commit()}. Resources added 
+ * during the update go to a new journal file, so nothing is lost if the update fails 
+ * or the server stops before it is finished. After a restart, {@link #readEntries()} 
+ * returns all resources from both files, so that they can be indexed again.<p>
+ * 
+ * @since 8.5.0 
+ */
+public class CmsIndexingJournal {
+
+    /** The suffix of the journal file, appended to the index path. */
+    public static final String JOURNAL_SUFFIX = ".journal";
+
+    /** The suffix of the file that contains the entries of a running update, appended to the journal file name. */
+    public static final String PENDING_SUFFIX = ".pending";
+
+    /** The encoding of the journal files. */
+    private static final String ENCODING = "UTF-8";
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsIndexingJournal.class);
+
+    /** The separator between the values of a journal entry. */
+    private static final char SEPARATOR = '\t';
+
+    /** The journal file new entries are appended to. */
+    private File m_file;
+
+    /** The file that contains the entries of the running update. */
+    private File m_pendingFile;
+
+    /**
+     * Creates a new journal for the index with the given path.<p>
+     * 
+     * @param indexPath the RFS path of the index
+     */
+    public CmsIndexingJournal(String indexPath) {
+
+        m_file = new File(indexPath + JOURNAL_SUFFIX);
+        m_pendingFile = new File(indexPath + JOURNAL_SUFFIX + PENDING_SUFFIX);
+    }
+
+    /**
+     * Appends the given resources to the journal.<p>
+     * 
+     * The data is flushed to the disk before this method returns.<p>
+     * 
+     * @param resources the resources to append
+     * 
+     * @throws IOException if writing the journal fails
+     */
+    public synchronized void append(List<CmsPublishedResource> resources) throws IOException {
+
+        if (resources.isEmpty()) {
+            return;
+        }
+        File parent = m_file.getParentFile();
+        if ((parent != null) && !parent.exists()) {
+            parent.mkdirs();
+        }
+        FileOutputStream out = new FileOutputStream(m_file, true);
+        try {
+            Writer writer = new OutputStreamWriter(out, ENCODING);
+            for (CmsPublishedResource resource : resources) {
+                writer.write(toEntry(resource));
+                writer.write('\n');
+            }
+            writer.flush();
+            out.getFD().sync();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Marks the start of an index update.<p>
+     * 
+     * All current entries are moved to the pending file, which is kept until {@link #commit()} is called.
+     * If the pending file of a previous update still exists because this update failed, 
+     * the current entries are added to it.<p>
+     * 
+     * @throws IOException if moving the entries fails
+     */
+    public synchronized void checkpoint() throws IOException {
+
+        if (!m_file.exists()) {
+            return;
+        }
+        if (!m_pendingFile.exists()) {
+            if (m_file.renameTo(m_pendingFile)) {
+                return;
+            }
+        }
+        // append the current entries to the pending entries
+        FileInputStream in = new FileInputStream(m_file);
+        FileOutputStream out = new FileOutputStream(m_pendingFile, true);
+        try {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            out.getFD().sync();
+        } finally {
+            in.close();
+            out.close();
+        }
+        m_file.delete();
+    }
+
+    /**
+     * Removes all entries from the journal.<p>
+     * 
+     * This is used after the index has been rebuilt completely.<p>
+     */
+    public synchronized void clear() {
+
+        m_pendingFile.delete();
+        m_file.delete();
+    }
+
+    /**
+     * Marks the end of a successful index update by removing the pending entries.<p>
+     */
+    public synchronized void commit() {
+
+        m_pendingFile.delete();
+    }
+
+    /**
+     * Returns the journal file new entries are appended to.<p>
+     * 
+     * @return the journal file
+     */
+    public File getFile() {
+
+        return m_file;
+    }
+
+    /**
+     * Reads all resources from the journal, starting with the pending entries.<p>
+     * 
+     * Invalid lines, for example an incomplete last line after a crash, are skipped.<p>
+     * 
+     * @return all resources in the journal
+     */
+    public synchronized List<CmsPublishedResource> readEntries() {
+
+        List<CmsPublishedResource> result = new ArrayList<CmsPublishedResource>();
+        readEntries(m_pendingFile, result);
+        readEntries(m_file, result);
+        return result;
+    }
+
+    /**
+     * Parses a journal entry.<p>
+     * 
+     * @param entry the journal entry
+     * 
+     * @return the resource of the entry, or <code>null</code> if the entry is not valid
+     */
+    private CmsPublishedResource fromEntry(String entry) {
+
+        String[] values = entry.split(String.valueOf(SEPARATOR), 7);
+        if ((values.length != 7) || !CmsUUID.isValidUUID(values[0]) || !CmsUUID.isValidUUID(values[1])) {
+            return null;
+        }
+        try {
+            return new CmsPublishedResource(
+                new CmsUUID(values[0]),
+                new CmsUUID(values[1]),
+                -1,
+                values[6],
+                Integer.parseInt(values[2]),
+                Boolean.valueOf(values[3]).booleanValue(),
+                CmsResourceState.valueOf(Integer.parseInt(values[4])),
+                Integer.parseInt(values[5]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the resources from the given journal file.<p>
+     * 
+     * @param file the journal file to read
+     * @param result the list to add the resources to
+     */
+    private void readEntries(File file, List<CmsPublishedResource> result) {
+
+        if (!file.exists()) {
+            return;
+        }
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), ENCODING));
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    CmsPublishedResource resource = fromEntry(line);
+                    if (resource != null) {
+                        result.add(resource);
+                    } else if (line.length() > 0) {
+                        LOG.warn(Messages.get().getBundle().key(
+                            Messages.LOG_JOURNAL_INVALID_ENTRY_2,
+                            line,
+                            file.getAbsolutePath()));
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (IOException e) {
+            LOG.error(Messages.get().getBundle().key(Messages.LOG_JOURNAL_READ_FAILED_1, file.getAbsolutePath()), e);
+        }
+    }
+
+    /**
+     * Creates the journal entry for a resource.<p>
+     * 
+     * The root path is the last value, so it may contain the separator character.<p>
+     * 
+     * @param resource the resource
+     * 
+     * @return the journal entry
+     */
+    private String toEntry(CmsPublishedResource resource) {
+
+        StringBuffer result = new StringBuffer(128);
+        result.append(resource.getStructureId()).append(SEPARATOR);
+        result.append(resource.getResourceId()).append(SEPARATOR);
+        result.append(resource.getType()).append(SEPARATOR);
+        result.append(resource.isFolder()).append(SEPARATOR);
+        result.append(resource.getState().getState()).append(SEPARATOR);
+        result.append(resource.getSiblingCount()).append(SEPARATOR);
+        result.append(resource.getRootPath());
+        return result.toString();
+    }
+}
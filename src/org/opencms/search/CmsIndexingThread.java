@@ -43,6 +43,9 @@ import org.apache.commons.logging.Log;
  * The indexing of a single resource is wrapped into a thread
  * in order to prevent the overall indexer from hanging.<p>
  * 
+ * The {@link CmsIndexingThreadManager} does not start this thread, but runs it 
+ * in one of its worker threads.<p>
+ * 
  * @since 6.0.0 
  */
 public class CmsIndexingThread extends Thread {
@@ -118,7 +121,7 @@ public class CmsIndexingThread extends Thread {
             docOk = true;
 
             // check if the thread was interrupted
-            if (isInterrupted() && LOG.isDebugEnabled()) {
+            if (Thread.currentThread().isInterrupted() && LOG.isDebugEnabled()) {
                 LOG.debug(Messages.get().getBundle().key(Messages.LOG_ABANDONED_THREAD_FINISHED_1, m_res.getRootPath()));
             }
 
@@ -27,29 +27,161 @@
 
 package org.opencms.search;
 
+import org.opencms.file.CmsObject;
 import org.opencms.file.CmsResource;
 import org.opencms.i18n.CmsMessageContainer;
+import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
+import org.opencms.main.OpenCms;
+import org.opencms.report.CmsBufferedReport;
 import org.opencms.report.CmsLogReport;
 import org.opencms.report.I_CmsReport;
 
 import java.io.IOException;
+import java.util.LinkedList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.commons.logging.Log;
 
 /**
  * Implements the management of indexing threads.<p>
  * 
+ * The text extraction of the resources is done in parallel by a fixed number of worker threads.
+ * The extracted documents are written to the index by the thread that calls 
+ * {@link #createIndexingThread(CmsVfsIndexer, I_CmsIndexWriter, CmsResource)}, in the same order 
+ * the resources have been handed over to this manager. The number of resources that are 
+ * extracted but not yet written to the index is limited.<p>
+ * 
+ * An instance of this class must only be used by a single indexing thread.<p>
+ * 
  * @since 6.0.0 
  */
 public class CmsIndexingThreadManager {
 
+    /**
+     * A resource that is handed over to the worker threads for text extraction.<p>
+     */
+    private class CmsIndexingJob implements Runnable {
+
+        /** Indicates if this job has been abandoned because of a timeout. */
+        private boolean m_abandoned;
+
+        /** The report count of this job. */
+        private int m_count;
+
+        /** The executor this job has been submitted to. */
+        private ThreadPoolExecutor m_executor;
+
+        /** Indicates if the extraction of this job has finished. */
+        private boolean m_finished;
+
+        /** The future used to wait for this job. */
+        private Future<?> m_future;
+
+        /** The indexer this job was created for. */
+        private CmsVfsIndexer m_indexer;
+
+        /** The buffered report of this job. */
+        private CmsBufferedReport m_report;
+
+        /** The resource to index. */
+        private CmsResource m_resource;
+
+        /** The time the extraction of this job was started. */
+        private volatile long m_startTime;
+
+        /** The indexing thread that does the actual text extraction, created by the worker thread. */
+        private CmsIndexingThread m_thread;
+
+        /** The index writer to write the document to. */
+        private I_CmsIndexWriter m_writer;
+
+        /**
+         * Creates a new indexing job.<p>
+         * 
+         * @param indexer the indexer this job was created for
+         * @param writer the index writer to write the document to 
+         * @param res the resource to index
+         * @param count the report count
+         */
+        protected CmsIndexingJob(CmsVfsIndexer indexer, I_CmsIndexWriter writer, CmsResource res, int count) {
+
+            m_indexer = indexer;
+            m_writer = writer;
+            m_resource = res;
+            m_count = count;
+            if (indexer.getReport() != null) {
+                m_report = new CmsBufferedReport(indexer.getReport());
+            }
+        }
+
+        /**
+         * @see java.lang.Runnable#run()
+         */
+        public void run() {
+
+            m_startTime = System.currentTimeMillis();
+            try {
+                CmsObject cms;
+                try {
+                    // the context of the indexer is not thread safe, so every job works on its own copy
+                    cms = OpenCms.initCmsObject(m_indexer.getCms());
+                } catch (CmsException e) {
+                    CmsMessageContainer message = Messages.get().container(
+                        Messages.ERR_INDEX_RESOURCE_FAILED_2,
+                        m_resource.getRootPath(),
+                        m_indexer.getIndex().getName());
+                    LOG.error(message.key(), e);
+                    if (m_report != null) {
+                        m_report.println(message, I_CmsReport.FORMAT_ERROR);
+                    }
+                    return;
+                }
+                m_thread = new CmsIndexingThread(cms, m_resource, m_indexer.getIndex(), m_count, m_report);
+                m_thread.run();
+            } finally {
+                boolean abandoned;
+                synchronized (this) {
+                    m_finished = true;
+                    abandoned = m_abandoned;
+                }
+                if (abandoned) {
+                    // the worker thread is available again
+                    resizeWorkerPool(m_executor, -1);
+                }
+            }
+        }
+
+        /**
+         * Marks this job as abandoned, if it has not finished already.<p>
+         * 
+         * @return <code>true</code> if the job was abandoned, <code>false</code> if it finished in the meantime 
+         */
+        protected synchronized boolean abandon() {
+
+            if (m_finished) {
+                return false;
+            }
+            m_abandoned = true;
+            return true;
+        }
+    }
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsIndexingThreadManager.class);
 
     /** Number of threads abandoned. */
     private int m_abandonedCounter;
 
+    /** The worker threads that do the text extraction. */
+    private ThreadPoolExecutor m_executor;
+
     /** The time the last error was written to the log. */
     private long m_lastLogErrorTime;
 
@@ -59,6 +191,12 @@ public class CmsIndexingThreadManager {
     /** The maximum number of modifications before a commit in the search index is triggered. */
     private int m_maxModificationsBeforeCommit;
 
+    /** The number of worker threads used for the text extraction. */
+    private int m_maxThreads;
+
+    /** The jobs that have been started but are not yet written to the index, in the order they have been started. */
+    private LinkedList<CmsIndexingJob> m_pendingJobs;
+
     /** Number of thread returned. */
     private int m_returnedCounter;
 
@@ -71,22 +209,43 @@ public class CmsIndexingThreadManager {
     /**
      * Creates and starts a thread manager for indexing threads.<p>
      * 
+     * The number of worker threads is the number of available processors.<p>
+     * 
      * @param timeout timeout after a thread is abandoned
      * @param maxModificationsBeforeCommit the maximum number of modifications before a commit in the search index is triggered
      */
     public CmsIndexingThreadManager(long timeout, int maxModificationsBeforeCommit) {
 
+        this(timeout, maxModificationsBeforeCommit, 0);
+    }
+
+    /**
+     * Creates and starts a thread manager for indexing threads.<p>
+     * 
+     * @param timeout timeout after a thread is abandoned
+     * @param maxModificationsBeforeCommit the maximum number of modifications before a commit in the search index is triggered
+     * @param maxThreads the number of worker threads used for the text extraction, 
+     *      if this is not a positive number the number of available processors is used
+     */
+    public CmsIndexingThreadManager(long timeout, int maxModificationsBeforeCommit, int maxThreads) {
+
         m_timeout = timeout;
         m_maxModificationsBeforeCommit = maxModificationsBeforeCommit;
+        m_maxThreads = (maxThreads > 0) ? maxThreads : Runtime.getRuntime().availableProcessors();
+        m_pendingJobs = new LinkedList<CmsIndexingJob>();
     }
 
     /**
      * Creates and starts a new indexing thread for a resource.<p>
      * 
-     * After an indexing thread was started, the manager suspends itself 
-     * and waits for an amount of time specified by the <code>timeout</code>
-     * value. If the timeout value is reached, the indexing thread is
-     * aborted by an interrupt signal.<p>
+     * The text extraction for the resource is handed over to one of the worker threads.
+     * Every document that has been extracted in the meantime is written to the index.
+     * If too many resources are waiting for their extraction, this method blocks until 
+     * the oldest of them has been written to the index.<p>
+     * 
+     * If the text extraction of a resource is not finished after the amount of time 
+     * specified by the <code>timeout</code> value, the worker thread is 
+     * aborted by an interrupt signal and the resource is skipped.<p>
      * 
      * @param indexer the VFS indexer to create the index thread for 
      * @param writer the index writer that can update the index
@@ -94,67 +253,34 @@ public class CmsIndexingThreadManager {
      */
     public void createIndexingThread(CmsVfsIndexer indexer, I_CmsIndexWriter writer, CmsResource res) {
 
-        I_CmsReport report = indexer.getReport();
         m_startedCounter++;
-        CmsIndexingThread thread = new CmsIndexingThread(
-            indexer.getCms(),
-            res,
-            indexer.getIndex(),
-            m_startedCounter,
-            report);
-        thread.setPriority(Thread.MIN_PRIORITY);
-        thread.start();
-        try {
-            thread.join(m_timeout);
-        } catch (InterruptedException e) {
-            // ignore
+        CmsIndexingJob job = new CmsIndexingJob(indexer, writer, res, m_startedCounter);
+        if (m_executor == null) {
+            m_executor = createExecutor();
         }
-        if (thread.isAlive()) {
-            // the thread has not finished - so it must be marked as an abandoned thread 
-            m_abandonedCounter++;
-            thread.interrupt();
-            if (LOG.isWarnEnabled()) {
-                LOG.warn(Messages.get().getBundle().key(Messages.LOG_INDEXING_TIMEOUT_1, res.getRootPath()));
-            }
-            if (report != null) {
-                report.println();
-                report.print(
-                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_FAILED_0),
-                    I_CmsReport.FORMAT_WARNING);
-                report.println(
-                    Messages.get().container(Messages.RPT_SEARCH_INDEXING_TIMEOUT_1, res.getRootPath()),
-                    I_CmsReport.FORMAT_WARNING);
-            }
-        } else {
-            // the thread finished normally
-            m_returnedCounter++;
-        }
-        I_CmsSearchDocument doc = thread.getResult();
-        if (doc != null) {
-            // write the document to the index
-            indexer.updateResource(writer, res.getRootPath(), doc);
-        }
-        if ((m_startedCounter % m_maxModificationsBeforeCommit) == 0) {
-            try {
-                writer.commit();
-            } catch (IOException e) {
-                if (LOG.isWarnEnabled()) {
-                    LOG.warn(Messages.get().getBundle().key(
-                        Messages.LOG_IO_INDEX_WRITER_COMMIT_2,
-                        indexer.getIndex().getName(),
-                        indexer.getIndex().getPath()), e);
-                }
-            }
+        job.m_executor = m_executor;
+        job.m_future = m_executor.submit(job);
+        m_pendingJobs.add(job);
+        // write all documents that are already finished to the index 
+        writeFinishedJobs(false);
+        while (m_pendingJobs.size() > (2 * m_maxThreads)) {
+            // too many documents are pending, wait for the oldest one
+            writeJob(m_pendingJobs.removeFirst());
         }
     }
 
     /**
      * Returns if the indexing manager still have indexing threads.<p>
      * 
+     * Before checking, this method waits until all pending resources have either been 
+     * written to the index or abandoned because of a timeout.<p>
+     * 
      * @return true if the indexing manager still have indexing threads
      */
     public boolean isRunning() {
 
+        writeFinishedJobs(true);
+
         if (m_lastLogErrorTime <= 0) {
             m_lastLogErrorTime = System.currentTimeMillis();
             m_lastLogWarnTime = m_lastLogErrorTime;
@@ -216,4 +342,164 @@ public class CmsIndexingThreadManager {
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Changes the number of worker threads.<p>
+     * 
+     * An abandoned job still blocks its worker thread until it reacts on the interrupt signal,
+     * so an additional worker thread is started for every abandoned job that is still running.<p>
+     * 
+     * @param executor the executor to resize
+     * @param delta the number of worker threads to add, or to remove if negative
+     */
+    protected void resizeWorkerPool(ThreadPoolExecutor executor, int delta) {
+
+        synchronized (executor) {
+            int size = executor.getCorePoolSize() + delta;
+            if (size < m_maxThreads) {
+                // never go below the configured number of worker threads
+                return;
+            }
+            if (delta > 0) {
+                executor.setMaximumPoolSize(size);
+                executor.setCorePoolSize(size);
+            } else {
+                executor.setCorePoolSize(size);
+                executor.setMaximumPoolSize(size);
+            }
+        }
+    }
+
+    /**
+     * Creates the executor for the worker threads.<p>
+     * 
+     * @return the executor for the worker threads
+     */
+    private ThreadPoolExecutor createExecutor() {
+
+        ThreadFactory threadFactory = new ThreadFactory() {
+
+            /** The number of threads created. */
+            private int m_count;
+
+            /**
+             * @see java.util.concurrent.ThreadFactory#newThread(java.lang.Runnable)
+             */
+            public synchronized Thread newThread(Runnable r) {
+
+                m_count++;
+                Thread thread = new Thread(r, "OpenCms: Indexing worker " + m_count);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+        return new ThreadPoolExecutor(
+            m_maxThreads,
+            m_maxThreads,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            threadFactory);
+    }
+
+    /**
+     * Writes the document of the given job to the index.<p>
+     * 
+     * If the job has not finished yet, this method waits until it is finished or the timeout is reached.<p>
+     * 
+     * @param job the job to write
+     */
+    private void writeJob(CmsIndexingJob job) {
+
+        boolean finished = false;
+        try {
+            while (true) {
+                long startTime = job.m_startTime;
+                long wait = (startTime > 0) ? ((startTime + m_timeout) - System.currentTimeMillis()) : m_timeout;
+                if (wait <= 0) {
+                    break;
+                }
+                try {
+                    job.m_future.get(wait, TimeUnit.MILLISECONDS);
+                    finished = true;
+                    break;
+                } catch (TimeoutException e) {
+                    // check again, the job may not have been started when the wait began
+                }
+            }
+        } catch (InterruptedException e) {
+            // ignore
+        } catch (ExecutionException e) {
+            // the indexing thread has already written the error to the report and the log
+            finished = true;
+        }
+
+        if (job.m_report != null) {
+            job.m_report.flush();
+        }
+        CmsResource res = job.m_resource;
+        if (!finished && job.abandon()) {
+            // the thread has not finished - so it must be marked as an abandoned thread 
+            m_abandonedCounter++;
+            job.m_future.cancel(true);
+            resizeWorkerPool(job.m_executor, 1);
+            if (LOG.isWarnEnabled()) {
+                LOG.warn(Messages.get().getBundle().key(Messages.LOG_INDEXING_TIMEOUT_1, res.getRootPath()));
+            }
+            I_CmsReport report = job.m_indexer.getReport();
+            if (report != null) {
+                report.println();
+                report.print(
+                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_FAILED_0),
+                    I_CmsReport.FORMAT_WARNING);
+                report.println(
+                    Messages.get().container(Messages.RPT_SEARCH_INDEXING_TIMEOUT_1, res.getRootPath()),
+                    I_CmsReport.FORMAT_WARNING);
+            }
+        } else {
+            // the thread finished normally
+            m_returnedCounter++;
+            if (!finished && (job.m_report != null)) {
+                // the job finished just after the timeout was reached
+                job.m_report.flush();
+            }
+            // the thread is missing if the context for the job could not be created
+            I_CmsSearchDocument doc = (job.m_thread != null) ? job.m_thread.getResult() : null;
+            if (doc != null) {
+                // write the document to the index
+                job.m_indexer.updateResource(job.m_writer, res.getRootPath(), doc);
+            }
+        }
+        if ((job.m_count % m_maxModificationsBeforeCommit) == 0) {
+            try {
+                job.m_writer.commit();
+            } catch (IOException e) {
+                if (LOG.isWarnEnabled()) {
+                    LOG.warn(Messages.get().getBundle().key(
+                        Messages.LOG_IO_INDEX_WRITER_COMMIT_2,
+                        job.m_indexer.getIndex().getName(),
+                        job.m_indexer.getIndex().getPath()), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the documents of the finished jobs to the index.<p>
+     * 
+     * @param wait if <code>true</code>, this method waits until all pending jobs are finished or abandoned, 
+     *      otherwise it stops at the first job that is not finished 
+     */
+    private void writeFinishedJobs(boolean wait) {
+
+        while (!m_pendingJobs.isEmpty() && (wait || m_pendingJobs.getFirst().m_future.isDone())) {
+            writeJob(m_pendingJobs.removeFirst());
+        }
+        if (wait && (m_executor != null)) {
+            // all jobs are done, abandoned jobs still running will finish their worker threads 
+            m_executor.shutdown();
+            m_executor = null;
+        }
+    }
+}
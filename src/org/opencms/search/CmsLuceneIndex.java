@@ -30,6 +30,7 @@ package org.opencms.search;
 import org.opencms.configuration.CmsParameterConfiguration;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsResource;
+import org.opencms.flex.CmsFlexController;
 import org.opencms.i18n.CmsMessageContainer;
 import org.opencms.main.CmsIllegalArgumentException;
 import org.opencms.main.CmsLog;
@@ -48,9 +49,12 @@ import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.lucene.analysis.Analyzer;
@@ -66,6 +70,7 @@ import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.LogByteSizeMergePolicy;
 import org.apache.lucene.index.LogMergePolicy;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TermEnum;
 import org.apache.lucene.queryParser.QueryParser;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanFilter;
@@ -81,6 +86,7 @@ import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TermsFilter;
 import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
 import org.apache.lucene.util.Version;
@@ -243,10 +249,7 @@ public class CmsLuceneIndex extends A_CmsSearchIndex {
     private boolean m_createExcerpt;
 
     /** Map of display query filters to use. */
-    private Map<String, Filter> m_displayFilters;
-
-    /** The Lucene index searcher to use. */
-    private IndexSearcher m_indexSearcher;
+    private volatile Map<String, Filter> m_displayFilters;
 
     /** The Lucene index merge factor setting, see {@link LogMergePolicy#setMaxMergeDocs(int)}. */
     private Integer m_luceneMaxMergeDocs;
@@ -263,6 +266,9 @@ public class CmsLuceneIndex extends A_CmsSearchIndex {
     /** Indicates how many hits are loaded at maximum. */
     private int m_maxHits;
 
+    /** The reference counting manager for the Lucene index searcher. */
+    private volatile CmsLuceneSearcherManager m_searcherManager;
+
     /**
      * Default constructor only intended to be used by the XML configuration. <p>
      * 
@@ -583,10 +589,10 @@ public class CmsLuceneIndex extends A_CmsSearchIndex {
      * @see org.opencms.search.A_CmsSearchIndex#getDocument(java.lang.String, java.lang.String)
      */
     @Override
-    public synchronized I_CmsSearchDocument getDocument(String field, String term) {
+    public I_CmsSearchDocument getDocument(String field, String term) {
 
         Document result = null;
-        IndexSearcher searcher = getSearcher();
+        IndexSearcher searcher = acquireSearcher();
         if (searcher != null) {
             // search for an exact match on the selected field
             Term resultTerm = new Term(field, term);
@@ -597,6 +603,8 @@ public class CmsLuceneIndex extends A_CmsSearchIndex {
                 }
             } catch (IOException e) {
                 // ignore, return null and assume document was not found
+            } finally {
+                releaseSearcher(searcher);
             }
         }
         if (result != null) {
@@ -605,6 +613,39 @@ public class CmsLuceneIndex extends A_CmsSearchIndex {
         return null;
     }
 
+    /**
+     * @see org.opencms.search.A_CmsSearchIndex#getIndexedRootPaths()
+     */
+    @Override
+    public Set<String> getIndexedRootPaths() {
+
+        IndexSearcher searcher = acquireSearcher();
+        if (searcher == null) {
+            return null;
+        }
+        Set<String> result = new HashSet<String>();
+        try {
+            TermEnum terms = searcher.getIndexReader().terms(new Term(I_CmsSearchField.FIELD_PATH, ""));
+            try {
+                do {
+                    Term term = terms.term();
+                    if ((term == null) || !I_CmsSearchField.FIELD_PATH.equals(term.field())) {
+                        break;
+                    }
+                    result.add(term.text());
+                } while (terms.next());
+            } finally {
+                terms.close();
+            }
+        } catch (IOException e) {
+            LOG.error(Messages.get().getBundle().key(Messages.LOG_INDEX_ACCESS_FAILED_1, getName()), e);
+            return null;
+        } finally {
+            releaseSearcher(searcher);
+        }
+        return result;
+    }
+
     /**
      * Returns the concrete Lucene field configuration.<p>
      * 
@@ -637,12 +678,17 @@ public class CmsLuceneIndex extends A_CmsSearchIndex {
 
     /**
      * Returns the Lucene index searcher used for this search index.<p>
+     * 
+     * The returned searcher is not reference counted and may be closed by a concurrent
+     * index update at any time. Searches should use {@link #acquireSearcher()} and 
+     * {@link #releaseSearcher(IndexSearcher)} instead.<p>
      *
      * @return the Lucene index searcher used for this search index
      */
     public IndexSearcher getSearcher() {
 
-        return m_indexSearcher;
+        CmsLuceneSearcherManager manager = m_searcherManager;
+        return (manager != null) ? manager.getCurrent() : null;
     }
 
     /**
@@ -704,7 +750,7 @@ public class CmsLuceneIndex extends A_CmsSearchIndex {
      * @see org.opencms.search.A_CmsSearchIndex#search(org.opencms.file.CmsObject, org.opencms.search.CmsSearchParameters)
      */
     @Override
-    public synchronized CmsSearchResultList search(CmsObject cms, CmsSearchParameters params) throws CmsSearchException {
+    public CmsSearchResultList search(CmsObject cms, CmsSearchParameters params) throws CmsSearchException {
 
         long timeTotal = -System.currentTimeMillis();
         long timeLucene;
@@ -714,6 +760,9 @@ public class CmsLuceneIndex extends A_CmsSearchIndex {
             LOG.debug(Messages.get().getBundle().key(Messages.LOG_SEARCH_PARAMS_2, params, getName()));
         }
 
+        // the results are read from the index, so new matching resources can not be tracked in the Flex cache
+        CmsFlexController.markThreadUntracked();
+
         // the hits found during the search
         TopDocs hits;
 
@@ -722,6 +771,9 @@ public class CmsLuceneIndex extends A_CmsSearchIndex {
 
         int previousPriority = Thread.currentThread().getPriority();
 
+        // the index searcher used for this search
+        IndexSearcher searcher = null;
+
         try {
             // copy the user OpenCms context
             CmsObject searchCms = OpenCms.initCmsObject(cms);
@@ -760,7 +812,7 @@ public class CmsLuceneIndex extends A_CmsSearchIndex {
 
             // get an index searcher that is certainly up to date
             indexSearcherUpdate();
-            IndexSearcher searcher = getSearcher();
+            searcher = acquireSearcher();
 
             if (!params.isIgnoreQuery()) {
                 // since OpenCms 8 the query can be empty in which case only filters are used for the result
@@ -932,6 +984,8 @@ public class CmsLuceneIndex extends A_CmsSearchIndex {
             throw new CmsSearchException(Messages.get().container(Messages.ERR_SEARCH_PARAMS_1, params), e);
         } finally {
 
+            // hand back the index searcher
+            releaseSearcher(searcher);
             // re-set thread to previous priority
             Thread.currentThread().setPriority(previousPriority);
         }
@@ -991,6 +1045,35 @@ public class CmsLuceneIndex extends A_CmsSearchIndex {
 
     }
 
+    /**
+     * Acquires an index searcher for this index.<p>
+     * 
+     * The searcher must be handed back with {@link #releaseSearcher(IndexSearcher)} after the search has
+     * been done. Every caller gets its own searcher instance on the shared index reader, so the searcher 
+     * settings can be changed without affecting concurrent searches.<p>
+     * 
+     * @return an index searcher for this index, or <code>null</code> if the index is not available
+     */
+    protected IndexSearcher acquireSearcher() {
+
+        while (true) {
+            CmsLuceneSearcherManager manager = m_searcherManager;
+            if (manager == null) {
+                return null;
+            }
+            try {
+                IndexSearcher searcher = manager.acquire();
+                return new IndexSearcher(searcher.getIndexReader());
+            } catch (AlreadyClosedException e) {
+                if (manager == m_searcherManager) {
+                    // the index has been closed
+                    return null;
+                }
+                // the searcher manager has been replaced in the meantime, try again with the new one
+            }
+        }
+    }
+
     /**
      * Appends the a category filter to the given filter clause that matches all given categories.<p>
      * 
@@ -1298,7 +1381,8 @@ public class CmsLuceneIndex extends A_CmsSearchIndex {
             }
             termsStr = buf.toString();
         }
-        Filter result = m_displayFilters.get((new StringBuffer(64)).append(field).append('|').append(termsStr).toString());
+        String key = (new StringBuffer(64)).append(field).append('|').append(termsStr).toString();
+        Filter result = m_displayFilters.get(key);
         if (result == null) {
             TermsFilter filter = new TermsFilter();
             if (termsList == null) {
@@ -1308,7 +1392,7 @@ public class CmsLuceneIndex extends A_CmsSearchIndex {
                 filter.addTerm(new Term(field, termsList.get(i)));
             }
             result = new CachingWrapperFilter(filter);
-            m_displayFilters.put(field + termsStr, result);
+            m_displayFilters.put(key, result);
         }
         return result;
     }
@@ -1329,26 +1413,29 @@ public class CmsLuceneIndex extends A_CmsSearchIndex {
     /**
      * Closes the Lucene index searcher for this index.<p>
      * 
+     * Searches that are still running are not affected, the index reader is closed 
+     * after the last of them has released its searcher.<p>
+     * 
      * @see #indexSearcherOpen(String)
      */
     @Override
     protected synchronized void indexSearcherClose() {
 
-        indexSearcherClose(m_indexSearcher);
+        CmsLuceneSearcherManager manager = m_searcherManager;
+        m_searcherManager = null;
+        indexSearcherClose(manager);
     }
 
     /**
-     * Closes the given Lucene index searcher.<p>
+     * Closes the given Lucene index searcher manager.<p>
      * 
-     * @param searcher the searcher to close
+     * @param manager the searcher manager to close
      */
-    protected synchronized void indexSearcherClose(IndexSearcher searcher) {
+    protected void indexSearcherClose(CmsLuceneSearcherManager manager) {
 
-        // in case there is an index searcher available close it
-        if ((searcher != null) && (searcher.getIndexReader() != null)) {
+        if (manager != null) {
             try {
-                searcher.getIndexReader().close();
-                searcher.close();
+                manager.close();
             } catch (Exception e) {
                 LOG.error(Messages.get().getBundle().key(Messages.ERR_INDEX_SEARCHER_CLOSE_1, getName()), e);
             }
@@ -1358,47 +1445,43 @@ public class CmsLuceneIndex extends A_CmsSearchIndex {
     /**
      * @see org.opencms.search.A_CmsSearchIndex#indexSearcherOpen(java.lang.String)
      * 
-     * Use {@link #getSearcher()} in order to obtain the searcher that has been opened.<p>
+     * Use {@link #acquireSearcher()} in order to obtain the searcher that has been opened.<p>
      */
     @Override
     protected synchronized void indexSearcherOpen(String path) {
 
-        IndexSearcher oldSearcher = null;
+        CmsLuceneSearcherManager oldManager = null;
         try {
             Directory indexDirectory = FSDirectory.open(new File(path));
             if (IndexReader.indexExists(indexDirectory)) {
                 IndexReader reader = new LazyContentReader(IndexReader.open(indexDirectory));
-                if (m_indexSearcher != null) {
-                    // store old searcher instance to close it later
-                    oldSearcher = m_indexSearcher;
-                }
-                m_indexSearcher = new IndexSearcher(reader);
-                m_displayFilters = new HashMap<String, Filter>();
+                // store old searcher manager instance to close it later
+                oldManager = m_searcherManager;
+                m_displayFilters = new ConcurrentHashMap<String, Filter>();
+                m_searcherManager = new CmsLuceneSearcherManager(reader);
             }
         } catch (IOException e) {
             LOG.error(Messages.get().getBundle().key(Messages.ERR_INDEX_SEARCHER_1, getName()), e);
         }
-        if (oldSearcher != null) {
-            // close the old searcher if required
-            indexSearcherClose(oldSearcher);
-        }
+        // close the old searcher manager if required, running searches keep their reader open until they are done
+        indexSearcherClose(oldManager);
     }
 
     /**
      * @see org.opencms.search.A_CmsSearchIndex#indexSearcherUpdate()
+     * 
+     * If another thread is already reopening the index, this method returns immediately
+     * and the searches continue to use the current searcher.<p>
      */
     @Override
-    protected synchronized void indexSearcherUpdate() {
+    protected void indexSearcherUpdate() {
 
-        IndexSearcher oldSearcher = m_indexSearcher;
-        if ((oldSearcher != null) && (oldSearcher.getIndexReader() != null)) {
-            // in case there is an index searcher available close it
+        CmsLuceneSearcherManager manager = m_searcherManager;
+        if (manager != null) {
             try {
-                IndexReader newReader = IndexReader.openIfChanged(oldSearcher.getIndexReader());
-                if (newReader != null) {
-                    m_indexSearcher = new IndexSearcher(newReader);
-                    indexSearcherClose(oldSearcher);
-                }
+                manager.maybeRefresh();
+            } catch (AlreadyClosedException e) {
+                // the searcher manager has been replaced in the meantime, nothing to do
             } catch (Exception e) {
                 LOG.error(Messages.get().getBundle().key(Messages.ERR_INDEX_SEARCHER_REOPEN_1, getName()), e);
             }
@@ -1522,4 +1605,20 @@ public class CmsLuceneIndex extends A_CmsSearchIndex {
         }
         searcher.setDefaultFieldSortScoring(doScoring, doScoring);
     }
+
+    /**
+     * Releases an index searcher acquired with {@link #acquireSearcher()}.<p>
+     * 
+     * @param searcher the searcher to release, may be <code>null</code>
+     */
+    protected void releaseSearcher(IndexSearcher searcher) {
+
+        if (searcher != null) {
+            try {
+                searcher.getIndexReader().decRef();
+            } catch (IOException e) {
+                LOG.error(Messages.get().getBundle().key(Messages.ERR_INDEX_SEARCHER_CLOSE_1, getName()), e);
+            }
+        }
+    }
 }
@@ -0,0 +1,108 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.search;
+
+import java.io.IOException;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.ReferenceManager;
+
+/**
+ * Reference counting manager for the index searcher of a Lucene index.<p>
+ * 
+ * Searches acquire the current searcher with {@link #acquire()} and must hand it back with 
+ * {@link #release(Object)} once they are finished. When the index is changed, {@link #maybeRefresh()} 
+ * atomically swaps in a searcher on the reopened index reader, while searches that are still running
+ * continue to use the old searcher. The old index reader is closed after the last of these searches 
+ * has released it.<p>
+ * 
+ * Unlike the Lucene <code>SearcherManager</code>, this manager accepts an already opened (and possibly wrapped) 
+ * index reader, which is required to keep the lazy content loading of the OpenCms indexes.<p>
+ * 
+ * @since 8.5.0
+ */
+public class CmsLuceneSearcherManager extends ReferenceManager<IndexSearcher> {
+
+    /**
+     * Creates a new searcher manager for the given index reader.<p>
+     * 
+     * The manager takes over the given reader and closes it when it is no longer needed.<p>
+     * 
+     * @param reader the index reader to search
+     */
+    public CmsLuceneSearcherManager(IndexReader reader) {
+
+        current = new IndexSearcher(reader);
+    }
+
+    /**
+     * Returns the current searcher without incrementing its reference count.<p>
+     * 
+     * The returned searcher may be closed at any time by a concurrent refresh, 
+     * so {@link #acquire()} should be used instead whenever possible.<p>
+     * 
+     * @return the current searcher, or <code>null</code> if this manager has been closed
+     */
+    public IndexSearcher getCurrent() {
+
+        return current;
+    }
+
+    /**
+     * @see org.apache.lucene.search.ReferenceManager#decRef(java.lang.Object)
+     */
+    @Override
+    protected void decRef(IndexSearcher reference) throws IOException {
+
+        reference.getIndexReader().decRef();
+    }
+
+    /**
+     * @see org.apache.lucene.search.ReferenceManager#refreshIfNeeded(java.lang.Object)
+     */
+    @Override
+    protected IndexSearcher refreshIfNeeded(IndexSearcher referenceToRefresh) throws IOException {
+
+        IndexReader newReader = IndexReader.openIfChanged(referenceToRefresh.getIndexReader());
+        if (newReader == null) {
+            return null;
+        }
+        return new IndexSearcher(newReader);
+    }
+
+    /**
+     * @see org.apache.lucene.search.ReferenceManager#tryIncRef(java.lang.Object)
+     */
+    @Override
+    protected boolean tryIncRef(IndexSearcher reference) {
+
+        return reference.getIndexReader().tryIncRef();
+    }
+}
@@ -29,10 +29,13 @@ package org.opencms.search;
 
 import org.opencms.configuration.CmsConfigurationException;
 import org.opencms.db.CmsDriverManager;
+import org.opencms.db.CmsPublishList;
 import org.opencms.db.CmsPublishedResource;
 import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProject;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
+import org.opencms.file.CmsVfsResourceNotFoundException;
 import org.opencms.i18n.CmsMessageContainer;
 import org.opencms.loader.CmsLoaderException;
 import org.opencms.main.CmsEvent;
@@ -61,6 +64,7 @@ import org.opencms.search.solr.CmsSolrConfiguration;
 import org.opencms.search.solr.CmsSolrFieldConfiguration;
 import org.opencms.search.solr.CmsSolrIndex;
 import org.opencms.search.solr.CmsSolrIndexWriter;
+import org.opencms.security.CmsAccessControlEntry;
 import org.opencms.security.CmsRole;
 import org.opencms.security.CmsRoleViolationException;
 import org.opencms.util.A_CmsModeStringEnumeration;
@@ -73,11 +77,14 @@ import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 
 import org.apache.commons.logging.Log;
@@ -154,6 +161,9 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         /** Indicates if the event handlers for the offline search have been already registered. */
         private boolean m_isEventRegistered;
 
+        /** The names of the offline indexes whose journal has already been replayed. */
+        private Set<String> m_replayedJournals;
+
         /** The list of resources to index. */
         private List<CmsPublishedResource> m_resourcesToIndex;
 
@@ -163,6 +173,7 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         protected CmsSearchOfflineHandler() {
 
             m_resourcesToIndex = new ArrayList<CmsPublishedResource>();
+            m_replayedJournals = new HashSet<String>();
         }
 
         /**
@@ -183,10 +194,15 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
                         // skip lock & unlock
                         return;
                     }
+                    CmsResource resource = (CmsResource)event.getData().get(I_CmsEventListener.KEY_RESOURCE);
+                    boolean isAclChange = (change != null)
+                        && ((((Integer)change).intValue() & CmsDriverManager.CHANGED_ACCESSCONTROL) != 0);
+                    if (resource.isFolder() && !isAclChange) {
+                        // folders are not indexed, they are only required if the inherited permissions have changed
+                        return;
+                    }
                     // a resource has been modified - offline indexes require (re)indexing
-                    List<CmsResource> resources = Collections.singletonList((CmsResource)event.getData().get(
-                        I_CmsEventListener.KEY_RESOURCE));
-                    reIndexResources(resources);
+                    reIndexResources(Collections.singletonList(resource));
                     break;
                 case I_CmsEventListener.EVENT_RESOURCES_AND_PROPERTIES_MODIFIED:
                 case I_CmsEventListener.EVENT_RESOURCE_MOVED:
@@ -204,15 +220,28 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         /**
          * Adds a list of {@link CmsPublishedResource} objects to be indexed.<p>
          * 
+         * The resources are also written to the journals of the offline indexes, 
+         * so that they are indexed after a restart if the update does not finish.<p>
+         * 
          * @param resourcesToIndex the list of {@link CmsPublishedResource} objects to be indexed
          */
         protected synchronized void addResourcesToIndex(List<CmsPublishedResource> resourcesToIndex) {
 
             m_resourcesToIndex.addAll(resourcesToIndex);
+            for (A_CmsSearchIndex index : m_offlineIndexes) {
+                try {
+                    index.getJournal().append(resourcesToIndex);
+                } catch (IOException e) {
+                    LOG.error(Messages.get().getBundle().key(Messages.LOG_JOURNAL_WRITE_FAILED_1, index.getName()), e);
+                }
+            }
         }
 
         /**
          * Returns the list of {@link CmsPublishedResource} objects to index.<p>
+         * 
+         * The journals of the offline indexes are marked accordingly, the entries are 
+         * removed from a journal when the index has been updated successfully.<p>
          *
          * @return the resources to index
          */
@@ -220,6 +249,13 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
 
             List<CmsPublishedResource> result = m_resourcesToIndex;
             m_resourcesToIndex = new ArrayList<CmsPublishedResource>();
+            for (A_CmsSearchIndex index : m_offlineIndexes) {
+                try {
+                    index.getJournal().checkpoint();
+                } catch (IOException e) {
+                    LOG.error(Messages.get().getBundle().key(Messages.LOG_JOURNAL_WRITE_FAILED_1, index.getName()), e);
+                }
+            }
             return result;
         }
 
@@ -228,6 +264,7 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
          */
         protected void initialize() {
 
+            replayJournals();
             if (m_offlineIndexes.size() > 0) {
                 // there is at least one offline index configured
                 if ((m_offlineIndexThread == null) || !m_offlineIndexThread.isAlive()) {
@@ -277,6 +314,30 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
                 addResourcesToIndex(resourcesToIndex);
             }
         }
+
+        /**
+         * Adds the resources from the journals of the offline indexes that have not been indexed 
+         * before the last shutdown.<p>
+         * 
+         * The journal of every index is only read once, the resources are not written to the journals again.<p>
+         */
+        protected synchronized void replayJournals() {
+
+            for (A_CmsSearchIndex index : m_offlineIndexes) {
+                if (m_replayedJournals.add(index.getName())) {
+                    List<CmsPublishedResource> entries = index.getJournal().readEntries();
+                    if (entries.size() > 0) {
+                        if (LOG.isInfoEnabled()) {
+                            LOG.info(Messages.get().getBundle().key(
+                                Messages.LOG_JOURNAL_REPLAY_2,
+                                Integer.valueOf(entries.size()),
+                                index.getName()));
+                        }
+                        m_resourcesToIndex.addAll(entries);
+                    }
+                }
+            }
+        }
     }
 
     /**
@@ -643,6 +704,9 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
     /** The max. char. length of the excerpt in the search result. */
     private int m_maxExcerptLength;
 
+    /** The number of threads used for the text extraction while indexing, 0 means the number of available processors. */
+    private int m_maxIndexingThreads;
+
     /** The maximum number of modifications before a commit in the search index is triggered. */
     private int m_maxModificationsBeforeCommit;
 
@@ -655,6 +719,9 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
     /** Path to index files below WEB-INF/. */
     private String m_path;
 
+    /** The root paths of the folders with changed access control entries, keyed by the publish history id. */
+    private Map<CmsUUID, Set<String>> m_permissionChangedFolders;
+
     /** The Solr configuration. */
     private CmsSolrConfiguration m_solrConfig;
 
@@ -672,6 +739,7 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         m_indexes = new ArrayList<A_CmsSearchIndex>();
         m_indexSources = new TreeMap<String, CmsSearchIndexSource>();
         m_offlineHandler = new CmsSearchOfflineHandler();
+        m_permissionChangedFolders = Collections.synchronizedMap(new HashMap<CmsUUID, Set<String>>());
         m_extractionCacheMaxAge = DEFAULT_EXTRACTION_CACHE_MAX_AGE;
         m_maxExcerptLength = DEFAULT_EXCERPT_LENGTH;
         m_offlineUpdateFrequency = DEFAULT_OFFLINE_UPDATE_FREQNENCY;
@@ -977,6 +1045,16 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
                     }
                 }
                 break;
+            case I_CmsEventListener.EVENT_BEFORE_PUBLISH_PROJECT:
+                // the access control entries of the published folders can only be compared before publishing
+                CmsPublishList publishList = (CmsPublishList)event.getData().get(I_CmsEventListener.KEY_PUBLISHLIST);
+                Set<String> changedFolders = getPermissionChangedFolders(
+                    (CmsUUID)event.getData().get(I_CmsEventListener.KEY_PROJECTID),
+                    publishList);
+                if (!changedFolders.isEmpty()) {
+                    m_permissionChangedFolders.put(publishList.getPublishHistoryId(), changedFolders);
+                }
+                break;
             case I_CmsEventListener.EVENT_CLEAR_CACHES:
                 if (LOG.isDebugEnabled()) {
                     LOG.debug(Messages.get().getBundle().key(Messages.LOG_EVENT_CLEAR_CACHES_0), new Exception());
@@ -1358,6 +1436,18 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         return m_maxExcerptLength;
     }
 
+    /**
+     * Returns the number of threads used for the text extraction while indexing.<p>
+     * 
+     * If this is 0, the number of available processors is used.<p>
+     *
+     * @return the number of threads used for the text extraction while indexing
+     */
+    public int getMaxIndexingThreads() {
+
+        return m_maxIndexingThreads;
+    }
+
     /**
      * Returns the maximum number of modifications before a commit in the search index is triggered.<p>
      *
@@ -1450,6 +1540,7 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
 
         // register this object as event listener
         OpenCms.addCmsEventListener(this, new int[] {
+            I_CmsEventListener.EVENT_BEFORE_PUBLISH_PROJECT,
             I_CmsEventListener.EVENT_CLEAR_CACHES,
             I_CmsEventListener.EVENT_PUBLISH_PROJECT,
             I_CmsEventListener.EVENT_REBUILD_SEARCHINDEXES});
@@ -1808,6 +1899,7 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
     public void removeSearchIndex(A_CmsSearchIndex searchIndex) {
 
         m_indexes.remove(searchIndex);
+        searchIndex.getJournal().clear();
         initOfflineIndexes();
 
         if (LOG.isInfoEnabled()) {
@@ -1989,6 +2081,33 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         }
     }
 
+    /**
+     * Sets the number of threads used for the text extraction while indexing.<p>
+     * 
+     * If this is 0, the number of available processors is used.<p>
+     *
+     * @param maxIndexingThreads the number of threads to set
+     */
+    public void setMaxIndexingThreads(int maxIndexingThreads) {
+
+        m_maxIndexingThreads = (maxIndexingThreads > 0) ? maxIndexingThreads : 0;
+    }
+
+    /**
+     * Sets the number of threads used for the text extraction while indexing as a string.<p>
+     *
+     * @param value the number of threads to set
+     */
+    public void setMaxIndexingThreads(String value) {
+
+        try {
+            setMaxIndexingThreads(Integer.parseInt(value));
+        } catch (Exception e) {
+            LOG.error(Messages.get().getBundle().key(Messages.LOG_PARSE_MAXTHREADS_FAILED_1, value), e);
+            setMaxIndexingThreads(0);
+        }
+    }
+
     /**
      * Sets the maximum number of modifications before a commit in the search index is triggered.<p>
      *
@@ -2179,7 +2298,7 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
      */
     protected CmsIndexingThreadManager getThreadManager() {
 
-        return new CmsIndexingThreadManager(m_timeout, m_maxModificationsBeforeCommit);
+        return new CmsIndexingThreadManager(m_timeout, m_maxModificationsBeforeCommit, m_maxIndexingThreads);
     }
 
     /**
@@ -2323,10 +2442,18 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
                 return;
             }
 
+            Set<String> permissionChangedFolders = m_permissionChangedFolders.remove(publishHistoryId);
             List<CmsPublishedResource> updateResources = new ArrayList<CmsPublishedResource>();
             Iterator<CmsPublishedResource> itPubRes = publishedResources.iterator();
             while (itPubRes.hasNext()) {
                 CmsPublishedResource res = itPubRes.next();
+                if (res.isFolder()
+                    && (permissionChangedFolders != null)
+                    && permissionChangedFolders.contains(res.getRootPath())) {
+                    // the indexes may have to update the permissions the resources below inherit from the folder
+                    updateResources.add(res);
+                    continue;
+                }
                 if (res.isFolder() || res.getState().isUnchanged()) {
                     // folders and unchanged resources don't need to be indexed after publish
                     continue;
@@ -2412,7 +2539,8 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
      * 
      * If the optional List of <code>{@link CmsPublishedResource}</code> instances is provided, the index will be 
      * incrementally updated for these resources only. If this List is <code>null</code> or empty, 
-     * the index will be fully rebuild.<p>
+     * the index will be fully rebuild, or only the changed resources are updated in case 
+     * the index is configured for an incremental rebuild.<p>
      * 
      * @param index the index to update or rebuild
      * @param report the report to write output messages to 
@@ -2443,7 +2571,16 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         // switch to the index project
         cms.getRequestContext().setCurrentProject(cms.readProject(index.getProject()));
 
-        if ((resourcesToIndex == null) || resourcesToIndex.isEmpty()) {
+        Set<String> indexedRootPaths = null;
+        if (((resourcesToIndex == null) || resourcesToIndex.isEmpty()) && index.isIncrementalRebuild()) {
+            // the existing index is only updated if the indexed documents can be determined
+            indexedRootPaths = index.getIndexedRootPaths();
+        }
+
+        if ((indexedRootPaths != null) && !indexedRootPaths.isEmpty()) {
+            // only rebuild the changed resources
+            updateIndexRebuildIncremental(cms, index, report, indexedRootPaths);
+        } else if ((resourcesToIndex == null) || resourcesToIndex.isEmpty()) {
             // rebuild the complete index
 
             // create a new thread manager for the indexing threads
@@ -2710,6 +2847,8 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
                     // switch to the index project
                     cms.getRequestContext().setCurrentProject(cms.readProject(index.getProject()));
                     updateIndexIncremental(cms, index, report, resourcesToIndex);
+                    // the resources have been written to the index, they are no longer required in the journal
+                    index.getJournal().commit();
                 } catch (CmsException e) {
                     LOG.error(Messages.get().getBundle().key(Messages.LOG_UPDATE_INDEX_FAILED_1, index.getName()), e);
                 }
@@ -2717,6 +2856,99 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         }
     }
 
+    /**
+     * Rebuilds the given index by only updating the resources that have changed since they were indexed.<p>
+     * 
+     * All resources of the index sources are compared with the indexed documents. A resource 
+     * is extracted again if there is no document for it, or if the date of last modification 
+     * or the content date of the resource differ from the dates stored in the document. 
+     * Documents of resources that no longer exist in the index sources are deleted.<p>
+     * 
+     * @param cms the OpenCms user context to use for accessing the VFS
+     * @param index the index to rebuild
+     * @param report the report to write output messages to 
+     * @param indexedRootPaths the root paths of all documents currently stored in the index
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    protected synchronized void updateIndexRebuildIncremental(
+        CmsObject cms,
+        A_CmsSearchIndex index,
+        I_CmsReport report,
+        Set<String> indexedRootPaths) throws CmsException {
+
+        report.println(
+            Messages.get().container(Messages.RPT_SEARCH_INDEXING_REBUILD_BEGIN_1, index.getName()),
+            I_CmsReport.FORMAT_HEADLINE);
+
+        List<CmsPublishedResource> changedResources = new ArrayList<CmsPublishedResource>();
+        Set<String> deletedRootPaths = new HashSet<String>(indexedRootPaths);
+        boolean complete = true;
+        for (CmsSearchIndexSource source : index.getSources()) {
+            for (String resourceName : source.getResourcesNames()) {
+                List<CmsResource> resources = Collections.emptyList();
+                try {
+                    resources = cms.readResources(resourceName, CmsResourceFilter.IGNORE_EXPIRATION.addRequireFile());
+                } catch (CmsVfsResourceNotFoundException e) {
+                    // the source folder does not exist, so all documents below it have to be deleted
+                } catch (CmsException e) {
+                    // keep the existing documents since it is unknown which resources still exist
+                    complete = false;
+                    LOG.warn(
+                        Messages.get().getBundle().key(Messages.LOG_UNABLE_TO_READ_SOURCE_2, resourceName, index.getName()),
+                        e);
+                }
+                for (CmsResource resource : resources) {
+                    deletedRootPaths.remove(resource.getRootPath());
+                    if (!indexedRootPaths.contains(resource.getRootPath())
+                        || isChangedSinceIndexed(index, resource)) {
+                        changedResources.add(new CmsPublishedResource(resource));
+                    }
+                }
+            }
+        }
+
+        report.println(Messages.get().container(
+            Messages.RPT_SEARCH_INDEXING_REBUILD_CHANGES_2,
+            Integer.valueOf(changedResources.size()),
+            Integer.valueOf(complete ? deletedRootPaths.size() : 0)), I_CmsReport.FORMAT_NOTE);
+
+        if (complete && !deletedRootPaths.isEmpty()) {
+            I_CmsIndexWriter writer = index.getIndexWriter(report, false);
+            try {
+                for (String rootPath : deletedRootPaths) {
+                    try {
+                        writer.deleteDocuments(rootPath);
+                    } catch (IOException e) {
+                        LOG.error(Messages.get().getBundle().key(
+                            Messages.LOG_IO_INDEX_DOCUMENT_DELETE_2,
+                            rootPath,
+                            index.getName()), e);
+                    }
+                }
+            } finally {
+                try {
+                    writer.commit();
+                } catch (IOException e) {
+                    LOG.error(
+                        Messages.get().getBundle().key(
+                            Messages.LOG_IO_INDEX_WRITER_COMMIT_2,
+                            index.getName(),
+                            index.getPath()),
+                        e);
+                }
+                index.indexSearcherUpdate();
+            }
+        }
+        if (!changedResources.isEmpty()) {
+            updateIndexIncremental(cms, index, report, changedResources);
+        }
+
+        report.println(
+            Messages.get().container(Messages.RPT_SEARCH_INDEXING_REBUILD_END_1, index.getName()),
+            I_CmsReport.FORMAT_HEADLINE);
+    }
+
     /**
      * Creates the Solr core container.<p>
      * 
@@ -2763,6 +2995,83 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         return report;
     }
 
+    /**
+     * Returns the root paths of the folders to publish whose access control entries differ
+     * between the given project and the online project.<p>
+     *
+     * The resources below these folders inherit changed permissions, so indexes that store
+     * the read permissions have to check them after publishing. Folders are only compared
+     * if such an index is updated automatically.<p>
+     *
+     * @param projectId the id of the project the resources are published from
+     * @param publishList the publish list
+     *
+     * @return the root paths of the folders with changed access control entries
+     */
+    private Set<String> getPermissionChangedFolders(CmsUUID projectId, CmsPublishList publishList) {
+
+        Set<String> result = new HashSet<String>();
+        boolean isRequired = false;
+        for (A_CmsSearchIndex index : m_indexes) {
+            isRequired |= (index instanceof CmsSolrIndex)
+                && index.isCheckingPermissions()
+                && A_CmsSearchIndex.REBUILD_MODE_AUTO.equals(index.getRebuildMode());
+        }
+        if (!isRequired || (projectId == null) || publishList.getFolderList().isEmpty()) {
+            return result;
+        }
+        try {
+            CmsObject offlineCms = OpenCms.initCmsObject(m_adminCms);
+            offlineCms.getRequestContext().setSiteRoot("/");
+            offlineCms.getRequestContext().setCurrentProject(offlineCms.readProject(projectId));
+            CmsObject onlineCms = OpenCms.initCmsObject(offlineCms);
+            onlineCms.getRequestContext().setCurrentProject(onlineCms.readProject(CmsProject.ONLINE_PROJECT_ID));
+            for (CmsResource folder : publishList.getFolderList()) {
+                if (folder.getState().isNew() || folder.getState().isDeleted()) {
+                    // the resources below a new or deleted folder are published themselves
+                    continue;
+                }
+                try {
+                    Set<CmsAccessControlEntry> offlineEntries = new HashSet<CmsAccessControlEntry>(
+                        offlineCms.getAccessControlEntries(folder.getRootPath(), false));
+                    Set<CmsAccessControlEntry> onlineEntries = new HashSet<CmsAccessControlEntry>(
+                        onlineCms.getAccessControlEntries(folder.getRootPath(), false));
+                    if (!offlineEntries.equals(onlineEntries)) {
+                        result.add(folder.getRootPath());
+                    }
+                } catch (CmsVfsResourceNotFoundException e) {
+                    // the folder has been moved, the resources below are published themselves
+                    LOG.debug(e.getLocalizedMessage(), e);
+                }
+            }
+        } catch (CmsException e) {
+            LOG.error(e.getLocalizedMessage(), e);
+        }
+        return result;
+    }
+
+    /**
+     * Checks if the given resource has been changed since it was written to the given index.<p>
+     * 
+     * @param index the index to check
+     * @param resource the resource to check
+     * 
+     * @return <code>true</code> if the dates stored in the index document do not match the resource dates
+     */
+    private boolean isChangedSinceIndexed(A_CmsSearchIndex index, CmsResource resource) {
+
+        I_CmsSearchDocument doc = index.getDocument(I_CmsSearchField.FIELD_PATH, resource.getRootPath());
+        if (doc == null) {
+            return true;
+        }
+        Date lastModified = doc.getFieldValueAsDate(I_CmsSearchField.FIELD_DATE_LASTMODIFIED);
+        Date contentDate = doc.getFieldValueAsDate(I_CmsSearchField.FIELD_DATE_CONTENT);
+        return (lastModified == null)
+            || (contentDate == null)
+            || (lastModified.getTime() != resource.getDateLastModified())
+            || (contentDate.getTime() != resource.getDateContent());
+    }
+
     /**
      * Register the given index on the configured HTTP server.<p>
      * 
@@ -140,8 +140,7 @@ public class CmsVfsIndexer implements I_CmsIndexer {
             CmsPublishedResource pubRes = i.next();
             // VFS resources will always have a structure id
             if (!pubRes.getStructureId().isNullUUID()) {
-                // use utility method from CmsProject to check if published resource is "inside" this index source
-                if (CmsProject.isInsideProject(source.getResourcesNames(), pubRes.getRootPath())) {
+                if (isInsideSource(source, pubRes)) {
                     // the resource is "inside" this index source
                     addResourceToUpdateData(pubRes, result);
                 }
@@ -254,6 +253,16 @@ public class CmsVfsIndexer implements I_CmsIndexer {
                     resourcesAlreadyUpdated.add(resource.getRootPath());
                     updateResource(writer, threadManager, resource);
                 }
+                if (resource.isFolder()) {
+                    // the folder is only contained if its access control entries have changed, the index
+                    // may contain information the resources below inherit from the folder
+                    for (CmsResource child : m_index.getResourcesToReindex(m_cms, resource)) {
+                        if (!resourcesAlreadyUpdated.contains(child.getRootPath())) {
+                            resourcesAlreadyUpdated.add(child.getRootPath());
+                            updateResource(writer, threadManager, child);
+                        }
+                    }
+                }
             }
         }
     }
@@ -300,6 +309,32 @@ public class CmsVfsIndexer implements I_CmsIndexer {
         }
     }
 
+    /**
+     * Checks if the given published resource belongs to the given index source.<p>
+     * 
+     * Folders above the resources of the index source are included, since the indexed 
+     * resources may inherit information like the read permissions from them.<p>
+     * 
+     * @param source the index source
+     * @param pubRes the published resource to check
+     * 
+     * @return <code>true</code> if the published resource belongs to the index source
+     */
+    protected boolean isInsideSource(CmsSearchIndexSource source, CmsPublishedResource pubRes) {
+
+        if (CmsProject.isInsideProject(source.getResourcesNames(), pubRes.getRootPath())) {
+            return true;
+        }
+        if (pubRes.isFolder()) {
+            for (String resourceName : source.getResourcesNames()) {
+                if (resourceName.startsWith(pubRes.getRootPath())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * Checks if the published resource is inside the time window set with release and expiration date.<p>
      * 
@@ -307,6 +307,18 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_IO_INDEX_WRITER_OPTIMIZE_2 = "LOG_IO_INDEX_WRITER_OPTIMIZE_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_JOURNAL_INVALID_ENTRY_2 = "LOG_JOURNAL_INVALID_ENTRY_2";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_JOURNAL_READ_FAILED_1 = "LOG_JOURNAL_READ_FAILED_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_JOURNAL_REPLAY_2 = "LOG_JOURNAL_REPLAY_2";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_JOURNAL_WRITE_FAILED_1 = "LOG_JOURNAL_WRITE_FAILED_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_NO_INDEX_WITH_NAME_1 = "LOG_NO_INDEX_WITH_NAME_1";
 
@@ -334,6 +346,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_PARSE_MAXCOMMIT_FAILED_2 = "LOG_PARSE_MAXCOMMIT_FAILED_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_PARSE_MAXTHREADS_FAILED_1 = "LOG_PARSE_MAXTHREADS_FAILED_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_PARSE_OFFLINE_UPDATE_FAILED_2 = "LOG_PARSE_OFFLINE_UPDATE_FAILED_2";
 
@@ -442,6 +457,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String RPT_SEARCH_INDEXING_REBUILD_BEGIN_1 = "RPT_SEARCH_INDEXING_REBUILD_BEGIN_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_SEARCH_INDEXING_REBUILD_CHANGES_2 = "RPT_SEARCH_INDEXING_REBUILD_CHANGES_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String RPT_SEARCH_INDEXING_REBUILD_END_1 = "RPT_SEARCH_INDEXING_REBUILD_END_1";
 
@@ -131,6 +131,18 @@ public interface I_CmsSearchField extends Serializable {
      */
     String FIELD_PRIORITY = "priority";
 
+    /** Name of the field that contains the principals that are allowed to read the document. */
+    String FIELD_READ_ALLOWED = "read_allowed";
+
+    /** Name of the field that indicates if the read permissions of the document must be checked in the VFS. */
+    String FIELD_READ_CHECK = "read_check";
+
+    /** Name of the field that contains the principals that are denied to read the document. */
+    String FIELD_READ_DENIED = "read_denied";
+
+    /** Name of the field that contains all principals with an access control entry for the document. */
+    String FIELD_READ_PRINCIPALS = "read_principals";
+
     /** Name of the field that contains the resource locales of the document. */
     String FIELD_RESOURCE_LOCALES = "res_locales";
 
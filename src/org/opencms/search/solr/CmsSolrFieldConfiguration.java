@@ -36,8 +36,10 @@ import org.opencms.file.CmsProperty;
 import org.opencms.file.CmsResource;
 import org.opencms.file.types.CmsResourceTypeXmlContent;
 import org.opencms.file.types.CmsResourceTypeXmlPage;
+import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
+import org.opencms.search.A_CmsSearchIndex;
 import org.opencms.search.CmsSearchIndexSource;
 import org.opencms.search.I_CmsSearchDocument;
 import org.opencms.search.documents.CmsDocumentDependency;
@@ -135,6 +137,29 @@ public class CmsSolrFieldConfiguration extends A_CmsSearchFieldConfiguration {
         return null;
     }
 
+    /**
+     * Creates the document and adds the read permission fields if the index checks permissions.<p>
+     * 
+     * @see org.opencms.search.fields.A_CmsSearchFieldConfiguration#createDocument(org.opencms.file.CmsObject, org.opencms.file.CmsResource, org.opencms.search.A_CmsSearchIndex, org.opencms.search.extractors.I_CmsExtractionResult)
+     */
+    @Override
+    public I_CmsSearchDocument createDocument(
+        CmsObject cms,
+        CmsResource resource,
+        A_CmsSearchIndex index,
+        I_CmsExtractionResult extraction) throws CmsException {
+
+        I_CmsSearchDocument document = super.createDocument(cms, resource, index, extraction);
+        if (index.isCheckingPermissions()) {
+            CmsSolrPermissionFilter.appendPermissionFields(
+                cms,
+                resource,
+                index,
+                (SolrInputDocument)document.getDocument());
+        }
+        return document;
+    }
+
     /**
      * @see org.opencms.search.fields.I_CmsSearchFieldConfiguration#createEmptyDocument(org.opencms.file.CmsResource)
      */
@@ -36,8 +36,10 @@ import org.opencms.configuration.CmsParameterConfiguration;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsPropertyDefinition;
 import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceFilter;
 import org.opencms.file.types.CmsResourceTypeXmlContainerPage;
 import org.opencms.file.types.CmsResourceTypeXmlContent;
+import org.opencms.flex.CmsFlexController;
 import org.opencms.i18n.CmsEncoder;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsIllegalArgumentException;
@@ -61,15 +63,18 @@ import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 import javax.servlet.ServletResponse;
 
 import org.apache.commons.logging.Log;
 import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrServer;
+import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.embedded.EmbeddedSolrServer;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.client.solrj.util.ClientUtils;
@@ -114,6 +119,9 @@ public class CmsSolrIndex extends A_CmsSearchIndex {
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsSolrIndex.class);
 
+    /** The number of documents read at once when iterating over the documents of the index. */
+    private static final int REINDEX_BATCH_SIZE = 500;
+
     /** Indicates the maximum number of documents from the complete result set to return. */
     private static final int ROWS_MAX = 50;
 
@@ -257,6 +265,42 @@ public class CmsSolrIndex extends A_CmsSearchIndex {
         return null;
     }
 
+    /**
+     * @see org.opencms.search.A_CmsSearchIndex#getIndexedRootPaths()
+     */
+    @Override
+    public Set<String> getIndexedRootPaths() {
+
+        if (m_solr == null) {
+            return null;
+        }
+        Set<String> result = new HashSet<String>();
+        try {
+            SolrQuery query = new SolrQuery("*:*");
+            query.setFields(I_CmsSearchField.FIELD_PATH);
+            query.setSortField(I_CmsSearchField.FIELD_PATH, SolrQuery.ORDER.asc);
+            query.setRows(new Integer(REINDEX_BATCH_SIZE));
+            int start = 0;
+            long found;
+            do {
+                query.setStart(new Integer(start));
+                SolrDocumentList page = m_solr.query(query).getResults();
+                found = page.getNumFound();
+                for (SolrDocument doc : page) {
+                    Object path = doc.getFirstValue(I_CmsSearchField.FIELD_PATH);
+                    if (path != null) {
+                        result.add(path.toString());
+                    }
+                }
+                start += REINDEX_BATCH_SIZE;
+            } while (start < found);
+        } catch (SolrServerException e) {
+            LOG.error(Messages.get().getBundle().key(Messages.LOG_SOLR_ERR_INDEXED_PATHS_1, getName()), e);
+            return null;
+        }
+        return result;
+    }
+
     /**
      * Returns the language locale for the given resource in this index.<p>
      * 
@@ -295,6 +339,60 @@ public class CmsSolrIndex extends A_CmsSearchIndex {
         return m_postProcessor;
     }
 
+    /**
+     * Returns the documents below the given folder whose indexed read permissions are outdated.<p>
+     * 
+     * @see org.opencms.search.A_CmsSearchIndex#getResourcesToReindex(org.opencms.file.CmsObject, org.opencms.file.CmsResource)
+     */
+    @Override
+    public List<CmsResource> getResourcesToReindex(CmsObject cms, CmsResource folder) {
+
+        List<CmsResource> result = new ArrayList<CmsResource>();
+        if (!isCheckingPermissions() || (m_solr == null)) {
+            // no permissions are indexed
+            return result;
+        }
+        SolrQuery query = new SolrQuery(CmsSolrQuery.DEFAULT_QUERY);
+        query.addFilterQuery(I_CmsSearchField.FIELD_PARENT_FOLDERS
+            + ":"
+            + ClientUtils.escapeQueryChars(folder.getRootPath()));
+        query.setFields(
+            I_CmsSearchField.FIELD_PATH,
+            I_CmsSearchField.FIELD_READ_ALLOWED,
+            I_CmsSearchField.FIELD_READ_CHECK,
+            I_CmsSearchField.FIELD_READ_DENIED,
+            I_CmsSearchField.FIELD_READ_PRINCIPALS);
+        query.setRows(new Integer(REINDEX_BATCH_SIZE));
+        try {
+            int start = 0;
+            SolrDocumentList docs;
+            do {
+                query.setStart(new Integer(start));
+                docs = m_solr.query(query).getResults();
+                for (SolrDocument doc : docs) {
+                    String path = (String)doc.getFirstValue(I_CmsSearchField.FIELD_PATH);
+                    try {
+                        CmsResource resource = cms.readResource(
+                            cms.getRequestContext().removeSiteRoot(path),
+                            CmsResourceFilter.IGNORE_EXPIRATION);
+                        if (CmsSolrPermissionFilter.hasChangedPermissions(cms, resource, this, doc)) {
+                            result.add(resource);
+                        }
+                    } catch (CmsException e) {
+                        // the resource has been deleted, the indexer takes care of that
+                        LOG.debug(e.getLocalizedMessage(), e);
+                    }
+                }
+                start += docs.size();
+            } while (!docs.isEmpty() && (start < docs.getNumFound()));
+        } catch (SolrServerException e) {
+            LOG.error(
+                Messages.get().getBundle().key(Messages.LOG_SOLR_ERR_PERMISSION_UPDATE_1, folder.getRootPath()),
+                e);
+        }
+        return result;
+    }
+
     /**
      * @see org.opencms.search.A_CmsSearchIndex#initialize()
      */
@@ -358,26 +456,19 @@ public class CmsSolrIndex extends A_CmsSearchIndex {
      * 
      * <h4>What will be done with the Solr search result?</h4>
      * <ul>
-     * <li>Although it can happen, that there are less results returned than rows were requested
-     * (imagine an index containing less documents than requested rows) we try to guarantee
-     * the requested amount of search results and to provide a working pagination with
-     * security check.</li>
-     * 
-     * <li>To be sure we get enough documents left even the permission check reduces the amount
-     * of found documents, the rows are multiplied by <code>'5'</code> and the current page 
-     * additionally the offset is added. The count of documents we don't have enough 
-     * permissions for grows with increasing page number, that's why we also multiply 
-     * the rows by the current page count.</li>
-     * 
-     * <li>Also make sure we perform the permission check for all found documents, so start with
-     * the first found doc.</li>
+     * <li>If the index checks permissions, the query is restricted to the documents the current user 
+     * is allowed to read with a filter query on the indexed read permissions (see {@link CmsSolrPermissionFilter}), 
+     * and to the resources that are released and not expired. This way Solr only returns documents 
+     * the user can read and the total hit count is correct.</li>
+     * 
+     * <li>Only the documents of the requested page are read from the VFS. If one of them can not 
+     * be read, because its read permission could not be indexed or the index is not up to date, 
+     * it is replaced with the following documents, so that we still return the requested amount 
+     * of search results.</li>
      * </ul>
      * 
-     * <b>NOTE:</b> If latter pages than the current one are containing protected documents the
-     * total hit count will be incorrect, because the permission check ends if we have 
-     * enough results found for the page to display. With other words latter pages than 
-     * the current can contain documents that will first be checked if those pages are 
-     * requested to be displayed, what causes a incorrect hit count.<p>
+     * <b>NOTE:</b> Documents that are only removed by the VFS check reduce the hit count 
+     * when they are found, and can shift the following pages by the number of removed documents.<p>
      * 
      * @param cms the current OpenCms context
      * @param ignoreMaxRows <code>true</code> to return all all requested rows, <code>false</code> to use max rows
@@ -392,21 +483,28 @@ public class CmsSolrIndex extends A_CmsSearchIndex {
      * @see org.opencms.search.I_CmsSearchDocument
      * @see org.opencms.search.solr.CmsSolrQuery
      */
-    public synchronized CmsSolrResultList search(CmsObject cms, final CmsSolrQuery query, boolean ignoreMaxRows)
+    public CmsSolrResultList search(CmsObject cms, final CmsSolrQuery query, boolean ignoreMaxRows)
     throws CmsSearchException {
 
         int previousPriority = Thread.currentThread().getPriority();
         long startTime = System.currentTimeMillis();
 
+        // the results are read from the index, so new matching resources can not be tracked in the Flex cache
+        CmsFlexController.markThreadUntracked();
+
         // remember the initial query
         SolrQuery initQuery = query.clone();
 
-        query.setHighlight(false);
+        // work on a copy, so the query of the caller is not changed
+        SolrQuery solrQuery = query.getCopy();
+        solrQuery.setHighlight(false);
 
         try {
 
             // initialize the search context
             CmsObject searchCms = OpenCms.initCmsObject(cms);
+            // keep the request time of the given context, since it may be a time warp
+            searchCms.getRequestContext().setRequestTime(cms.getRequestContext().getRequestTime());
 
             // change thread priority in order to reduce search impact on overall system performance
             if (getPriority() > 0) {
@@ -417,58 +515,59 @@ public class CmsSolrIndex extends A_CmsSearchIndex {
             List<CmsSearchResource> resourceDocumentList = new ArrayList<CmsSearchResource>();
             SolrDocumentList solrDocumentList = new SolrDocumentList();
 
-            // Initialize rows, offset, end and the current page.
-            int rows = query.getRows() != null ? query.getRows().intValue() : CmsSolrQuery.DEFAULT_ROWS.intValue();
+            // Initialize rows, offset and the current page.
+            int rows = solrQuery.getRows() != null
+            ? solrQuery.getRows().intValue()
+            : CmsSolrQuery.DEFAULT_ROWS.intValue();
             if (!ignoreMaxRows && (rows > ROWS_MAX)) {
                 rows = ROWS_MAX;
             }
-            int start = query.getStart() != null ? query.getStart().intValue() : 0;
-            int end = start + rows;
+            int start = solrQuery.getStart() != null ? solrQuery.getStart().intValue() : 0;
             int page = 0;
             if (rows > 0) {
                 page = Math.round(start / rows) + 1;
             }
 
-            // set the start to '0' and expand the rows before performing the query
-            query.setStart(new Integer(0));
-            query.setRows(new Integer((5 * rows * page) + start));
+            // let Solr only return the documents the user is allowed to read
+            if (isCheckingPermissions()) {
+                long requestTime = searchCms.getRequestContext().getRequestTime();
+                solrQuery.addFilterQuery(CmsSolrPermissionFilter.createTimeWindowFilterQuery(requestTime));
+                try {
+                    String permissionFilter = CmsSolrPermissionFilter.createFilterQuery(searchCms);
+                    if (permissionFilter != null) {
+                        solrQuery.addFilterQuery(permissionFilter);
+                    }
+                } catch (CmsException e) {
+                    // all found documents will be checked in the VFS
+                    LOG.warn(Messages.get().getBundle().key(Messages.LOG_SOLR_ERR_PERMISSION_FILTER_0), e);
+                }
+            }
 
-            // perform the Solr query and remember the original Solr response
-            QueryResponse queryResponse = m_solr.query(query);
+            // perform the Solr query for the requested page and remember the original Solr response
+            solrQuery.setStart(new Integer(start));
+            solrQuery.setRows(new Integer(rows));
+            QueryResponse queryResponse = m_solr.query(solrQuery);
             long solrTime = System.currentTimeMillis() - startTime;
 
             // initialize the counts
             long hitCount = queryResponse.getResults().getNumFound();
-            start = -1;
-            end = -1;
-            if ((rows > 0) && (page > 0) && (hitCount > 0)) {
-                // calculate the final size of the search result
-                start = rows * (page - 1);
-                end = start + rows;
-                // ensure that both i and n are inside the range of foundDocuments.size()
-                start = new Long((start > hitCount) ? hitCount : start).intValue();
-                end = new Long((end > hitCount) ? hitCount : end).intValue();
-            } else {
-                // return all found documents in the search result
-                start = 0;
-                end = new Long(hitCount).intValue();
-            }
             long visibleHitCount = hitCount;
             float maxScore = 0;
 
             // process found documents
-            List<CmsSearchResource> allDocs = new ArrayList<CmsSearchResource>();
-            int cnt = 0;
-            for (int i = 0; (i < queryResponse.getResults().size()) && (cnt < end); i++) {
-                try {
-                    SolrDocument doc = queryResponse.getResults().get(i);
-                    CmsSolrDocument searchDoc = new CmsSolrDocument(doc);
-                    if (needsPermissionCheck(searchDoc)) {
-                        // only if the document is an OpenCms internal resource perform the permission check
-                        CmsResource resource = getResource(searchCms, searchDoc);
-                        if (resource != null) {
-                            // permission check performed successfully: the user has read permissions!
-                            if (cnt >= start) {
+            SolrDocumentList foundDocuments = queryResponse.getResults();
+            int next = start;
+            while (true) {
+                for (int i = 0; (i < foundDocuments.size()) && (resourceDocumentList.size() < rows); i++) {
+                    next++;
+                    try {
+                        SolrDocument doc = foundDocuments.get(i);
+                        CmsSolrDocument searchDoc = new CmsSolrDocument(doc);
+                        if (needsPermissionCheck(searchDoc)) {
+                            // only if the document is an OpenCms internal resource perform the permission check
+                            CmsResource resource = getResource(searchCms, searchDoc);
+                            if (resource != null) {
+                                // permission check performed successfully: the user has read permissions!
                                 if (m_postProcessor != null) {
                                     doc = m_postProcessor.process(
                                         searchCms,
@@ -478,33 +577,23 @@ public class CmsSolrIndex extends A_CmsSearchIndex {
                                 resourceDocumentList.add(new CmsSearchResource(resource, searchDoc));
                                 solrDocumentList.add(doc);
                                 maxScore = maxScore < searchDoc.getScore() ? searchDoc.getScore() : maxScore;
+                            } else {
+                                visibleHitCount--;
                             }
-                            allDocs.add(new CmsSearchResource(resource, searchDoc));
-                            cnt++;
-                        } else {
-                            visibleHitCount--;
                         }
+                    } catch (Exception e) {
+                        // should not happen, but if it does we want to go on with the next result nevertheless                        
+                        LOG.warn(Messages.get().getBundle().key(Messages.LOG_SOLR_ERR_RESULT_ITERATION_FAILED_0), e);
                     }
-                } catch (Exception e) {
-                    // should not happen, but if it does we want to go on with the next result nevertheless                        
-                    LOG.warn(Messages.get().getBundle().key(Messages.LOG_SOLR_ERR_RESULT_ITERATION_FAILED_0), e);
                 }
-            }
-            // the last documents were all secret so let's take the last found docs
-            if (resourceDocumentList.isEmpty() && (allDocs.size() > 0)) {
-                page = Math.round(allDocs.size() / rows) + 1;
-                int showCount = allDocs.size() % rows;
-                showCount = showCount == 0 ? rows : showCount;
-                start = allDocs.size() - new Long(showCount).intValue();
-                end = allDocs.size();
-                if (allDocs.size() > start) {
-                    resourceDocumentList = allDocs.subList(start, end);
-                    for (CmsSearchResource r : resourceDocumentList) {
-                        maxScore = maxScore < r.getDocument().getScore() ? r.getDocument().getScore() : maxScore;
-                        solrDocumentList.add(((CmsSolrDocument)r.getDocument()).getSolrDocument());
-                    }
+                if ((resourceDocumentList.size() >= rows) || foundDocuments.isEmpty() || (next >= hitCount)) {
+                    break;
                 }
+                // some documents could not be read, fill the page with the following documents
+                solrQuery.setStart(new Integer(next));
+                foundDocuments = m_solr.query(solrQuery).getResults();
             }
+            int end = start + resourceDocumentList.size();
             long processTime = System.currentTimeMillis() - startTime - solrTime;
 
             // create and return the result
@@ -532,7 +621,7 @@ public class CmsSolrIndex extends A_CmsSearchIndex {
                     new Long(solrTime),
                     new Long(processTime),
                     new Long(result.getHighlightEndTime() != 0 ? result.getHighlightEndTime() - startTime : 0)};
-                LOG.debug(query.toString()
+                LOG.debug(solrQuery.toString()
                     + "\n"
                     + Messages.get().getBundle().key(Messages.LOG_SOLR_SEARCH_EXECUTED_5, logParams));
             }
@@ -0,0 +1,352 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.search.solr;
+
+import org.opencms.file.CmsGroup;
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsResource;
+import org.opencms.file.CmsUser;
+import org.opencms.main.CmsException;
+import org.opencms.main.CmsLog;
+import org.opencms.main.OpenCms;
+import org.opencms.search.A_CmsSearchIndex;
+import org.opencms.search.fields.I_CmsSearchField;
+import org.opencms.security.CmsAccessControlEntry;
+import org.opencms.security.CmsAccessControlList;
+import org.opencms.security.CmsPermissionSet;
+import org.opencms.security.CmsPermissionSetCustom;
+import org.opencms.security.CmsRole;
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.commons.logging.Log;
+import org.apache.solr.client.solrj.util.ClientUtils;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.schema.DateField;
+
+/**
+ * Indexes the read permissions of resources and creates the Solr filter queries 
+ * that restrict a search to the documents the current user is allowed to read.<p>
+ * 
+ * For every document the principals with an access control entry that allows or denies 
+ * the read permission are indexed, taking inherited entries into account. A user can read 
+ * a document if one of the principals of the user (the user itself, the groups and the roles 
+ * of the user) is allowed to read it and none is denied, or if no principal of the user has an 
+ * access control entry and the "all others" entry allows reading.<p>
+ * 
+ * If the read permission of a document can not be expressed this way, for example because 
+ * the access control list could not be read, the document is flagged with 
+ * {@link I_CmsSearchField#FIELD_READ_CHECK} so that it always passes the filter and is checked 
+ * in the VFS instead. Documents of indexes that have been built without the permission fields 
+ * are treated the same way.<p>
+ * 
+ * @since 8.5.0
+ */
+public final class CmsSolrPermissionFilter {
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsSolrPermissionFilter.class);
+
+    /** The names of the indexed permission fields. */
+    private static final String[] PERMISSION_FIELDS = {
+        I_CmsSearchField.FIELD_READ_ALLOWED,
+        I_CmsSearchField.FIELD_READ_CHECK,
+        I_CmsSearchField.FIELD_READ_DENIED,
+        I_CmsSearchField.FIELD_READ_PRINCIPALS};
+
+    /**
+     * Hides the public constructor.<p>
+     */
+    private CmsSolrPermissionFilter() {
+
+        // noop
+    }
+
+    /**
+     * Adds the read permission fields of the given resource to the given Solr document.<p>
+     * 
+     * @param cms the current OpenCms context, used to read the access control list
+     * @param resource the resource to add the read permissions for
+     * @param index the index the document is created for
+     * @param document the document to add the fields to
+     */
+    public static void appendPermissionFields(
+        CmsObject cms,
+        CmsResource resource,
+        A_CmsSearchIndex index,
+        SolrInputDocument document) {
+
+        Map<String, Set<String>> fields = getPermissionFields(cms, resource, index);
+        for (Map.Entry<String, Set<String>> field : fields.entrySet()) {
+            for (String value : field.getValue()) {
+                if (I_CmsSearchField.FIELD_READ_CHECK.equals(field.getKey())) {
+                    document.addField(field.getKey(), Boolean.valueOf(value));
+                } else {
+                    document.addField(field.getKey(), value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the filter query that restricts a search to the documents the user of the given context may read.<p>
+     * 
+     * @param cms the current OpenCms context
+     * 
+     * @return the filter query, or <code>null</code> if the user may read all documents
+     * 
+     * @throws CmsException if the groups or roles of the user could not be read
+     */
+    public static String createFilterQuery(CmsObject cms) throws CmsException {
+
+        CmsUser user = cms.getRequestContext().getCurrentUser();
+        List<String> principals = new ArrayList<String>();
+        principals.add(user.getId().toString());
+        for (CmsGroup group : cms.getGroupsOfUser(user.getName(), false)) {
+            principals.add(group.getId().toString());
+        }
+
+        List<String> manageablePaths = Collections.emptyList();
+        if (!user.isGuestUser()) {
+            List<CmsRole> roles = OpenCms.getRoleManager().getRolesOfUser(cms, user.getName(), "", true, false, false);
+            for (CmsRole role : roles) {
+                String id = role.getId().toString();
+                if (!principals.contains(id)) {
+                    principals.add(id);
+                }
+                if (CmsRole.VFS_MANAGER.getRoleName().equals(role.getRoleName())) {
+                    // VFS managers can read all resources of their organizational units, regardless of the permissions
+                    if (manageablePaths.isEmpty()) {
+                        manageablePaths = new ArrayList<String>();
+                    }
+                    for (CmsResource resource : OpenCms.getRoleManager().getManageableResources(cms, role)) {
+                        if ("/".equals(resource.getRootPath())) {
+                            return null;
+                        }
+                        manageablePaths.add(resource.getRootPath());
+                    }
+                }
+            }
+        }
+
+        String principalTerms = createTerms(principals);
+        StringBuffer result = new StringBuffer(512);
+        // documents that have to be checked in the VFS
+        result.append(I_CmsSearchField.FIELD_READ_CHECK).append(":true");
+        // documents that have been indexed without the permission fields
+        result.append(" OR (*:* -").append(I_CmsSearchField.FIELD_READ_CHECK).append(":[* TO *])");
+        // documents that one of the principals may read
+        result.append(" OR (+").append(I_CmsSearchField.FIELD_READ_ALLOWED).append(':').append(principalTerms);
+        result.append(" -").append(I_CmsSearchField.FIELD_READ_DENIED).append(':').append(principalTerms).append(')');
+        // documents that all others may read, if none of the principals has an access control entry
+        result.append(" OR (+").append(I_CmsSearchField.FIELD_READ_ALLOWED).append(":\"").append(
+            CmsAccessControlEntry.PRINCIPAL_ALL_OTHERS_ID).append('"');
+        result.append(" -").append(I_CmsSearchField.FIELD_READ_PRINCIPALS).append(':').append(principalTerms).append(
+            ')');
+        for (String path : manageablePaths) {
+            if (CmsResource.isFolder(path)) {
+                result.append(" OR ").append(I_CmsSearchField.FIELD_PARENT_FOLDERS);
+            } else {
+                result.append(" OR ").append(I_CmsSearchField.FIELD_PATH);
+            }
+            result.append(':').append(ClientUtils.escapeQueryChars(path));
+        }
+        return result.toString();
+    }
+
+    /**
+     * Creates the filter query that restricts a search to the documents that are released and not expired
+     * at the given time.<p>
+     * 
+     * The time is the request time of the current context rather than the time of the Solr server, 
+     * so that a time warp set for the current user is respected. Documents without a release 
+     * or expiration date, e.g. documents not created from a VFS resource, are not restricted.<p>
+     * 
+     * @param time the request time of the current context
+     * 
+     * @return the filter query
+     */
+    public static String createTimeWindowFilterQuery(long time) {
+
+        String date = DateField.formatExternal(new Date(time));
+        StringBuffer result = new StringBuffer(256);
+        result.append("{!cache=false}");
+        appendOptionalRange(result, I_CmsSearchField.FIELD_DATE_RELEASED, "*", date);
+        result.append(" AND ");
+        appendOptionalRange(result, I_CmsSearchField.FIELD_DATE_EXPIRED, date, "*");
+        return result.toString();
+    }
+
+    /**
+     * Checks if the indexed read permissions of the given document differ from the current 
+     * read permissions of the resource.<p>
+     * 
+     * @param cms the current OpenCms context, used to read the access control list
+     * @param resource the resource the document was created for
+     * @param index the index the document belongs to
+     * @param document the indexed document, containing the stored permission fields
+     * 
+     * @return <code>true</code> if the document has to be reindexed
+     */
+    public static boolean hasChangedPermissions(
+        CmsObject cms,
+        CmsResource resource,
+        A_CmsSearchIndex index,
+        SolrDocument document) {
+
+        Map<String, Set<String>> fields = getPermissionFields(cms, resource, index);
+        for (String fieldName : PERMISSION_FIELDS) {
+            Set<String> indexedValues = new TreeSet<String>();
+            Collection<Object> values = document.getFieldValues(fieldName);
+            if (values != null) {
+                for (Object value : values) {
+                    indexedValues.add(String.valueOf(value));
+                }
+            }
+            Set<String> currentValues = fields.get(fieldName);
+            if (currentValues == null) {
+                currentValues = Collections.emptySet();
+            }
+            if (!indexedValues.equals(currentValues)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Appends a clause that matches the documents with a value of the given field in the given range,
+     * or without a value for the field.<p>
+     * 
+     * A purely negative sub query does not match any document in Lucene, 
+     * so the documents without a value are selected from all documents.<p>
+     * 
+     * @param result the buffer to append the clause to
+     * @param field the field name
+     * @param from the lower bound of the range
+     * @param to the upper bound of the range
+     */
+    private static void appendOptionalRange(StringBuffer result, String field, String from, String to) {
+
+        result.append("((*:* -").append(field).append(":[* TO *]) OR ");
+        result.append(field).append(":[").append(from).append(" TO ").append(to).append("])");
+    }
+
+    /**
+     * Creates an 'OR' combined list of quoted terms.<p>
+     * 
+     * @param values the values to create the terms for
+     * 
+     * @return the combined terms
+     */
+    private static String createTerms(List<String> values) {
+
+        StringBuffer result = new StringBuffer(values.size() * 40);
+        result.append('(');
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                result.append(" OR ");
+            }
+            result.append('"').append(values.get(i)).append('"');
+        }
+        result.append(')');
+        return result.toString();
+    }
+
+    /**
+     * Calculates the values of the permission fields of the given resource.<p>
+     * 
+     * @param cms the current OpenCms context, used to read the access control list
+     * @param resource the resource to calculate the permission fields for
+     * @param index the index the document is created for
+     * 
+     * @return the values of the permission fields by field name
+     */
+    private static Map<String, Set<String>> getPermissionFields(
+        CmsObject cms,
+        CmsResource resource,
+        A_CmsSearchIndex index) {
+
+        Map<String, Set<String>> result = new HashMap<String, Set<String>>();
+        CmsAccessControlList acl;
+        try {
+            acl = cms.getAccessControlList(cms.getSitePath(resource));
+        } catch (CmsException e) {
+            LOG.warn(Messages.get().getBundle().key(Messages.LOG_SOLR_ERR_PERMISSION_FIELDS_1, resource.getRootPath()), e);
+            result.put(I_CmsSearchField.FIELD_READ_CHECK, Collections.singleton(Boolean.TRUE.toString()));
+            return result;
+        }
+
+        int required = CmsPermissionSet.PERMISSION_READ;
+        if (index.isRequireViewPermission()) {
+            required |= CmsPermissionSet.PERMISSION_VIEW;
+        }
+        Set<String> allowed = new TreeSet<String>();
+        Set<String> denied = new TreeSet<String>();
+        Set<String> principals = new TreeSet<String>();
+        boolean check = false;
+        for (Map.Entry<CmsUUID, CmsPermissionSetCustom> entry : acl.getPermissionMap().entrySet()) {
+            String principal = entry.getKey().toString();
+            int allowedPermissions = entry.getValue().getAllowedPermissions() & required;
+            int deniedPermissions = entry.getValue().getDeniedPermissions() & required;
+            if (CmsAccessControlEntry.PRINCIPAL_ALL_OTHERS_ID.equals(entry.getKey())) {
+                // the 'all others' entry is only used if no other entry applies
+                if ((allowedPermissions == required) && (deniedPermissions == 0)) {
+                    allowed.add(principal);
+                }
+                continue;
+            }
+            principals.add(principal);
+            if (deniedPermissions != 0) {
+                denied.add(principal);
+            }
+            if (allowedPermissions == required) {
+                allowed.add(principal);
+            } else if (allowedPermissions != 0) {
+                // the required permissions might be granted by different principals together
+                check = true;
+            }
+        }
+        result.put(I_CmsSearchField.FIELD_READ_ALLOWED, allowed);
+        result.put(I_CmsSearchField.FIELD_READ_CHECK, Collections.singleton(String.valueOf(check)));
+        result.put(I_CmsSearchField.FIELD_READ_DENIED, denied);
+        result.put(I_CmsSearchField.FIELD_READ_PRINCIPALS, principals);
+        return result;
+    }
+}
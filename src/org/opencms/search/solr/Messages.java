@@ -43,6 +43,18 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_SOLR_ERR_CONFIG_XML_NOT_READABLE_1 = "LOG_SOLR_ERR_CONFIG_XML_NOT_READABLE_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_SOLR_ERR_INDEXED_PATHS_1 = "LOG_SOLR_ERR_INDEXED_PATHS_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_SOLR_ERR_PERMISSION_FIELDS_1 = "LOG_SOLR_ERR_PERMISSION_FIELDS_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_SOLR_ERR_PERMISSION_FILTER_0 = "LOG_SOLR_ERR_PERMISSION_FILTER_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_SOLR_ERR_PERMISSION_UPDATE_1 = "LOG_SOLR_ERR_PERMISSION_UPDATE_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_SOLR_ERR_POST_PROCESSOR_NOT_EXIST_1 = "LOG_SOLR_ERR_POST_PROCESSOR_NOT_EXIST_1";
 
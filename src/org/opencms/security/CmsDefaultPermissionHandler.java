@@ -28,10 +28,12 @@
 package org.opencms.security;
 
 import org.opencms.configuration.CmsSystemConfiguration;
+import org.opencms.db.CmsCacheKey;
 import org.opencms.db.CmsCacheSettings;
 import org.opencms.db.CmsDbContext;
 import org.opencms.db.CmsDriverManager;
 import org.opencms.db.CmsSecurityManager;
+import org.opencms.db.CmsVfsCacheKey;
 import org.opencms.db.I_CmsCacheKey;
 import org.opencms.file.CmsProject;
 import org.opencms.file.CmsResource;
@@ -67,6 +69,9 @@ public class CmsDefaultPermissionHandler implements I_CmsPermissionHandler {
     /** The class used for cache key generation. */
     private I_CmsCacheKey m_keyGenerator;
 
+    /** Indicates if the results of permission checks are shared by users with the same principals. */
+    private boolean m_sharePermissions;
+
     /**
      * @see org.opencms.security.I_CmsPermissionHandler#hasPermissions(org.opencms.db.CmsDbContext, org.opencms.file.CmsResource, org.opencms.security.CmsPermissionSet, boolean, org.opencms.file.CmsResourceFilter)
      */
@@ -83,18 +88,35 @@ public class CmsDefaultPermissionHandler implements I_CmsPermissionHandler {
             return I_CmsPermissionHandler.PERM_FILTERED;
         }
 
+        // check lock status 
+        boolean writeRequired = requiredPermissions.requiresWritePermission()
+            || requiredPermissions.requiresControlPermission();
+
         // checking the filter is less cost intensive then checking the cache,
         // this is why basic filter results are not cached
-        String cacheKey = m_keyGenerator.getCacheKeyForUserPermissions(
-            filter.requireVisible() && checkLock ? "11" : (!filter.requireVisible() && checkLock
-            ? "01"
-            : (filter.requireVisible() && !checkLock ? "10" : "00")),
-            dbc,
-            resource,
-            requiredPermissions);
-        CmsPermissionCheckResult cacheResult = OpenCms.getMemoryMonitor().getCachedPermission(cacheKey);
-        if (cacheResult != null) {
-            return cacheResult;
+        String prefix = filter.requireVisible() && checkLock ? "11" : (!filter.requireVisible() && checkLock
+        ? "01"
+        : (filter.requireVisible() && !checkLock ? "10" : "00"));
+        CmsVfsCacheKey cacheKey = getPermissionCacheKey(dbc, resource, requiredPermissions, prefix);
+        CmsVfsCacheKey sharedCacheKey = null;
+        if (cacheKey != null) {
+            CmsPermissionCheckResult cacheResult = OpenCms.getMemoryMonitor().getCachedPermission(cacheKey);
+            if (cacheResult != null) {
+                return cacheResult;
+            }
+            // the lock state and the direct publish permission depend on the user itself
+            if (m_sharePermissions
+                && !(writeRequired && checkLock)
+                && !requiredPermissions.requiresDirectPublishPermission()) {
+                sharedCacheKey = getSharedPermissionCacheKey(dbc, resource, requiredPermissions, prefix);
+            }
+            if (sharedCacheKey != null) {
+                cacheResult = OpenCms.getMemoryMonitor().getCachedPermission(sharedCacheKey);
+                if (cacheResult != null) {
+                    OpenCms.getMemoryMonitor().cachePermission(cacheKey, cacheResult);
+                    return cacheResult;
+                }
+            }
         }
 
         int denied = 0;
@@ -111,10 +133,6 @@ public class CmsDefaultPermissionHandler implements I_CmsPermissionHandler {
             CmsRole.VFS_MANAGER,
             resource);
 
-        // check lock status 
-        boolean writeRequired = requiredPermissions.requiresWritePermission()
-            || requiredPermissions.requiresControlPermission();
-
         // if the resource type is jsp
         // write is only allowed for administrators
         if (writeRequired && !canIgnorePermissions && (CmsResourceTypeJsp.isJsp(resource))) {
@@ -211,9 +229,12 @@ public class CmsDefaultPermissionHandler implements I_CmsPermissionHandler {
                         permissions.getPermissionString()}));
             }
         }
-        if (dbc.getProjectId().isNullUUID()) {
+        if (cacheKey != null) {
             OpenCms.getMemoryMonitor().cachePermission(cacheKey, result);
         }
+        if (sharedCacheKey != null) {
+            OpenCms.getMemoryMonitor().cachePermission(sharedCacheKey, result);
+        }
 
         return result;
     }
@@ -232,10 +253,88 @@ public class CmsDefaultPermissionHandler implements I_CmsPermissionHandler {
         try {
             // initialize the key generator
             m_keyGenerator = (I_CmsCacheKey)Class.forName(className).newInstance();
+            // the shared keys can not reflect what a custom key generator adds to the user keys
+            m_sharePermissions = m_keyGenerator.getClass() == CmsCacheKey.class;
         } catch (Exception e) {
             throw new CmsInitException(org.opencms.main.Messages.get().container(
                 org.opencms.main.Messages.ERR_CRITICAL_CLASS_CREATION_1,
                 className), e);
         }
     }
+
+    /**
+     * Returns the key to cache the result of a permission check for the current user with.<p>
+     * 
+     * The root path of the resource is part of the key, so the results for a sub-tree 
+     * can be removed when its access control entries change.<p>
+     * 
+     * @param dbc the current database context
+     * @param resource the resource to check the permissions for
+     * @param requiredPermissions the required permissions
+     * @param prefix the prefix for the filter and lock flags
+     * 
+     * @return the cache key for the permission check, or <code>null</code> if the result must not be cached
+     */
+    protected CmsVfsCacheKey getPermissionCacheKey(
+        CmsDbContext dbc,
+        CmsResource resource,
+        CmsPermissionSet requiredPermissions,
+        String prefix) {
+
+        if (!dbc.getProjectId().isNullUUID()) {
+            return null;
+        }
+        return new CmsVfsCacheKey(
+            CmsVfsCacheKey.KeyType.PERMISSION,
+            dbc.currentProject().isOnlineProject(),
+            resource.getRootPath(),
+            m_keyGenerator.getCacheKeyForUserPermissions(prefix, dbc, resource, requiredPermissions));
+    }
+
+    /**
+     * Returns the key to cache the result of a permission check with, 
+     * shared by all users with the same groups, roles and organizational unit.<p>
+     * 
+     * This key is only used if the result of the check does not depend on the lock state of the resource 
+     * or on the projects managed by the user. It is only looked up if the result is not cached 
+     * for the user itself yet.<p>
+     * 
+     * @param dbc the current database context
+     * @param resource the resource to check the permissions for
+     * @param requiredPermissions the required permissions
+     * @param prefix the prefix for the filter and lock flags
+     * 
+     * @return the shared cache key for the permission check, or <code>null</code> if 
+     *      the access control list of the resource contains an entry for the current user
+     * 
+     * @throws CmsException if something goes wrong
+     * 
+     * @see CmsDriverManager#getPrincipalFingerprint(CmsDbContext, CmsUser)
+     */
+    protected CmsVfsCacheKey getSharedPermissionCacheKey(
+        CmsDbContext dbc,
+        CmsResource resource,
+        CmsPermissionSet requiredPermissions,
+        String prefix) throws CmsException {
+
+        CmsUser user = dbc.currentUser();
+        if (m_driverManager.getAccessControlList(dbc, resource, false).getPermissionMap().containsKey(user.getId())) {
+            return null;
+        }
+        boolean online = dbc.currentProject().isOnlineProject();
+        StringBuffer cacheBuffer = new StringBuffer(96);
+        cacheBuffer.append(prefix);
+        // a different separator than for the user keys, so the keys never collide with a user name
+        cacheBuffer.append('#');
+        cacheBuffer.append(m_driverManager.getPrincipalFingerprint(dbc, user));
+        cacheBuffer.append(online ? "_0_" : "_1_");
+        cacheBuffer.append(requiredPermissions.getPermissionString());
+        cacheBuffer.append('_');
+        cacheBuffer.append(resource.getStructureId().toString());
+        return new CmsVfsCacheKey(
+            CmsVfsCacheKey.KeyType.PERMISSION,
+            online,
+            resource.getRootPath(),
+            cacheBuffer.toString());
+    }
 }
@@ -37,6 +37,7 @@ import org.opencms.loader.I_CmsResourceLoader;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
+import org.opencms.report.CmsBufferedReport;
 import org.opencms.report.I_CmsReport;
 import org.opencms.util.CmsFileUtil;
 import org.opencms.util.CmsRequestUtil;
@@ -57,6 +58,9 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletResponse;
@@ -74,6 +78,73 @@ import org.apache.commons.logging.Log;
  */
 public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler {
 
+    /**
+     * A single export that is executed by one of the export worker threads.<p>
+     * 
+     * The report output of the export is buffered and written to the report of the 
+     * whole export when the export has finished, so that the output of different 
+     * threads does not get mixed up.<p>
+     */
+    protected abstract class CmsExportTask implements Runnable {
+
+        /** The buffered report of this task. */
+        private CmsBufferedReport m_report;
+
+        /** The RFS name that is written by this task. */
+        private String m_rfsName;
+
+        /**
+         * Creates a new export task.<p>
+         * 
+         * @param rfsName the RFS name that is written by this task
+         * @param report the report of the whole export
+         */
+        protected CmsExportTask(String rfsName, I_CmsReport report) {
+
+            m_rfsName = rfsName;
+            m_report = new CmsBufferedReport(report);
+        }
+
+        /**
+         * Returns the RFS name that is written by this task.<p>
+         * 
+         * @return the RFS name that is written by this task
+         */
+        public String getRfsName() {
+
+            return m_rfsName;
+        }
+
+        /**
+         * @see java.lang.Runnable#run()
+         */
+        public void run() {
+
+            try {
+                export(m_report);
+            } catch (Throwable t) {
+                LOG.error(t.getLocalizedMessage(), t);
+                m_report.println(t);
+            } finally {
+                I_CmsReport report = m_report.getReport();
+                synchronized (report) {
+                    m_report.flush();
+                }
+            }
+        }
+
+        /**
+         * Does the actual export.<p>
+         * 
+         * @param report the report to write the output of this export to
+         * 
+         * @throws CmsException in case of errors accessing the VFS
+         * @throws IOException in case of errors writing to the export output stream
+         * @throws ServletException in case of errors accessing the servlet 
+         */
+        protected abstract void export(I_CmsReport report) throws CmsException, IOException, ServletException;
+    }
+
     /** Header field set-cookie constant. */
     private static final String HEADER_FIELD_SET_COOKIE = "Set-Cookie";
 
@@ -305,58 +376,68 @@ public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler
                 new Integer(publishedResources.size())));
         }
 
-        CmsStaticExportManager manager = OpenCms.getStaticExportManager();
         List<CmsStaticExportData> resourcesToExport = new ArrayList<CmsStaticExportData>();
         boolean templatesFound = readNonTemplateResourcesToExport(cms, publishedResources, resourcesToExport);
 
         int count = 1;
-        int size = resourcesToExport.size();
+        final int size = resourcesToExport.size();
         if (LOG.isDebugEnabled()) {
             LOG.debug(Messages.get().getBundle().key(Messages.LOG_NUM_EXPORT_1, new Integer(size)));
         }
         // now do the export
+        final CmsStaticExportManager manager = OpenCms.getStaticExportManager();
+        final CmsObject exportCms = cms;
+        List<CmsExportTask> tasks = new ArrayList<CmsExportTask>(size);
         Iterator<CmsStaticExportData> i = resourcesToExport.iterator();
         while (i.hasNext()) {
-            CmsStaticExportData exportData = i.next();
-            if (LOG.isDebugEnabled()) {
-                LOG.debug(Messages.get().getBundle().key(
-                    Messages.LOG_EXPORT_FILE_2,
-                    exportData.getVfsName(),
-                    exportData.getRfsName()));
-            }
+            final CmsStaticExportData exportData = i.next();
+            final int number = count++;
+            tasks.add(new CmsExportTask(exportData.getRfsName(), report) {
+
+                @Override
+                protected void export(I_CmsReport taskReport) throws CmsException, IOException, ServletException {
+
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug(Messages.get().getBundle().key(
+                            Messages.LOG_EXPORT_FILE_2,
+                            exportData.getVfsName(),
+                            exportData.getRfsName()));
+                    }
 
-            report.print(
-                org.opencms.report.Messages.get().container(
-                    org.opencms.report.Messages.RPT_SUCCESSION_2,
-                    new Integer(count++),
-                    new Integer(size)),
-                I_CmsReport.FORMAT_NOTE);
-            report.print(Messages.get().container(Messages.RPT_EXPORTING_0), I_CmsReport.FORMAT_NOTE);
-            report.print(org.opencms.report.Messages.get().container(
-                org.opencms.report.Messages.RPT_ARGUMENT_1,
-                exportData.getVfsName()));
-            report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
-            int status = manager.export(null, null, cms, exportData);
-            if (status == HttpServletResponse.SC_OK) {
-                report.println(
-                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
-                    I_CmsReport.FORMAT_OK);
-            } else {
-                report.println(
-                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_IGNORED_0),
-                    I_CmsReport.FORMAT_NOTE);
-            }
+                    taskReport.print(
+                        org.opencms.report.Messages.get().container(
+                            org.opencms.report.Messages.RPT_SUCCESSION_2,
+                            new Integer(number),
+                            new Integer(size)),
+                        I_CmsReport.FORMAT_NOTE);
+                    taskReport.print(Messages.get().container(Messages.RPT_EXPORTING_0), I_CmsReport.FORMAT_NOTE);
+                    taskReport.print(org.opencms.report.Messages.get().container(
+                        org.opencms.report.Messages.RPT_ARGUMENT_1,
+                        exportData.getVfsName()));
+                    taskReport.print(org.opencms.report.Messages.get().container(
+                        org.opencms.report.Messages.RPT_DOTS_0));
+                    int status = manager.export(null, null, exportCms, exportData);
+                    if (status == HttpServletResponse.SC_OK) {
+                        taskReport.println(
+                            org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
+                            I_CmsReport.FORMAT_OK);
+                    } else {
+                        taskReport.println(
+                            org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_IGNORED_0),
+                            I_CmsReport.FORMAT_NOTE);
+                    }
 
-            if (LOG.isInfoEnabled()) {
-                Object[] arguments = new Object[] {
-                    exportData.getVfsName(),
-                    exportData.getRfsName(),
-                    new Integer(status)};
-                LOG.info(Messages.get().getBundle().key(Messages.LOG_EXPORT_FILE_STATUS_3, arguments));
-            }
-            //don't lock up the CPU exclusively - allow other Threads to run as well 
-            Thread.yield();
+                    if (LOG.isInfoEnabled()) {
+                        Object[] arguments = new Object[] {
+                            exportData.getVfsName(),
+                            exportData.getRfsName(),
+                            new Integer(status)};
+                        LOG.info(Messages.get().getBundle().key(Messages.LOG_EXPORT_FILE_STATUS_3, arguments));
+                    }
+                }
+            });
         }
+        runExportTasks(tasks);
 
         resourcesToExport = null;
 
@@ -603,8 +684,8 @@ public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler
      */
     protected void exportTemplateResources(CmsObject cms, List<String> publishedTemplateResources, I_CmsReport report) {
 
-        CmsStaticExportManager manager = OpenCms.getStaticExportManager();
-        int size = publishedTemplateResources.size();
+        final CmsStaticExportManager manager = OpenCms.getStaticExportManager();
+        final int size = publishedTemplateResources.size();
         int count = 1;
 
         if (LOG.isDebugEnabled()) {
@@ -614,8 +695,10 @@ public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler
             Messages.get().container(Messages.RPT_STATICEXPORT_TEMPLATE_RESOURCES_BEGIN_0),
             I_CmsReport.FORMAT_HEADLINE);
 
-        StringBuffer cookies = new StringBuffer();
-        // now loop through all of them and request them from the server
+        final StringBuffer cookies = new StringBuffer();
+        final CmsObject exportCms = cms;
+        List<CmsExportTask> tasks = new ArrayList<CmsExportTask>(size);
+        // now loop through all of them and create the requests to the server
         Iterator<String> i = publishedTemplateResources.iterator();
         while (i.hasNext()) {
             String rfsName = i.next();
@@ -638,68 +721,83 @@ public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler
                     }
                 }
             }
-            if (data != null) {
-                data.setRfsName(rfsName);
-                report.print(
-                    org.opencms.report.Messages.get().container(
-                        org.opencms.report.Messages.RPT_SUCCESSION_2,
-                        new Integer(count++),
-                        new Integer(size)),
-                    I_CmsReport.FORMAT_NOTE);
-                report.print(Messages.get().container(Messages.RPT_EXPORTING_0), I_CmsReport.FORMAT_NOTE);
-                report.print(org.opencms.report.Messages.get().container(
-                    org.opencms.report.Messages.RPT_ARGUMENT_1,
-                    rfsName));
-                report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
-            } else {
+            if (data == null) {
                 // no valid resource found for rfs name (already deleted), skip it
                 continue;
             }
+            data.setRfsName(rfsName);
+            final CmsStaticExportData exportData = data;
+            final int number = count++;
+            tasks.add(new CmsExportTask(rfsName, report) {
 
-            try {
-                CmsResource resource = data.getResource();
-                try {
-                    Collection<String> detailPages = CmsDetailPageUtil.getAllDetailPagesWithUrlName(cms, resource);
-                    for (String detailPageUri : detailPages) {
-                        String altRfsName = manager.getRfsName(cms, detailPageUri);
-                        CmsStaticExportData detailData = new CmsStaticExportData(
-                            data.getVfsName(),
-                            altRfsName,
-                            data.getResource(),
-                            data.getParameters());
-                        exportTemplateResource(detailData, cookies);
-                    }
-                } catch (CmsException e) {
-                    LOG.error(e.getLocalizedMessage(), e);
-                }
+                @Override
+                protected void export(I_CmsReport taskReport) {
 
-                int status = exportTemplateResource(data, cookies);
-
-                // write the report
-                if (status == HttpServletResponse.SC_OK) {
-                    report.println(
-                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
-                        I_CmsReport.FORMAT_OK);
-                } else if (status == HttpServletResponse.SC_NOT_MODIFIED) {
-                    report.println(
-                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_SKIPPED_0),
-                        I_CmsReport.FORMAT_NOTE);
-                } else if (status == HttpServletResponse.SC_SEE_OTHER) {
-                    report.println(
-                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_IGNORED_0),
-                        I_CmsReport.FORMAT_NOTE);
-                } else {
-                    report.println(
+                    taskReport.print(
                         org.opencms.report.Messages.get().container(
-                            org.opencms.report.Messages.RPT_ARGUMENT_1,
-                            new Integer(status)),
-                        I_CmsReport.FORMAT_OK);
+                            org.opencms.report.Messages.RPT_SUCCESSION_2,
+                            new Integer(number),
+                            new Integer(size)),
+                        I_CmsReport.FORMAT_NOTE);
+                    taskReport.print(Messages.get().container(Messages.RPT_EXPORTING_0), I_CmsReport.FORMAT_NOTE);
+                    taskReport.print(org.opencms.report.Messages.get().container(
+                        org.opencms.report.Messages.RPT_ARGUMENT_1,
+                        getRfsName()));
+                    taskReport.print(org.opencms.report.Messages.get().container(
+                        org.opencms.report.Messages.RPT_DOTS_0));
+                    try {
+                        CmsResource resource = exportData.getResource();
+                        try {
+                            Collection<String> detailPages = CmsDetailPageUtil.getAllDetailPagesWithUrlName(
+                                exportCms,
+                                resource);
+                            for (String detailPageUri : detailPages) {
+                                String altRfsName = manager.getRfsName(exportCms, detailPageUri);
+                                CmsStaticExportData detailData = new CmsStaticExportData(
+                                    exportData.getVfsName(),
+                                    altRfsName,
+                                    exportData.getResource(),
+                                    exportData.getParameters());
+                                exportTemplateResource(detailData, cookies);
+                            }
+                        } catch (CmsException e) {
+                            LOG.error(e.getLocalizedMessage(), e);
+                        }
+
+                        int status = exportTemplateResource(exportData, cookies);
+
+                        // write the report
+                        if (status == HttpServletResponse.SC_OK) {
+                            taskReport.println(
+                                org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
+                                I_CmsReport.FORMAT_OK);
+                        } else if (status == HttpServletResponse.SC_NOT_MODIFIED) {
+                            taskReport.println(
+                                org.opencms.report.Messages.get().container(
+                                    org.opencms.report.Messages.RPT_SKIPPED_0),
+                                I_CmsReport.FORMAT_NOTE);
+                        } else if (status == HttpServletResponse.SC_SEE_OTHER) {
+                            taskReport.println(
+                                org.opencms.report.Messages.get().container(
+                                    org.opencms.report.Messages.RPT_IGNORED_0),
+                                I_CmsReport.FORMAT_NOTE);
+                        } else {
+                            taskReport.println(
+                                org.opencms.report.Messages.get().container(
+                                    org.opencms.report.Messages.RPT_ARGUMENT_1,
+                                    new Integer(status)),
+                                I_CmsReport.FORMAT_OK);
+                        }
+                    } catch (IOException e) {
+                        taskReport.println(e);
+                    }
                 }
-            } catch (IOException e) {
-                report.println(e);
-            }
-            //don't lock up the CPU exclusively - allow other Threads to run as well 
-            Thread.yield();
+            });
+        }
+        if (!tasks.isEmpty()) {
+            // the first request is done before all others, it sets the cookies used to keep the session
+            tasks.remove(0).run();
+            runExportTasks(tasks);
         }
         report.println(
             Messages.get().container(Messages.RPT_STATICEXPORT_TEMPLATE_RESOURCES_END_0),
@@ -890,4 +988,53 @@ public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler
 
         return templatesFound;
     }
-}
\ No newline at end of file
+
+    /**
+     * Executes the given export tasks with the configured number of export threads.<p>
+     * 
+     * All tasks for the same RFS name are executed by the same thread in the order 
+     * they appear in the given list, so files are always written in the intended order.
+     * This method returns after all tasks have been executed.<p>
+     * 
+     * @param tasks the export tasks to execute
+     */
+    protected void runExportTasks(List<CmsExportTask> tasks) {
+
+        int threads = Math.min(OpenCms.getStaticExportManager().getExportThreads(), tasks.size());
+        if (threads <= 1) {
+            for (CmsExportTask task : tasks) {
+                task.run();
+                //don't lock up the CPU exclusively - allow other Threads to run as well 
+                Thread.yield();
+            }
+            return;
+        }
+        ExecutorService[] workers = new ExecutorService[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = Executors.newSingleThreadExecutor();
+        }
+        try {
+            for (CmsExportTask task : tasks) {
+                int worker = (task.getRfsName().hashCode() & Integer.MAX_VALUE) % threads;
+                workers[worker].execute(task);
+            }
+        } finally {
+            for (int i = 0; i < threads; i++) {
+                workers[i].shutdown();
+            }
+            try {
+                for (int i = 0; i < threads; i++) {
+                    while (!workers[i].awaitTermination(CmsStaticExportManager.HANDLER_FINISH_TIME, TimeUnit.SECONDS)) {
+                        // wait until all tasks of this worker are finished
+                    }
+                }
+            } catch (InterruptedException e) {
+                LOG.error(Messages.get().getBundle().key(Messages.LOG_INTERRUPTED_EXPORT_THREADS_0), e);
+                for (int i = 0; i < threads; i++) {
+                    workers[i].shutdownNow();
+                }
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -61,10 +61,14 @@ import org.opencms.util.CmsUUID;
 import org.opencms.workplace.CmsWorkplace;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -124,6 +128,9 @@ public class CmsStaticExportManager implements I_CmsEventListener {
     /** Marker for externally redirected 404 uri's. */
     public static final String EXPORT_MARKER = "exporturi";
 
+    /** Suffix for the temporary files the exported content is written to before they are renamed. */
+    public static final String EXPORT_TEMP_FILE_SUFFIX = ".tmp";
+
     /** Time given (in seconds) to the static export handler to finish a publish task. */
     public static final int HANDLER_FINISH_TIME = 60;
 
@@ -136,6 +143,9 @@ public class CmsStaticExportManager implements I_CmsEventListener {
     /** Cache value to indicate a true 404 error. */
     private static final String CACHEVALUE_404 = "?404";
 
+    /** The digest algorithm used to check if exported content has changed. */
+    private static final String CONTENT_DIGEST_ALGORITHM = "MD5";
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsStaticExportManager.class);
 
@@ -187,6 +197,9 @@ public class CmsStaticExportManager implements I_CmsEventListener {
     /** List of export suffixes where the "export" property default is always <code>true</code>. */
     private List<String> m_exportSuffixes;
 
+    /** The number of threads used to export resources after publishing. */
+    private int m_exportThreads = 1;
+
     /** Temporary variable for reading the xml config file. */
     private CmsStaticExportExportRule m_exportTmpRule;
 
@@ -1027,6 +1040,16 @@ public class CmsStaticExportManager implements I_CmsEventListener {
         return m_exportSuffixes;
     }
 
+    /**
+     * Returns the number of threads used to export resources after publishing.<p>
+     * 
+     * @return the number of export threads
+     */
+    public int getExportThreads() {
+
+        return m_exportThreads;
+    }
+
     /**
      * Returns the export URL used for internal requests for exporting resources that require a 
      * request / response (like JSP).<p>
@@ -1675,6 +1698,9 @@ public class CmsStaticExportManager implements I_CmsEventListener {
                     Messages.INIT_EXPORT_OPTIMIZATION_1,
                     getPlainExportOptimization()));
                 CmsLog.INIT.info(Messages.get().getBundle().key(Messages.INIT_EXPORT_TESTRESOURCE_1, getTestResource()));
+                CmsLog.INIT.info(Messages.get().getBundle().key(
+                    Messages.INIT_EXPORT_THREADS_1,
+                    new Integer(getExportThreads())));
                 CmsLog.INIT.info(Messages.get().getBundle().key(
                     Messages.INIT_LINKSUBSTITUTION_HANDLER_1,
                     getLinkSubstitutionHandler().getClass().getName()));
@@ -2041,6 +2067,25 @@ public class CmsStaticExportManager implements I_CmsEventListener {
         m_exportSuffixes.add(suffix.toLowerCase());
     }
 
+    /**
+     * Sets the number of threads used to export resources after publishing.<p>
+     * 
+     * Values less than 1 are ignored, the default is a single thread.<p>
+     * 
+     * @param threads the number of export threads
+     */
+    public void setExportThreads(String threads) {
+
+        try {
+            int value = Integer.parseInt(threads.trim());
+            if (value > 0) {
+                m_exportThreads = value;
+            }
+        } catch (NumberFormatException e) {
+            LOG.error(Messages.get().getBundle().key(Messages.LOG_INVALID_EXPORT_THREADS_1, threads), e);
+        }
+    }
+
     /**
      * Sets the export url.<p>
      * 
@@ -2730,18 +2775,40 @@ public class CmsStaticExportManager implements I_CmsEventListener {
         File exportFile = new File(exportFileName);
         // write new exported file content
         try {
-            FileOutputStream exportStream = new FileOutputStream(exportFile);
-            exportStream.write(content);
-            exportStream.close();
-
-            // log export success 
-            if (LOG.isInfoEnabled()) {
-                LOG.info(Messages.get().getBundle().key(
-                    Messages.LOG_STATIC_EXPORTED_2,
-                    resource.getRootPath(),
-                    exportFileName));
-            }
+            if (hasContent(exportFile, content)) {
+                // the file in the RFS is already up to date
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(Messages.get().getBundle().key(Messages.LOG_STATIC_EXPORT_UNCHANGED_1, exportFileName));
+                }
+            } else {
+                // write to a temporary file first, so that the export folder never contains a partially written file
+                File tempFile = new File(exportFileName + "." + new CmsUUID() + EXPORT_TEMP_FILE_SUFFIX);
+                FileOutputStream exportStream = new FileOutputStream(tempFile);
+                try {
+                    exportStream.write(content);
+                } finally {
+                    exportStream.close();
+                }
+                if (!tempFile.renameTo(exportFile)) {
+                    // on some platforms an existing file is not replaced by a rename
+                    exportFile.delete();
+                    if (!tempFile.renameTo(exportFile)) {
+                        tempFile.delete();
+                        throw new IOException(Messages.get().getBundle().key(
+                            Messages.ERR_RENAME_TEMP_FILE_2,
+                            tempFile.getAbsolutePath(),
+                            exportFileName));
+                    }
+                }
 
+                // log export success 
+                if (LOG.isInfoEnabled()) {
+                    LOG.info(Messages.get().getBundle().key(
+                        Messages.LOG_STATIC_EXPORTED_2,
+                        resource.getRootPath(),
+                        exportFileName));
+                }
+            }
         } catch (Throwable t) {
             throw new CmsStaticExportException(
                 Messages.get().container(Messages.ERR_OUTPUT_STREAM_1, exportFileName),
@@ -2817,4 +2884,44 @@ public class CmsStaticExportManager implements I_CmsEventListener {
             return Collections.emptyMap();
         }
     }
+
+    /**
+     * Checks if the given RFS file already has exactly the given content.<p>
+     * 
+     * The length of the file is compared first, the MD5 hashes are only 
+     * computed if the length matches.<p>
+     * 
+     * @param file the RFS file to check
+     * @param content the content to compare the file with
+     * 
+     * @return <code>true</code> if the file exists and has the given content
+     * 
+     * @throws IOException if reading the file fails
+     */
+    private boolean hasContent(File file, byte[] content) throws IOException {
+
+        if (!file.isFile() || (file.length() != content.length)) {
+            return false;
+        }
+        MessageDigest fileDigest;
+        MessageDigest contentDigest;
+        try {
+            fileDigest = MessageDigest.getInstance(CONTENT_DIGEST_ALGORITHM);
+            contentDigest = MessageDigest.getInstance(CONTENT_DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            // should never happen, MD5 is always available
+            return false;
+        }
+        InputStream in = new FileInputStream(file);
+        try {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                fileDigest.update(buffer, 0, read);
+            }
+        } finally {
+            in.close();
+        }
+        return MessageDigest.isEqual(fileDigest.digest(), contentDigest.digest(content));
+    }
 }
@@ -64,6 +64,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_OUTPUT_STREAM_1 = "ERR_OUTPUT_STREAM_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_RENAME_TEMP_FILE_2 = "ERR_RENAME_TEMP_FILE_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_VALIDATE_EXPORTPATH_0 = "ERR_VALIDATE_EXPORTPATH_0";
 
@@ -97,6 +100,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String INIT_EXPORT_TESTRESOURCE_1 = "INIT_EXPORT_TESTRESOURCE_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String INIT_EXPORT_THREADS_1 = "INIT_EXPORT_THREADS_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String INIT_EXPORT_URL_1 = "INIT_EXPORT_URL_1";
 
@@ -205,6 +211,12 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_INIT_FAILED_0 = "LOG_INIT_FAILED_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_INTERRUPTED_EXPORT_THREADS_0 = "LOG_INTERRUPTED_EXPORT_THREADS_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_INVALID_EXPORT_THREADS_1 = "LOG_INVALID_EXPORT_THREADS_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_INVALID_PARAM_1 = "LOG_INVALID_PARAM_1";
 
@@ -259,6 +271,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_STATIC_EXPORT_SITE_ROOT_2 = "LOG_STATIC_EXPORT_SITE_ROOT_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_STATIC_EXPORT_UNCHANGED_1 = "LOG_STATIC_EXPORT_UNCHANGED_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_STATIC_EXPORTED_2 = "LOG_STATIC_EXPORTED_2";
 
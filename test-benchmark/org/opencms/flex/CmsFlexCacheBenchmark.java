@@ -0,0 +1,167 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.flex;
+
+import org.opencms.file.CmsObject;
+import org.opencms.test.benchmark.A_CmsBenchmarkState;
+import org.opencms.test.benchmark.CmsBenchmarkCursor;
+import org.opencms.util.CmsRequestUtil;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the lookup of entries in the Flex cache.<p>
+ * 
+ * Located in the <code>org.opencms.flex</code> package since the cache lookup is not public.<p>
+ * 
+ * @since 8.5.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class CmsFlexCacheBenchmark {
+
+    /**
+     * Benchmark state with a filled Flex cache and the request keys to look up.<p>
+     */
+    @State(Scope.Benchmark)
+    public static class FlexCacheState extends A_CmsBenchmarkState {
+
+        /** The number of cached resources. */
+        @Param("1000")
+        public int m_resources;
+
+        /** The Flex cache. */
+        CmsFlexCache m_cache;
+
+        /** The request keys of the cached resources. */
+        CmsFlexRequestKey[] m_requestKeys;
+
+        /**
+         * @see org.opencms.test.benchmark.A_CmsBenchmarkState#initialize(org.opencms.file.CmsObject)
+         */
+        @Override
+        protected void initialize(CmsObject cms) throws Exception {
+
+            CmsFlexCacheConfiguration configuration = new CmsFlexCacheConfiguration();
+            configuration.initialize(
+                "true",
+                "true",
+                "100000000",
+                "80000000",
+                "400000",
+                String.valueOf(m_resources * 2));
+            m_cache = new CmsFlexCache(configuration);
+
+            HttpServletRequest req = createRequest();
+            CmsFlexController.setController(req, new CmsFlexController(cms, null, m_cache, req, null, false, true));
+            byte[] content = new byte[1024];
+            m_requestKeys = new CmsFlexRequestKey[m_resources];
+            for (int i = 0; i < m_resources; i++) {
+                String target = "/benchmark/element" + i + ".jsp";
+                CmsFlexCacheKey key = new CmsFlexCacheKey(
+                    cms.getRequestContext().addSiteRoot(target),
+                    "uri,user",
+                    true);
+                m_cache.putKey(key);
+                m_requestKeys[i] = new CmsFlexRequestKey(req, target, true);
+                CmsFlexCacheEntry entry = new CmsFlexCacheEntry();
+                entry.add(content);
+                entry.complete();
+                m_cache.put(key, entry, key.matchRequestKey(m_requestKeys[i]));
+            }
+        }
+
+        /**
+         * Creates a request which only supports attributes and the user agent header.<p>
+         * 
+         * @return the request
+         */
+        private HttpServletRequest createRequest() {
+
+            final Map<Object, Object> attributes = new HashMap<Object, Object>();
+            return (HttpServletRequest)Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class[] {HttpServletRequest.class},
+                new InvocationHandler() {
+
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+
+                        String name = method.getName();
+                        if (name.equals("getAttribute")) {
+                            return attributes.get(args[0]);
+                        } else if (name.equals("setAttribute")) {
+                            attributes.put(args[0], args[1]);
+                        } else if (name.equals("removeAttribute")) {
+                            attributes.remove(args[0]);
+                        } else if (name.equals("getHeader") && CmsRequestUtil.HEADER_USER_AGENT.equals(args[0])) {
+                            return "Mozilla/5.0";
+                        } else if (name.equals("getHeader")) {
+                            return "";
+                        }
+                        return null;
+                    }
+                });
+        }
+    }
+
+    /**
+     * Benchmarks looking up a cached entry.<p>
+     * 
+     * @param state the benchmark state
+     * @param cursor the cursor
+     * 
+     * @return the cache entry
+     */
+    @Benchmark
+    public CmsFlexCacheEntry get(FlexCacheState state, CmsBenchmarkCursor cursor) {
+
+        return state.m_cache.get(state.m_requestKeys[cursor.next(state.m_requestKeys.length)]);
+    }
+}
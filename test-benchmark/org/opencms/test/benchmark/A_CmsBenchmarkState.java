@@ -0,0 +1,82 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.test.benchmark;
+
+import org.opencms.file.CmsObject;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Base class for benchmark states which require a running OpenCms instance.<p>
+ * 
+ * The OpenCms instance is set up from the test configuration once per benchmark trial,
+ * using the database selected in <code>test.properties</code> (HSQLDB by default).<p>
+ * 
+ * @since 8.5.0
+ */
+public abstract class A_CmsBenchmarkState {
+
+    /** The admin context of the OpenCms instance. */
+    protected CmsObject m_cms;
+
+    /**
+     * Sets up the OpenCms instance and initializes the state.<p>
+     * 
+     * @throws Exception in case the set up fails
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+        m_cms = OpenCmsTestCase.setupOpenCms("simpletest", "/");
+        initialize(m_cms);
+    }
+
+    /**
+     * Shuts down the OpenCms instance and removes the database.<p>
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+
+        OpenCmsTestCase.removeOpenCms();
+    }
+
+    /**
+     * Initializes the state after OpenCms has been set up.<p>
+     * 
+     * @param cms the admin context
+     * 
+     * @throws Exception in case the initialization fails
+     */
+    protected abstract void initialize(CmsObject cms) throws Exception;
+}
@@ -0,0 +1,111 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.test.benchmark;
+
+import org.opencms.file.CmsProperty;
+import org.opencms.file.CmsResource;
+import org.opencms.security.CmsPermissionSet;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the VFS read path and the permission checks.<p>
+ * 
+ * All operations are done by the guest user in the online project, 
+ * cycling through the files of the generated site tree.<p>
+ * 
+ * @since 8.5.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class CmsVfsBenchmark {
+
+    /**
+     * Benchmarks the read permission check of a resource.<p>
+     * 
+     * @param state the benchmark state
+     * @param cursor the cursor
+     * 
+     * @return the permission check result
+     * 
+     * @throws Exception in case the permissions could not be checked
+     */
+    @Benchmark
+    public boolean hasPermissions(CmsVfsBenchmarkState state, CmsBenchmarkCursor cursor) throws Exception {
+
+        CmsResource resource = state.getResources()[cursor.next(state.getResources().length)];
+        return state.getGuestCms().hasPermissions(resource, CmsPermissionSet.ACCESS_READ);
+    }
+
+    /**
+     * Benchmarks reading the properties of a resource, including the inherited properties.<p>
+     * 
+     * @param state the benchmark state
+     * @param cursor the cursor
+     * 
+     * @return the properties
+     * 
+     * @throws Exception in case the properties could not be read
+     */
+    @Benchmark
+    public List<CmsProperty> readPropertyObjects(CmsVfsBenchmarkState state, CmsBenchmarkCursor cursor)
+    throws Exception {
+
+        CmsResource resource = state.getResources()[cursor.next(state.getResources().length)];
+        return state.getGuestCms().readPropertyObjects(resource, true);
+    }
+
+    /**
+     * Benchmarks reading a resource by its path.<p>
+     * 
+     * @param state the benchmark state
+     * @param cursor the cursor
+     * 
+     * @return the resource
+     * 
+     * @throws Exception in case the resource could not be read
+     */
+    @Benchmark
+    public CmsResource readResource(CmsVfsBenchmarkState state, CmsBenchmarkCursor cursor) throws Exception {
+
+        return state.getGuestCms().readResource(state.getPaths()[cursor.next(state.getPaths().length)]);
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.test.benchmark;
+
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProperty;
+import org.opencms.file.CmsPropertyDefinition;
+import org.opencms.file.CmsResource;
+import org.opencms.file.types.CmsResourceTypeFolder;
+import org.opencms.file.types.CmsResourceTypePlain;
+import org.opencms.main.OpenCms;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark state with a synthetic, published site tree.<p>
+ * 
+ * The tree is located below <code>/benchmark/</code>. Every folder has the configured number 
+ * of sub folders and files, up to the configured depth. The folders have title and navigation 
+ * properties, so that reading properties with search has to look up the parent folders.<p>
+ * 
+ * @since 8.5.0
+ */
+@State(Scope.Benchmark)
+public class CmsVfsBenchmarkState extends A_CmsBenchmarkState {
+
+    /** The root folder of the generated tree. */
+    public static final String TREE_ROOT = "/benchmark/";
+
+    /** The number of files in every folder. */
+    @Param("10")
+    public int m_filesPerFolder;
+
+    /** The depth of the generated folder tree. */
+    @Param("3")
+    public int m_folderDepth;
+
+    /** The number of sub folders of every folder. */
+    @Param("5")
+    public int m_folderWidth;
+
+    /** The guest context in the online project. */
+    private CmsObject m_guestCms;
+
+    /** The site paths of the generated files. */
+    private String[] m_paths;
+
+    /** The generated files, as read in the online project. */
+    private CmsResource[] m_resources;
+
+    /**
+     * Returns the guest context in the online project.<p>
+     * 
+     * @return the guest context in the online project
+     */
+    public CmsObject getGuestCms() {
+
+        return m_guestCms;
+    }
+
+    /**
+     * Returns the site paths of the generated files.<p>
+     * 
+     * @return the site paths of the generated files
+     */
+    public String[] getPaths() {
+
+        return m_paths;
+    }
+
+    /**
+     * Returns the generated files, as read in the online project.<p>
+     * 
+     * @return the generated files
+     */
+    public CmsResource[] getResources() {
+
+        return m_resources;
+    }
+
+    /**
+     * @see org.opencms.test.benchmark.A_CmsBenchmarkState#initialize(org.opencms.file.CmsObject)
+     */
+    @Override
+    protected void initialize(CmsObject cms) throws Exception {
+
+        List<String> paths = new ArrayList<String>();
+        createFolder(cms, TREE_ROOT, 0);
+        createTree(cms, TREE_ROOT, m_folderDepth, paths);
+        cms.unlockResource(TREE_ROOT);
+        OpenCms.getPublishManager().publishResource(cms, TREE_ROOT);
+        OpenCms.getPublishManager().waitWhileRunning();
+
+        m_guestCms = OpenCms.initCmsObject(OpenCms.getDefaultUsers().getUserGuest());
+        m_paths = paths.toArray(new String[paths.size()]);
+        m_resources = new CmsResource[m_paths.length];
+        for (int i = 0; i < m_paths.length; i++) {
+            m_resources[i] = m_guestCms.readResource(m_paths[i]);
+        }
+    }
+
+    /**
+     * Creates a folder with title and navigation properties.<p>
+     * 
+     * @param cms the admin context
+     * @param path the site path of the folder
+     * @param position the navigation position of the folder
+     * 
+     * @throws Exception in case the folder could not be created
+     */
+    private void createFolder(CmsObject cms, String path, int position) throws Exception {
+
+        List<CmsProperty> properties = new ArrayList<CmsProperty>();
+        String name = CmsResource.getName(path);
+        properties.add(new CmsProperty(CmsPropertyDefinition.PROPERTY_TITLE, name, null));
+        properties.add(new CmsProperty(CmsPropertyDefinition.PROPERTY_NAVTEXT, name, null));
+        properties.add(new CmsProperty(CmsPropertyDefinition.PROPERTY_NAVPOS, String.valueOf(position), null));
+        cms.createResource(path, CmsResourceTypeFolder.getStaticTypeId(), null, properties);
+    }
+
+    /**
+     * Creates the files and sub folders of the given folder.<p>
+     * 
+     * @param cms the admin context
+     * @param folder the site path of the folder
+     * @param depth the remaining depth of the tree
+     * @param paths the list to add the site paths of the created files to
+     * 
+     * @throws Exception in case the tree could not be created
+     */
+    private void createTree(CmsObject cms, String folder, int depth, List<String> paths) throws Exception {
+
+        for (int i = 0; i < m_filesPerFolder; i++) {
+            String path = folder + "file" + i + ".txt";
+            List<CmsProperty> properties = new ArrayList<CmsProperty>();
+            properties.add(new CmsProperty(CmsPropertyDefinition.PROPERTY_TITLE, path, null));
+            cms.createResource(path, CmsResourceTypePlain.getStaticTypeId(), path.getBytes(), properties);
+            paths.add(path);
+        }
+        if (depth > 0) {
+            for (int i = 0; i < m_folderWidth; i++) {
+                String path = folder + "folder" + i + "/";
+                createFolder(cms, path, i);
+                createTree(cms, path, depth - 1, paths);
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.test.benchmark;
+
+import org.opencms.i18n.CmsEncoder;
+import org.opencms.util.CmsFileUtil;
+import org.opencms.xml.CmsXmlContentDefinition;
+import org.opencms.xml.CmsXmlEntityResolver;
+import org.opencms.xml.content.CmsXmlContent;
+import org.opencms.xml.content.CmsXmlContentFactory;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks unmarshalling of XML contents.<p>
+ * 
+ * Uses the XML content test data, so no running OpenCms instance is required.<p>
+ * 
+ * @since 8.5.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class CmsXmlContentBenchmark {
+
+    /**
+     * Benchmark state with the XML content to unmarshal.<p>
+     */
+    @State(Scope.Benchmark)
+    public static class XmlContentState {
+
+        /** The XML content to unmarshal. */
+        String m_content;
+
+        /** The entity resolver with the cached content definition. */
+        CmsXmlEntityResolver m_resolver;
+
+        /**
+         * Reads the content definition and the XML content.<p>
+         * 
+         * @throws Exception in case the test data could not be read
+         */
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+
+            m_resolver = new CmsXmlEntityResolver(null);
+            String schema = CmsFileUtil.readFile(
+                "org/opencms/xml/content/xmlcontent-definition-1.xsd",
+                CmsEncoder.ENCODING_UTF_8);
+            CmsXmlContentDefinition definition = CmsXmlContentDefinition.unmarshal(schema, SCHEMA_SYSTEM_ID, m_resolver);
+            CmsXmlEntityResolver.cacheSystemId(
+                SCHEMA_SYSTEM_ID,
+                definition.getSchema().asXML().getBytes(CmsEncoder.ENCODING_UTF_8));
+            m_content = CmsFileUtil.readFile("org/opencms/xml/content/xmlcontent-1.xml", CmsEncoder.ENCODING_UTF_8);
+        }
+    }
+
+    /** The system id of the content definition. */
+    static final String SCHEMA_SYSTEM_ID = "http://www.opencms.org/test1.xsd";
+
+    /**
+     * Benchmarks unmarshalling an XML content from a String.<p>
+     * 
+     * @param state the benchmark state
+     * 
+     * @return the XML content
+     * 
+     * @throws Exception in case the content could not be unmarshalled
+     */
+    @Benchmark
+    public CmsXmlContent unmarshal(XmlContentState state) throws Exception {
+
+        return CmsXmlContentFactory.unmarshal(state.m_content, CmsEncoder.ENCODING_UTF_8, state.m_resolver);
+    }
+}
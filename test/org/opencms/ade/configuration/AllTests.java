@@ -57,6 +57,7 @@ public final class AllTests {
         //$JUnit-BEGIN$
         suite.addTest(TestConfig.suite());
         suite.addTest(TestLiveConfig.suite());
+        suite.addTest(new TestSuite(TestCmsConfigurationSnapshot.class));
         //$JUnit-END$
         return suite;
     }
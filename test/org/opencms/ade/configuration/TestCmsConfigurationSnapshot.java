@@ -0,0 +1,79 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.ade.configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the sitemap configuration lookup of the configuration snapshot.<p>
+ * 
+ * @since 8.5.0
+ */
+public class TestCmsConfigurationSnapshot extends TestCase {
+
+    /**
+     * Tests that the configuration with the longest matching base path is found.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testSiteConfigData() throws Exception {
+
+        Map<String, CmsADEConfigData> configurations = new HashMap<String, CmsADEConfigData>();
+        CmsADEConfigData a = new CmsADEConfigData("/a/");
+        CmsADEConfigData abc = new CmsADEConfigData("/a/b/c/");
+        CmsADEConfigData abx = new CmsADEConfigData("/a/b/x/");
+        CmsADEConfigData abcde = new CmsADEConfigData("/a/b/c/d/e/");
+        configurations.put("/a/", a);
+        configurations.put("/a/b/c/", abc);
+        configurations.put("/a/b/x/", abx);
+        configurations.put("/a/b/c/d/e/", abcde);
+        CmsConfigurationSnapshot snapshot = new CmsConfigurationSnapshot(
+            configurations,
+            new HashMap<String, String>(),
+            null);
+
+        assertSame(abc, snapshot.getSiteConfigData("/a/b/c/d"));
+        assertSame(abc, snapshot.getSiteConfigData("/a/b/c"));
+        assertSame(abx, snapshot.getSiteConfigData("/a/b/x/index.html"));
+        assertSame(abcde, snapshot.getSiteConfigData("/a/b/c/d/e/f/"));
+        assertSame(a, snapshot.getSiteConfigData("/a/b/"));
+        // only whole path segments match
+        assertSame(a, snapshot.getSiteConfigData("/a/b/cd"));
+        assertNull(snapshot.getSiteConfigData("/ab"));
+        assertNull(snapshot.getSiteConfigData("/"));
+
+        // later changes of the map do not affect the snapshot
+        configurations.clear();
+        assertSame(abc, snapshot.getSiteConfigData("/a/b/c/d"));
+        assertEquals(4, snapshot.getSiteConfigurations().size());
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.cache;
+
+import org.opencms.test.OpenCmsTestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Test case for the concurrent LRU map.<p>
+ * 
+ * @since 8.5.0
+ */
+public class TestCmsConcurrentLruMap extends OpenCmsTestCase {
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsConcurrentLruMap(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Tests concurrent reads and writes.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testConcurrentAccess() throws Exception {
+
+        final CmsConcurrentLruMap<String, Integer> map = new CmsConcurrentLruMap<String, Integer>(500);
+        final List<Throwable> errors = new ArrayList<Throwable>();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < 8; t++) {
+            final int offset = t * 1000;
+            Thread thread = new Thread() {
+
+                @Override
+                public void run() {
+
+                    try {
+                        for (int i = 0; i < 5000; i++) {
+                            String key = "key" + ((offset + i) % 2000);
+                            Integer value = map.get(key);
+                            if (value == null) {
+                                map.put(key, Integer.valueOf(i));
+                            }
+                        }
+                    } catch (Throwable e) {
+                        synchronized (errors) {
+                            errors.add(e);
+                        }
+                    }
+                }
+            };
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(errors.isEmpty());
+        // eviction is done in batches, so a few entries over the limit can exist temporarily
+        assertTrue(map.size() <= 500 + 8);
+    }
+
+    /**
+     * Tests that the least recently used entries are evicted.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testEviction() throws Exception {
+
+        CmsConcurrentLruMap<String, String> map = new CmsConcurrentLruMap<String, String>(10);
+        for (int i = 0; i < 10; i++) {
+            map.put("key" + i, "value" + i);
+            // make sure the access times differ
+            Thread.sleep(1);
+        }
+        assertEquals(10, map.size());
+        // touch the first entry so that it is the most recently used
+        assertEquals("value0", map.get("key0"));
+        map.put("key10", "value10");
+        assertTrue(map.size() <= 10);
+        assertEquals("value0", map.get("key0"));
+        assertEquals("value10", map.get("key10"));
+        assertNull(map.get("key1"));
+        assertEquals(10, map.maxSize());
+    }
+
+    /**
+     * Tests the basic map operations.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testMapOperations() throws Exception {
+
+        CmsConcurrentLruMap<String, String> map = new CmsConcurrentLruMap<String, String>(100);
+        assertTrue(map.isEmpty());
+        assertNull(map.put("a", "1"));
+        assertEquals("1", map.put("a", "2"));
+        assertEquals("2", map.get("a"));
+        assertTrue(map.containsKey("a"));
+        assertEquals(1, map.keySet().size());
+        assertEquals("2", map.values().iterator().next());
+        // the entry snapshots must follow the Map.Entry contract
+        assertEquals(Collections.singletonMap("a", "2"), map);
+        assertEquals(Collections.singletonMap("a", "2").hashCode(), map.hashCode());
+        // putting null removes the entry
+        map.put("a", null);
+        assertFalse(map.containsKey("a"));
+        map.put("b", "1");
+        assertEquals("1", map.remove("b"));
+        map.put("c", "1");
+        map.clear();
+        assertEquals(0, map.size());
+    }
+}
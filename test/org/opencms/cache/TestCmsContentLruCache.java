@@ -0,0 +1,141 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.cache;
+
+import org.opencms.test.OpenCmsTestCase;
+
+/**
+ * Test case for the content LRU cache.<p>
+ * 
+ * @since 8.5.0
+ */
+public class TestCmsContentLruCache extends OpenCmsTestCase {
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsContentLruCache(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Tests clearing the cache while other threads use it.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testConcurrentClear() throws Exception {
+
+        final CmsContentLruCache<String> cache = new CmsContentLruCache<String>(10000, 100);
+        final Throwable[] error = new Throwable[1];
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread() {
+
+                @Override
+                public void run() {
+
+                    try {
+                        for (int i = 0; i < 20000; i++) {
+                            String key = "key" + (i % 200);
+                            if (cache.get(key, 1) == null) {
+                                cache.put(key, 1, new byte[10]);
+                            }
+                        }
+                    } catch (Throwable e) {
+                        error[0] = e;
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            while (thread.isAlive()) {
+                cache.clear();
+                thread.join(1);
+            }
+        }
+        assertNull(error[0]);
+
+        // the entry map must be consistent with the LRU list after clearing 
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getObjectCosts());
+        for (int i = 0; i < 200; i++) {
+            assertNull(cache.get("key" + i, 1));
+        }
+        assertTrue(cache.put("key1", 1, new byte[10]));
+        assertNotNull(cache.get("key1", 1));
+        assertEquals(1, cache.size());
+    }
+
+    /**
+     * Tests that the cache stays within its byte size limits.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testCosts() throws Exception {
+
+        CmsContentLruCache<String> cache = new CmsContentLruCache<String>(1000, 100);
+        assertFalse(cache.put("large", 1, new byte[101]));
+        assertNull(cache.get("large", 1));
+
+        for (int i = 0; i < 20; i++) {
+            assertTrue(cache.put("key" + i, 1, new byte[100]));
+        }
+        assertTrue(cache.getObjectCosts() <= 1000);
+        // the least recently used contents have been removed
+        assertNull(cache.get("key0", 1));
+        assertNotNull(cache.get("key19", 1));
+    }
+
+    /**
+     * Tests the versioned lookup and the hit statistics.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testVersions() throws Exception {
+
+        CmsContentLruCache<String> cache = new CmsContentLruCache<String>(1000, 100);
+        byte[] content = new byte[] {1, 2, 3};
+        assertTrue(cache.put("key", 10, content));
+        assertSame(content, cache.get("key", 10));
+        assertNull(cache.get("key", 11));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(50, cache.getHitRate());
+
+        cache.remove("key");
+        assertNull(cache.get("key", 10));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getObjectCosts());
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.cache;
+
+import org.opencms.test.OpenCmsTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test case for the LRU cache.<p>
+ * 
+ * @since 8.5.0
+ */
+public class TestCmsLruCache extends OpenCmsTestCase {
+
+    /**
+     * Simple cache object that remembers if it is cached.<p>
+     */
+    private static class CmsTestObject implements I_CmsLruCacheObject {
+
+        /** Flag to indicate if the object is cached. */
+        volatile boolean m_cached;
+
+        /** The costs of the object. */
+        private int m_costs;
+
+        /** The next object in the LRU list. */
+        private I_CmsLruCacheObject m_next;
+
+        /** The previous object in the LRU list. */
+        private I_CmsLruCacheObject m_previous;
+
+        /**
+         * Creates a new test object.<p>
+         * 
+         * @param costs the costs of the object
+         */
+        CmsTestObject(int costs) {
+
+            m_costs = costs;
+        }
+
+        /**
+         * @see org.opencms.cache.I_CmsLruCacheObject#addToLruCache()
+         */
+        public void addToLruCache() {
+
+            m_cached = true;
+        }
+
+        /**
+         * @see org.opencms.cache.I_CmsLruCacheObject#getLruCacheCosts()
+         */
+        public int getLruCacheCosts() {
+
+            return m_costs;
+        }
+
+        /**
+         * @see org.opencms.cache.I_CmsLruCacheObject#getNextLruObject()
+         */
+        public I_CmsLruCacheObject getNextLruObject() {
+
+            return m_next;
+        }
+
+        /**
+         * @see org.opencms.cache.I_CmsLruCacheObject#getPreviousLruObject()
+         */
+        public I_CmsLruCacheObject getPreviousLruObject() {
+
+            return m_previous;
+        }
+
+        /**
+         * @see org.opencms.cache.I_CmsLruCacheObject#getValue()
+         */
+        public Object getValue() {
+
+            return this;
+        }
+
+        /**
+         * @see org.opencms.cache.I_CmsLruCacheObject#removeFromLruCache()
+         */
+        public void removeFromLruCache() {
+
+            m_cached = false;
+        }
+
+        /**
+         * @see org.opencms.cache.I_CmsLruCacheObject#setNextLruObject(org.opencms.cache.I_CmsLruCacheObject)
+         */
+        public void setNextLruObject(I_CmsLruCacheObject theNextObject) {
+
+            m_next = theNextObject;
+        }
+
+        /**
+         * @see org.opencms.cache.I_CmsLruCacheObject#setPreviousLruObject(org.opencms.cache.I_CmsLruCacheObject)
+         */
+        public void setPreviousLruObject(I_CmsLruCacheObject thePreviousObject) {
+
+            m_previous = thePreviousObject;
+        }
+    }
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsLruCache(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Tests that the costs are accounted for correctly while objects are touched, added and removed concurrently.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testConcurrentAccess() throws Exception {
+
+        final CmsLruCache cache = new CmsLruCache(1000, 800, 50);
+        final CmsTestObject[] objects = new CmsTestObject[200];
+        for (int i = 0; i < objects.length; i++) {
+            objects[i] = new CmsTestObject(1 + (i % 20));
+        }
+        final List<Throwable> errors = new ArrayList<Throwable>();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < 8; t++) {
+            final int offset = t * 25;
+            Thread thread = new Thread() {
+
+                @Override
+                public void run() {
+
+                    try {
+                        for (int i = 0; i < 20000; i++) {
+                            CmsTestObject object = objects[(offset + i) % objects.length];
+                            if (!cache.touch(object)) {
+                                cache.add(object);
+                            } else if ((i % 97) == 0) {
+                                cache.remove(object);
+                            }
+                        }
+                    } catch (Throwable e) {
+                        synchronized (errors) {
+                            errors.add(e);
+                        }
+                    }
+                }
+            };
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(errors.isEmpty());
+
+        int costs = 0;
+        int count = 0;
+        for (int i = 0; i < objects.length; i++) {
+            if (objects[i].m_cached) {
+                costs += objects[i].getLruCacheCosts();
+                count++;
+            }
+        }
+        assertEquals(costs, cache.getObjectCosts());
+        assertEquals(count, cache.size());
+        assertTrue(cache.getObjectCosts() <= 1000);
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getObjectCosts());
+        for (int i = 0; i < objects.length; i++) {
+            assertFalse(objects[i].m_cached);
+        }
+    }
+
+    /**
+     * Tests that the summed costs of the cached objects may exceed the integer range.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testLargeCosts() throws Exception {
+
+        CmsLruCache cache = new CmsLruCache(10L * Integer.MAX_VALUE, 5L * Integer.MAX_VALUE, Integer.MAX_VALUE);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(cache.add(new CmsTestObject(Integer.MAX_VALUE)));
+        }
+        assertEquals(3L * Integer.MAX_VALUE, cache.getObjectCosts());
+        assertEquals(3, cache.size());
+    }
+
+    /**
+     * Tests that the least recently used objects are removed first, including the objects that were only touched.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testLruOrder() throws Exception {
+
+        CmsLruCache cache = new CmsLruCache(100, 50, 20);
+        CmsTestObject large = new CmsTestObject(21);
+        assertFalse(cache.add(large));
+        assertFalse(large.m_cached);
+
+        CmsTestObject[] objects = new CmsTestObject[10];
+        for (int i = 0; i < objects.length; i++) {
+            objects[i] = new CmsTestObject(10);
+            assertTrue(cache.add(objects[i]));
+        }
+        assertEquals(100, cache.getObjectCosts());
+        // touch the oldest object, so that it becomes the most recently used
+        assertTrue(cache.touch(objects[0]));
+
+        // exceeding the max. costs removes the LRU objects until the avg. costs are reached
+        CmsTestObject object = new CmsTestObject(10);
+        assertTrue(cache.add(object));
+        assertTrue(cache.getObjectCosts() < 50);
+        assertTrue(objects[0].m_cached);
+        assertTrue(object.m_cached);
+        assertFalse(objects[1].m_cached);
+        assertFalse(cache.touch(objects[1]));
+
+        assertSame(object, cache.remove(object));
+        assertFalse(object.m_cached);
+        assertNull(cache.remove(object));
+    }
+}
@@ -27,8 +27,13 @@
 
 package org.opencms.file;
 
+import org.opencms.db.generic.CmsProjectDriver;
+import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestProperties;
 
+import java.util.Collections;
+
+import junit.extensions.TestSetup;
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
@@ -95,7 +100,44 @@ public final class AllTests {
         suite.addTest(TestUndoChanges.suite());
         suite.addTest(TestUser.suite());
         suite.addTest(TestLinkRewriter.suite());
+        suite.addTest(getBatchedPublishSuite());
         //$JUnit-END$
         return suite;
     }
+
+    /**
+     * Returns the publish related tests, running with the batched publishing 
+     * of the project driver enabled.<p>
+     * 
+     * @return the publish related tests with batched publishing
+     */
+    private static Test getBatchedPublishSuite() {
+
+        TestSuite suite = new TestSuite("Batched publishing tests");
+        suite.addTest(TestPublishing.suite());
+        suite.addTest(TestPublishIssues.suite());
+        suite.addTest(TestSiblings.suite());
+        return new TestSetup(suite) {
+
+            /**
+             * @see junit.extensions.TestSetup#setUp()
+             */
+            @Override
+            protected void setUp() {
+
+                // use a small batch size, so that the publish lists of the tests span several batches
+                OpenCmsTestCase.setConfigurationOverrides(
+                    Collections.singletonMap(CmsProjectDriver.PARAM_PUBLISH_BATCH_SIZE, "3"));
+            }
+
+            /**
+             * @see junit.extensions.TestSetup#tearDown()
+             */
+            @Override
+            protected void tearDown() {
+
+                OpenCmsTestCase.setConfigurationOverrides(null);
+            }
+        };
+    }
 }
\ No newline at end of file
@@ -86,6 +86,11 @@ public class TestPermissions extends OpenCmsTestCase {
         suite.addTest(new TestPermissions("testDefaultPermissions"));
         suite.addTest(new TestPermissions("testPermissionOverwrite"));
         suite.addTest(new TestPermissions("testPermissionInheritance"));
+        suite.addTest(new TestPermissions("testSharedChildResourceList"));
+        suite.addTest(new TestPermissions("testPrincipalPermissionCache"));
+        suite.addTest(new TestPermissions("testDirectPublishPermissionCache"));
+        suite.addTest(new TestPermissions("testPermissionCacheInvalidation"));
+        suite.addTest(new TestPermissions("testPublishedPermissionCache"));
         suite.addTest(new TestPermissions("testUserDeletion"));
 
         TestSetup wrapper = new TestSetup(suite) {
@@ -132,6 +137,52 @@ public class TestPermissions extends OpenCmsTestCase {
         assertEquals("+r+v", cms.getPermissions(resourcename, "testGuest").getPermissionString());
     }
 
+    /**
+     * Tests that the cached direct publish permissions are not shared by users with the same principals, 
+     * since they depend on the projects managed by the user.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testDirectPublishPermissionCache() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the cached direct publish permissions of users with the same principals");
+
+        String resourcename = "testDirectPublishPermissionCache.txt";
+        CmsResource res = cms.createResource(resourcename, CmsResourceTypePlain.getStaticTypeId());
+        cms.unlockResource(resourcename);
+        String[] users = {"publishUser1", "publishUser2"};
+        for (int i = 0; i < users.length; i++) {
+            cms.createUser(users[i], "secret", "", null);
+            cms.addUserToGroup(users[i], OpenCms.getDefaultUsers().getGroupUsers());
+        }
+        // only "publishUser1" manages the project containing the resource, as its owner
+        OpenCms.getRoleManager().addUserToRole(cms, CmsRole.PROJECT_MANAGER, "publishUser1");
+        cms.loginUser("publishUser1", "secret");
+        CmsProject project = cms.createProject(
+            "testDirectPublishPermissionCache",
+            "",
+            OpenCms.getDefaultUsers().getGroupUsers(),
+            OpenCms.getDefaultUsers().getGroupProjectmanagers());
+        cms.getRequestContext().setCurrentProject(project);
+        cms.copyResourceToProject(resourcename);
+        // afterwards both users have the same groups and roles again
+        cms.loginUser("Admin", "admin");
+        OpenCms.getRoleManager().removeUserFromRole(cms, CmsRole.PROJECT_MANAGER, "publishUser1");
+
+        // log in both users first, since logging in flushes the permission cache
+        CmsObject userCms1 = getCmsObject();
+        userCms1.loginUser("publishUser1", "secret");
+        userCms1.getRequestContext().setCurrentProject(userCms1.readProject("Offline"));
+        CmsObject userCms2 = getCmsObject();
+        userCms2.loginUser("publishUser2", "secret");
+        userCms2.getRequestContext().setCurrentProject(userCms2.readProject("Offline"));
+
+        assertTrue(userCms1.hasPermissions(res, CmsPermissionSet.ACCESS_DIRECT_PUBLISH, false, CmsResourceFilter.ALL));
+        // the same groups and roles, but no manageable project
+        assertFalse(userCms2.hasPermissions(res, CmsPermissionSet.ACCESS_DIRECT_PUBLISH, false, CmsResourceFilter.ALL));
+    }
+
     /**
      * Test the resource filter files in a folder.<p>
      * 
@@ -568,6 +619,203 @@ public class TestPermissions extends OpenCmsTestCase {
         }
     }
 
+    /**
+     * Tests that changed access control entries of a folder are applied to the cached permissions of its sub-tree.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testPermissionCacheInvalidation() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the permission cache after changing the permissions of a folder");
+
+        String folder = "/folder1/subfolder12/";
+        String resourcename = "/folder1/subfolder12/subsubfolder121/index.html";
+        String otherResourcename = "/folder1/subfolder11/index.html";
+        cms.createUser("cacheUser", "secret", "", null);
+        cms.addUserToGroup("cacheUser", OpenCms.getDefaultUsers().getGroupUsers());
+
+        CmsObject userCms = getCmsObject();
+        userCms.loginUser("cacheUser", "secret");
+        userCms.getRequestContext().setCurrentProject(userCms.readProject("Offline"));
+        CmsResource res = userCms.readResource(resourcename);
+        CmsResource otherRes = userCms.readResource(otherResourcename);
+        // fill the caches
+        assertTrue(userCms.hasPermissions(res, CmsPermissionSet.ACCESS_WRITE, false, CmsResourceFilter.ALL));
+        assertTrue(userCms.hasPermissions(otherRes, CmsPermissionSet.ACCESS_WRITE, false, CmsResourceFilter.ALL));
+
+        // allow only read for the "Users" group in the folder and all resources below
+        cms.lockResource(folder);
+        cms.chacc(
+            folder,
+            I_CmsPrincipal.PRINCIPAL_GROUP,
+            OpenCms.getDefaultUsers().getGroupUsers(),
+            CmsPermissionSet.PERMISSION_READ + CmsPermissionSet.PERMISSION_VIEW,
+            0,
+            CmsAccessControlEntry.ACCESS_FLAGS_OVERWRITE + CmsAccessControlEntry.ACCESS_FLAGS_INHERIT);
+        cms.unlockResource(folder);
+
+        assertTrue(userCms.hasPermissions(res, CmsPermissionSet.ACCESS_READ, false, CmsResourceFilter.ALL));
+        assertFalse(userCms.hasPermissions(res, CmsPermissionSet.ACCESS_WRITE, false, CmsResourceFilter.ALL));
+        // resources outside of the folder are not affected
+        assertTrue(userCms.hasPermissions(otherRes, CmsPermissionSet.ACCESS_WRITE, false, CmsResourceFilter.ALL));
+
+        // removing the entry again must restore the permissions
+        cms.lockResource(folder);
+        cms.rmacc(folder, I_CmsPrincipal.PRINCIPAL_GROUP, OpenCms.getDefaultUsers().getGroupUsers());
+        cms.unlockResource(folder);
+        assertTrue(userCms.hasPermissions(res, CmsPermissionSet.ACCESS_WRITE, false, CmsResourceFilter.ALL));
+    }
+
+    /**
+     * Tests the permission cache shared by users with the same principals.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testPrincipalPermissionCache() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the permission cache shared by users with the same principals");
+
+        String resourcename = "testPrincipalPermissionCache.txt";
+        CmsResource res = cms.createResource(resourcename, CmsResourceTypePlain.getStaticTypeId());
+        String[] users = {"sharedUser1", "sharedUser2", "sharedUser3"};
+        for (int i = 0; i < users.length; i++) {
+            cms.createUser(users[i], "secret", "", null);
+            cms.addUserToGroup(users[i], OpenCms.getDefaultUsers().getGroupUsers());
+        }
+        // allow only read for the "Users" group
+        cms.chacc(
+            resourcename,
+            I_CmsPrincipal.PRINCIPAL_GROUP,
+            OpenCms.getDefaultUsers().getGroupUsers(),
+            CmsPermissionSet.PERMISSION_READ + CmsPermissionSet.PERMISSION_VIEW,
+            0,
+            CmsAccessControlEntry.ACCESS_FLAGS_OVERWRITE);
+        // allow write for user "sharedUser2" only
+        cms.chacc(resourcename, I_CmsPrincipal.PRINCIPAL_USER, "sharedUser2", CmsPermissionSet.PERMISSION_READ
+            + CmsPermissionSet.PERMISSION_WRITE
+            + CmsPermissionSet.PERMISSION_VIEW, 0, 0);
+
+        cms.loginUser("sharedUser1", "secret");
+        cms.getRequestContext().setCurrentProject(cms.readProject("Offline"));
+        assertTrue(cms.hasPermissions(res, CmsPermissionSet.ACCESS_READ, false, CmsResourceFilter.ALL));
+        assertFalse(cms.hasPermissions(res, CmsPermissionSet.ACCESS_WRITE, false, CmsResourceFilter.ALL));
+
+        // the user specific entry must not be overruled by the result cached for the same groups
+        cms.loginUser("sharedUser2", "secret");
+        cms.getRequestContext().setCurrentProject(cms.readProject("Offline"));
+        assertTrue(cms.hasPermissions(res, CmsPermissionSet.ACCESS_READ, false, CmsResourceFilter.ALL));
+        assertTrue(cms.hasPermissions(res, CmsPermissionSet.ACCESS_WRITE, false, CmsResourceFilter.ALL));
+
+        // a user with the same groups and without user specific entry must get the shared result
+        cms.loginUser("sharedUser3", "secret");
+        cms.getRequestContext().setCurrentProject(cms.readProject("Offline"));
+        assertTrue(cms.hasPermissions(res, CmsPermissionSet.ACCESS_READ, false, CmsResourceFilter.ALL));
+        assertFalse(cms.hasPermissions(res, CmsPermissionSet.ACCESS_WRITE, false, CmsResourceFilter.ALL));
+    }
+
+    /**
+     * Tests that publishing changed access control entries of a folder updates the cached online permissions 
+     * of its sub-tree.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testPublishedPermissionCache() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the online permission cache after publishing the permissions of a folder");
+
+        String folder = "/folder1/subfolder11/";
+        String resourcename = "/folder1/subfolder11/subsubfolder111/text.txt";
+        cms.createUser("publishCacheUser", "secret", "", null);
+        cms.addUserToGroup("publishCacheUser", OpenCms.getDefaultUsers().getGroupUsers());
+
+        CmsObject userCms = getCmsObject();
+        userCms.loginUser("publishCacheUser", "secret");
+        userCms.getRequestContext().setCurrentProject(userCms.readProject(CmsProject.ONLINE_PROJECT_ID));
+        CmsResource res = userCms.readResource(resourcename);
+        // fill the online caches
+        assertTrue(userCms.hasPermissions(res, CmsPermissionSet.ACCESS_READ, false, CmsResourceFilter.ALL));
+
+        // deny read for the "Users" group in the folder and all resources below
+        cms.lockResource(folder);
+        cms.chacc(
+            folder,
+            I_CmsPrincipal.PRINCIPAL_GROUP,
+            OpenCms.getDefaultUsers().getGroupUsers(),
+            0,
+            CmsPermissionSet.PERMISSION_READ,
+            CmsAccessControlEntry.ACCESS_FLAGS_INHERIT);
+        cms.unlockResource(folder);
+        // the online permissions are not changed before publishing
+        assertTrue(userCms.hasPermissions(res, CmsPermissionSet.ACCESS_READ, false, CmsResourceFilter.ALL));
+
+        OpenCms.getPublishManager().publishResource(cms, folder);
+        OpenCms.getPublishManager().waitWhileRunning();
+        assertFalse(userCms.hasPermissions(res, CmsPermissionSet.ACCESS_READ, false, CmsResourceFilter.ALL));
+
+        // removing the entry again must restore the permissions
+        cms.lockResource(folder);
+        cms.rmacc(folder, I_CmsPrincipal.PRINCIPAL_GROUP, OpenCms.getDefaultUsers().getGroupUsers());
+        cms.unlockResource(folder);
+        OpenCms.getPublishManager().publishResource(cms, folder);
+        OpenCms.getPublishManager().waitWhileRunning();
+        assertTrue(userCms.hasPermissions(res, CmsPermissionSet.ACCESS_READ, false, CmsResourceFilter.ALL));
+    }
+
+    /**
+     * Tests that the child resource list shared by all users is filtered with the permissions of each user.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testSharedChildResourceList() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the permissions on a child resource list shared by all users");
+
+        String folder = "/folder2/";
+        String resource = "/folder2/index.html";
+        CmsResource res = cms.readResource(resource);
+
+        cms.lockResource(resource);
+        // remove all "Users" group permissions 
+        cms.chacc(
+            resource,
+            I_CmsPrincipal.PRINCIPAL_GROUP,
+            OpenCms.getDefaultUsers().getGroupUsers(),
+            0,
+            0,
+            CmsAccessControlEntry.ACCESS_FLAGS_OVERWRITE);
+        // also for "Project managers" to avoid conflicts with other tests in this suite
+        cms.chacc(
+            resource,
+            I_CmsPrincipal.PRINCIPAL_GROUP,
+            OpenCms.getDefaultUsers().getGroupProjectmanagers(),
+            0,
+            0,
+            CmsAccessControlEntry.ACCESS_FLAGS_OVERWRITE);
+        // allow read and visible for user "test2" only
+        cms.chacc(resource, I_CmsPrincipal.PRINCIPAL_USER, "test2", CmsPermissionSet.PERMISSION_READ
+            + CmsPermissionSet.PERMISSION_VIEW, 0, CmsAccessControlEntry.ACCESS_FLAGS_OVERWRITE);
+        cms.unlockResource(resource);
+
+        // fill the child list cache as administrator
+        List<CmsResource> resultList = cms.getResourcesInFolder(folder, CmsResourceFilter.DEFAULT);
+        assertTrue("Administrator must be able to read " + resource, resultList.contains(res));
+
+        cms.loginUser("test1", "test1");
+        cms.getRequestContext().setCurrentProject(cms.readProject("Offline"));
+        resultList = cms.getResourcesInFolder(folder, CmsResourceFilter.DEFAULT);
+        assertFalse("User test1 must not be able to read " + resource, resultList.contains(res));
+        assertFalse("User test1 must still be able to read the other resources", resultList.isEmpty());
+
+        cms.loginUser("test2", "test2");
+        cms.getRequestContext().setCurrentProject(cms.readProject("Offline"));
+        resultList = cms.getResourcesInFolder(folder, CmsResourceFilter.DEFAULT);
+        assertTrue("User test2 must be able to read " + resource, resultList.contains(res));
+    }
+
     /**
      * Test the visible permissions.<p>
      * 
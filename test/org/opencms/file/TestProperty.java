@@ -87,6 +87,7 @@ public class TestProperty extends OpenCmsTestCase {
         suite.addTest(new TestProperty("testCreateProperty"));
         suite.addTest(new TestProperty("testCreateProperties"));
         suite.addTest(new TestProperty("testWritePropertyOnFolder"));
+        suite.addTest(new TestProperty("testInheritedPropertyUpdate"));
         suite.addTest(new TestProperty("testDefaultPropertyCreation"));
         suite.addTest(new TestProperty("testCaseSensitiveProperties"));
         suite.addTest(new TestProperty("testReadResourcesWithProperty"));
@@ -575,6 +576,44 @@ public class TestProperty extends OpenCmsTestCase {
         writeProperty(this, cms, "/folder2/", property10);
     }
 
+    /**
+     * Tests that changed folder properties are inherited by cached sub-resources.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testInheritedPropertyUpdate() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing updates of inherited properties");
+
+        String folder = "/folder1/";
+        String subfolder = "/folder1/subfolder11/";
+        String file = "/folder1/subfolder11/index.html";
+        String name = "InheritedTest";
+
+        // read the inherited properties to fill the caches
+        assertTrue(cms.readPropertyObject(file, name, true).isNullProperty());
+
+        cms.lockResource(folder);
+        cms.writePropertyObject(folder, new CmsProperty(name, "folder", null));
+        assertEquals("folder", cms.readPropertyObject(file, name, true).getValue());
+        assertEquals("folder", cms.readPropertyObject(subfolder, name, true).getValue());
+
+        // a lower folder must overwrite the value of an upper folder
+        cms.writePropertyObject(subfolder, new CmsProperty(name, "subfolder", null));
+        assertEquals("subfolder", cms.readPropertyObject(file, name, true).getValue());
+        assertEquals("folder", cms.readPropertyObject(folder, name, true).getValue());
+
+        // changing the upper folder must not affect the overwritten value
+        cms.writePropertyObject(folder, new CmsProperty(name, "changed", null));
+        assertEquals("subfolder", cms.readPropertyObject(file, name, true).getValue());
+
+        // deleting the lower value must reveal the upper one again
+        cms.writePropertyObject(subfolder, new CmsProperty(name, CmsProperty.DELETE_VALUE, null));
+        assertEquals("changed", cms.readPropertyObject(file, name, true).getValue());
+        cms.unlockResource(folder);
+    }
+
     /**
      * Tests the writePropertyObject method for writing of a property on a folder.<p>
      * 
@@ -27,7 +27,9 @@
 
 package org.opencms.file;
 
+import org.opencms.db.CmsVfsCacheKey;
 import org.opencms.file.types.CmsResourceTypeFolder;
+import org.opencms.main.OpenCms;
 import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestProperties;
 import org.opencms.test.OpenCmsTestResourceFilter;
@@ -71,6 +73,7 @@ public class TestReadResourceTree extends OpenCmsTestCase {
         suite.addTest(new TestReadResourceTree("testReadFolders"));
         suite.addTest(new TestReadResourceTree("testReadFiles"));
         suite.addTest(new TestReadResourceTree("testReadResources"));
+        suite.addTest(new TestReadResourceTree("testReadResourcesPaged"));
         suite.addTest(new TestReadResourceTree("testReadModifiedResources"));
         suite.addTest(new TestReadResourceTree("testReadResourcesInTimerange"));
 
@@ -290,6 +293,40 @@ public class TestReadResourceTree extends OpenCmsTestCase {
         assertEquals(1, result.size());
     }
 
+    /**
+     * Test the method that reads a page of the direct sub-resources of a folder.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testReadResourcesPaged() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing getResourcesInFolder: reading pages of child resources");
+
+        cms.getRequestContext().setSiteRoot("/");
+
+        String path = "/sites/default/";
+
+        List<CmsResource> all = cms.getResourcesInFolder(path, CmsResourceFilter.ALL);
+        assertEquals(5, all.size());
+
+        // the pages are read from the shared child list
+        OpenCms.getMemoryMonitor().flushResourceLists();
+        List<CmsResource> result = cms.getResourcesInFolder(path, CmsResourceFilter.ALL, 0, 2);
+        assertEquals(all.subList(0, 2), result);
+        CmsVfsCacheKey cacheKey = new CmsVfsCacheKey(CmsVfsCacheKey.KeyType.SUB_ALL, false, path);
+        assertEquals(all, OpenCms.getMemoryMonitor().getCachedResourceList(cacheKey));
+
+        result = cms.getResourcesInFolder(path, CmsResourceFilter.ALL, 2, 2);
+        assertEquals(all.subList(2, 4), result);
+
+        result = cms.getResourcesInFolder(path, CmsResourceFilter.ALL, 4, 2);
+        assertEquals(all.subList(4, 5), result);
+
+        result = cms.getResourcesInFolder(path, CmsResourceFilter.ALL, 5, 2);
+        assertTrue(result.isEmpty());
+    }
+
     /**
      * Test readResources for reading resources modified within a timerange.<p>
      * 
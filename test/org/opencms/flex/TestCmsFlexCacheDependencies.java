@@ -0,0 +1,106 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.flex;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the CmsFlexCacheDependencies.<p>
+ */
+public class TestCmsFlexCacheDependencies extends TestCase {
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsFlexCacheDependencies(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Tests the dependencies on folder listings.<p>
+     */
+    public void testFolderDependencies() {
+
+        CmsFlexCacheDependencies dependencies = new CmsFlexCacheDependencies();
+        dependencies.addFolder("/sites/default/news/", false);
+        dependencies.addFolder("/sites/default/events/", true);
+
+        assertTrue(dependencies.dependsOn("/sites/default/news/new.html"));
+        assertFalse(dependencies.dependsOn("/sites/default/news/2012/new.html"));
+        assertTrue(dependencies.dependsOn("/sites/default/events/2012/new.html"));
+        assertFalse(dependencies.dependsOn("/sites/default/index.html"));
+    }
+
+    /**
+     * Tests the dependencies on resources and inherited properties.<p>
+     */
+    public void testResourceDependencies() {
+
+        CmsFlexCacheDependencies dependencies = new CmsFlexCacheDependencies();
+        dependencies.addResource("/sites/default/index.html");
+        dependencies.addResourceAndParents("/sites/default/news/article.html");
+
+        assertTrue(dependencies.dependsOn("/sites/default/index.html"));
+        assertTrue(dependencies.dependsOn("/sites/default/news/article.html"));
+        assertTrue(dependencies.dependsOn("/sites/default/news/"));
+        assertTrue(dependencies.dependsOn("/"));
+        assertFalse(dependencies.dependsOn("/sites/default/news/other.html"));
+        assertFalse(dependencies.isUntracked());
+
+        // the copy must not be affected by changes of the original
+        CmsFlexCacheDependencies copy = new CmsFlexCacheDependencies(dependencies);
+        dependencies.addResource("/sites/default/other.html");
+        assertFalse(copy.dependsOn("/sites/default/other.html"));
+    }
+
+    /**
+     * Tests untracked dependencies.<p>
+     */
+    public void testUntrackedDependencies() {
+
+        CmsFlexCacheDependencies dependencies = new CmsFlexCacheDependencies();
+        dependencies.setUntracked();
+        assertTrue(dependencies.isUntracked());
+        assertTrue(dependencies.dependsOn("/sites/default/index.html"));
+
+        // too many dependencies can not be tracked
+        dependencies = new CmsFlexCacheDependencies();
+        for (int i = 0; i <= CmsFlexCacheDependencies.MAX_DEPENDENCIES; i++) {
+            dependencies.addResource("/sites/default/file" + i + ".html");
+        }
+        assertTrue(dependencies.isUntracked());
+        assertEquals(0, dependencies.size());
+
+        // an entry without dependencies is untracked
+        assertTrue(new CmsFlexCacheEntry().getDependencies().isUntracked());
+    }
+}
@@ -44,6 +44,38 @@ public class TestCmsFlexCacheEntry extends TestCase {
         super(arg0);
     }
 
+    /**
+     * Tests that only one request at a time can regenerate an expired entry.<p>
+     */
+    public void testRegeneration() {
+
+        CmsFlexCacheEntry entry = new CmsFlexCacheEntry();
+        assertTrue(entry.startRegeneration());
+        assertFalse(entry.startRegeneration());
+        entry.endRegeneration();
+        assertTrue(entry.startRegeneration());
+    }
+
+    /**
+     * Tests the cache directives for coalescing requests and serving stale entries.<p>
+     */
+    public void testRegenerationDirectives() {
+
+        CmsFlexCacheKey key = new CmsFlexCacheKey("/index.jsp", "uri;timeout=5", true);
+        assertFalse(key.isCoalesce());
+        assertTrue(key.getStale() <= 0);
+
+        key = new CmsFlexCacheKey("/index.jsp", "uri;coalesce", true);
+        assertFalse(key.hadParseError());
+        assertTrue(key.isCoalesce());
+        assertTrue(key.getStale() <= 0);
+
+        key = new CmsFlexCacheKey("/index.jsp", "uri;timeout=5;stale=10", true);
+        assertFalse(key.hadParseError());
+        assertTrue(key.isCoalesce());
+        assertEquals(10, key.getStale());
+    }
+
     /**
      * Tests the method getAbsoluteUri.<p>
      */
@@ -0,0 +1,357 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.flex;
+
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProject;
+import org.opencms.file.CmsProperty;
+import org.opencms.file.CmsPropertyDefinition;
+import org.opencms.file.CmsResource;
+import org.opencms.jsp.util.CmsJspStandardContextBean;
+import org.opencms.main.OpenCms;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+import org.opencms.util.CmsUUID;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/** 
+ * Tests the removal of Flex cache entries depending on published resources.<p> 
+ * 
+ * @since 8.5.0
+ */
+public class TestCmsFlexCacheInvalidation extends OpenCmsTestCase {
+
+    /** 
+     * Request stub that also provides the attribute names and the parameter map, as required by the Flex request.<p>
+     */
+    public static class FlexRequestStub extends TestCmsFlexResponse.RequestStub {
+
+        /**
+         * Returns the names of the request attributes.<p>
+         * 
+         * @return the names of the request attributes
+         */
+        public Enumeration getAttributeNames() {
+
+            return Collections.enumeration(m_attributes.keySet());
+        }
+
+        /**
+         * Returns an empty parameter map.<p>
+         * 
+         * @return an empty parameter map
+         */
+        public Map getParameterMap() {
+
+            return new HashMap();
+        }
+    }
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsFlexCacheInvalidation(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     * 
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmsFlexCacheInvalidation.class.getName());
+
+        suite.addTest(new TestCmsFlexCacheInvalidation("testCoalescedRegeneration"));
+        suite.addTest(new TestCmsFlexCacheInvalidation("testSeparateContextDependencies"));
+        suite.addTest(new TestCmsFlexCacheInvalidation("testVfsBeanDependencies"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Tests that only the requests for the same entry wait for its regeneration, 
+     * and that only the requests served with the regenerated entry are counted.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testCoalescedRegeneration() throws Exception {
+
+        echo("Testing the coalesced regeneration of Flex cache entries");
+
+        final CmsFlexCache cache = createCache();
+        final CmsFlexCacheKey key = new CmsFlexCacheKey("/sites/default/index.html", "uri;coalesce", true);
+        cache.putKey(key);
+
+        assertTrue(cache.startRegeneration(key, "a"));
+        // another variation is not blocked by the regeneration
+        assertTrue(cache.startRegeneration(key, "b"));
+        cache.endRegeneration(key, "b");
+
+        final List<Boolean> results = Collections.synchronizedList(new ArrayList<Boolean>());
+        Thread waiting = new Thread() {
+
+            @Override
+            public void run() {
+
+                results.add(Boolean.valueOf(cache.startRegeneration(key, "a")));
+            }
+        };
+        waiting.start();
+        // wait until the concurrent request is blocked
+        long waitUntil = System.currentTimeMillis() + 10000;
+        while ((waiting.getState() != Thread.State.TIMED_WAITING) && (System.currentTimeMillis() < waitUntil)) {
+            Thread.sleep(10);
+        }
+        assertTrue(results.isEmpty());
+
+        CmsFlexCacheEntry entry = new CmsFlexCacheEntry();
+        entry.complete();
+        cache.put(key, entry, "a");
+        cache.endRegeneration(key, "a");
+        waiting.join(10000);
+        assertEquals(Collections.singletonList(Boolean.FALSE), results);
+        assertEquals(1, cache.getCoalescedHits());
+
+        // a regeneration that does not cache the entry is not counted
+        assertTrue(cache.startRegeneration(key, "c"));
+        waiting = new Thread() {
+
+            @Override
+            public void run() {
+
+                results.add(Boolean.valueOf(cache.startRegeneration(key, "c")));
+            }
+        };
+        waiting.start();
+        waitUntil = System.currentTimeMillis() + 10000;
+        while ((waiting.getState() != Thread.State.TIMED_WAITING) && (System.currentTimeMillis() < waitUntil)) {
+            Thread.sleep(10);
+        }
+        cache.endRegeneration(key, "c");
+        waiting.join(10000);
+        assertEquals(2, results.size());
+        assertEquals(1, cache.getCoalescedHits());
+    }
+
+    /**
+     * Tests that the reads with a separately initialized <code>CmsObject</code> and the reads 
+     * of missing resources are tracked as dependencies of the current element.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testSeparateContextDependencies() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the dependencies read with a separate CmsObject and of missing resources");
+
+        String element = "/index.html";
+        String dependency = "/folder2/index.html";
+        String missing = "/folder2/missing.html";
+
+        CmsObject onlineCms = OpenCms.initCmsObject(cms);
+        onlineCms.getRequestContext().setCurrentProject(cms.readProject(CmsProject.ONLINE_PROJECT_ID));
+        CmsResource elementResource = onlineCms.readResource(element);
+        CmsFlexController controller = createController(onlineCms, elementResource, createCache(), createRequest());
+
+        // reads with a separately initialized CmsObject must be tracked as well
+        CmsObject separateCms = OpenCms.initCmsObject(onlineCms);
+        separateCms.readResource(dependency);
+        // the result of a read of a missing resource changes if the resource is created
+        assertFalse(separateCms.existsResource(missing));
+
+        CmsFlexCacheDependencies dependencies = controller.getDependencies(elementResource);
+        assertFalse(dependencies.isUntracked());
+        assertTrue(dependencies.dependsOn(cms.getRequestContext().addSiteRoot(dependency)));
+        assertTrue(dependencies.dependsOn(cms.getRequestContext().addSiteRoot(missing)));
+        assertFalse(dependencies.dependsOn(cms.getRequestContext().addSiteRoot("/folder1/page1.html")));
+
+        // the path of a missing resource read by id is unknown, so the element can not be tracked
+        assertFalse(separateCms.existsResource(new CmsUUID()));
+        assertTrue(controller.getDependencies(elementResource).isUntracked());
+
+        controller.pop();
+        assertNull(CmsFlexController.getThreadContextInfo());
+    }
+
+    /**
+     * Tests that an element is removed from the Flex cache if a resource read through 
+     * the VFS bean of the standard context bean (<code>${cms.vfs}</code>) is published.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testVfsBeanDependencies() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the removal of Flex cache entries depending on resources read through the VFS bean");
+
+        String element = "/index.html";
+        String dependency = "/folder1/page1.html";
+        String other = "/folder2/index.html";
+
+        CmsObject onlineCms = OpenCms.initCmsObject(cms);
+        onlineCms.getRequestContext().setCurrentProject(cms.readProject(CmsProject.ONLINE_PROJECT_ID));
+        CmsResource elementResource = onlineCms.readResource(element);
+
+        CmsFlexCache cache = createCache();
+        HttpServletRequest request = createRequest();
+        CmsFlexController controller = createController(onlineCms, elementResource, cache, request);
+
+        // the standard context bean uses a copy of the controllers CmsObject
+        CmsJspStandardContextBean bean = CmsJspStandardContextBean.getInstance(request);
+        assertNotSame(onlineCms.getRequestContext(), bean.getRequestContext());
+        assertNotNull(bean.getVfs().getReadResource().get(dependency));
+
+        CmsFlexCacheDependencies dependencies = controller.getDependencies(elementResource);
+        assertFalse(dependencies.isUntracked());
+        assertTrue(dependencies.dependsOn(cms.getRequestContext().addSiteRoot(dependency)));
+
+        CmsFlexCacheEntry entry = new CmsFlexCacheEntry();
+        entry.complete();
+        entry.setDependencies(dependencies);
+        CmsFlexCacheKey key = new CmsFlexCacheKey(elementResource.getRootPath(), "always", true);
+        cache.put(key, entry, "test");
+        assertEquals(1, cache.size());
+        controller.pop();
+
+        // publishing an unrelated resource must keep the entry
+        cms.lockResource(other);
+        cms.writePropertyObject(other, new CmsProperty(CmsPropertyDefinition.PROPERTY_TITLE, "Changed title", null));
+        cms.unlockResource(other);
+        OpenCms.getPublishManager().publishResource(cms, other);
+        OpenCms.getPublishManager().waitWhileRunning();
+        assertEquals(1, cache.size());
+
+        // publishing the resource read through the VFS bean must remove the entry
+        cms.lockResource(dependency);
+        cms.writePropertyObject(dependency, new CmsProperty(CmsPropertyDefinition.PROPERTY_TITLE, "Changed title", null));
+        cms.unlockResource(dependency);
+        OpenCms.getPublishManager().publishResource(cms, dependency);
+        OpenCms.getPublishManager().waitWhileRunning();
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * Creates a Flex cache for the tests.<p>
+     * 
+     * @return the Flex cache
+     */
+    private CmsFlexCache createCache() {
+
+        CmsFlexCacheConfiguration config = new CmsFlexCacheConfiguration();
+        config.initialize("true", "false", "8000000", "6000000", "400000", "2000");
+        return new CmsFlexCache(config);
+    }
+
+    /**
+     * Creates a Flex controller generating the given element and pushes the first Flex request.<p>
+     * 
+     * @param cms the OpenCms user context
+     * @param elementResource the resource of the element
+     * @param cache the Flex cache
+     * @param request the request
+     * 
+     * @return the Flex controller
+     */
+    private CmsFlexController createController(
+        CmsObject cms,
+        CmsResource elementResource,
+        CmsFlexCache cache,
+        HttpServletRequest request) {
+
+        HttpServletResponse response = (HttpServletResponse)Proxy.newProxyInstance(
+            Thread.currentThread().getContextClassLoader(),
+            new Class[] {HttpServletResponse.class},
+            new TestCmsFlexResponse.RecordingMock());
+        CmsFlexController controller = new CmsFlexController(
+            cms,
+            elementResource,
+            cache,
+            request,
+            response,
+            false,
+            true);
+        CmsFlexController.setController(request, controller);
+        controller.push(new CmsFlexRequest(request, controller), new CmsFlexResponse(
+            response,
+            controller,
+            false,
+            true));
+        return controller;
+    }
+
+    /**
+     * Creates a request for the tests.<p>
+     * 
+     * @return the request
+     */
+    private HttpServletRequest createRequest() {
+
+        return (HttpServletRequest)Proxy.newProxyInstance(
+            Thread.currentThread().getContextClassLoader(),
+            new Class[] {HttpServletRequest.class},
+            new TestCmsFlexResponse.RecordingMock(new FlexRequestStub()));
+    }
+}
\ No newline at end of file
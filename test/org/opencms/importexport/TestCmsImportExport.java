@@ -115,6 +115,7 @@ public class TestCmsImportExport extends OpenCmsTestCase {
         suite.addTest(new TestCmsImportExport("testSetup"));
         suite.addTest(new TestCmsImportExport("testUserImport"));
         suite.addTest(new TestCmsImportExport("testImportExportFolder"));
+        suite.addTest(new TestCmsImportExport("testImportExportFolderParallel"));
         suite.addTest(new TestCmsImportExport("testImportExportId"));
         suite.addTest(new TestCmsImportExport("testImportExportBrokenLinksHtml"));
         suite.addTest(new TestCmsImportExport("testImportExportBrokenLinksXml"));
@@ -662,6 +663,81 @@ public class TestCmsImportExport extends OpenCmsTestCase {
         assertResources(cms, filename, startResources);
     }
 
+    /**
+     * Tests an overwriting import of VFS data with several import threads.<p>
+     * 
+     * @throws Exception if something goes wrong
+     */
+    public void testImportExportFolderParallel() throws Exception {
+
+        CmsObject cms = getCmsObject();
+
+        echo("Testing an overwriting import of VFS data with several import threads.");
+        String filename = "folder1/";
+        String zipExportFilename = OpenCms.getSystemInfo().getAbsoluteRfsPathRelativeToWebInf(
+            "packages/testImportExportFolderParallel.zip");
+
+        List<CmsResource> startResources = cms.readResources(filename, CmsResourceFilter.ALL, true);
+        List<byte[]> startContents = new ArrayList<byte[]>();
+        for (CmsResource res : startResources) {
+            startContents.add(res.isFile() ? cms.readFile(res).getContents() : null);
+        }
+        int importThreads = OpenCms.getImportExportManager().getImportThreads();
+
+        try {
+            // export the folder
+            CmsVfsImportExportHandler vfsExportHandler = new CmsVfsImportExportHandler();
+            List exportPaths = new ArrayList(1);
+            exportPaths.add(filename);
+            CmsExportParameters params = new CmsExportParameters(
+                zipExportFilename,
+                null,
+                true,
+                false,
+                false,
+                exportPaths,
+                false,
+                true,
+                0,
+                true,
+                false);
+            vfsExportHandler.setExportParams(params);
+            OpenCms.getImportExportManager().exportData(
+                cms,
+                vfsExportHandler,
+                new CmsShellReport(cms.getRequestContext().getLocale()));
+
+            // re-import the exported folder with several threads
+            OpenCms.getImportExportManager().setImportThreads("4");
+            OpenCms.getImportExportManager().importData(
+                cms,
+                new CmsShellReport(cms.getRequestContext().getLocale()),
+                new CmsImportParameters(zipExportFilename, "/", true));
+
+        } finally {
+            OpenCms.getImportExportManager().setImportThreads(String.valueOf(importThreads));
+            try {
+                if (zipExportFilename != null) {
+                    File file = new File(zipExportFilename);
+                    if (file.exists()) {
+                        file.delete();
+                    }
+                }
+            } catch (Throwable t) {
+                // intentionally left blank
+            }
+        }
+
+        assertResources(cms, filename, startResources);
+        for (int i = 0; i < startResources.size(); i++) {
+            CmsResource res = startResources.get(i);
+            if (res.isFile()) {
+                byte[] content = cms.readFile(cms.getSitePath(res), CmsResourceFilter.ALL).getContents();
+                assertEquals(res.getRootPath(), new String(startContents.get(i)), new String(content));
+            }
+        }
+    }
+
     /**
      * Compares imported and exported resources.<p>
      * 
@@ -0,0 +1,122 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.loader;
+
+import org.opencms.test.OpenCmsTestServletRequest;
+import org.opencms.util.CmsRequestUtil;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the byte range handling of the dump loader.<p>
+ * 
+ * @since 8.5.0
+ */
+public class TestCmsDumpLoaderRange extends TestCase {
+
+    /** The entity tag used in the tests. */
+    private static final String ETAG = "\"etag\"";
+
+    /**
+     * Tests the "If-Range" header.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testIfRange() throws Exception {
+
+        CmsDumpLoader loader = new CmsDumpLoader();
+        assertRange(new long[] {0, 9}, loader.getRange(createRequest("bytes=0-9", ETAG), ETAG, 0, 100));
+        assertNull(loader.getRange(createRequest("bytes=0-9", "\"other\""), ETAG, 0, 100));
+        assertNull(loader.getRange(createRequest("bytes=0-9", "W/" + ETAG), ETAG, 0, 100));
+    }
+
+    /**
+     * Tests parsing of the "Range" header.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testRange() throws Exception {
+
+        CmsDumpLoader loader = new CmsDumpLoader();
+        assertNull(loader.getRange(createRequest(null, null), ETAG, 0, 100));
+        assertRange(new long[] {0, 9}, loader.getRange(createRequest("bytes=0-9", null), ETAG, 0, 100));
+        assertRange(new long[] {50, 99}, loader.getRange(createRequest("bytes=50-", null), ETAG, 0, 100));
+        assertRange(new long[] {90, 99}, loader.getRange(createRequest("bytes=-10", null), ETAG, 0, 100));
+        assertRange(new long[] {0, 99}, loader.getRange(createRequest("bytes=-200", null), ETAG, 0, 100));
+        assertRange(new long[] {90, 99}, loader.getRange(createRequest("bytes=90-200", null), ETAG, 0, 100));
+        // unsatisfiable ranges start at the content length
+        assertEquals(100, loader.getRange(createRequest("bytes=100-", null), ETAG, 0, 100)[0]);
+        // invalid or multiple ranges are ignored
+        assertNull(loader.getRange(createRequest("bytes=9-0", null), ETAG, 0, 100));
+        assertNull(loader.getRange(createRequest("bytes=a-b", null), ETAG, 0, 100));
+        assertNull(loader.getRange(createRequest("bytes=0-1,5-6", null), ETAG, 0, 100));
+        assertNull(loader.getRange(createRequest("items=0-1", null), ETAG, 0, 100));
+    }
+
+    /**
+     * Asserts that the given ranges are equal.<p>
+     * 
+     * @param expected the expected range
+     * @param actual the actual range
+     */
+    private void assertRange(long[] expected, long[] actual) {
+
+        assertNotNull(actual);
+        assertEquals(expected[0], actual[0]);
+        assertEquals(expected[1], actual[1]);
+    }
+
+    /**
+     * Creates a request with the given "Range" and "If-Range" headers.<p>
+     * 
+     * @param range the "Range" header, may be <code>null</code>
+     * @param ifRange the "If-Range" header, may be <code>null</code>
+     * 
+     * @return the request
+     */
+    private HttpServletRequest createRequest(String range, String ifRange) {
+
+        final Map<String, String> headers = new HashMap<String, String>();
+        headers.put(CmsRequestUtil.HEADER_RANGE, range);
+        headers.put(CmsRequestUtil.HEADER_IF_RANGE, ifRange);
+        return new OpenCmsTestServletRequest() {
+
+            @Override
+            public String getHeader(String name) {
+
+                return headers.get(name);
+            }
+        };
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.lock;
+
+import org.opencms.file.CmsProject;
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the lock table index.<p>
+ * 
+ * @since 8.5.0
+ */
+public class TestCmsLockIndex extends TestCase {
+
+    /**
+     * Tests that the related system lock of a resource is indexed as well.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testRelatedLock() throws Exception {
+
+        CmsProject project = createProject();
+        CmsUUID editor = new CmsUUID();
+        CmsUUID publisher = new CmsUUID();
+        CmsLockIndex index = new CmsLockIndex();
+        CmsLock lock = new CmsLock("/a/b.txt", editor, project, CmsLockType.EXCLUSIVE);
+        index.put(lock);
+        lock.setRelatedLock(new CmsLock("/a/b.txt", publisher, project, CmsLockType.PUBLISH));
+        // the lock must be put again after changing the related lock
+        index.put(lock);
+        assertPaths(new String[] {"/a/b.txt"}, index.getLocksForUser(editor));
+        assertPaths(new String[] {"/a/b.txt"}, index.getLocksForUser(publisher));
+    }
+
+    /**
+     * Tests the lookup of locks in a sub-tree.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testSubTree() throws Exception {
+
+        CmsProject project = createProject();
+        CmsUUID user = new CmsUUID();
+        CmsLockIndex index = new CmsLockIndex();
+        String[] paths = {"/a/", "/a/b.txt", "/a/b/c.txt", "/ab/", "/b.txt"};
+        for (int i = 0; i < paths.length; i++) {
+            index.put(new CmsLock(paths[i], user, project, CmsLockType.EXCLUSIVE));
+        }
+        assertPaths(new String[] {"/a/", "/a/b.txt", "/a/b/c.txt"}, index.getLocks("/a/"));
+        assertPaths(new String[] {"/a/b/c.txt"}, index.getLocks("/a/b/"));
+        assertPaths(paths, index.getLocks("/"));
+        assertPaths(new String[0], index.getLocks("/c/"));
+        assertEquals("/a/b.txt", index.get("/a/b.txt").getResourceName());
+        assertNull(index.get("/a/b/"));
+
+        Map<String, CmsLock> locks = new HashMap<String, CmsLock>();
+        locks.put("/x.txt", new CmsLock("/x.txt", user, project, CmsLockType.EXCLUSIVE));
+        index.replace(locks);
+        assertPaths(new String[] {"/x.txt"}, index.getLocks());
+        assertPaths(new String[] {"/x.txt"}, index.getLocksForUser(user));
+    }
+
+    /**
+     * Tests the lookup of locks by user and project id.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testUserAndProjectIndex() throws Exception {
+
+        CmsProject project1 = createProject();
+        CmsProject project2 = createProject();
+        CmsUUID user1 = new CmsUUID();
+        CmsUUID user2 = new CmsUUID();
+        CmsLockIndex index = new CmsLockIndex();
+        index.put(new CmsLock("/a/b.txt", user1, project1, CmsLockType.EXCLUSIVE));
+        index.put(new CmsLock("/a/c.txt", user2, project2, CmsLockType.EXCLUSIVE));
+        assertPaths(new String[] {"/a/b.txt"}, index.getLocksForUser(user1));
+        assertPaths(new String[] {"/a/c.txt"}, index.getLocksForProject(project2.getUuid()));
+
+        // replacing a lock must update the indexes
+        index.put(new CmsLock("/a/b.txt", user2, project2, CmsLockType.EXCLUSIVE));
+        assertPaths(new String[0], index.getLocksForUser(user1));
+        assertPaths(new String[0], index.getLocksForProject(project1.getUuid()));
+        assertPaths(new String[] {"/a/b.txt", "/a/c.txt"}, index.getLocksForUser(user2));
+
+        index.remove("/a/c.txt");
+        assertPaths(new String[] {"/a/b.txt"}, index.getLocksForProject(project2.getUuid()));
+        assertEquals(1, index.size());
+    }
+
+    /**
+     * Asserts that the given locks belong to the given paths.<p>
+     * 
+     * @param expected the expected paths
+     * @param locks the locks
+     */
+    private void assertPaths(String[] expected, List<CmsLock> locks) {
+
+        List<String> paths = new ArrayList<String>();
+        for (CmsLock lock : locks) {
+            paths.add(lock.getResourceName());
+        }
+        Collections.sort(paths);
+        List<String> expectedPaths = new ArrayList<String>();
+        Collections.addAll(expectedPaths, expected);
+        Collections.sort(expectedPaths);
+        assertEquals(expectedPaths, paths);
+    }
+
+    /**
+     * Creates a project with a new id.<p>
+     * 
+     * @return the project
+     */
+    private CmsProject createProject() {
+
+        return new CmsProject(
+            new CmsUUID(),
+            "test",
+            "",
+            CmsUUID.getNullUUID(),
+            CmsUUID.getNullUUID(),
+            CmsUUID.getNullUUID(),
+            0,
+            0,
+            CmsProject.PROJECT_TYPE_NORMAL);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.monitor;
+
+import org.opencms.db.CmsVfsCacheKey;
+import org.opencms.db.CmsVfsCacheKey.KeyType;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the path index of the VFS caches.<p>
+ *
+ * @since 8.5.0
+ */
+public class TestVfsCachePathIndex extends TestCase {
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestVfsCachePathIndex(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Tests that pruning the keys no longer cached keeps the keys still cached.<p>
+     */
+    public void testPrune() {
+
+        Map<CmsVfsCacheKey, String> cache = new HashMap<CmsVfsCacheKey, String>();
+        CmsVfsCachePathIndex<String> index = new CmsVfsCachePathIndex<String>(cache, 2);
+        CmsVfsCacheKey cached = key(true, "/a/b.txt");
+        index.put(cached, "value");
+        for (int i = 0; i < 10; i++) {
+            CmsVfsCacheKey key = key(true, "/a/" + i + ".txt");
+            index.put(key, "value");
+            // the cache drops its entries on its own
+            cache.remove(key);
+        }
+        assertTrue(cache.containsKey(cached));
+        index.removeSubTree(true, "/a/");
+        assertFalse(cache.containsKey(cached));
+    }
+
+    /**
+     * Tests removing the entries of a sub-tree.<p>
+     */
+    public void testRemoveSubTree() {
+
+        Map<CmsVfsCacheKey, String> cache = new HashMap<CmsVfsCacheKey, String>();
+        CmsVfsCachePathIndex<String> index = new CmsVfsCachePathIndex<String>(cache, 100);
+        CmsVfsCacheKey folder = key(false, "/a/");
+        CmsVfsCacheKey file = key(false, "/a/b/c.txt");
+        CmsVfsCacheKey onlineFile = key(true, "/a/b/c.txt");
+        CmsVfsCacheKey sibling = key(false, "/ab/c.txt");
+        CmsVfsCacheKey noPath = key(true, null);
+        for (CmsVfsCacheKey key : Arrays.asList(folder, file, onlineFile, sibling, noPath)) {
+            index.put(key, key.toString());
+        }
+
+        index.removeSubTree(false, "/a/b/c.txt");
+        assertFalse(cache.containsKey(file));
+        assertFalse(cache.containsKey(noPath));
+        assertTrue(cache.containsKey(folder));
+        assertTrue(cache.containsKey(onlineFile));
+
+        index.removeSubTree(false, "/a/");
+        assertFalse(cache.containsKey(folder));
+        // the sub-tree of "/a/" does not contain "/ab/"
+        assertTrue(cache.containsKey(sibling));
+        assertTrue(cache.containsKey(onlineFile));
+
+        index.removeSubTrees(true, null);
+        assertFalse(cache.containsKey(onlineFile));
+        assertTrue(cache.containsKey(sibling));
+    }
+
+    /**
+     * Returns a permission cache key for the given root path.<p>
+     *
+     * @param online the online flag
+     * @param rootPath the root path
+     *
+     * @return the cache key
+     */
+    private CmsVfsCacheKey key(boolean online, String rootPath) {
+
+        return new CmsVfsCacheKey(KeyType.PERMISSION, online, rootPath, "key");
+    }
+}
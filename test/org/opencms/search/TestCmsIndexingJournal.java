@@ -0,0 +1,201 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.search;
+
+import org.opencms.db.CmsPublishedResource;
+import org.opencms.file.CmsResource;
+import org.opencms.util.CmsUUID;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the persistent journal of the search indexes, this does not require an OpenCms context.<p>
+ */
+public class TestCmsIndexingJournal extends TestCase {
+
+    /** The journal to test. */
+    private CmsIndexingJournal m_journal;
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsIndexingJournal(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Tests that the entries of a running update are kept until the update is committed.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testCheckpointAndCommit() throws Exception {
+
+        CmsPublishedResource first = createResource("/sites/default/first.html");
+        CmsPublishedResource second = createResource("/sites/default/second.html");
+
+        m_journal.append(singleton(first));
+        m_journal.checkpoint();
+        m_journal.append(singleton(second));
+        // the update has not finished, so both entries must be available after a restart
+        assertEquals(2, m_journal.readEntries().size());
+
+        // a second update starts before the first one has been committed
+        m_journal.checkpoint();
+        assertFalse(m_journal.getFile().exists());
+        assertEquals(2, m_journal.readEntries().size());
+
+        m_journal.commit();
+        assertEquals(0, m_journal.readEntries().size());
+    }
+
+    /**
+     * Tests writing and reading the journal entries.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testReadEntries() throws Exception {
+
+        CmsPublishedResource folder = new CmsPublishedResource(
+            new CmsUUID(),
+            new CmsUUID(),
+            -1,
+            "/sites/default/folder/",
+            0,
+            true,
+            CmsResource.STATE_NEW,
+            1);
+        CmsPublishedResource file = new CmsPublishedResource(
+            new CmsUUID(),
+            new CmsUUID(),
+            -1,
+            "/sites/default/folder/with\ttab.html",
+            1,
+            false,
+            CmsResource.STATE_DELETED,
+            2);
+        List<CmsPublishedResource> resources = new ArrayList<CmsPublishedResource>();
+        resources.add(folder);
+        resources.add(file);
+        m_journal.append(resources);
+
+        // simulate an incomplete entry written during a crash
+        FileOutputStream out = new FileOutputStream(m_journal.getFile(), true);
+        out.write("0a1b2c3d".getBytes("UTF-8"));
+        out.close();
+
+        List<CmsPublishedResource> entries = m_journal.readEntries();
+        assertEquals(2, entries.size());
+        assertResource(folder, entries.get(0));
+        assertResource(file, entries.get(1));
+
+        m_journal.clear();
+        assertEquals(0, m_journal.readEntries().size());
+    }
+
+    /**
+     * @see junit.framework.TestCase#setUp()
+     */
+    @Override
+    protected void setUp() throws Exception {
+
+        File dir = File.createTempFile("journal", "");
+        dir.delete();
+        dir.mkdirs();
+        m_journal = new CmsIndexingJournal(new File(dir, "index").getAbsolutePath());
+    }
+
+    /**
+     * @see junit.framework.TestCase#tearDown()
+     */
+    @Override
+    protected void tearDown() throws Exception {
+
+        m_journal.clear();
+        m_journal.getFile().getParentFile().delete();
+    }
+
+    /**
+     * Asserts that the given resources are equal.<p>
+     * 
+     * @param expected the expected resource
+     * @param actual the resource read from the journal
+     */
+    private void assertResource(CmsPublishedResource expected, CmsPublishedResource actual) {
+
+        assertEquals(expected.getStructureId(), actual.getStructureId());
+        assertEquals(expected.getResourceId(), actual.getResourceId());
+        assertEquals(expected.getRootPath(), actual.getRootPath());
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.isFolder(), actual.isFolder());
+        assertEquals(expected.getState(), actual.getState());
+        assertEquals(expected.getSiblingCount(), actual.getSiblingCount());
+    }
+
+    /**
+     * Creates a changed file resource with the given root path.<p>
+     * 
+     * @param rootPath the root path
+     * 
+     * @return the resource
+     */
+    private CmsPublishedResource createResource(String rootPath) {
+
+        return new CmsPublishedResource(
+            new CmsUUID(),
+            new CmsUUID(),
+            -1,
+            rootPath,
+            1,
+            false,
+            CmsResource.STATE_CHANGED,
+            1);
+    }
+
+    /**
+     * Returns a list that contains only the given resource.<p>
+     * 
+     * @param resource the resource
+     * 
+     * @return the list
+     */
+    private List<CmsPublishedResource> singleton(CmsPublishedResource resource) {
+
+        List<CmsPublishedResource> result = new ArrayList<CmsPublishedResource>();
+        result.add(resource);
+        return result;
+    }
+}
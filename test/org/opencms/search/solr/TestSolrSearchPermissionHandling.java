@@ -32,10 +32,18 @@
 package org.opencms.search.solr;
 
 import org.opencms.file.CmsObject;
+import org.opencms.file.types.CmsResourceTypeFolder;
+import org.opencms.file.types.CmsResourceTypePlain;
 import org.opencms.main.CmsContextInfo;
 import org.opencms.main.OpenCms;
+import org.opencms.report.CmsShellReport;
+import org.opencms.search.fields.I_CmsSearchField;
+import org.opencms.security.I_CmsPrincipal;
 import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestProperties;
+import org.opencms.util.CmsRequestUtil;
+
+import java.util.List;
 
 import junit.extensions.TestSetup;
 import junit.framework.Test;
@@ -70,6 +78,8 @@ public class TestSolrSearchPermissionHandling extends OpenCmsTestCase {
         TestSuite suite = new TestSuite();
         suite.setName(TestSolrSearchPermissionHandling.class.getName());
         suite.addTest(new TestSolrSearchPermissionHandling("testPermissionHandling"));
+        suite.addTest(new TestSolrSearchPermissionHandling("testPublishedFolderPermissions"));
+        suite.addTest(new TestSolrSearchPermissionHandling("testTimeWarp"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -103,6 +113,8 @@ public class TestSolrSearchPermissionHandling extends OpenCmsTestCase {
         CmsSolrResultList results = index.search(getCmsObject(), squery);
         AllTests.printResults(getCmsObject(), results, true);
         assertEquals(53, results.getNumFound());
+        // the administrator manages the root folder, so no permission filter is required
+        assertNull(CmsSolrPermissionFilter.createFilterQuery(getCmsObject()));
 
         CmsObject cms = OpenCms.initCmsObject(getCmsObject(), new CmsContextInfo("test1"));
         results = index.search(cms, squery);
@@ -114,4 +126,80 @@ public class TestSolrSearchPermissionHandling extends OpenCmsTestCase {
         AllTests.printResults(cms, results, true);
         assertEquals(49, results.getNumFound());
     }
+
+    /**
+     * Tests that the indexed read permissions of the resources below a folder are updated 
+     * when changed access control entries of the folder are published.<p>
+     * 
+     * @throws Throwable if the test fails
+     */
+    public void testPublishedFolderPermissions() throws Throwable {
+
+        echo("Testing the indexed permissions after publishing changed folder permissions");
+        CmsSolrIndex index = OpenCms.getSearchManager().getIndexSolr(AllTests.SOLR_ONLINE);
+        CmsObject cms = getCmsObject();
+
+        String folderName = "/search_permissions/";
+        String resName = folderName + "search_permissions.txt";
+        cms.createResource(folderName, CmsResourceTypeFolder.getStaticTypeId());
+        cms.createResource(resName, CmsResourceTypePlain.getStaticTypeId(), "OpenCms aclchange".getBytes(), null);
+        OpenCms.getPublishManager().publishProject(cms, new CmsShellReport(cms.getRequestContext().getLocale()));
+        OpenCms.getPublishManager().waitWhileRunning();
+
+        String query = "?rows=50&q=+text:aclchange";
+        CmsObject userCms = OpenCms.initCmsObject(cms, new CmsContextInfo("test1"));
+        CmsSolrResultList results = index.search(userCms, query);
+        assertEquals(1, results.getNumFound());
+
+        // only the folder is published, the document below has to be updated nevertheless
+        cms.lockResource(folderName);
+        cms.chacc(folderName, I_CmsPrincipal.PRINCIPAL_USER, "test1", "-r");
+        cms.unlockResource(folderName);
+        OpenCms.getPublishManager().publishProject(cms, new CmsShellReport(cms.getRequestContext().getLocale()));
+        OpenCms.getPublishManager().waitWhileRunning();
+
+        results = index.search(userCms, query);
+        assertEquals(0, results.getNumFound());
+        results = index.search(cms, query);
+        assertEquals(1, results.getNumFound());
+        String userId = cms.readUser("test1").getId().toString();
+        List<String> denied = results.get(0).getMultivaluedField(I_CmsSearchField.FIELD_READ_DENIED);
+        assertNotNull(denied);
+        assertTrue(denied.contains(userId));
+    }
+
+    /**
+     * Tests that the release and expiration dates are checked against the request time of the 
+     * OpenCms context, which may be set to a time warp, and not against the time of the Solr server.<p>
+     * 
+     * @throws Throwable if the test fails
+     */
+    public void testTimeWarp() throws Throwable {
+
+        echo("Testing the release date filter with a time warp");
+        CmsSolrIndex index = OpenCms.getSearchManager().getIndexSolr(AllTests.SOLR_ONLINE);
+        CmsObject cms = getCmsObject();
+
+        String resName = "/search_timewarp.txt";
+        long released = System.currentTimeMillis() + (24L * 60L * 60L * 1000L);
+        cms.createResource(resName, CmsResourceTypePlain.getStaticTypeId(), "OpenCms timewarp".getBytes(), null);
+        cms.setDateReleased(resName, released, false);
+        OpenCms.getPublishManager().publishProject(cms, new CmsShellReport(cms.getRequestContext().getLocale()));
+        OpenCms.getPublishManager().waitWhileRunning();
+
+        String query = "?rows=50&q=+text:timewarp";
+        CmsSolrResultList results = index.search(cms, query);
+        assertEquals(0, results.getNumFound());
+
+        // the resource is released at the time warp
+        CmsObject warpCms = OpenCms.initCmsObject(cms);
+        warpCms.getRequestContext().setRequestTime(released + (60L * 60L * 1000L));
+        CmsSolrQuery squery = new CmsSolrQuery(null, CmsRequestUtil.createParameterMap(query));
+        String queryString = squery.toString();
+        results = index.search(warpCms, squery);
+        assertEquals(1, results.getNumFound());
+        assertEquals(cms.getRequestContext().addSiteRoot(resName), results.get(0).getRootPath());
+        // the query of the caller is not changed by the search
+        assertEquals(queryString, squery.toString());
+    }
 }
@@ -28,6 +28,7 @@
 package org.opencms.staticexport;
 
 import org.opencms.file.CmsObject;
+import org.opencms.file.types.CmsResourceTypeFolder;
 import org.opencms.file.types.CmsResourceTypePlain;
 import org.opencms.main.OpenCms;
 import org.opencms.test.OpenCmsTestCase;
@@ -69,6 +70,7 @@ public class TestExportFile extends OpenCmsTestCase {
         suite.setName(TestExportFile.class.getName());
 
         suite.addTest(new TestExportFile("testStaticexportFile"));
+        suite.addTest(new TestExportFile("testStaticexportFileParallel"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -130,4 +132,59 @@ public class TestExportFile extends OpenCmsTestCase {
 
         this.assertContent(cms, resourcename, exportContent);
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests the file export with several export threads.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testStaticexportFileParallel() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing file export with several export threads");
+
+        OpenCms.getStaticExportManager().setHandler("org.opencms.staticexport.CmsAfterPublishStaticExportHandler");
+        OpenCms.getStaticExportManager().setExportThreads("4");
+        try {
+            cms.createResource("/parallel/", CmsResourceTypeFolder.getStaticTypeId());
+            int count = 20;
+            for (int i = 0; i < count; i++) {
+                String content = "this is the test content of file " + i;
+                cms.createResource(
+                    "/parallel/file" + i + ".txt",
+                    CmsResourceTypePlain.getStaticTypeId(),
+                    content.getBytes(),
+                    null);
+            }
+            cms.unlockResource("/parallel/");
+
+            // now publish (and export) the resources
+            OpenCms.getPublishManager().publishProject(cms);
+            OpenCms.getPublishManager().waitWhileRunning();
+
+            File folder = null;
+            for (int i = 0; i < count; i++) {
+                String resourcename = "/parallel/file" + i + ".txt";
+                String rootPath = cms.getRequestContext().addSiteRoot(resourcename);
+                String exportPath = CmsFileUtil.normalizePath(OpenCms.getStaticExportManager().getExportPath(
+                    rootPath)
+                    + rootPath);
+                File f = new File(exportPath);
+                assertTrue(f.exists());
+                folder = f.getParentFile();
+
+                // check the exported content
+                this.assertContent(cms, resourcename, CmsFileUtil.readFile(f));
+            }
+
+            // no temporary files must be left in the export folder
+            String[] names = folder.list();
+            assertEquals(count, names.length);
+            for (int i = 0; i < names.length; i++) {
+                assertFalse(names[i].endsWith(CmsStaticExportManager.EXPORT_TEMP_FILE_SUFFIX));
+            }
+        } finally {
+            OpenCms.getStaticExportManager().setExportThreads("1");
+        }
+    }
+}
@@ -69,6 +69,7 @@ import org.opencms.util.CmsUUID;
 import java.io.File;
 import java.io.FileFilter;
 import java.io.FileInputStream;
+import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Serializable;
 import java.lang.reflect.Constructor;
@@ -216,6 +217,9 @@ public class OpenCmsTestCase extends TestCase {
     /** The cached list of OpenCms class names. */
     private static List<String> classNameList;
 
+    /** Additional opencms.properties parameters used for the next setups. */
+    private static Map<String, String> m_configurationOverrides;
+
     /** The file date of the configuration files. */
     private static long[] m_dateConfigFiles;
 
@@ -802,6 +806,19 @@ public class OpenCmsTestCase extends TestCase {
         OpenCmsTestLogAppender.setBreakOnError(true);
     }
 
+    /**
+     * Sets additional opencms.properties parameters which are used for all following setups 
+     * with {@link #setupOpenCms(String, String, String, String, boolean)}.<p>
+     * 
+     * The parameters must not be contained in the database specific opencms.properties.<p>
+     * 
+     * @param overrides the additional parameters, or <code>null</code> to use the plain configuration again
+     */
+    public static void setConfigurationOverrides(Map<String, String> overrides) {
+
+        m_configurationOverrides = overrides;
+    }
+
     /**
      * Sets up a complete OpenCms instance with configuration from the config-ori folder, 
      * creating the usual projects, and importing a default database.<p>
@@ -922,6 +939,9 @@ public class OpenCmsTestCase extends TestCase {
             copyConfiguration(specialConfigFolder);
         }
 
+        // append the additional parameters to the copied opencms.properties
+        appendConfigurationOverrides();
+
         // create a new database first
         setupDatabase();
 
@@ -1291,6 +1311,39 @@ public class OpenCmsTestCase extends TestCase {
         }
     }
 
+    /**
+     * Appends the additional parameters set with {@link #setConfigurationOverrides(Map)} 
+     * to the opencms.properties in the "config" folder.<p>
+     */
+    private static void appendConfigurationOverrides() {
+
+        if ((m_configurationOverrides == null) || m_configurationOverrides.isEmpty()) {
+            return;
+        }
+        File propertyFile = new File(
+            getTestDataPath("WEB-INF" + File.separatorChar + CmsSystemInfo.FOLDER_CONFIG_DEFAULT),
+            "opencms.properties");
+        StringBuffer parameters = new StringBuffer("\n");
+        for (Map.Entry<String, String> entry : m_configurationOverrides.entrySet()) {
+            parameters.append(entry.getKey()).append('=').append(entry.getValue()).append('\n');
+        }
+        FileWriter writer = null;
+        try {
+            writer = new FileWriter(propertyFile, true);
+            writer.write(parameters.toString());
+        } catch (IOException e) {
+            fail(e.toString());
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
     /**
      * Compares two lists of CmsProperty objects and creates a list of all properties which are
      * not included in a seperate exclude list.